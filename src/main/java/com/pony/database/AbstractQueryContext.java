@@ -34,6 +34,12 @@ public abstract class AbstractQueryContext implements QueryContext {
      */
     private HashMap<Object,Object> marked_tables;
 
+    /**
+     * The values of the parameter substitutions of the query being evaluated,
+     * or null if the query has none.
+     */
+    private Object[] parameters;
+
 
     /**
      * Marks a table in a query plan.
@@ -85,4 +91,23 @@ public abstract class AbstractQueryContext implements QueryContext {
         }
     }
 
+    /**
+     * Sets the values of the parameter substitutions of the query being
+     * evaluated.
+     */
+    public void setParameters(Object[] parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the value of the parameter substitution with the given id.
+     */
+    public TObject getParameter(int id) {
+        if (parameters == null || id >= parameters.length) {
+            throw new RuntimeException(
+                    "No value given for parameter " + (id + 1));
+        }
+        return TObject.objectVal(parameters[id]);
+    }
+
 }
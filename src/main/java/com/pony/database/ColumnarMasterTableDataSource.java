@@ -0,0 +1,1549 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.database;
+
+import com.pony.store.*;
+import com.pony.debug.*;
+import com.pony.util.BoundedCache;
+import com.pony.util.ByteArrayUtil;
+import com.pony.util.IntegerListInterface;
+import com.pony.util.UserTerminal;
+import com.pony.database.global.ObjectTransfer;
+import com.pony.database.global.Ref;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.io.*;
+
+/**
+ * A MasterTableDataSource that stores the values of each column together
+ * so reading one column of a table doesn't read the others.  Tables are
+ * created with this storage by 'CREATE TABLE ... WITH (storage =
+ * 'columnar')'.
+ * <p>
+ * The rows of the table are split into segments of a fixed number of rows.
+ * New rows are written as records in the compact V3 format to the 'tail' of
+ * the table, and when the tail holds a full segment of rows the segment is
+ * sealed: the values of each column in the segment are encoded together
+ * (see CompactRecordFormat), compressed and written to an area of their
+ * own, and the records are freed.  Sealed segments are never changed.  A
+ * row deleted from a sealed segment is only marked as deleted, and its
+ * space is reclaimed when the table is compacted.  Rows are always added at
+ * the end of the table so row indexes are not reused.
+ * <p>
+ * The area of each column segment records the smallest and largest value
+ * of the rows in the segment.  The SegmentSearch scheme of an unindexed
+ * column uses this to skip the segments that can't have a value it is
+ * looking for.
+ * <p>
+ * The structure of the store comprises of a header block that contains the
+ * following information;
+ * <p><pre>
+ *       HEADER BLOCK
+ *   +-------------------------------+
+ *   | version                       |
+ *   | table id                      |
+ *   | table sequence id             |
+ *   | pointer to DataTableDef       |
+ *   | pointer to DataIndexSetDef    |
+ *   | pointer to index block        |
+ *   | LIST BLOCK HEADER pointer     |
+ *   | SEGMENT LIST HEADER pointer   |
+ *   | row count                     |
+ *   | sealed row count              |
+ *   | rows in a segment             |
+ *   +-------------------------------+
+ * </pre>
+ * <p>
+ * The list block has the status of each row and a pointer to its record
+ * (or -1 if the row is in a sealed segment).  The segment list has the
+ * pointer to the area of each column of each sealed segment.
+ *
+ * @author Tobias Downer
+ */
+
+public final class ColumnarMasterTableDataSource extends MasterTableDataSource {
+
+    /**
+     * The version of the header.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The flags of a column segment area.
+     */
+    private static final int SEGMENT_COMPRESSED = 0x01;
+    private static final int SEGMENT_HAS_BOUNDS = 0x02;
+
+    /**
+     * The smallest and largest values of a segment are not kept if their
+     * serialization is larger than this.
+     */
+    private static final int MAX_BOUNDS_SIZE = 1024;
+
+    /**
+     * The bounds of a segment that has no bounds.
+     */
+    private static final TObject[] NO_BOUNDS = new TObject[0];
+
+    /**
+     * A buffer used to find the size of an area.
+     */
+    private static final byte[] EMPTY_BUFFER = new byte[0];
+
+    /**
+     * The file name of this store in the conglomerate path.
+     */
+    private String file_name;
+
+    /**
+     * The backing store object.
+     */
+    private Store store;
+
+    /**
+     * An IndexSetStore object that manages the indexes for this table.
+     */
+    private IndexSetStore index_store;
+
+    /**
+     * The current sequence id.
+     */
+    private long sequence_id;
+
+    /**
+     * Points to the index header area.
+     */
+    private long index_header_p;
+
+    /**
+     * The header area itself.
+     */
+    private MutableArea header_area;
+
+    /**
+     * The structure that manages the status and record pointer of each row.
+     */
+    private FixedRecordList list_structure;
+
+    /**
+     * The structure that manages the pointers to the column areas of each
+     * sealed segment.
+     */
+    private FixedRecordList segment_list;
+
+    /**
+     * The number of rows in the table, including deleted rows.
+     */
+    private int row_count;
+
+    /**
+     * The number of rows in sealed segments.  This only grows so it may be
+     * read without a lock.
+     */
+    private volatile int sealed_row_count;
+
+    /**
+     * The number of rows in a segment.
+     */
+    private int segment_rows;
+
+    /**
+     * The format of the records in the tail of the table.
+     */
+    private CompactRecordFormat record_format;
+
+    /**
+     * The format of each column of a segment.
+     */
+    private CompactRecordFormat[] segment_formats;
+
+    /**
+     * True for the columns that may reference large objects in the
+     * BlobStore.
+     */
+    private boolean[] large_object_columns;
+
+    /**
+     * The cache of decoded column segments shared by the columnar tables of
+     * the system, or null if segments are not cached.
+     */
+    private final BoundedCache<SegmentKey, DecodedSegment> segment_cache;
+
+    /**
+     * The column segment that was last decoded for each column.  This is
+     * only a hint so it isn't synchronized.
+     */
+    private DecodedSegment[] last_decoded;
+
+    /**
+     * The smallest and largest value of each column segment that has been
+     * looked up (column << 32 | segment -> TObject[2] or NO_BOUNDS).
+     */
+    private final HashMap<Long, TObject[]> segment_bounds;
+
+    /**
+     * Set to true when the VM has shutdown and writes should no longer be
+     * possible on the object.
+     */
+    private boolean has_shutdown;
+
+
+    /**
+     * The Constructor.
+     */
+    public ColumnarMasterTableDataSource(TransactionSystem system,
+                                         StoreSystem store_system,
+                                         OpenTransactionList open_transactions,
+                                         BlobStoreInterface blob_store_interface) {
+        super(system, store_system, open_transactions, blob_store_interface);
+        has_shutdown = false;
+        segment_bounds = new HashMap<>();
+
+        // Cells are read from the decoded segments and not the cell cache
+        DATA_CELL_CACHING = false;
+
+        segment_cache = system.getColumnarSegmentCache();
+    }
+
+    /**
+     * Convenience - wraps the given input stream around a buffered data input
+     * stream.
+     */
+    private static DataInputStream getDIn(InputStream in) {
+        return new DataInputStream(new BufferedInputStream(in, 512));
+    }
+
+    /**
+     * Returns the number of rows in a segment.
+     */
+    int getSegmentRows() {
+        return segment_rows;
+    }
+
+    /**
+     * Sets up the formats of the records and the column segments.
+     */
+    private void setupFormats() {
+        record_format = new CompactRecordFormat(table_def, blob_store_interface);
+        int column_count = table_def.columnCount();
+        segment_formats = new CompactRecordFormat[column_count];
+        large_object_columns = new boolean[column_count];
+        for (int i = 0; i < column_count; ++i) {
+            DataTableColumnDef column_def = table_def.columnAt(i);
+            segment_formats[i] = new CompactRecordFormat(column_def,
+                    segment_rows, blob_store_interface);
+            TType ttype = column_def.getTType();
+            large_object_columns[i] = ttype instanceof TBinaryType ||
+                    ttype instanceof TStringType;
+        }
+        last_decoded = new DecodedSegment[column_count];
+    }
+
+    /**
+     * Sets up an initial store (should only be called from the 'create' method).
+     */
+    private void setupInitialStore() throws IOException {
+        // Serialize the DataTableDef object
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        DataOutputStream dout = new DataOutputStream(bout);
+        dout.writeInt(1);
+        getDataTableDef().write(dout);
+        // Convert to a byte array
+        byte[] data_table_def_buf = bout.toByteArray();
+
+        // Serialize the DataIndexSetDef object
+        bout = new ByteArrayOutputStream();
+        dout = new DataOutputStream(bout);
+        dout.writeInt(1);
+        getDataIndexSetDef().write(dout);
+        // Convert to byte array
+        byte[] index_set_def_buf = bout.toByteArray();
+
+        try {
+            store.lockForWrite();
+
+            // Allocate an 80 byte header
+            AreaWriter header_writer = store.createArea(80);
+            long header_p = header_writer.getID();
+            // Allocate space to store the DataTableDef serialization
+            AreaWriter data_table_def_writer =
+                    store.createArea(data_table_def_buf.length);
+            long data_table_def_p = data_table_def_writer.getID();
+            // Allocate space to store the DataIndexSetDef serialization
+            AreaWriter data_index_set_writer =
+                    store.createArea(index_set_def_buf.length);
+            long data_index_set_def_p = data_index_set_writer.getID();
+
+            // Allocate space for the list headers
+            long list_header_p = list_structure.create();
+            list_structure.setReservedLong(-1);
+            long segment_list_header_p = segment_list.create();
+            segment_list.setReservedLong(-1);
+
+            // Create the index store
+            index_store = new IndexSetStore(store, getSystem());
+            index_header_p = index_store.create();
+
+            // Write the main header
+            header_writer.putInt(VERSION);            // Version
+            header_writer.putInt(table_id);           // table_id
+            header_writer.putLong(sequence_id);       // initial sequence id
+            header_writer.putLong(data_table_def_p);  // pointer to DataTableDef
+            header_writer.putLong(data_index_set_def_p); // pointer to DataIndexSetDef
+            header_writer.putLong(index_header_p);    // index header pointer
+            header_writer.putLong(list_header_p);     // list header pointer
+            header_writer.putLong(segment_list_header_p); // segment list header
+            header_writer.putInt(0);                  // row count
+            header_writer.putInt(0);                  // sealed row count
+            header_writer.putInt(segment_rows);       // rows in a segment
+            header_writer.finish();
+
+            // Write the data_table_def
+            data_table_def_writer.put(data_table_def_buf);
+            data_table_def_writer.finish();
+
+            // Write the data_index_set_def
+            data_index_set_writer.put(index_set_def_buf);
+            data_index_set_writer.finish();
+
+            // Set the pointer to the header in the reserved area.
+            MutableArea fixed_area = store.getMutableArea(-1);
+            fixed_area.putLong(header_p);
+            fixed_area.checkOut();
+
+            // Set the header area
+            header_area = store.getMutableArea(header_p);
+
+        } finally {
+            store.unlockForWrite();
+        }
+
+    }
+
+    /**
+     * Read the store headers and initialize any internal object state.  This is
+     * called by the 'open' method.
+     */
+    private void readStoreHeaders() throws IOException {
+        // Read the fixed header
+        Area fixed_area = store.getArea(-1);
+        // Set the header area
+        header_area = store.getMutableArea(fixed_area.getLong());
+
+        // Open a stream to the header
+        int version = header_area.getInt();               // version
+        if (version != VERSION) {
+            throw new IOException("Incorrect version identifier.");
+        }
+        this.table_id = header_area.getInt();             // table_id
+        this.sequence_id = header_area.getLong();         // sequence id
+        long def_p = header_area.getLong();               // pointer to DataTableDef
+        long index_def_p = header_area.getLong();         // pointer to DataIndexSetDef
+        this.index_header_p = header_area.getLong();      // pointer to index header
+        long list_header_p = header_area.getLong();       // pointer to list header
+        long segment_list_header_p = header_area.getLong(); // segment list header
+        this.row_count = header_area.getInt();            // row count
+        this.sealed_row_count = header_area.getInt();     // sealed row count
+        this.segment_rows = header_area.getInt();         // rows in a segment
+
+        // Read the data table def
+        DataInputStream din = getDIn(store.getAreaInputStream(def_p));
+        version = din.readInt();
+        if (version != 1) {
+            throw new IOException("Incorrect DataTableDef version identifier.");
+        }
+        table_def = DataTableDef.read(din);
+        din.close();
+
+        // Read the data index set def
+        din = getDIn(store.getAreaInputStream(index_def_p));
+        version = din.readInt();
+        if (version != 1) {
+            throw new IOException("Incorrect DataIndexSetDef version identifier.");
+        }
+        index_def = DataIndexSetDef.read(din);
+        din.close();
+
+        setupFormats();
+
+        // Read the list headers
+        list_structure.init(list_header_p);
+        segment_list = new FixedRecordList(store, 8 * table_def.columnCount());
+        segment_list.init(segment_list_header_p);
+
+        // Init the index store
+        index_store = new IndexSetStore(store, getSystem());
+        try {
+            index_store.init(index_header_p);
+        } catch (IOException e) {
+            // If this failed try writing out a new empty index set.
+            index_store = new IndexSetStore(store, getSystem());
+            index_header_p = index_store.create();
+            index_store.addIndexLists(table_def.columnCount() + 1, (byte) 1, 1024);
+            header_area.position(32);
+            header_area.putLong(index_header_p);
+            header_area.position(0);
+            header_area.checkOut();
+        }
+
+    }
+
+    /**
+     * Create this master table in the file system at the given path.  This will
+     * initialise the various file objects and result in a new empty master table
+     * to store data in.
+     */
+    void create(int table_id, DataTableDef table_def) throws IOException {
+
+        // Set the data table def object
+        setupDataTableDef(table_def);
+
+        // Initially set the table sequence_id to 1
+        this.sequence_id = 1;
+
+        this.segment_rows = Math.max(8,
+                getSystem().getConfigInt("columnar_segment_rows", 4096));
+        setupFormats();
+
+        // Generate the name of the store file name.
+        this.file_name = makeTableFileName(getSystem(), table_id, getTableName());
+
+        // Create and open the store.
+        store = storeSystem().createStore(file_name);
+
+        try {
+            store.lockForWrite();
+
+            // Setup the list structures
+            list_structure = new FixedRecordList(store, 12);
+            segment_list = new FixedRecordList(store, 8 * table_def.columnCount());
+        } finally {
+            store.unlockForWrite();
+        }
+
+        // Set up internal state of this object
+        this.table_id = table_id;
+
+        // Initialize the store to an empty state,
+        setupInitialStore();
+        index_store.addIndexLists(table_def.columnCount() + 1, (byte) 1, 1024);
+
+        // Load internal state
+        loadInternal();
+
+    }
+
+    /**
+     * Returns true if the master table data source with the given source
+     * identity exists.
+     */
+    boolean exists(String identity) throws IOException {
+        return storeSystem().storeExists(identity);
+    }
+
+    /**
+     * Opens an existing master table from the file system at the path of the
+     * conglomerate this belongs to.  This will set up the internal state of
+     * this object with the data read in.
+     */
+    public void open(String file_name) throws IOException {
+
+        this.file_name = file_name;
+
+        // Open the store.
+        store = storeSystem().openStore(file_name);
+        boolean need_check = !store.lastCloseClean();
+
+        // Setup the list structure
+        list_structure = new FixedRecordList(store, 12);
+
+        // Read and setup the pointers
+        readStoreHeaders();
+
+        // Set the column count
+        column_count = table_def.columnCount();
+
+        // Open table indices
+        table_indices = new MultiVersionTableIndices(getSystem(),
+                table_def.getTableName(), table_def.columnCount());
+        // The column rid list cache
+        column_rid_list = new RIDList[table_def.columnCount()];
+
+        // Load internal state
+        loadInternal();
+
+        if (need_check) {
+            // Do an opening scan of the table.  Any records that are uncommited
+            // must be marked as deleted.
+            doOpeningScan();
+
+            // Scan for any leaks in the file,
+            Debug().write(Lvl.INFORMATION, this,
+                    "Scanning File: " + file_name + " for leaks.");
+            scanForLeaks();
+        }
+
+    }
+
+    /**
+     * Closes this master table in the file system.  This frees up all the
+     * resources associated with this master table.
+     * <p>
+     * This method is typically called when the database is shut down.
+     */
+    synchronized void close(boolean pending_drop) throws IOException {
+        // NOTE: This method MUST be synchronized over the table to prevent
+        //   establishing a root lock on this table.  If a root lock is established
+        //   then the collection event could fail.
+
+        synchronized (list_structure) {
+
+            // If we are root locked, we must become un root locked.
+            clearAllRootLocks();
+
+            try {
+                try {
+                    store.lockForWrite();
+
+                    // Force a garbage collection event.
+                    if (!isReadOnly()) {
+                        garbage_collector.performCollectionEvent(true);
+                    }
+
+                    // If we are closing pending a drop, we need to remove all blob
+                    // references in the table.
+                    // NOTE: This must only happen after the above collection event.
+                    if (pending_drop) {
+                        // Scan and remove all blob references for this dropped table.
+                        dropAllBlobReferences();
+                    }
+                } finally {
+                    store.unlockForWrite();
+                }
+            } catch (Throwable e) {
+                Debug().write(Lvl.ERROR, this,
+                        "Exception during table (" + toString() + ") close: " +
+                                e.getMessage());
+                Debug().writeException(e);
+            }
+
+            // Synchronize the store
+            index_store.close();
+
+            // Close the store in the store system.
+            storeSystem().closeStore(store);
+
+            // Release the decoded segments of this table from the shared cache
+            if (segment_cache != null) {
+                int column_count = table_def.columnCount();
+                int segment_count = sealed_row_count / segment_rows;
+                for (int i = 0; i < column_count; ++i) {
+                    for (int n = 0; n < segment_count; ++n) {
+                        segment_cache.remove(new SegmentKey(table_id, i, n));
+                    }
+                }
+            }
+            synchronized (segment_bounds) {
+                segment_bounds.clear();
+            }
+            table_def = null;
+            table_indices = null;
+            column_rid_list = null;
+            is_closed = true;
+        }
+    }
+
+    /**
+     * Creates a new columnar master table data source that is a copy of the
+     * given MasterTableDataSource object.  The copied rows keep their row
+     * index so the copied index set refers to the same rows.
+     *
+     * @param table_id the table id to given the new table.
+     * @param src_master_table the table to copy.
+     * @param index_set the view of the table to be copied.
+     */
+    void copy(int table_id, MasterTableDataSource src_master_table,
+              IndexSet index_set) throws IOException {
+
+        // Basically we need to copy all the data and then set the new index view.
+        create(table_id, src_master_table.getDataTableDef());
+
+        // The record list.
+        IntegerListInterface master_index = index_set.getIndex(0);
+
+        // For each row in the master table
+        int sz = src_master_table.rawRowCount();
+        int src_column_count = src_master_table.getDataTableDef().columnCount();
+        for (int i = 0; i < sz; ++i) {
+            synchronized (list_structure) {
+                // Is this row in the set we are copying from?
+                if (master_index.contains(i)) {
+                    // Yes so copy the record into this table.
+                    RowData row_data = new RowData(getSystem(), src_column_count);
+                    for (int n = 0; n < src_column_count; ++n) {
+                        row_data.setColumnDataFromTObject(n,
+                                src_master_table.getCellContents(n, i));
+                    }
+                    // Set the record type for this record (committed added).
+                    addToRecordList(0x010, writeRecordToStore(row_data));
+                } else {
+                    // Otherwise add a deleted row to keep the row indexes.
+                    addToRecordList(0x020000, -1);
+                }
+                sealFullSegments();
+            }
+        }
+
+        // Copy the index set
+        if (src_master_table instanceof V1MasterTableDataSource) {
+            // The index of a V1 table is rebuilt from scratch.
+            buildIndexes();
+        } else {
+            index_store.copyAllFrom(index_set);
+        }
+
+        // Finally set the unique id
+        long un_id = src_master_table.nextUniqueID();
+        setUniqueID(un_id);
+
+    }
+
+    // ---------- Low level operations ----------
+
+    /**
+     * Writes a record to the store and returns a pointer to the area that
+     * represents the new record.  Any references to Blob objects in the
+     * RowData are established here.
+     */
+    private long writeRecordToStore(RowData data) throws IOException {
+        try {
+            store.lockForWrite();
+
+            byte[] record = record_format.encode(data);
+            AreaWriter writer = store.createArea(record.length);
+            writer.put(record);
+            writer.finish();
+            return writer.getID();
+
+        } finally {
+            store.unlockForWrite();
+        }
+    }
+
+    /**
+     * Reads the whole of the area pointed to by 'area_p'.
+     */
+    private byte[] readWholeArea(long area_p) throws IOException {
+        int size = store.readArea(area_p, 0, EMPTY_BUFFER, 0, 0);
+        byte[] buf = new byte[size];
+        store.readArea(area_p, 0, buf, 0, size);
+        return buf;
+    }
+
+    /**
+     * Adds a row with the given status and record pointer at the end of the
+     * list structure, growing the structure if necessary, and returns the
+     * index of the row.  Assumes we are synchronized over list_structure.
+     */
+    private int addToRecordList(int status, long record_p) throws IOException {
+        if (has_shutdown) {
+            throw new IOException("IO operation while VM shutting down.");
+        }
+        if (row_count == Integer.MAX_VALUE) {
+            throw new IOException("Table is full.");
+        }
+
+        try {
+            store.lockForWrite();
+
+            // Make sure there are enough nodes to accomodate this entry,
+            if (row_count >= list_structure.addressableNodeCount()) {
+                growListStructure();
+            }
+
+            int row_index = row_count;
+            MutableArea block = list_structure.positionOnNode(row_index);
+            block.putInt(status);
+            block.putLong(record_p);
+            block.checkOut();
+
+            ++row_count;
+            header_area.position(56);
+            header_area.putInt(row_count);
+            header_area.checkOut();
+
+            return row_index;
+
+        } finally {
+            store.unlockForWrite();
+        }
+    }
+
+    /**
+     * Grows the list structure to accomodate more entries.  The new entries
+     * are marked as deleted.  Assumes we are synchronized over list_structure
+     * and the store is locked for write.
+     */
+    private void growListStructure() throws IOException {
+        // Increase the size of the list structure.
+        list_structure.increaseSize();
+        // The start record of the new size
+        int new_block_number = list_structure.listBlockCount() - 1;
+        long start_index =
+                list_structure.listBlockFirstPosition(new_block_number);
+        long size_of_block = list_structure.listBlockNodeCount(new_block_number);
+
+        // The Area object for the new position
+        MutableArea a = list_structure.positionOnNode(start_index);
+        for (long n = 0; n < size_of_block; ++n) {
+            a.putInt(0x020000);
+            a.putLong(-1);
+        }
+        a.checkOut();
+    }
+
+    /**
+     * Seals the segments of rows in the tail of the table that are full.
+     * Assumes we are synchronized over list_structure.
+     */
+    private void sealFullSegments() throws IOException {
+        while (row_count - sealed_row_count >= segment_rows) {
+            sealSegment();
+        }
+    }
+
+    /**
+     * Writes the first segment of rows in the tail of the table as a column
+     * segment for each column, and frees the records of the rows.  Assumes
+     * we are synchronized over list_structure.
+     */
+    private void sealSegment() throws IOException {
+        int first_row = sealed_row_count;
+        int segment = first_row / segment_rows;
+        int column_count = table_def.columnCount();
+
+        // Decode the rows of the segment.  Deleted rows are NULL.
+        TObject[][] columns = new TObject[column_count][segment_rows];
+        boolean[] live = new boolean[segment_rows];
+        long[] records = new long[segment_rows];
+        TObject[] row = new TObject[column_count];
+        for (int r = 0; r < segment_rows; ++r) {
+            Area block = list_structure.positionOnNode(first_row + r);
+            int status = block.getInt();
+            long record_p = block.getLong();
+            records[r] = record_p;
+            live[r] = (status & 0x020000) == 0;
+            if (live[r]) {
+                record_format.decodeRow(readWholeArea(record_p), row);
+                for (int i = 0; i < column_count; ++i) {
+                    columns[i][r] = row[i];
+                }
+            } else {
+                for (int i = 0; i < column_count; ++i) {
+                    columns[i][r] = new TObject(
+                            table_def.columnAt(i).getTType(), null);
+                }
+            }
+        }
+
+        try {
+            store.lockForWrite();
+
+            // Write the column segments.  References to large objects are
+            // established for the segments before the records release theirs.
+            long[] column_areas = new long[column_count];
+            for (int i = 0; i < column_count; ++i) {
+                column_areas[i] = writeColumnSegment(i, columns[i], live);
+            }
+
+            // Add the segment to the segment list
+            while (segment >= segment_list.addressableNodeCount()) {
+                segment_list.increaseSize();
+            }
+            MutableArea entry = segment_list.positionOnNode(segment);
+            for (int i = 0; i < column_count; ++i) {
+                entry.putLong(column_areas[i]);
+            }
+            entry.checkOut();
+
+            // Free the records of the rows
+            for (int r = 0; r < segment_rows; ++r) {
+                long record_p = records[r];
+                if (record_p != -1) {
+                    if (live[r]) {
+                        record_format.releaseReferences(readWholeArea(record_p));
+                    }
+                    store.deleteArea(record_p);
+                    MutableArea block = list_structure.positionOnNode(first_row + r);
+                    block.position(block.position() + 4);
+                    block.putLong(-1);
+                    block.checkOut();
+                }
+            }
+
+            sealed_row_count = first_row + segment_rows;
+            header_area.position(60);
+            header_area.putInt(sealed_row_count);
+            header_area.checkOut();
+
+        } finally {
+            store.unlockForWrite();
+        }
+
+        // The decoded segments are likely to be read soon
+        if (segment_cache != null) {
+            for (int i = 0; i < column_count; ++i) {
+                segment_cache.put(new SegmentKey(table_id, i, segment),
+                        new DecodedSegment(segment, columns[i]));
+            }
+        }
+    }
+
+    /**
+     * Writes the given cells of a column segment to a new area and returns a
+     * pointer to the area.  The area starts with a flags byte followed by the
+     * size and serialization of the smallest and largest value of the live
+     * rows, the size of the encoded cells, and the encoded cells which are
+     * compressed if it makes them smaller.
+     */
+    private long writeColumnSegment(int column, TObject[] cells, boolean[] live)
+            throws IOException {
+        byte[] encoded = segment_formats[column].encode(cells);
+
+        // The smallest and largest values of the live rows
+        byte[] bounds = null;
+        if (table_def.columnAt(column).isIndexableType()) {
+            TObject min = null;
+            TObject max = null;
+            for (int r = 0; r < cells.length; ++r) {
+                if (!live[r]) {
+                    continue;
+                }
+                TObject cell = cells[r];
+                if (cell.getObject() instanceof Ref) {
+                    min = null;
+                    break;
+                }
+                if (min == null || cell.compareTo(min) < 0) {
+                    min = cell;
+                }
+                if (max == null || cell.compareTo(max) > 0) {
+                    max = cell;
+                }
+            }
+            if (min != null) {
+                ByteArrayOutputStream bout = new ByteArrayOutputStream();
+                DataOutputStream dout = new DataOutputStream(bout);
+                ObjectTransfer.writeTo(dout, min.getObject());
+                ObjectTransfer.writeTo(dout, max.getObject());
+                dout.flush();
+                if (bout.size() <= MAX_BOUNDS_SIZE) {
+                    bounds = bout.toByteArray();
+                }
+            }
+        }
+
+        // Compress the cells
+        int flags = 0;
+        byte[] data = encoded;
+        int data_length = encoded.length;
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(encoded);
+            deflater.finish();
+            byte[] compressed = new byte[encoded.length];
+            int length = deflater.deflate(compressed);
+            if (deflater.finished() && length < encoded.length) {
+                flags |= SEGMENT_COMPRESSED;
+                data = compressed;
+                data_length = length;
+            }
+        } finally {
+            deflater.end();
+        }
+        if (bounds != null) {
+            flags |= SEGMENT_HAS_BOUNDS;
+        }
+        int bounds_length = bounds == null ? 0 : bounds.length;
+
+        AreaWriter writer =
+                store.createArea(1 + 4 + bounds_length + 4 + data_length);
+        writer.put((byte) flags);
+        writer.putInt(bounds_length);
+        if (bounds != null) {
+            writer.put(bounds, 0, bounds_length);
+        }
+        writer.putInt(encoded.length);
+        writer.put(data, 0, data_length);
+        writer.finish();
+        return writer.getID();
+    }
+
+    /**
+     * Returns the pointer to the area of the given column of a sealed
+     * segment.
+     */
+    private long columnSegmentPointer(int column, int segment)
+            throws IOException {
+        synchronized (list_structure) {
+            Area entry = segment_list.positionOnNode(segment);
+            entry.position(entry.position() + (column * 8));
+            return entry.getLong();
+        }
+    }
+
+    /**
+     * Returns the key of a column segment in the segment bounds map.
+     */
+    private static long segmentKey(int column, int segment) {
+        return ((long) column << 32) | segment;
+    }
+
+    /**
+     * Reads and decodes the cells of the given column of a sealed segment.
+     */
+    private TObject[] readColumnSegment(int column, int segment)
+            throws IOException {
+        byte[] buf = readWholeArea(columnSegmentPointer(column, segment));
+        int flags = buf[0];
+        int p = 5 + ByteArrayUtil.getInt(buf, 1);
+        int encoded_length = ByteArrayUtil.getInt(buf, p);
+        p += 4;
+
+        byte[] encoded;
+        if ((flags & SEGMENT_COMPRESSED) != 0) {
+            encoded = new byte[encoded_length];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buf, p, buf.length - p);
+                if (inflater.inflate(encoded) != encoded_length) {
+                    throw new IOException(
+                            "Decompressed column segment length is incorrect.");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("ZIP Data Format Error: " + e.getMessage());
+            } finally {
+                inflater.end();
+            }
+        } else {
+            encoded = Arrays.copyOfRange(buf, p, p + encoded_length);
+        }
+
+        TObject[] cells = new TObject[segment_rows];
+        segment_formats[column].decodeRow(encoded, cells);
+        return cells;
+    }
+
+    /**
+     * Returns the cell of the given column and row in a sealed segment.
+     */
+    private TObject getSegmentCell(int column, int row) throws IOException {
+        int segment = row / segment_rows;
+        DecodedSegment decoded = last_decoded[column];
+        if (decoded == null || decoded.segment != segment) {
+            SegmentKey key = new SegmentKey(table_id, column, segment);
+            decoded = (segment_cache == null) ? null : segment_cache.get(key);
+            if (decoded == null) {
+                decoded = new DecodedSegment(segment,
+                        readColumnSegment(column, segment));
+                if (segment_cache != null) {
+                    segment_cache.put(key, decoded);
+                }
+            }
+            last_decoded[column] = decoded;
+        }
+        return decoded.cells[row - (segment * segment_rows)];
+    }
+
+    /**
+     * Returns the smallest and largest value of the live rows of the given
+     * column when the segment was sealed, or null if the segment isn't
+     * sealed or the values are not known.  The bounds include NULL if the
+     * segment has a NULL value.
+     */
+    TObject[] getSegmentBounds(int column, int segment) {
+        if ((segment + 1) * (long) segment_rows > sealed_row_count) {
+            return null;
+        }
+        long key = segmentKey(column, segment);
+        TObject[] bounds;
+        synchronized (segment_bounds) {
+            bounds = segment_bounds.get(key);
+        }
+        if (bounds == null) {
+            try {
+                bounds = readSegmentBounds(column, segment);
+            } catch (IOException e) {
+                Debug().writeException(e);
+                throw new RuntimeException("IO Error: " + e.getMessage(), e);
+            }
+            synchronized (segment_bounds) {
+                segment_bounds.put(key, bounds);
+            }
+        }
+        return bounds == NO_BOUNDS ? null : bounds;
+    }
+
+    /**
+     * Reads the bounds of a column segment from its area.
+     */
+    private TObject[] readSegmentBounds(int column, int segment)
+            throws IOException {
+        long area_p = columnSegmentPointer(column, segment);
+        byte[] head = new byte[5];
+        store.readArea(area_p, 0, head, 0, 5);
+        if ((head[0] & SEGMENT_HAS_BOUNDS) == 0) {
+            return NO_BOUNDS;
+        }
+        byte[] buf = new byte[ByteArrayUtil.getInt(head, 1)];
+        store.readArea(area_p, 5, buf, 0, buf.length);
+        DataInputStream din =
+                new DataInputStream(new ByteArrayInputStream(buf));
+        TType ttype = table_def.columnAt(column).getTType();
+        TObject min = new TObject(ttype, ObjectTransfer.readFrom(din));
+        TObject max = new TObject(ttype, ObjectTransfer.readFrom(din));
+        return new TObject[]{min, max};
+    }
+
+    /**
+     * Releases the references to large objects made by a row in a sealed
+     * segment.
+     */
+    private void releaseSegmentReferences(int row) throws IOException {
+        for (int i = 0; i < large_object_columns.length; ++i) {
+            if (large_object_columns[i]) {
+                Object ob = getSegmentCell(i, row).getObject();
+                if (ob instanceof Ref) {
+                    blob_store_interface.releaseReference(((Ref) ob).getID());
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the table and drops ALL blob references in this table.  This is
+     * used when a table is dropped when is still contains elements referenced
+     * in the BlobStore.
+     * <p>
+     * This method should only be called when the table is about to be deleted
+     * from the file system.
+     */
+    private void dropAllBlobReferences() throws IOException {
+        synchronized (list_structure) {
+            for (int i = 0; i < row_count; ++i) {
+                Area a = list_structure.positionOnNode(i);
+                int status = a.getInt();
+                // Is the record not deleted?
+                if ((status & 0x020000) == 0) {
+                    long record_p = a.getLong();
+                    if (record_p != -1) {
+                        record_format.releaseReferences(readWholeArea(record_p));
+                    } else {
+                        releaseSegmentReferences(i);
+                    }
+                }
+            }
+        }
+    }
+
+    // ---------- Diagnostic and repair ----------
+
+    /**
+     * Looks for any leaks in the file.  This works by walking through the
+     * file and index area graph and 'remembering' all areas that were read.
+     * The store is then checked that all other areas except these are deleted.
+     * <p>
+     * Assumes the master table is open.
+     */
+    public void scanForLeaks() throws IOException {
+
+        synchronized (list_structure) {
+
+            // The list of pointers to areas (as Long).
+            ArrayList used_areas = new ArrayList();
+
+            // Add the header_p pointer
+            used_areas.add(header_area.getID());
+
+            header_area.position(16);
+            // Add the DataTableDef and DataIndexSetDef objects
+            used_areas.add(header_area.getLong());
+            used_areas.add(header_area.getLong());
+            header_area.position(0);
+
+            // Add all the used areas in the list structures.
+            list_structure.addAllAreasUsed(used_areas);
+            segment_list.addAllAreasUsed(used_areas);
+
+            // Adds all the user areas in the index store.
+            index_store.addAllAreasUsed(used_areas);
+
+            // The records of the rows in the tail
+            for (int i = sealed_row_count; i < row_count; ++i) {
+                Area a = list_structure.positionOnNode(i);
+                int status = a.getInt();
+                long record_p = a.getLong();
+                if ((status & 0x020000) == 0 && record_p != -1) {
+                    used_areas.add(record_p);
+                }
+            }
+
+            // The column areas of the sealed segments
+            int column_count = table_def.columnCount();
+            for (int s = 0; s < sealed_row_count / segment_rows; ++s) {
+                Area entry = segment_list.positionOnNode(s);
+                for (int i = 0; i < column_count; ++i) {
+                    used_areas.add(entry.getLong());
+                }
+            }
+
+            // Following depends on store implementation
+            if (store instanceof AbstractStore) {
+                AbstractStore a_store = (AbstractStore) store;
+                ArrayList leaked_areas = a_store.findAllocatedAreasNotIn(used_areas);
+                if (leaked_areas.size() == 0) {
+                    Debug().write(Lvl.INFORMATION, this, "No leaked areas.");
+                } else {
+                    Debug().write(Lvl.INFORMATION, this, "There were " +
+                            leaked_areas.size() + " leaked areas found.");
+                    for (Object leaked_area : leaked_areas) {
+                        Long area_pointer = (Long) leaked_area;
+                        store.deleteArea(area_pointer);
+                    }
+                    Debug().write(Lvl.INFORMATION, this,
+                            "Leaked areas successfully freed.");
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Performs a complete check and repair of the table.  The table must not
+     * have been opened before this method is called.  The given UserTerminal
+     * parameter is an implementation of a user interface that is used to ask
+     * any questions and output the results of the check.
+     */
+    public void checkAndRepair(String file_name,
+                               UserTerminal terminal) throws IOException {
+
+        this.file_name = file_name;
+
+        terminal.println("+ Repairing ColumnarMasterTableDataSource " + file_name);
+
+        store = storeSystem().openStore(file_name);
+        // If AbstractStore then fix
+        if (store instanceof AbstractStore) {
+            ((AbstractStore) store).openScanAndFix(terminal);
+        }
+
+        // Setup the list structure
+        list_structure = new FixedRecordList(store, 12);
+
+        try {
+            // Read and setup the pointers
+            readStoreHeaders();
+            // Set the column count
+            column_count = table_def.columnCount();
+        } catch (IOException e) {
+            // If this fails, the table is not recoverable.
+            terminal.println(
+                    "! Table is not repairable because the file headers are corrupt.");
+            terminal.println("  Error reported: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+
+        // From here, we at least have intact headers.
+        terminal.println("- Checking record integrity.");
+
+        // Check each row can be read.  Rows that can't be read are deleted.
+        int record_count = 0;
+        int free_count = 0;
+        for (int i = 0; i < row_count; ++i) {
+            MutableArea block_area = list_structure.positionOnNode(i);
+            int p = block_area.position();
+            int status = block_area.getInt();
+            if ((status & 0x020000) == 0) {
+                try {
+                    for (int n = 0; n < column_count; ++n) {
+                        internalGetCellContents(n, i);
+                    }
+                    ++record_count;
+                    continue;
+                } catch (Throwable e) {
+                    terminal.println("+ Error accessing record: " + e.getMessage());
+                    terminal.println("+ Deleting record: row = " + i);
+                }
+                block_area.position(p);
+                block_area.putInt(0x020000);
+                block_area.putLong(-1);
+                block_area.checkOut();
+            }
+            ++free_count;
+        }
+
+        terminal.print("* Record count = " + record_count);
+        terminal.println(" Free count = " + free_count);
+
+        // Check indexes
+        terminal.println("- Rebuilding all table index information.");
+
+        int index_count = table_def.columnCount() + 1;
+        for (int i = 0; i < index_count; ++i) {
+            index_store.commitDropIndex(i);
+        }
+        buildIndexes();
+
+        terminal.println("- Table check complete.");
+
+    }
+
+
+    // ---------- Implemented from AbstractMasterTableDataSource ----------
+
+    String getSourceIdent() {
+        return file_name;
+    }
+
+
+    int writeRecordType(int row_index, int row_state) throws IOException {
+        synchronized (list_structure) {
+            if (has_shutdown) {
+                throw new IOException("IO operation while VM shutting down.");
+            }
+
+            // Find the record entry in the block list.
+            MutableArea block_area = list_structure.positionOnNode(row_index);
+            int pos = block_area.position();
+            // Get the status.
+            int old_status = block_area.getInt();
+            int mod_status = (old_status & 0x0FFFF0000) | (row_state & 0x0FFFF);
+
+            // Write the new status
+            try {
+
+                store.lockForWrite();
+
+                block_area.position(pos);
+                block_area.putInt(mod_status);
+                block_area.checkOut();
+
+            } finally {
+                store.unlockForWrite();
+            }
+
+            return old_status & 0x0FFFF;
+        }
+    }
+
+
+    int readRecordType(int row_index) throws IOException {
+        synchronized (list_structure) {
+            // Find the record entry in the block list.
+            Area block_area = list_structure.positionOnNode(row_index);
+            // Get the status.
+            return block_area.getInt() & 0x0FFFF;
+        }
+    }
+
+
+    boolean recordDeleted(int row_index) throws IOException {
+        synchronized (list_structure) {
+            // Find the record entry in the block list.
+            Area block_area = list_structure.positionOnNode(row_index);
+            // If the deleted bit set for the record
+            return (block_area.getInt() & 0x020000) != 0;
+        }
+    }
+
+
+    int rawRowCount() throws IOException {
+        synchronized (list_structure) {
+            return row_count;
+        }
+    }
+
+
+    void internalDeleteRow(int row_index) throws IOException {
+        synchronized (list_structure) {
+            if (has_shutdown) {
+                throw new IOException("IO operation while VM shutting down.");
+            }
+
+            // Find the record entry in the block list.
+            MutableArea block_area = list_structure.positionOnNode(row_index);
+            int p = block_area.position();
+            int status = block_area.getInt();
+            // Check it is not already deleted
+            if ((status & 0x020000) != 0) {
+                throw new IOException("Record is already marked as deleted.");
+            }
+            long record_p = block_area.getLong();
+
+            // Update the status record.
+            try {
+                store.lockForWrite();
+
+                block_area.position(p);
+                block_area.putInt(0x020000);
+                block_area.putLong(-1);
+                block_area.checkOut();
+
+                // If the row contains any references to blobs, remove the
+                // reference here.
+                if (record_p != -1) {
+                    record_format.releaseReferences(readWholeArea(record_p));
+                    // Free the record from the store
+                    store.deleteArea(record_p);
+                } else {
+                    // The cells of a row in a sealed segment stay in the
+                    // segment until the table is compacted.
+                    releaseSegmentReferences(row_index);
+                }
+
+            } finally {
+                store.unlockForWrite();
+            }
+
+        }
+    }
+
+
+    IndexSet createIndexSet() {
+        return index_store.getSnapshotIndexSet();
+    }
+
+
+    void commitIndexSet(IndexSet index_set) {
+        index_store.commitIndexSet(index_set);
+        index_set.dispose();
+    }
+
+
+    int internalAddRow(RowData data) throws IOException {
+        synchronized (list_structure) {
+            // Write the record to the store and add it to the end of the list
+            int row_index = addToRecordList(0, writeRecordToStore(data));
+            // Seal the tail if it's a full segment
+            sealFullSegments();
+            return row_index;
+        }
+    }
+
+
+    synchronized void checkForCleanup() {
+        garbage_collector.performCollectionEvent(false);
+    }
+
+
+    TObject internalGetCellContents(int column, int row) {
+        try {
+            // The cells of sealed rows are read from the column segment
+            if (row < sealed_row_count) {
+                return getSegmentCell(column, row);
+            }
+
+            // Otherwise the cell is read from the record in the tail.  The
+            // record is read under the lock because sealing the segment frees
+            // it.
+            synchronized (list_structure) {
+                Area block = list_structure.positionOnNode(row);
+                int status = block.getInt();
+                // Check it's not deleted
+                if ((status & 0x020000) != 0) {
+                    throw new IllegalStateException("Unable to read deleted record.");
+                }
+                long record_p = block.getLong();
+                if (record_p != -1) {
+                    byte[] record = readWholeArea(record_p);
+                    if (record_format.isNull(record, column)) {
+                        return record_format.decodeCell(column, record, record, 0, 0);
+                    }
+                    long location = record_format.locateCell(record, column);
+                    return record_format.decodeCell(column, record, record,
+                            (int) (location >>> 32), (int) location);
+                }
+            }
+            // The row was sealed after the check above
+            return getSegmentCell(column, row);
+
+        } catch (IOException e) {
+            Debug().writeException(e);
+            throw new RuntimeException("IOError getting cell at (" + column + ", " +
+                    row + ").", e);
+        }
+    }
+
+
+    SelectableScheme createUnindexedScheme(TableDataSource table, int column) {
+        return new SegmentSearch(table, column, this);
+    }
+
+
+    long currentUniqueID() {
+        synchronized (list_structure) {
+            return sequence_id - 1;
+        }
+    }
+
+
+    long nextUniqueID() {
+        synchronized (list_structure) {
+            long v = sequence_id;
+            ++sequence_id;
+            writeSequenceID();
+            return v;
+        }
+    }
+
+
+    void setUniqueID(long value) {
+        synchronized (list_structure) {
+            sequence_id = value;
+            writeSequenceID();
+        }
+    }
+
+    /**
+     * Writes the sequence id to the header.  Assumes we are synchronized over
+     * list_structure.
+     */
+    private void writeSequenceID() {
+        if (has_shutdown) {
+            throw new RuntimeException("IO operation while VM shutting down.");
+        }
+        try {
+            try {
+                store.lockForWrite();
+                header_area.position(4 + 4);
+                header_area.putLong(sequence_id);
+                header_area.checkOut();
+            } finally {
+                store.unlockForWrite();
+            }
+        } catch (IOException e) {
+            Debug().writeException(e);
+            throw new RuntimeException("IO Error: " + e.getMessage(), e);
+        }
+    }
+
+    synchronized void dispose(boolean pending_drop) throws IOException {
+        synchronized (list_structure) {
+            if (!is_closed) {
+                close(pending_drop);
+            }
+        }
+    }
+
+    synchronized boolean drop() throws IOException {
+        synchronized (list_structure) {
+
+            if (!is_closed) {
+                close(true);
+            }
+
+            boolean b = storeSystem().deleteStore(store);
+            if (b) {
+                Debug().write(Lvl.MESSAGE, this, "Dropped: " + getSourceIdent());
+            }
+            return b;
+
+        }
+    }
+
+    void shutdownHookCleanup() {
+        synchronized (list_structure) {
+            index_store.close();
+            has_shutdown = true;
+        }
+    }
+
+
+    /**
+     * For diagnostic.
+     */
+    public String toString() {
+        return "[ColumnarMasterTableDataSource: " + file_name + "]";
+    }
+
+    // ---------- Inner classes ----------
+
+    /**
+     * The key of a decoded column segment in the shared segment cache.
+     */
+    static final class SegmentKey {
+
+        final int table_id;
+        final int column;
+        final int segment;
+
+        SegmentKey(int table_id, int column, int segment) {
+            this.table_id = table_id;
+            this.column = column;
+            this.segment = segment;
+        }
+
+        public boolean equals(Object ob) {
+            if (!(ob instanceof SegmentKey)) {
+                return false;
+            }
+            SegmentKey key = (SegmentKey) ob;
+            return table_id == key.table_id && column == key.column &&
+                    segment == key.segment;
+        }
+
+        public int hashCode() {
+            return (table_id * 31 + column) * 31 + segment;
+        }
+
+    }
+
+    /**
+     * The decoded cells of a column segment.
+     */
+    static final class DecodedSegment {
+
+        final int segment;
+        final TObject[] cells;
+
+        /**
+         * An approximation of the memory used by the cells.
+         */
+        final int memory;
+
+        DecodedSegment(int segment, TObject[] cells) {
+            this.segment = segment;
+            this.cells = cells;
+            int size = 16 + (cells.length * 4);
+            for (TObject cell : cells) {
+                size += 16 + cell.approximateMemoryUse();
+            }
+            this.memory = size;
+        }
+
+    }
+
+}
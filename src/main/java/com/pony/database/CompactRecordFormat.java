@@ -0,0 +1,736 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.database;
+
+import com.pony.database.global.*;
+import com.pony.store.AreaWriter;
+import com.pony.store.Store;
+import com.pony.util.BigNumber;
+import com.pony.util.ByteArrayUtil;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes and decodes the records of a table in the compact V3 record
+ * format.  The encoding of each cell is decided by the SQL type of its
+ * column so, unlike the V2 format, no type information is stored with the
+ * cells.  A record is laid out as follows;
+ * <p><pre>
+ *   +-------------------------------+
+ *   | flags (1 byte)                |
+ *   | null bitmap                   |
+ *   | escape bitmap (if flagged)    |
+ *   | length of each variable cell  |
+ *   | cells                         |
+ *   +-------------------------------+
+ * </pre>
+ * <p>
+ * The bitmaps have a bit for each column.  NULL cells take no space in the
+ * cell data.  INTEGER, BIGINT, DOUBLE, DATE and BOOLEAN cells are fixed
+ * width, strings are UTF-8 and binary cells are stored as is.  The lengths
+ * of the variable width cells are varints in column order.
+ * <p>
+ * A value that can't be represented in the encoding of its column (for
+ * example, a BIGINT that doesn't fit in 64 bits, or a reference to a large
+ * object in the BlobStore) is stored as an 'escaped' variable width cell
+ * that is either an ObjectTransfer serialization or a large object
+ * reference.
+ * <p>
+ * If an overflow store is set, strings that are larger than the overflow
+ * threshold are written to an area of their own in the store and the record
+ * has an escaped cell that points to the area.  These cells are only read
+ * from the store when the cell is decoded.
+ * <p>
+ * The same encoding is used for the column segments of a
+ * ColumnarMasterTableDataSource, where each cell of the 'record' is the
+ * value of one column in a row of the segment.
+ * <p>
+ * A table may store large records compressed (see 'compress').  A compressed
+ * record is the flags byte with COMPRESSED set, the size of the record as an
+ * int and the deflated record.
+ *
+ * @author Tobias Downer
+ */
+
+final class CompactRecordFormat {
+
+    /**
+     * The flag set when a record has an escape bitmap.
+     */
+    static final int HAS_ESCAPED_CELLS = 0x01;
+
+    /**
+     * The flag set when a record is compressed.
+     */
+    static final int COMPRESSED = 0x02;
+
+    /**
+     * The encodings of cells.
+     */
+    private static final byte OBJECT = 0;
+    private static final byte STRING = 1;
+    private static final byte BINARY = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte INTEGER = 4;
+    private static final byte BIGINT = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte DATE = 7;
+
+    /**
+     * The width of each encoding, or 0 if the encoding is variable width.
+     */
+    private static final int[] WIDTH = {0, 0, 0, 1, 4, 8, 8, 8};
+
+    /**
+     * The types of escaped cells.
+     */
+    private static final byte ESCAPED_OBJECT = 0;
+    private static final byte ESCAPED_LARGE_OBJECT_REF = 1;
+    private static final byte ESCAPED_OVERFLOW = 2;
+
+    /**
+     * The encoding and the TType of each column.
+     */
+    private final byte[] encoding;
+    private final TType[] ttype;
+
+    /**
+     * The size of a bitmap in bytes.
+     */
+    private final int bitmap_size;
+
+    /**
+     * The interface for establishing, releasing and resolving references to
+     * large objects.
+     */
+    private final BlobStoreInterface blob_store_interface;
+
+    /**
+     * The store that large strings are written to out of the record, and the
+     * size in bytes above which a string is written out of the record (0 =
+     * strings are always in the record).
+     */
+    private Store overflow_store;
+    private int overflow_threshold;
+
+    /**
+     * Constructs the format for records of the given table.
+     */
+    CompactRecordFormat(DataTableDef table_def,
+                        BlobStoreInterface blob_store_interface) {
+        this.blob_store_interface = blob_store_interface;
+        int column_count = table_def.columnCount();
+        encoding = new byte[column_count];
+        ttype = new TType[column_count];
+        for (int i = 0; i < column_count; ++i) {
+            DataTableColumnDef column_def = table_def.columnAt(i);
+            encoding[i] = encodingFor(column_def.getSQLType());
+            ttype[i] = column_def.getTType();
+        }
+        bitmap_size = (column_count + 7) / 8;
+    }
+
+    /**
+     * Constructs the format for a segment of 'cell_count' values of the given
+     * column.
+     */
+    CompactRecordFormat(DataTableColumnDef column_def, int cell_count,
+                        BlobStoreInterface blob_store_interface) {
+        this.blob_store_interface = blob_store_interface;
+        encoding = new byte[cell_count];
+        ttype = new TType[cell_count];
+        Arrays.fill(encoding, encodingFor(column_def.getSQLType()));
+        Arrays.fill(ttype, column_def.getTType());
+        bitmap_size = (cell_count + 7) / 8;
+    }
+
+    /**
+     * Sets the store that strings larger than 'threshold' bytes are written
+     * to out of the record.  A threshold of 0 means strings are always
+     * written in the record.  Records that have strings out of the record
+     * can only be decoded once the store is set.
+     */
+    void setOverflowStore(Store store, int threshold) {
+        this.overflow_store = store;
+        this.overflow_threshold = threshold;
+    }
+
+    /**
+     * Returns the encoding of cells in a column of the given SQL type.
+     */
+    private static byte encodingFor(int sql_type) {
+        switch (sql_type) {
+            case SQLTypes.BIT:
+            case SQLTypes.BOOLEAN:
+                return BOOLEAN;
+            case SQLTypes.TINYINT:
+            case SQLTypes.SMALLINT:
+            case SQLTypes.INTEGER:
+                return INTEGER;
+            case SQLTypes.BIGINT:
+                return BIGINT;
+            case SQLTypes.FLOAT:
+            case SQLTypes.DOUBLE:
+                return DOUBLE;
+            case SQLTypes.DATE:
+            case SQLTypes.TIME:
+            case SQLTypes.TIMESTAMP:
+                return DATE;
+            case SQLTypes.CHAR:
+            case SQLTypes.VARCHAR:
+            case SQLTypes.LONGVARCHAR:
+            case SQLTypes.CLOB:
+                return STRING;
+            case SQLTypes.BINARY:
+            case SQLTypes.VARBINARY:
+            case SQLTypes.LONGVARBINARY:
+            case SQLTypes.BLOB:
+                return BINARY;
+            default:
+                return OBJECT;
+        }
+    }
+
+    /**
+     * Returns true if the given non-null value is decoded to an equal value
+     * with the same representation when it's written in the given encoding.
+     */
+    private static boolean canEncode(byte enc, Object ob) {
+        switch (enc) {
+            case OBJECT:
+                return true;
+            case STRING:
+                return ob instanceof StringObject &&
+                        isWellFormed(ob.toString());
+            case BINARY:
+                return ob instanceof ByteLongObject;
+            case BOOLEAN:
+                return ob instanceof Boolean;
+            case INTEGER:
+            case BIGINT:
+                if (ob instanceof BigNumber) {
+                    BigNumber n = (BigNumber) ob;
+                    if (n.getState() == 0 && n.getScale() == 0 &&
+                            n.canBeRepresentedAsLong()) {
+                        long v = n.longValue();
+                        return enc == BIGINT || (int) v == v;
+                    }
+                }
+                return false;
+            case DOUBLE:
+                if (ob instanceof BigNumber) {
+                    BigNumber n = (BigNumber) ob;
+                    return n.getState() != 0 ||
+                            n.asBigDecimal().equals(new BigDecimal(
+                                    Double.toString(n.doubleValue())));
+                }
+                return false;
+            case DATE:
+                return ob instanceof Date;
+            default:
+                throw new RuntimeException("Unknown encoding.");
+        }
+    }
+
+    /**
+     * Returns true if the string has no unpaired surrogates and so survives a
+     * round trip through UTF-8.
+     */
+    private static boolean isWellFormed(String str) {
+        int len = str.length();
+        for (int i = 0; i < len; ++i) {
+            char c = str.charAt(i);
+            if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len &&
+                        Character.isLowSurrogate(str.charAt(i + 1))) {
+                    ++i;
+                } else {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the ObjectTransfer serialization of the object, prefixed by the
+     * given byte.
+     */
+    private static byte[] serialize(int prefix, Object ob) throws IOException {
+        ByteArrayOutputStream bout =
+                new ByteArrayOutputStream(ObjectTransfer.exactSize(ob) + 1);
+        DataOutputStream dout = new DataOutputStream(bout);
+        if (prefix != -1) {
+            dout.writeByte(prefix);
+        }
+        ObjectTransfer.writeTo(dout, ob);
+        dout.flush();
+        return bout.toByteArray();
+    }
+
+    /**
+     * Encodes the given row as a record.  Any large objects referenced by
+     * the row have a reference established in the BlobStore.
+     */
+    byte[] encode(RowData data) throws IOException {
+        TObject[] cells = new TObject[encoding.length];
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] = data.getCellData(i);
+        }
+        return encode(cells);
+    }
+
+    /**
+     * Encodes the given cells as a record.  Any large objects referenced by
+     * the cells have a reference established in the BlobStore.
+     */
+    byte[] encode(TObject[] cells) throws IOException {
+        int column_count = encoding.length;
+        byte[] nulls = new byte[bitmap_size];
+        byte[] escapes = new byte[bitmap_size];
+        byte[][] var_cells = new byte[column_count][];
+        boolean has_escaped = false;
+
+        // Work out how each cell is represented and the size of the record
+        int header_size = 1 + bitmap_size;
+        int data_size = 0;
+        for (int i = 0; i < column_count; ++i) {
+            Object ob = cells[i].getObject();
+            byte enc = encoding[i];
+            byte[] cell = null;
+            if (ob == null) {
+                nulls[i >> 3] |= (byte) (1 << (i & 7));
+                continue;
+            } else if (ob instanceof Ref) {
+                // References to large objects are always escaped
+                long ref_id = ((Ref) ob).getID();
+                blob_store_interface.establishReference(ref_id);
+                cell = new byte[9];
+                cell[0] = ESCAPED_LARGE_OBJECT_REF;
+                ByteArrayUtil.setLong(ref_id, cell, 1);
+                escapes[i >> 3] |= (byte) (1 << (i & 7));
+                has_escaped = true;
+            } else if (!canEncode(enc, ob)) {
+                cell = serialize(ESCAPED_OBJECT, ob);
+                escapes[i >> 3] |= (byte) (1 << (i & 7));
+                has_escaped = true;
+            } else if (enc == STRING) {
+                cell = ob.toString().getBytes(StandardCharsets.UTF_8);
+                if (overflow_threshold > 0 && cell.length > overflow_threshold) {
+                    cell = writeOverflow(cell);
+                    escapes[i >> 3] |= (byte) (1 << (i & 7));
+                    has_escaped = true;
+                }
+            } else if (enc == BINARY) {
+                cell = ((ByteLongObject) ob).getByteArray();
+            } else if (enc == OBJECT) {
+                cell = serialize(-1, ob);
+            }
+
+            if (cell == null) {
+                data_size += WIDTH[enc];
+            } else {
+                var_cells[i] = cell;
+                header_size += varintSize(cell.length);
+                data_size += cell.length;
+            }
+        }
+        if (has_escaped) {
+            header_size += bitmap_size;
+        }
+
+        // Write the record
+        byte[] record = new byte[header_size + data_size];
+        record[0] = (byte) (has_escaped ? HAS_ESCAPED_CELLS : 0);
+        System.arraycopy(nulls, 0, record, 1, bitmap_size);
+        int p = 1 + bitmap_size;
+        if (has_escaped) {
+            System.arraycopy(escapes, 0, record, p, bitmap_size);
+            p += bitmap_size;
+        }
+        for (int i = 0; i < column_count; ++i) {
+            if (var_cells[i] != null) {
+                p = writeVarint(var_cells[i].length, record, p);
+            }
+        }
+        for (int i = 0; i < column_count; ++i) {
+            byte[] cell = var_cells[i];
+            if (cell != null) {
+                System.arraycopy(cell, 0, record, p, cell.length);
+                p += cell.length;
+                continue;
+            }
+            Object ob = cells[i].getObject();
+            if (ob == null) {
+                continue;
+            }
+            switch (encoding[i]) {
+                case BOOLEAN:
+                    record[p] = (byte) (((Boolean) ob) ? 1 : 0);
+                    break;
+                case INTEGER:
+                    ByteArrayUtil.setInt(((BigNumber) ob).intValue(), record, p);
+                    break;
+                case BIGINT:
+                    ByteArrayUtil.setLong(((BigNumber) ob).longValue(), record, p);
+                    break;
+                case DOUBLE:
+                    ByteArrayUtil.setLong(Double.doubleToLongBits(
+                            ((BigNumber) ob).doubleValue()), record, p);
+                    break;
+                case DATE:
+                    ByteArrayUtil.setLong(((Date) ob).getTime(), record, p);
+                    break;
+                default:
+                    throw new RuntimeException("Unknown encoding.");
+            }
+            p += WIDTH[encoding[i]];
+        }
+
+        return record;
+    }
+
+    /**
+     * Writes the UTF-8 bytes of a string to an area in the overflow store and
+     * returns the escaped cell that points to it.
+     */
+    private byte[] writeOverflow(byte[] str) throws IOException {
+        AreaWriter writer = overflow_store.createArea(str.length);
+        writer.put(str);
+        writer.finish();
+        byte[] cell = new byte[13];
+        cell[0] = ESCAPED_OVERFLOW;
+        ByteArrayUtil.setLong(writer.getID(), cell, 1);
+        ByteArrayUtil.setInt(str.length, cell, 9);
+        return cell;
+    }
+
+    /**
+     * Reads a string that was written to the overflow store.
+     */
+    private StringObject readOverflow(byte[] buf, int off) throws IOException {
+        byte[] str = new byte[ByteArrayUtil.getInt(buf, off + 9)];
+        overflow_store.readArea(ByteArrayUtil.getLong(buf, off + 1), 0,
+                str, 0, str.length);
+        return StringObject.fromString(
+                new String(str, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the largest number of bytes that the header of a record can
+     * take up.  The position of any cell can be found from this many bytes
+     * at the start of the record.
+     */
+    int maximumHeaderSize() {
+        return 1 + (bitmap_size * 2) + (encoding.length * 5);
+    }
+
+    /**
+     * Returns true if the cell of the given column is NULL in the record in
+     * the buffer.
+     */
+    boolean isNull(byte[] buf, int column) {
+        return (buf[1 + (column >> 3)] & (1 << (column & 7))) != 0;
+    }
+
+    /**
+     * Returns true if the cell of the given column is escaped in the record
+     * in the buffer.
+     */
+    private boolean isEscaped(byte[] buf, int column) {
+        return (buf[0] & HAS_ESCAPED_CELLS) != 0 &&
+                (buf[1 + bitmap_size + (column >> 3)] & (1 << (column & 7))) != 0;
+    }
+
+    /**
+     * Returns the position of the cell of the given column in the record in
+     * the buffer in the high 32 bits and the size of the cell in the low 32
+     * bits.  The cell must not be NULL.  Only the header of the record needs
+     * to be in the buffer.
+     */
+    long locateCell(byte[] buf, int column) {
+        int p = 1 + bitmap_size;
+        if ((buf[0] & HAS_ESCAPED_CELLS) != 0) {
+            p += bitmap_size;
+        }
+        int cell_offset = 0;
+        int cell_size = 0;
+        for (int i = 0; i < encoding.length; ++i) {
+            if (isNull(buf, i)) {
+                continue;
+            }
+            int size = WIDTH[encoding[i]];
+            if (size == 0 || isEscaped(buf, i)) {
+                size = readVarint(buf, p);
+                p += varintSize(size);
+            }
+            if (i < column) {
+                cell_offset += size;
+            } else if (i == column) {
+                cell_size = size;
+            }
+        }
+        return ((long) (p + cell_offset) << 32) | cell_size;
+    }
+
+    /**
+     * Decodes the cell of the given column.  The header of the record must be
+     * in 'header' and the cell is at the given position in 'buf', which may
+     * be the same buffer.
+     */
+    TObject decodeCell(int column, byte[] header, byte[] buf, int off, int len)
+            throws IOException {
+        if (isNull(header, column)) {
+            return new TObject(ttype[column], null);
+        }
+        return new TObject(ttype[column],
+                decode(column, isEscaped(header, column), buf, off, len));
+    }
+
+    /**
+     * Decodes every cell of the record in the buffer into 'row'.
+     */
+    void decodeRow(byte[] buf, TObject[] row) throws IOException {
+        decodeRow(buf, row, true);
+    }
+
+    /**
+     * Decodes the cells of the record in the buffer into 'row'.  If
+     * 'read_overflow' is false the cells of strings that are out of the
+     * record are not read and are left null in 'row'.
+     */
+    void decodeRow(byte[] buf, TObject[] row, boolean read_overflow)
+            throws IOException {
+        int column_count = encoding.length;
+        // Find the end of the header
+        int data_p = 1 + bitmap_size;
+        if ((buf[0] & HAS_ESCAPED_CELLS) != 0) {
+            data_p += bitmap_size;
+        }
+        int length_p = data_p;
+        for (int i = 0; i < column_count; ++i) {
+            if (!isNull(buf, i) &&
+                    (WIDTH[encoding[i]] == 0 || isEscaped(buf, i))) {
+                data_p += varintSize(readVarint(buf, data_p));
+            }
+        }
+        // Decode the cells
+        for (int i = 0; i < column_count; ++i) {
+            if (isNull(buf, i)) {
+                row[i] = new TObject(ttype[i], null);
+                continue;
+            }
+            boolean escaped = isEscaped(buf, i);
+            int size = WIDTH[encoding[i]];
+            if (size == 0 || escaped) {
+                size = readVarint(buf, length_p);
+                length_p += varintSize(size);
+            }
+            if (escaped && !read_overflow && buf[data_p] == ESCAPED_OVERFLOW) {
+                row[i] = null;
+            } else {
+                row[i] = new TObject(ttype[i],
+                        decode(i, escaped, buf, data_p, size));
+            }
+            data_p += size;
+        }
+    }
+
+    /**
+     * Decodes a non-null cell value.
+     */
+    private Object decode(int column, boolean escaped,
+                          byte[] buf, int off, int len) throws IOException {
+        if (escaped) {
+            if (buf[off] == ESCAPED_LARGE_OBJECT_REF) {
+                return blob_store_interface.getLargeObject(
+                        ByteArrayUtil.getLong(buf, off + 1));
+            } else if (buf[off] == ESCAPED_OVERFLOW) {
+                return readOverflow(buf, off);
+            }
+            return ObjectTransfer.readFrom(buf, off + 1);
+        }
+        switch (encoding[column]) {
+            case OBJECT:
+                return ObjectTransfer.readFrom(buf, off);
+            case STRING:
+                return StringObject.fromString(
+                        new String(buf, off, len, StandardCharsets.UTF_8));
+            case BINARY:
+                return new ByteLongObject(buf, off, len);
+            case BOOLEAN:
+                return buf[off] != 0 ? Boolean.TRUE : Boolean.FALSE;
+            case INTEGER:
+                return BigNumber.fromLong(ByteArrayUtil.getInt(buf, off));
+            case BIGINT:
+                return BigNumber.fromLong(ByteArrayUtil.getLong(buf, off));
+            case DOUBLE:
+                return BigNumber.fromDouble(
+                        Double.longBitsToDouble(ByteArrayUtil.getLong(buf, off)));
+            case DATE:
+                return new Date(ByteArrayUtil.getLong(buf, off));
+            default:
+                throw new RuntimeException("Unknown encoding.");
+        }
+    }
+
+    /**
+     * Releases the references to large objects made by the record in the
+     * buffer, and deletes the areas of strings that are out of the record.
+     */
+    void releaseReferences(byte[] buf) throws IOException {
+        if ((buf[0] & HAS_ESCAPED_CELLS) == 0) {
+            return;
+        }
+        for (int i = 0; i < encoding.length; ++i) {
+            if (!isNull(buf, i) && isEscaped(buf, i)) {
+                int p = (int) (locateCell(buf, i) >>> 32);
+                if (buf[p] == ESCAPED_LARGE_OBJECT_REF) {
+                    blob_store_interface.releaseReference(
+                            ByteArrayUtil.getLong(buf, p + 1));
+                } else if (buf[p] == ESCAPED_OVERFLOW) {
+                    overflow_store.deleteArea(ByteArrayUtil.getLong(buf, p + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the pointers (as Long) to the areas of the strings that are out of
+     * the record in the buffer to the list.
+     */
+    void addOverflowAreas(byte[] buf, ArrayList list) {
+        if ((buf[0] & HAS_ESCAPED_CELLS) == 0) {
+            return;
+        }
+        for (int i = 0; i < encoding.length; ++i) {
+            if (!isNull(buf, i) && isEscaped(buf, i)) {
+                int p = (int) (locateCell(buf, i) >>> 32);
+                if (buf[p] == ESCAPED_OVERFLOW) {
+                    list.add(ByteArrayUtil.getLong(buf, p + 1));
+                }
+            }
+        }
+    }
+
+    // ---------- Compression ----------
+
+    /**
+     * Returns true if the record in the buffer is compressed.
+     */
+    static boolean isCompressed(byte[] buf) {
+        return (buf[0] & COMPRESSED) != 0;
+    }
+
+    /**
+     * Returns the given record compressed, or null if compressing it doesn't
+     * make it smaller.
+     */
+    static byte[] compress(byte[] record) {
+        if (record.length <= 5) {
+            return null;
+        }
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(record);
+            deflater.finish();
+            byte[] buf = new byte[record.length];
+            int length = deflater.deflate(buf, 5, buf.length - 5);
+            if (!deflater.finished() || 5 + length >= record.length) {
+                return null;
+            }
+            buf[0] = COMPRESSED;
+            ByteArrayUtil.setInt(record.length, buf, 1);
+            return Arrays.copyOf(buf, 5 + length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the record of the compressed record in the first 'length' bytes
+     * of the buffer.
+     */
+    static byte[] decompress(byte[] buf, int length) throws IOException {
+        byte[] record = new byte[ByteArrayUtil.getInt(buf, 1)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buf, 5, length - 5);
+            if (inflater.inflate(record) != record.length) {
+                throw new IOException("Decompressed record length is incorrect.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("ZIP Data Format Error: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return record;
+    }
+
+    // ---------- Varints ----------
+
+    /**
+     * Returns the number of bytes needed to write the given value as a
+     * varint.
+     */
+    private static int varintSize(int v) {
+        int size = 1;
+        while ((v >>>= 7) != 0) {
+            ++size;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the value as a varint at the given position and returns the
+     * position after it.
+     */
+    private static int writeVarint(int v, byte[] buf, int p) {
+        while ((v & ~0x07F) != 0) {
+            buf[p++] = (byte) ((v & 0x07F) | 0x080);
+            v >>>= 7;
+        }
+        buf[p++] = (byte) v;
+        return p;
+    }
+
+    /**
+     * Reads a varint at the given position.
+     */
+    private static int readVarint(byte[] buf, int p) {
+        int v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf[p++];
+            v |= (b & 0x07F) << shift;
+            shift += 7;
+        } while ((b & 0x080) != 0);
+        return v;
+    }
+
+}
@@ -18,19 +18,24 @@
 
 package com.pony.database;
 
-import com.pony.util.Cache;
 import com.pony.debug.*;
 
+import java.util.Arrays;
+
 /**
  * This object represents a cache for accesses to the the data cells within
  * a Table.  Whenever a column/row index to a cell is accessed, the cache is
  * first checked.  If the cell is not in the cache then it may go ahead and
  * read the cell from the file.
  * <p>
- * ISSUE: We may need to keep track of memory used.  Since a String may
- * use up much memory, we may need a cap on the maximum size the cache can grow
- * to.  For example, we wouldn't want to cache a large document.  This could
- * be handled at a higher level?
+ * The cache is split into stripes that are each guarded by their own lock,
+ * so accesses to cells that hash to different stripes never contend.  Cells
+ * are looked up by their table id, column and row without creating a key
+ * object.  Each stripe is bounded by the number of bytes of the cells in it
+ * and uses the W-TinyLFU policy: new cells enter a small LRU window, and a
+ * cell leaving the window is only admitted to the main segments if it has
+ * been accessed more often (by a frequency sketch) than the cell it would
+ * evict.  This keeps a scan of cold cells from flushing out the hot cells.
  *
  * @author Tobias Downer
  */
@@ -45,17 +50,22 @@ final class DataCellCache {
     /**
      * The maximum size of a DataCell that is allowed to go in the cache.
      */
-    private int MAX_CELL_SIZE;
+    private volatile int MAX_CELL_SIZE;
+
+    /**
+     * The maximum number of stripes.  The number of stripes is a power of 2.
+     */
+    private static final int MAX_STRIPES = 64;
 
     /**
-     * The master cache.
+     * The approximate memory used by a cache entry not including the cell.
      */
-    private final DCCache cache;
+    private static final int ENTRY_SIZE = 64;
 
     /**
-     * The current size of the cache.
+     * The stripes of the cache.
      */
-    private long current_cache_size;
+    private final Stripe[] stripes;
 
     /**
      * The Constructors.
@@ -64,15 +74,24 @@ final class DataCellCache {
      *   to grow to (eg. 4000000).
      * @param max_cell_size the maximum size of an object that can be stored in
      *   the cache.
-     * @param hash_size the number of elements in the hash (should be a prime
-     *   number).
+     * @param hash_size the initial number of elements in the hash.
      */
     DataCellCache(TransactionSystem system,
                   int max_cache_size, int max_cell_size, int hash_size) {
         this.system = system;
         MAX_CELL_SIZE = max_cell_size;
 
-        cache = new DCCache(hash_size, max_cache_size);
+        // Each stripe should have room for a few of the largest cells.
+        int stripe_count = MAX_STRIPES;
+        while (stripe_count > 1 &&
+                max_cache_size / stripe_count < max_cell_size * 4) {
+            stripe_count /= 2;
+        }
+        stripes = new Stripe[stripe_count];
+        for (int i = 0; i < stripe_count; ++i) {
+            stripes[i] = new Stripe(max_cache_size / stripe_count,
+                    hash_size / stripe_count);
+        }
     }
 
     DataCellCache(TransactionSystem system,
@@ -85,66 +104,54 @@ final class DataCellCache {
      * Dynamically resizes the data cell cache so it can store more/less data.
      * This is used to change cache dynamics at runtime.
      */
-    public synchronized void alterCacheDynamics(
-            int max_cache_size, int max_cell_size) {
+    public void alterCacheDynamics(int max_cache_size, int max_cell_size) {
         MAX_CELL_SIZE = max_cell_size;
-        cache.setCacheSize(max_cache_size);
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.setMaxSize(max_cache_size / stripes.length);
+            }
+        }
     }
 
     /**
-     * Inner class that creates an object that hashes nicely over the cache
-     * source.
+     * Returns the hash of the cell at the given table/row/column.
      */
-    private final static class DCCacheKey {
-        final int row;
-        final short column;
-        final int table_id;
-
-        DCCacheKey(final int table_id, final short column, final int row) {
-            this.table_id = table_id;
-            this.column = column;
-            this.row = row;
-        }
-
-        public boolean equals(Object ob) {
-            DCCacheKey dest_key = (DCCacheKey) ob;
-            return row == dest_key.row &&
-                    column == dest_key.column &&
-                    table_id == dest_key.table_id;
-        }
+    private static int hashCode(int table_key, int row, int column) {
+        long h = ((((long) table_key) << 32) | (row & 0x0FFFFFFFFL)) *
+                0x9E3779B97F4A7C15L + column;
+        h ^= (h >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= (h >>> 33);
+        return (int) h;
+    }
 
-        public int hashCode() {
-            // Yicks - this one is the best by far!
-            return (((int) column + table_id + (row * 189977)) * 50021) << 4;
-        }
+    /**
+     * Returns the stripe for the given hash.
+     */
+    private Stripe stripeFor(int hash) {
+        return stripes[hash & (stripes.length - 1)];
     }
 
     /**
-     * Returns an approximation of the amount of memory taken by a TObject.
+     * Returns an approximation of the amount of memory taken by a cached
+     * TObject including the cache entry.
      */
     private static int amountMemory(TObject cell) {
-        return 16 + cell.approximateMemoryUse();
+        return ENTRY_SIZE + cell.approximateMemoryUse();
     }
 
     /**
      * Puts a TObject on the cache for the given row/column of the table.
      * Ignores any cells that are larger than the maximum size.
      */
-    public synchronized void put(int table_key, int row, int column,
-                                 TObject cell) {
+    public void put(int table_key, int row, int column, TObject cell) {
         int memory_use = amountMemory(cell);
         if (memory_use <= MAX_CELL_SIZE) {
-            // Generate the key
-            DCCacheKey key = new DCCacheKey(table_key, (short) column, row);
-            // If there is an existing object here, remove it from the cache and
-            // update the current_cache_size.
-            TObject removed_cell = (TObject) cache.remove(key);
-            if (removed_cell != null) {
-                current_cache_size -= amountMemory(removed_cell);
+            int hash = hashCode(table_key, row, column);
+            Stripe stripe = stripeFor(hash);
+            synchronized (stripe) {
+                stripe.put(hash, table_key, row, column, cell, memory_use);
             }
-            // Put the new entry in the cache
-            cache.put(key, cell);
-            current_cache_size += memory_use;
         } else {
             // If the object is larger than the minimum object size that can be
             // cached, remove any existing entry (possibly smaller) from the cache.
@@ -156,8 +163,12 @@ final class DataCellCache {
      * Gets a TObject from the cache.  If the row/column is not in the cache
      * then it returns null.
      */
-    public synchronized TObject get(int table_key, int row, int column) {
-        return (TObject) cache.get(new DCCacheKey(table_key, (short) column, row));
+    public TObject get(int table_key, int row, int column) {
+        int hash = hashCode(table_key, row, column);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            return stripe.get(hash, table_key, row, column);
+        }
     }
 
     /**
@@ -167,44 +178,88 @@ final class DataCellCache {
      * Returns the cell that was removed, or null if there was no cell at the
      * given location.
      */
-    public synchronized TObject remove(int table_key, int row, int column) {
-        TObject cell = (TObject) cache.remove(
-                new DCCacheKey(table_key, (short) column, row));
-
-        if (cell != null) {
-            current_cache_size -= amountMemory(cell);
+    public TObject remove(int table_key, int row, int column) {
+        int hash = hashCode(table_key, row, column);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            return stripe.remove(hash, table_key, row, column);
         }
-        return cell;
     }
 
     /**
      * Completely wipe the cache of all entries.
      */
-    public synchronized void wipe() {
-        if (cache.nodeCount() == 0 && current_cache_size != 0) {
-            system.Debug().write(Lvl.ERROR, this,
-                    "Assertion failed - if nodeCount = 0 then current_cache_size " +
-                            "must also be 0.");
-        }
-        if (cache.nodeCount() != 0) {
-            cache.removeAll();
+    public void wipe() {
+        boolean wiped = false;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.entry_count == 0 && stripe.total_size != 0) {
+                    system.Debug().write(Lvl.ERROR, this,
+                            "Assertion failed - if entry_count = 0 then " +
+                                    "total_size must also be 0.");
+                }
+                if (stripe.entry_count != 0) {
+                    wiped = true;
+                }
+                stripe.clear();
+            }
+        }
+        if (wiped) {
             system.stats().increment("DataCellCache.total_cache_wipe");
         }
-        current_cache_size = 0;
     }
 
     /**
      * Returns an estimation of the current cache size in bytes.
      */
-    public synchronized long getCurrentCacheSize() {
-        return current_cache_size;
+    public long getCurrentCacheSize() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.total_size;
+            }
+        }
+        return size;
     }
 
     /**
-     * Reduce the cache size by the given amount.
+     * Returns the number of times a cell was found in the cache.
      */
-    private void reduceCacheSize(long val) {
-        current_cache_size -= val;
+    public long getHitCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.hit_count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times a cell was not found in the cache.
+     */
+    public long getMissCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.miss_count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of cells evicted from the cache to make room for
+     * other cells.
+     */
+    public long getEvictionCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.eviction_count;
+            }
+        }
+        return count;
     }
 
     // ---------- Primes ----------
@@ -265,70 +320,470 @@ final class DataCellCache {
     // ---------- Inner classes ----------
 
     /**
-     * This extends the 'Cache' class.
+     * A cached cell.  An entry is in the hash chain of its bucket and in the
+     * list of the segment it belongs to.
+     */
+    private static final class Entry {
+
+        /**
+         * The table and row of the cell packed as (table_key << 32 | row).
+         */
+        final long key;
+
+        /**
+         * The column of the cell.
+         */
+        final int column;
+
+        /**
+         * The hash of the cell.
+         */
+        final int hash;
+
+        /**
+         * The cell.
+         */
+        TObject cell;
+
+        /**
+         * The memory used by the entry.
+         */
+        int size;
+
+        /**
+         * The segment the entry is in.
+         */
+        byte segment;
+
+        /**
+         * The next entry in the hash chain.
+         */
+        Entry hash_next;
+
+        /**
+         * The previous and next entries in the segment list.
+         */
+        Entry prev;
+        Entry next;
+
+        Entry(long key, int column, int hash) {
+            this.key = key;
+            this.column = column;
+            this.hash = hash;
+        }
+
+    }
+
+    /**
+     * A doubly linked list of entries ordered from the least recently used
+     * (the head) to the most recently used (the tail).
+     */
+    private static final class Segment {
+
+        /**
+         * The sentinel of the list.
+         */
+        final Entry sentinel = new Entry(0, 0, 0);
+
+        /**
+         * The total memory used by the entries in the list.
+         */
+        long size;
+
+        Segment() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        /**
+         * Returns the least recently used entry, or null if the list is empty.
+         */
+        Entry first() {
+            Entry e = sentinel.next;
+            return e == sentinel ? null : e;
+        }
+
+        /**
+         * Adds the entry as the most recently used.
+         */
+        void add(Entry e) {
+            e.prev = sentinel.prev;
+            e.next = sentinel;
+            sentinel.prev.next = e;
+            sentinel.prev = e;
+            size += e.size;
+        }
+
+        /**
+         * Removes the entry from the list.
+         */
+        void unlink(Entry e) {
+            e.prev.next = e.next;
+            e.next.prev = e.prev;
+            e.prev = null;
+            e.next = null;
+            size -= e.size;
+        }
+
+        /**
+         * Returns the entry after the given entry, or null if it's the most
+         * recently used.
+         */
+        Entry after(Entry e) {
+            return e.next == sentinel ? null : e.next;
+        }
+
+        void clear() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            size = 0;
+        }
+
+    }
+
+    /**
+     * A stripe of the cache.  All access is under a lock on the stripe.
      */
-    private final class DCCache extends Cache {
+    private static final class Stripe {
 
         /**
-         * The maximum size that the cache can grow to in bytes.
+         * The segments of the stripe.  New entries go in the window, an entry
+         * leaving the window goes on probation, and an entry accessed while
+         * on probation is protected.
          */
-        private int MAX_CACHE_SIZE;
+        private static final byte WINDOW = 0;
+        private static final byte PROBATION = 1;
+        private static final byte PROTECTED = 2;
+
+        private final Segment window = new Segment();
+        private final Segment probation = new Segment();
+        private final Segment protect = new Segment();
 
         /**
-         * The Constructor.
+         * The hash buckets.  The length is a power of 2.
          */
-        public DCCache(int cache_hash_size, int max_cache_size) {
-            super(cache_hash_size, -1, 20);
-            this.MAX_CACHE_SIZE = max_cache_size;
+        private Entry[] buckets;
+
+        /**
+         * The number of entries in the stripe.
+         */
+        int entry_count;
+
+        /**
+         * The memory used by all the entries in the stripe.
+         */
+        long total_size;
+
+        /**
+         * The maximum memory of the stripe, and of the window and protected
+         * segments.
+         */
+        private long max_size;
+        private long max_window_size;
+        private long max_protected_size;
+
+        /**
+         * The frequency of recent accesses to cells in this stripe.
+         */
+        private FrequencySketch sketch;
+
+        /**
+         * Counters of hits, misses and evictions.
+         */
+        long hit_count;
+        long miss_count;
+        long eviction_count;
+
+        Stripe(long max_size, int initial_capacity) {
+            buckets = new Entry[tableSizeFor(Math.max(initial_capacity, 16))];
+            setMaxSize(max_size);
         }
 
         /**
-         * Used to dynamically alter the size of the cache.  May cause a cache
-         * clean if the size is over the limit.
+         * Returns the smallest power of 2 that is greater or equal to the
+         * value.
          */
-        public void setCacheSize(int cache_size) {
-            this.MAX_CACHE_SIZE = cache_size;
-            checkClean();
+        private static int tableSizeFor(int value) {
+            return Integer.highestOneBit(Math.max(value - 1, 1)) << 1;
         }
 
-        // ----- Overwritten from Cache -----
+        /**
+         * Sets the maximum memory of the stripe, evicting entries if it's
+         * over the new maximum.
+         */
+        void setMaxSize(long max_size) {
+            this.max_size = max_size;
+            this.max_window_size = max_size / 100;
+            this.max_protected_size = (max_size - max_window_size) * 8 / 10;
+            // Assume an average cell of 64 bytes to size the sketch
+            sketch = new FrequencySketch((int) Math.min(max_size / 64, 1 << 20));
+            evict();
+        }
 
-        protected void checkClean() {
+        /**
+         * Returns the segment with the given id.
+         */
+        private Segment segment(byte id) {
+            return id == WINDOW ? window : (id == PROBATION ? probation : protect);
+        }
 
-            if (getCurrentCacheSize() >= MAX_CACHE_SIZE) {
+        /**
+         * Returns the entry for the cell, or null if it's not in the stripe.
+         */
+        private Entry find(int hash, long key, int column) {
+            Entry e = buckets[(hash >>> 6) & (buckets.length - 1)];
+            while (e != null &&
+                    (e.hash != hash || e.key != key || e.column != column)) {
+                e = e.hash_next;
+            }
+            return e;
+        }
 
-                // Update the current cache size (before we wiped).
-                system.stats().set((int) getCurrentCacheSize(),
-                        "DataCellCache.current_cache_size");
-                clear();
+        TObject get(int hash, int table_key, int row, int column) {
+            sketch.increment(hash);
+            Entry e = find(hash, packKey(table_key, row), column);
+            if (e == null) {
+                ++miss_count;
+                return null;
+            }
+            ++hit_count;
+            onAccess(e);
+            return e.cell;
+        }
 
-                // The number of times we've cleared away old data cell nodes.
-                system.stats().increment("DataCellCache.cache_clean");
+        void put(int hash, int table_key, int row, int column, TObject cell,
+                 int size) {
+            long key = packKey(table_key, row);
+            Entry e = find(hash, key, column);
+            if (e != null) {
+                // Replace the cell and account for the change of size
+                Segment segment = segment(e.segment);
+                segment.size += size - e.size;
+                total_size += size - e.size;
+                e.size = size;
+                e.cell = cell;
+                onAccess(e);
+            } else {
+                e = new Entry(key, column, hash);
+                e.cell = cell;
+                e.size = size;
+                e.segment = WINDOW;
+                int p = (hash >>> 6) & (buckets.length - 1);
+                e.hash_next = buckets[p];
+                buckets[p] = e;
+                window.add(e);
+                total_size += size;
+                ++entry_count;
+                if (entry_count > buckets.length) {
+                    resize();
+                }
+            }
+            evict();
+        }
 
+        TObject remove(int hash, int table_key, int row, int column) {
+            Entry e = find(hash, packKey(table_key, row), column);
+            if (e == null) {
+                return null;
             }
+            removeEntry(e);
+            return e.cell;
         }
-/*
-        protected boolean shouldWipeMoreNodes() {
-            return (getCurrentCacheSize() >= (int) ((MAX_CACHE_SIZE * 100L) / 115L));
+
+        void clear() {
+            Arrays.fill(buckets, null);
+            window.clear();
+            probation.clear();
+            protect.clear();
+            entry_count = 0;
+            total_size = 0;
         }
 
-        protected void notifyWipingNode(Object ob) {
-            super.notifyWipingNode(ob);
+        /**
+         * Moves an entry that was accessed to the most recently used position
+         * of its segment, and promotes it from probation to protected.
+         */
+        private void onAccess(Entry e) {
+            Segment segment = segment(e.segment);
+            segment.unlink(e);
+            if (e.segment == PROBATION) {
+                e.segment = PROTECTED;
+                protect.add(e);
+                // Demote the least recently used protected entries if the
+                // protected segment is too large.
+                while (protect.size > max_protected_size) {
+                    Entry demote = protect.first();
+                    protect.unlink(demote);
+                    demote.segment = PROBATION;
+                    probation.add(demote);
+                }
+            } else {
+                segment.add(e);
+            }
+        }
+
+        /**
+         * Removes an entry from the hash and its segment.
+         */
+        private void removeEntry(Entry e) {
+            int p = (e.hash >>> 6) & (buckets.length - 1);
+            Entry prev = null;
+            Entry walk = buckets[p];
+            while (walk != e) {
+                prev = walk;
+                walk = walk.hash_next;
+            }
+            if (prev == null) {
+                buckets[p] = e.hash_next;
+            } else {
+                prev.hash_next = e.hash_next;
+            }
+            e.hash_next = null;
+            segment(e.segment).unlink(e);
+            total_size -= e.size;
+            --entry_count;
+        }
+
+        /**
+         * Doubles the number of hash buckets.
+         */
+        private void resize() {
+            Entry[] old_buckets = buckets;
+            Entry[] new_buckets = new Entry[old_buckets.length * 2];
+            for (Entry e : old_buckets) {
+                while (e != null) {
+                    Entry next = e.hash_next;
+                    int p = (e.hash >>> 6) & (new_buckets.length - 1);
+                    e.hash_next = new_buckets[p];
+                    new_buckets[p] = e;
+                    e = next;
+                }
+            }
+            buckets = new_buckets;
+        }
+
+        /**
+         * Moves the entries over the size of the window on probation, and
+         * evicts entries until the stripe is within its maximum size.  An
+         * entry that left the window is only kept in place of the least
+         * recently used entry on probation if it is used more frequently.
+         */
+        private void evict() {
+            Entry candidate = null;
+            while (window.size > max_window_size) {
+                Entry e = window.first();
+                window.unlink(e);
+                e.segment = PROBATION;
+                probation.add(e);
+                if (candidate == null) {
+                    candidate = e;
+                }
+            }
+
+            while (total_size > max_size) {
+                Entry victim = probation.first();
+                if (victim == null) {
+                    victim = protect.first();
+                    if (victim == null) {
+                        victim = window.first();
+                        if (victim == null) {
+                            break;
+                        }
+                    }
+                }
+                if (candidate == null || candidate == victim) {
+                    if (candidate == victim) {
+                        candidate = probation.after(victim);
+                    }
+                    removeEntry(victim);
+                } else if (sketch.frequency(candidate.hash) >
+                        sketch.frequency(victim.hash)) {
+                    removeEntry(victim);
+                } else {
+                    Entry next = probation.after(candidate);
+                    removeEntry(candidate);
+                    candidate = next;
+                }
+                ++eviction_count;
+            }
+        }
+
+        private static long packKey(int table_key, int row) {
+            return (((long) table_key) << 32) | (row & 0x0FFFFFFFFL);
+        }
+
+    }
+
+    /**
+     * A count-min sketch of the frequency that cells are accessed, with 4 bit
+     * counters that are halved periodically so that the frequencies favour
+     * recent accesses.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {
+                0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L,
+                0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+        };
+
+        /**
+         * The counters, 16 to each long.
+         */
+        private final long[] table;
+
+        /**
+         * The number of increments before the counters are halved, and the
+         * number of increments since they were last halved.
+         */
+        private final int sample_size;
+        private int size;
 
-            // Update our memory indicator accordingly.
-            TObject cell = (TObject) ob;
-            reduceCacheSize(amountMemory(cell));
+        FrequencySketch(int capacity) {
+            int length = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+            table = new long[length / 4];
+            sample_size = length * 10;
+        }
 
+        /**
+         * Returns the index of the counter of the hash for the given row of
+         * the sketch.
+         */
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += (h >>> 32);
+            return ((int) h) & ((table.length << 4) - 1);
         }
 
-        protected void notifyGetWalks(long total_walks, long total_get_ops) {
-            int avg = (int) ((total_walks * 1000000L) / total_get_ops);
-            system.stats().set(avg, "DataCellCache.avg_hash_get_mul_1000000");
-            system.stats().set((int) getCurrentCacheSize(),
-                    "DataCellCache.current_cache_size");
-            system.stats().set(nodeCount(), "DataCellCache.current_node_count");
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; ++i) {
+                int index = indexOf(hash, i);
+                int shift = (index & 15) << 2;
+                long mask = 0x0FL << shift;
+                long word = table[index >>> 4];
+                if ((word & mask) != mask) {
+                    table[index >>> 4] = word + (1L << shift);
+                    added = true;
+                }
+            }
+            if (added && ++size >= sample_size) {
+                for (int i = 0; i < table.length; ++i) {
+                    table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+                }
+                size /= 2;
+            }
         }
-*/
+
+        int frequency(int hash) {
+            int frequency = 15;
+            for (int i = 0; i < 4; ++i) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0x0F);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
     }
 
 }
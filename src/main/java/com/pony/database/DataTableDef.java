@@ -33,6 +33,15 @@ import java.util.List;
 
 public class DataTableDef {
 
+    /**
+     * The table class of tables that are stored row by row, and of tables
+     * that are stored column by column.
+     */
+    public static final String ROW_TABLE_CLASS =
+            "com.pony.database.VariableSizeDataTableFile";
+    public static final String COLUMNAR_TABLE_CLASS =
+            "com.pony.database.ColumnarMasterTableDataSource";
+
     /**
      * A TableName object that represents this data table def.
      */
@@ -44,6 +53,13 @@ public class DataTableDef {
      */
     private String table_type_class;
 
+    /**
+     * Records of the table that are at least this size (in bytes) are
+     * compressed when they are written to the store, or 0 if records are not
+     * compressed.
+     */
+    private int record_compression_threshold;
+
     /**
      * The list of DataTableColumnDef objects that are the definitions of each
      * column in the table.
@@ -71,6 +87,7 @@ public class DataTableDef {
     public DataTableDef(DataTableDef table_def) {
         table_name = table_def.getTableName();
         table_type_class = table_def.table_type_class;
+        record_compression_threshold = table_def.record_compression_threshold;
         column_list = (ArrayList) table_def.column_list.clone();
 
         // Copy is not immutable
@@ -197,7 +214,7 @@ public class DataTableDef {
 
     public void setTableClass(String clazz) {
         checkMutable();
-        if (clazz.equals("com.pony.database.VariableSizeDataTableFile")) {
+        if (clazz.equals(ROW_TABLE_CLASS) || clazz.equals(COLUMNAR_TABLE_CLASS)) {
             table_type_class = clazz;
         } else {
             throw new IllegalArgumentException("Unrecognised table class: " + clazz);
@@ -245,6 +262,34 @@ public class DataTableDef {
         return table_type_class;
     }
 
+    /**
+     * Sets the size (in bytes) from which records of the table are compressed,
+     * or 0 if records are not compressed.
+     */
+    public void setRecordCompressionThreshold(int threshold) {
+        checkMutable();
+        if (threshold < 0) {
+            throw new IllegalArgumentException(
+                    "Negative record compression threshold: " + threshold);
+        }
+        record_compression_threshold = threshold;
+    }
+
+    /**
+     * Returns the size (in bytes) from which records of the table are
+     * compressed, or 0 if records are not compressed.
+     */
+    public int getRecordCompressionThreshold() {
+        return record_compression_threshold;
+    }
+
+    /**
+     * Returns true if the table is stored column by column.
+     */
+    public boolean isColumnar() {
+        return table_type_class.equals(COLUMNAR_TABLE_CLASS);
+    }
+
     public int columnCount() {
         return column_list.size();
     }
@@ -298,6 +343,7 @@ public class DataTableDef {
 //    def.setName(name);
 
         def.table_type_class = table_type_class;
+        def.record_compression_threshold = record_compression_threshold;
 
         return def;
     }
@@ -309,7 +355,9 @@ public class DataTableDef {
      * Writes this DataTableDef file to the data output stream.
      */
     void write(DataOutput out) throws IOException {
-        out.writeInt(2);  // Version number
+        // Version 3 is only written when records are compressed so the
+        // definitions of other tables are unchanged.
+        out.writeInt(record_compression_threshold == 0 ? 2 : 3);  // Version number
 
         out.writeUTF(getName());
         out.writeUTF(getSchema());            // Added in version 2
@@ -319,6 +367,11 @@ public class DataTableDef {
             ((DataTableColumnDef) o).write(out);
         }
 
+        // -- Added in version 3 --
+        if (record_compression_threshold != 0) {
+            out.writeInt(record_compression_threshold);
+        }
+
 //    // -- Added in version 2 --
 //    // Write the constraint list.
 //    out.writeInt(constraint_list.size());
@@ -348,7 +401,7 @@ public class DataTableDef {
 
             throw new IOException("Version 1 DataTableDef no longer supported.");
 
-        } else if (ver == 2) {
+        } else if (ver == 2 || ver == 3) {
 
             String rname = in.readUTF();
             String rschema = in.readUTF();
@@ -359,6 +412,9 @@ public class DataTableDef {
                 DataTableColumnDef col_def = DataTableColumnDef.read(in);
                 dtf.column_list.add(col_def);
             }
+            if (ver == 3) {
+                dtf.record_compression_threshold = in.readInt();
+            }
 
         } else {
             throw new IOException("Unrecognized DataTableDef version (" + ver + ")");
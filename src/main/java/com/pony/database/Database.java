@@ -20,10 +20,16 @@ package com.pony.database;
 
 import java.sql.*;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Properties;
 
 import com.pony.debug.*;
 import com.pony.util.Log;
@@ -31,6 +37,7 @@ import com.pony.util.Stats;
 import com.pony.database.global.*;
 import com.pony.database.control.DefaultDBConfig;
 import com.pony.database.jdbc.MSQLException;
+import com.pony.store.LoggingBufferManager;
 import com.pony.store.Store;
 import com.pony.store.MutableArea;
 
@@ -192,6 +199,12 @@ public final class Database implements DatabaseConstants {
      */
     public static final String INTERNAL_SECURE_USERNAME = "@SYSTEM";
 
+    /**
+     * The name of the file in a base backup directory that describes the
+     * backup and the journal archive sequence it starts from.
+     */
+    public static final String BASE_BACKUP_PROPERTIES = "backup.properties";
+
 
     // ---------- Members ----------
 
@@ -230,6 +243,12 @@ public final class Database implements DatabaseConstants {
      */
     private final TriggerManager trigger_manager;
 
+    /**
+     * The cache of prepared SELECT query plans, or null if plans are not
+     * cached.
+     */
+    private final QueryPlanCache query_plan_cache;
+
 
     /**
      * This log file records the DQL commands executed on the server.
@@ -267,6 +286,10 @@ public final class Database implements DatabaseConstants {
 
         trigger_manager = new TriggerManager(system);
 
+        int plan_cache_size = system.getConfigInt("query_plan_cache_size", 256);
+        query_plan_cache =
+                plan_cache_size > 0 ? new QueryPlanCache(plan_cache_size) : null;
+
     }
 
     /**
@@ -1460,6 +1483,20 @@ public final class Database implements DatabaseConstants {
                 TType.STRING_TYPE, new TType[]{TType.STRING_TYPE},
                 admin_user);
 
+        // Define the SYSTEM_MAKE_BASE_BACKUP procedure
+        manager.defineJavaProcedure(
+                new ProcedureName(SYSTEM_SCHEMA, "SYSTEM_MAKE_BASE_BACKUP"),
+                "com.pony.database.procedure.SystemBackup.makeBaseBackup(ProcedureConnection, String)",
+                TType.STRING_TYPE, new TType[]{TType.STRING_TYPE},
+                admin_user);
+
+        // Define the SYSTEM_ARCHIVE_JOURNALS procedure
+        manager.defineJavaProcedure(
+                new ProcedureName(SYSTEM_SCHEMA, "SYSTEM_ARCHIVE_JOURNALS"),
+                "com.pony.database.procedure.SystemBackup.archiveJournals(ProcedureConnection)",
+                TType.STRING_TYPE, new TType[]{},
+                admin_user);
+
         // -----
 
         // Set the grants for the procedures.
@@ -1475,6 +1512,20 @@ public final class Database implements DatabaseConstants {
                 "SYS_INFO.SYSTEM_MAKE_BACKUP",
                 admin_user, true, GRANTER);
 
+        grants.revokeAllGrantsOnObject(GrantManager.TABLE,
+                "SYS_INFO.SYSTEM_MAKE_BASE_BACKUP");
+        grants.addGrant(Privileges.PROCEDURE_EXECUTE_PRIVS,
+                GrantManager.TABLE,
+                "SYS_INFO.SYSTEM_MAKE_BASE_BACKUP",
+                admin_user, true, GRANTER);
+
+        grants.revokeAllGrantsOnObject(GrantManager.TABLE,
+                "SYS_INFO.SYSTEM_ARCHIVE_JOURNALS");
+        grants.addGrant(Privileges.PROCEDURE_EXECUTE_PRIVS,
+                GrantManager.TABLE,
+                "SYS_INFO.SYSTEM_ARCHIVE_JOURNALS",
+                admin_user, true, GRANTER);
+
     }
 
     /**
@@ -1955,6 +2006,112 @@ public final class Database implements DatabaseConstants {
 
     }
 
+    /**
+     * Persists every committed change and copies the journals to the journal
+     * archive.  Returns the sequence number of the last archived journal.
+     * This requires the 'journal_archive_path' configuration property.
+     */
+    public long archiveJournals() throws IOException {
+        if (!initialised) {
+            throw new IllegalStateException("The database is not initialized.");
+        }
+        return conglomerate.archiveJournals();
+    }
+
+    /**
+     * Makes a base copy of the database files in the given directory for an
+     * incremental backup.  The files are copied while the database is live so
+     * the copy is only consistent after the journals archived while it was
+     * made (from 'start_sequence' to 'consistent_sequence' in the backup
+     * properties) are replayed over it.  Later archived journals can be
+     * replayed to restore the database to a later point.  This requires the
+     * 'journal_archive_path' configuration property.  Returns the sequence
+     * number of the archived journal that makes the copy consistent.
+     */
+    public long makeBaseBackup(File path) throws IOException {
+        if (!initialised) {
+            throw new IllegalStateException("The database is not initialized.");
+        }
+        File db_path = system.getDatabasePath();
+        LoggingBufferManager buffer_manager = system.getBufferManager();
+        if (db_path == null || buffer_manager == null) {
+            throw new IllegalStateException(
+                    "Base backups require the v1file storage system.");
+        }
+        File properties_file = new File(path, BASE_BACKUP_PROPERTIES);
+        if (properties_file.exists()) {
+            throw new IOException("Path '" + path +
+                    "' already contains a base backup.");
+        }
+
+        // Persist and archive everything so far.  Every change after this is
+        // in a journal archived from 'start_sequence' on.
+        conglomerate.archiveJournals();
+        long start_sequence = buffer_manager.getLastArchiveSequence() + 1;
+
+        // Copy the resources, but not the journals or the lock file.
+        String[] names = db_path.list();
+        if (names == null) {
+            throw new IOException("Unable to list " + db_path);
+        }
+        Properties properties = new Properties();
+        String first_slice_ext = "." + TransactionSystem.DATA_FILE_EXT;
+        for (String name : names) {
+            File f = new File(db_path, name);
+            if (name.startsWith("jnl") || name.endsWith(".lock") ||
+                    !f.isFile()) {
+                continue;
+            }
+            if (name.endsWith(first_slice_ext)) {
+                String store_name = name.substring(0,
+                        name.length() - first_slice_ext.length());
+                properties.setProperty("data_file_slice_size." + store_name,
+                        Long.toString(system.getDataFileSliceSize(store_name)));
+            }
+            try {
+                Files.copy(f.toPath(), new File(path, name).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                // The resource was deleted during the copy.  The delete is in
+                // the archived journals.
+            }
+        }
+
+        // The copy may contain partly written pages, but every page written
+        // during the copy is in the journals archived up to here.
+        long consistent_sequence = conglomerate.archiveJournals();
+
+        properties.setProperty("database_name", getName());
+        properties.setProperty("page_size",
+                Integer.toString(buffer_manager.getPageSize()));
+        // The layout of the data files, so the journals are replayed into
+        // stores the database can open.  The names are the same as the
+        // configuration properties.
+        properties.setProperty("data_file_slice_size",
+                Long.toString(system.getConfigLong("data_file_slice_size",
+                        TransactionSystem.DEFAULT_DATA_FILE_SLICE_SIZE)));
+        for (String pool : buffer_manager.getBufferPoolNames()) {
+            if (!pool.equals("default")) {
+                properties.setProperty("buffer_pool_pages." + pool,
+                        Integer.toString(buffer_manager.getBufferPoolMaxPages(pool)));
+                properties.setProperty("buffer_pool_page_size." + pool,
+                        Integer.toString(buffer_manager.getBufferPoolPageSize(pool)));
+            }
+        }
+        properties.setProperty("start_sequence", Long.toString(start_sequence));
+        properties.setProperty("consistent_sequence",
+                Long.toString(consistent_sequence));
+        try (OutputStream out = new FileOutputStream(properties_file)) {
+            properties.store(out, "Pony base backup");
+        }
+
+        Debug().write(Lvl.MESSAGE, this, "Base backup made in " + path +
+                " (journals " + start_sequence + " to " + consistent_sequence +
+                ")");
+
+        return consistent_sequence;
+    }
+
     // ---------- Database convertion ----------
 
     /**
@@ -2367,6 +2524,10 @@ public final class Database implements DatabaseConstants {
             } else if (db_version.equals("1.4")) {
                 out.println("Version 1.4 found.");
                 out.println("Version of data files is current.");
+
+                // Rewrite the tables so their records are in the current
+                // record format.
+                convertAllUserTables(connection, out);
             } else if (!db_version.equals("1.4")) {
                 // This means older versions of the database will not support the data
                 // format of newer versions.
@@ -2532,6 +2693,14 @@ public final class Database implements DatabaseConstants {
         return getSystem().getDataCellCache();
     }
 
+    /**
+     * Returns the cache of prepared query plans for this database, or null
+     * if plans are not cached.
+     */
+    public final QueryPlanCache getQueryPlanCache() {
+        return query_plan_cache;
+    }
+
     /**
      * Returns true if the database has shut down.
      */
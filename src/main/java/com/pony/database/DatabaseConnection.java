@@ -72,6 +72,18 @@ public class DatabaseConnection implements TriggerListener {
      */
     private Transaction transaction;
 
+    /**
+     * The QueryPlanCache schema version the current transaction started at,
+     * or -1 if plans formed in the transaction must not be cached.
+     */
+    private long transaction_schema_version = -1;
+
+    /**
+     * True if the current transaction has changed the structure of the
+     * database in a way that can change how queries are planned.
+     */
+    private boolean schema_changed = false;
+
     /**
      * The current java.sql.Connection object that can be used to access the
      * transaction internally.
@@ -106,6 +118,13 @@ public class DatabaseConnection implements TriggerListener {
      */
     private boolean auto_commit;
 
+    /**
+     * If this is true then commits made by this connection return without
+     * waiting for the journal to be synchronized with the disk.  By default
+     * this is false.
+     */
+    private boolean async_commit;
+
     /**
      * The current transaction isolation level this connect is operating under.
      * 1 = READ UNCOMMITTED, 2 = READ COMMITTED, 3 = REPEATABLE READ,
@@ -243,7 +262,18 @@ public class DatabaseConnection implements TriggerListener {
     private Transaction getTransaction() {
         synchronized (this) {
             if (transaction == null) {
+                // Plans formed in this transaction are only cached if no
+                // schema change was committed while the transaction was
+                // created.
+                QueryPlanCache plan_cache = database.getQueryPlanCache();
+                long version = plan_cache == null ? -1 :
+                        plan_cache.getSchemaVersion();
                 transaction = conglomerate.createTransaction();
+                if (version != -1 && version != plan_cache.getSchemaVersion()) {
+                    version = -1;
+                }
+                transaction_schema_version = version;
+                schema_changed = false;
                 transaction.setErrorOnDirtySelect(error_on_dirty_select);
                 // Internal tables (connection statistics, etc)
                 transaction.addInternalTableInfo(connection_internal_table_info);
@@ -426,6 +456,23 @@ public class DatabaseConnection implements TriggerListener {
         auto_commit = status;
     }
 
+    /**
+     * Sets the asynchronous commit mode.  When true, a commit returns as soon
+     * as the changes are in the journal and a background thread makes them
+     * durable a short time later.  A crash may lose the most recent commits
+     * but never part of a commit.
+     */
+    public void setAsyncCommit(boolean status) {
+        async_commit = status;
+    }
+
+    /**
+     * Returns true if this connection is in asynchronous commit mode.
+     */
+    public boolean getAsyncCommit() {
+        return async_commit;
+    }
+
     /**
      * Sets the transaction isolation level from a string.
      */
@@ -691,6 +738,7 @@ public class DatabaseConnection implements TriggerListener {
      */
     public void createTable(DataTableDef table_def) {
         checkAllowCreate(table_def.getTableName());
+        schemaChanged();
         getTransaction().createTable(table_def);
     }
 
@@ -703,6 +751,7 @@ public class DatabaseConnection implements TriggerListener {
     public void createTable(DataTableDef table_def,
                             int data_sector_size, int index_sector_size) {
         checkAllowCreate(table_def.getTableName());
+        schemaChanged();
         getTransaction().createTable(table_def,
                 data_sector_size, index_sector_size);
     }
@@ -750,6 +799,7 @@ public class DatabaseConnection implements TriggerListener {
      */
     public void updateTable(DataTableDef table_def) {
         checkAllowCreate(table_def.getTableName());
+        schemaChanged();
         getTransaction().alterTable(table_def.getTableName(), table_def);
     }
 
@@ -763,6 +813,7 @@ public class DatabaseConnection implements TriggerListener {
     public void updateTable(DataTableDef table_def,
                             int data_sector_size, int index_sector_size) {
         checkAllowCreate(table_def.getTableName());
+        schemaChanged();
         getTransaction().alterTable(table_def.getTableName(), table_def,
                 data_sector_size, index_sector_size);
     }
@@ -797,11 +848,32 @@ public class DatabaseConnection implements TriggerListener {
         }
     }
 
+    /**
+     * Marks the current transaction as having changed the structure of the
+     * database.  When the transaction commits the query plan cache is
+     * invalidated.
+     */
+    private void schemaChanged() {
+        getTransaction();
+        schema_changed = true;
+    }
+
+    /**
+     * Returns the QueryPlanCache schema version of the current transaction,
+     * or -1 if query plans formed in the transaction must not be cached or
+     * looked up in the cache.  This starts a transaction if one isn't open.
+     */
+    public long getSchemaVersion() {
+        getTransaction();
+        return schema_changed ? -1 : transaction_schema_version;
+    }
+
     /**
      * Notifies this transaction that a database object with the given name has
      * successfully been created.
      */
     void databaseObjectCreated(TableName table_name) {
+        schemaChanged();
         getTransaction().databaseObjectCreated(table_name);
     }
 
@@ -810,6 +882,7 @@ public class DatabaseConnection implements TriggerListener {
      * successfully been dropped.
      */
     void databaseObjectDropped(TableName table_name) {
+        schemaChanged();
         getTransaction().databaseObjectDropped(table_name);
     }
 
@@ -840,6 +913,7 @@ public class DatabaseConnection implements TriggerListener {
      * transaction.
      */
     public void dropTable(TableName table_name) {
+        schemaChanged();
         getTransaction().dropTable(table_name);
     }
 
@@ -864,6 +938,7 @@ public class DatabaseConnection implements TriggerListener {
      */
     public void createIndex(TableName table_name, String index_name,
                             String[] column_names, boolean unique) {
+        schemaChanged();
         getTransaction().createIndex(table_name, index_name, column_names, unique);
     }
 
@@ -871,6 +946,7 @@ public class DatabaseConnection implements TriggerListener {
      * Drops an index from a table.
      */
     public void dropIndex(TableName table_name, String index_name) {
+        schemaChanged();
         getTransaction().dropIndex(table_name, index_name);
     }
 
@@ -1150,6 +1226,7 @@ public class DatabaseConnection implements TriggerListener {
     public void createSchema(String name, String type) {
         // Assert
         checkExclusive();
+        schemaChanged();
         getTransaction().createSchema(name, type);
     }
 
@@ -1159,6 +1236,7 @@ public class DatabaseConnection implements TriggerListener {
     public void dropSchema(String name) {
         // Assert
         checkExclusive();
+        schemaChanged();
         getTransaction().dropSchema(name);
     }
 
@@ -1485,10 +1563,15 @@ public class DatabaseConnection implements TriggerListener {
         tables_cache.clear();
 
         if (transaction != null) {
+            QueryPlanCache plan_cache =
+                    schema_changed ? database.getQueryPlanCache() : null;
+            if (plan_cache != null) {
+                plan_cache.beginSchemaChange();
+            }
             try {
 
                 // Close and commit the transaction
-                transaction.closeAndCommit();
+                transaction.closeAndCommit(async_commit);
 
                 // Fire all SQL action level triggers that were generated on actions.
                 database.getTriggerManager().flushTriggerEvents(trigger_event_list);
@@ -1497,6 +1580,9 @@ public class DatabaseConnection implements TriggerListener {
             } finally {
                 // Dispose the current transaction
                 disposeTransaction();
+                if (plan_cache != null) {
+                    plan_cache.endSchemaChange();
+                }
             }
         }
     }
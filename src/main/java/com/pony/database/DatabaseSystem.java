@@ -101,7 +101,7 @@ public final class DatabaseSystem extends TransactionSystem {
             // Set up the statement cache.
             status = getConfigBoolean("statement_cache", true);
             if (status) {
-                statement_cache = new StatementCache(this, 127, 140, 20);
+                statement_cache = new StatementCache(this, 140);
             }
             Debug().write(Lvl.MESSAGE, DatabaseSystem.class,
                     "statement_cache = " + status);
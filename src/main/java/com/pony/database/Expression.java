@@ -711,6 +711,8 @@ public final class Expression implements java.io.Serializable, Cloneable {
         } else if (ob instanceof FunctionDef) {
             Function fun = ((FunctionDef) ob).getFunction(context);
             return fun.evaluate(group, resolver, context);
+        } else if (ob instanceof ParameterSubstitution) {
+            return context.getParameter(((ParameterSubstitution) ob).getID());
         } else {
             if (ob == null) {
                 throw new NullPointerException("Null element in expression");
@@ -768,6 +770,9 @@ public final class Expression implements java.io.Serializable, Cloneable {
         } else if (ob instanceof CorrelatedVariable) {
             CorrelatedVariable variable = (CorrelatedVariable) ob;
             return variable.returnTType();
+        } else if (ob instanceof ParameterSubstitution) {
+            return context.getParameter(
+                    ((ParameterSubstitution) ob).getID()).getTType();
         } else {
             throw new IllegalStateException(
                     "Unable to determine type for expression.");
@@ -18,6 +18,8 @@
 
 package com.pony.database;
 
+import com.pony.store.LoggingBufferManager;
+import com.pony.util.BoundedCache;
 import com.pony.util.Stats;
 
 /**
@@ -42,12 +44,46 @@ final class GTStatisticsDataSource extends GTDataSource {
      */
     private Stats stats;
 
+    /**
+     * The buffer manager of the database, or null if the database isn't
+     * stored in the file system.
+     */
+    private LoggingBufferManager buffer_manager;
+
+    /**
+     * The connection the statistics are for.
+     */
+    private final DatabaseConnection connection;
+
     /**
      * Constructor.
      */
     public GTStatisticsDataSource(DatabaseConnection connection) {
         super(connection.getSystem());
+        this.connection = connection;
         stats = connection.getDatabase().stats();
+        buffer_manager = connection.getSystem().getBufferManager();
+    }
+
+    /**
+     * Sets the hit, miss and eviction statistics of a cache.
+     */
+    private void setCacheStats(String prefix, long hits, long misses,
+                               long evictions) {
+        long total = hits + misses;
+        stats.set((int) hits, prefix + ".hits");
+        stats.set((int) misses, prefix + ".misses");
+        stats.set((int) evictions, prefix + ".evictions");
+        stats.set(total == 0 ? 0 : (int) ((hits * 100) / total),
+                prefix + ".hit_percentage");
+    }
+
+    /**
+     * Sets the statistics of a BoundedCache.
+     */
+    private void setCacheStats(String prefix, BoundedCache<?, ?> cache) {
+        setCacheStats(prefix, cache.getHitCount(), cache.getMissCount(),
+                cache.getEvictionCount());
     }
 
     /**
@@ -60,6 +96,60 @@ final class GTStatisticsDataSource extends GTDataSource {
                     "Runtime.memory.freeKB");
             stats.set((int) (Runtime.getRuntime().totalMemory() / 1024),
                     "Runtime.memory.totalKB");
+            if (buffer_manager != null) {
+                stats.set((int) (buffer_manager.getJournalPageBytesLogged() / 1024),
+                        "Journal.page_data_loggedKB");
+                stats.set((int) (buffer_manager.getJournalPageBytesWritten() / 1024),
+                        "Journal.page_data_writtenKB");
+                stats.set((int) buffer_manager.getJournalCheckPointSynchCount(),
+                        "Journal.check_point_synchs");
+                stats.set((int) buffer_manager.getBackgroundFlushCount(),
+                        "BufferManager.background_flushed_pages");
+                stats.set((int) buffer_manager.getPrefetchCount(),
+                        "BufferManager.prefetch_pages");
+                stats.set((int) buffer_manager.getPrefetchHitCount(),
+                        "BufferManager.prefetch_hits");
+                stats.set((int) buffer_manager.getPrefetchWasteCount(),
+                        "BufferManager.prefetch_wasted");
+                for (String pool : buffer_manager.getBufferPoolNames()) {
+                    String prefix = "BufferManager.pool." + pool + ".";
+                    stats.set(buffer_manager.getBufferPoolMaxPages(pool),
+                            prefix + "max_pages");
+                    stats.set((int) buffer_manager.getBufferPoolMissCount(pool),
+                            prefix + "misses");
+                    stats.set((int) buffer_manager.getBufferPoolEvictionCount(pool),
+                            prefix + "evictions");
+                }
+            }
+
+            StatementCache statement_cache =
+                    connection.getSystem().getStatementCache();
+            if (statement_cache != null) {
+                setCacheStats("StatementCache", statement_cache.getCache());
+            }
+            DataCellCache data_cell_cache =
+                    connection.getDatabase().getDataCellCache();
+            if (data_cell_cache != null) {
+                setCacheStats("DataCellCache", data_cell_cache.getHitCount(),
+                        data_cell_cache.getMissCount(),
+                        data_cell_cache.getEvictionCount());
+            }
+            BoundedCache<?, ?> columnar_segment_cache =
+                    connection.getSystem().getColumnarSegmentCache();
+            if (columnar_segment_cache != null) {
+                setCacheStats("ColumnarSegmentCache", columnar_segment_cache);
+            }
+            setCacheStats("Connection.privilege_cache",
+                    connection.getGrantManager().getPrivilegeCache());
+            QueryPlanCache query_plan_cache =
+                    connection.getDatabase().getQueryPlanCache();
+            if (query_plan_cache != null) {
+                setCacheStats("QueryPlanCache", query_plan_cache.getHitCount(),
+                        query_plan_cache.getMissCount(),
+                        query_plan_cache.getEvictionCount());
+                stats.set((int) query_plan_cache.getInvalidationCount(),
+                        "QueryPlanCache.invalidations");
+            }
 
             String[] key_set = stats.keyList();
             int glob_length = key_set.length * 2;
@@ -102,6 +192,7 @@ final class GTStatisticsDataSource extends GTDataSource {
         super.dispose();
         statistics_info = null;
         stats = null;
+        buffer_manager = null;
     }
 
     // ---------- Static ----------
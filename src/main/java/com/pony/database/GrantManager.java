@@ -20,7 +20,7 @@ package com.pony.database;
 
 import com.pony.util.IntegerVector;
 import com.pony.util.BigNumber;
-import com.pony.util.Cache;
+import com.pony.util.BoundedCache;
 
 /**
  * A class that manages the grants on a database for a given database
@@ -97,7 +97,7 @@ public class GrantManager {
      * A cache of privileges for the various tables in the database.  This cache
      * is populated as the user 'visits' a table.
      */
-    private final Cache priv_cache;
+    private final BoundedCache<GrantQuery, Privileges> priv_cache;
 
     /**
      * Set to true if the grant table is modified in this manager.
@@ -112,7 +112,7 @@ public class GrantManager {
     GrantManager(DatabaseConnection connection) {
         this.connection = connection;
         this.context = new DatabaseQueryContext(connection);
-        this.priv_cache = new Cache(129, 129, 20);
+        this.priv_cache = new BoundedCache<>(129);
 
         this.grant_table_changed = false;
 
@@ -138,11 +138,18 @@ public class GrantManager {
 
     // ---------- Private priv caching methods ----------
 
+    /**
+     * Returns the cache of privileges of this connection.
+     */
+    BoundedCache<?, ?> getPrivilegeCache() {
+        return priv_cache;
+    }
+
     /**
      * Flushes any grant information that's being cached.
      */
     private void invalidateGrantCache() {
-        priv_cache.removeAll();
+        priv_cache.clear();
     }
 
     /**
@@ -191,7 +198,7 @@ public class GrantManager {
                 only_grant_options, include_public_privs);
 
         // Is the Privileges object for this query already in the cache?
-        Privileges privs = (Privileges) priv_cache.get(key);
+        Privileges privs = priv_cache.get(key);
         if (privs == null) {
             // Not in cache so we need to ask database for the information.
 
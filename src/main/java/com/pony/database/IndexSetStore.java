@@ -19,6 +19,7 @@
 package com.pony.database;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import com.pony.util.IntegerListInterface;
@@ -986,10 +987,10 @@ final class IndexSetStore {
                 // The total size of the entry.
                 int area_size = (count * entry_size);
 
-                // Read in the byte array
-                byte[] buf = new byte[area_size];
+                // The entries are read in place from the store's buffer
+                ByteBuffer buf;
                 try {
-                    store.getArea(block_p).get(buf, 0, area_size);
+                    buf = store.getArea(block_p).getByteBuffer(area_size);
                 } catch (IOException e) {
                     debug.write(Lvl.ERROR, this, "block_p = " + block_p);
                     debug.writeException(e);
@@ -999,10 +1000,10 @@ final class IndexSetStore {
                 // Uncompact it into the int array
                 int p = 0;
                 for (int i = 0; i < count; ++i) {
-                    int v = (((int) buf[p]) << ((entry_size - 1) * 8));
+                    int v = (((int) buf.get(p)) << ((entry_size - 1) * 8));
                     ++p;
                     for (int n = entry_size - 2; n >= 0; --n) {
-                        v = v | ((((int) buf[p]) & 0x0FF) << (n * 8));
+                        v = v | ((((int) buf.get(p)) & 0x0FF) << (n * 8));
                         ++p;
                     }
                     array[i] = v;
@@ -1258,12 +1259,14 @@ final class IndexSetStore {
             long[] blocks = new long[(int) block_entries];
             if (block_entries != 0) {
                 index_block_area.position(16);
+                ByteBuffer entries =
+                        index_block_area.getByteBuffer((int) block_entries * 28);
                 for (int i = 0; i < block_entries; ++i) {
                     // NOTE: We cast to 'int' here because of internal limitations.
-                    index_block_area.getLong();
-                    index_block_area.getLong();
-                    long element_p = index_block_area.getLong();
-                    index_block_area.getInt();
+                    entries.getLong();
+                    entries.getLong();
+                    long element_p = entries.getLong();
+                    entries.getInt();
 
                     blocks[i] = element_p;
                 }
@@ -1283,12 +1286,14 @@ final class IndexSetStore {
             MappedListBlock[] blocks = new MappedListBlock[(int) block_entries];
             if (block_entries != 0) {
                 index_block_area.position(16);
+                ByteBuffer entries =
+                        index_block_area.getByteBuffer((int) block_entries * 28);
                 for (int i = 0; i < block_entries; ++i) {
                     // NOTE: We cast to 'int' here because of internal limitations.
-                    long first_entry = index_block_area.getLong();
-                    long last_entry = index_block_area.getLong();
-                    long element_p = index_block_area.getLong();
-                    int type_size = index_block_area.getInt();
+                    long first_entry = entries.getLong();
+                    long last_entry = entries.getLong();
+                    long element_p = entries.getLong();
+                    int type_size = entries.getInt();
 
                     // size is the first 24 bits (max size = 16MB)
                     int element_count = type_size & 0x0FFF;
@@ -507,6 +507,16 @@ abstract class MasterTableDataSource {
         return true;
     }
 
+    /**
+     * Creates the SelectableScheme for a column of the given table that has
+     * no index.  By default this is a BlindSearch, but a table that knows
+     * something about the values in its columns may return a scheme that
+     * uses it.
+     */
+    SelectableScheme createUnindexedScheme(TableDataSource table, int column) {
+        return new BlindSearch(table, column);
+    }
+
     /**
      * Creates a SelectableScheme object for the given column in this table.
      * This reads the index from the index set (if there is one) then wraps
@@ -521,7 +531,7 @@ abstract class MasterTableDataSource {
 
         // If the column isn't indexable then return a BlindSearch object
         if (!column_def.isIndexableType()) {
-            return new BlindSearch(table, column);
+            return createUnindexedScheme(table, column);
         }
 
         String scheme_type = column_def.getIndexScheme();
@@ -532,7 +542,7 @@ abstract class MasterTableDataSource {
                     new String[]{column_def.getName()});
             return createSelectableSchemeForIndex(index_set, table, index_i);
         } else if (scheme_type.equals("BlindSearch")) {
-            return new BlindSearch(table, column);
+            return createUnindexedScheme(table, column);
         } else {
             throw new IllegalStateException("Unknown scheme type");
         }
@@ -1756,7 +1766,7 @@ abstract class MasterTableDataSource {
 
             SelectableScheme scheme = column_schemes[column];
             if (scheme == null) {
-                scheme = new BlindSearch(this, column);
+                scheme = createUnindexedScheme(this, column);
                 column_schemes[column] = scheme;
             }
             ensureColumnSchemeCurrent(column);
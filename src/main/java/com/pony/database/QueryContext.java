@@ -91,4 +91,10 @@ public interface QueryContext {
      */
     void clearCache();
 
+    /**
+     * Returns the value of the parameter substitution with the given id in
+     * the query being evaluated.  The first '?' in a query is id 0.
+     */
+    TObject getParameter(int id);
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.database;
+
+import com.pony.util.BoundedCache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of prepared QueryPlanNode trees for SELECT statements.  A plan is
+ * keyed by the query string and the schema and identifier case mode of the
+ * connection that formed it, and is tagged with the schema version the
+ * connection's transaction started at.  Parameters are left unsubstituted in
+ * a cached plan and are bound from the QueryContext when it is evaluated.
+ * <p>
+ * The schema version changes whenever a transaction that altered the
+ * structure of the database (tables, views, schema, indexes, etc) commits,
+ * so a plan formed against one schema is never returned to a transaction
+ * that can see another.
+ * <p>
+ * SYNCHRONIZATION: This object is safe to use over multiple threads.
+ *
+ * @author Tobias Downer
+ */
+
+public final class QueryPlanCache {
+
+    /**
+     * The cache of plans.
+     */
+    private final BoundedCache<Key, Plan> cache;
+
+    /**
+     * The current schema version.
+     */
+    private long schema_version;
+
+    /**
+     * The number of schema altering commits currently in progress.
+     */
+    private int schema_changes_in_progress;
+
+    /**
+     * The number of times the cache was invalidated by a schema change.
+     */
+    private long invalidation_count;
+
+    /**
+     * The number of lookups that returned a plan, and the number of plans
+     * that had to be formed because no usable plan was cached.
+     */
+    private final LongAdder hit_count = new LongAdder();
+    private final LongAdder miss_count = new LongAdder();
+
+    /**
+     * Constructs the cache of up to 'max_size' plans.
+     */
+    public QueryPlanCache(int max_size) {
+        cache = new BoundedCache<>(max_size);
+    }
+
+    /**
+     * Returns the current schema version, or -1 if a schema altering commit
+     * is in progress and the version can't be relied upon.
+     */
+    public synchronized long getSchemaVersion() {
+        if (schema_changes_in_progress > 0) {
+            return -1;
+        }
+        return schema_version;
+    }
+
+    /**
+     * Notifies the cache that a transaction that altered the schema is about
+     * to commit.  Must be followed by a call to 'endSchemaChange'.
+     */
+    public synchronized void beginSchemaChange() {
+        ++schema_changes_in_progress;
+        ++schema_version;
+    }
+
+    /**
+     * Notifies the cache that a schema altering commit has finished (either
+     * successfully or not).  All plans in the cache are invalidated.
+     */
+    public void endSchemaChange() {
+        synchronized (this) {
+            --schema_changes_in_progress;
+            ++schema_version;
+            ++invalidation_count;
+        }
+        cache.clear();
+    }
+
+    /**
+     * Returns a copy of the plan stored with the given key that is safe to
+     * evaluate in the connection's transaction, or null if there is no plan
+     * for the key or the plan was formed against a different schema.  The
+     * schema version of the connection is only queried when a plan is found
+     * so a lookup for a statement that isn't cached won't open a
+     * transaction.
+     */
+    public Plan get(Key key, DatabaseConnection connection) {
+        Plan plan = cache.get(key);
+        if (plan == null ||
+                plan.schema_version != connection.getSchemaVersion()) {
+            return null;
+        }
+        hit_count.increment();
+        return plan.copy();
+    }
+
+    /**
+     * Stores a copy of the given newly formed plan in the cache.  The given
+     * plan must not have been evaluated.
+     */
+    public void put(Key key, Plan plan) {
+        miss_count.increment();
+        cache.put(key, plan.copy());
+    }
+
+    /**
+     * Returns the number of times the cache was invalidated by a schema
+     * change.
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidation_count;
+    }
+
+    /**
+     * Returns the number of lookups that returned a plan.
+     */
+    public long getHitCount() {
+        return hit_count.sum();
+    }
+
+    /**
+     * Returns the number of plans that were formed because no usable plan was
+     * cached.
+     */
+    public long getMissCount() {
+        return miss_count.sum();
+    }
+
+    /**
+     * Returns the number of plans evicted from the cache to make room for
+     * others.
+     */
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    // ---------- Inner classes ----------
+
+    /**
+     * The key of a plan in the cache.
+     */
+    public static final class Key {
+
+        private final String query;
+        private final String schema;
+        private final boolean case_insensitive;
+        private final int hash_code;
+
+        public Key(String query, String schema, boolean case_insensitive) {
+            this.query = query;
+            this.schema = schema;
+            this.case_insensitive = case_insensitive;
+            int h = query.hashCode();
+            h = (31 * h) + (schema == null ? 0 : schema.hashCode());
+            h = (31 * h) + (case_insensitive ? 1 : 0);
+            hash_code = h;
+        }
+
+        public int hashCode() {
+            return hash_code;
+        }
+
+        public boolean equals(Object ob) {
+            if (!(ob instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) ob;
+            return hash_code == k.hash_code &&
+                    case_insensitive == k.case_insensitive &&
+                    query.equals(k.query) &&
+                    (schema == null ? k.schema == null : schema.equals(k.schema));
+        }
+
+    }
+
+    /**
+     * A prepared query plan with the row limit and offset of the query, and
+     * the schema version it was formed against.
+     */
+    public static final class Plan {
+
+        private final QueryPlanNode plan;
+        private final int limit;
+        private final int offset;
+        private final long schema_version;
+
+        public Plan(QueryPlanNode plan, int limit, int offset,
+                    long schema_version) {
+            this.plan = plan;
+            this.limit = limit;
+            this.offset = offset;
+            this.schema_version = schema_version;
+        }
+
+        public QueryPlanNode getPlan() {
+            return plan;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns a deep copy of this plan.  Expressions in a plan keep
+         * evaluation state so a plan may only be evaluated by one thread.
+         */
+        Plan copy() {
+            try {
+                return new Plan((QueryPlanNode) plan.clone(), limit, offset,
+                        schema_version);
+            } catch (CloneNotSupportedException e) {
+                throw new Error("Unable to clone query plan: " + e.getMessage());
+            }
+        }
+
+    }
+
+}
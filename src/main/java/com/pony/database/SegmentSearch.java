@@ -0,0 +1,310 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.database;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.pony.util.IntegerVector;
+
+/**
+ * A scheme for an unindexed column of a ColumnarMasterTableDataSource.
+ * Like BlindSearch it records no information about the set and checks the
+ * elements against the criteria of a select, but the rows of a column
+ * segment whose smallest and largest values show that none of its rows can
+ * meet the criteria are skipped without being read.
+ *
+ * @author Tobias Downer
+ */
+
+final class SegmentSearch extends SelectableScheme {
+
+    /**
+     * The table that stores the column segments.
+     */
+    private final ColumnarMasterTableDataSource master;
+
+    /**
+     * The Constructor.
+     */
+    SegmentSearch(TableDataSource table, int column,
+                  ColumnarMasterTableDataSource master) {
+        super(table, column);
+        this.master = master;
+    }
+
+    /**
+     * This scheme doesn't take any notice of insertions or removals.
+     */
+    void insert(int row) {
+        if (isImmutable()) {
+            throw new IllegalStateException("Tried to change an immutable scheme.");
+        }
+    }
+
+    /**
+     * This scheme doesn't take any notice of insertions or removals.
+     */
+    void remove(int row) {
+        if (isImmutable()) {
+            throw new IllegalStateException("Tried to change an immutable scheme.");
+        }
+    }
+
+    public void readFrom(InputStream in) throws IOException {
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+    }
+
+    public SelectableScheme copy(TableDataSource table, boolean immutable) {
+        // This implementation has no state so we can ignore the 'immutable'
+        // flag.
+        return new SegmentSearch(table, getColumn(), master);
+    }
+
+    public void dispose() {
+    }
+
+    /**
+     * Returns the given rows sorted by the value of their cell in the column.
+     * Rows with equal values stay in the order they are given.
+     */
+    private static IntegerVector sortByValue(IntegerVector rows,
+                                             ArrayList<TObject> values) {
+        int size = rows.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> values.get(a).compareTo(values.get(b)));
+        IntegerVector sorted = new IntegerVector(size);
+        for (int i = 0; i < size; ++i) {
+            sorted.addInt(rows.intAt(order[i]));
+        }
+        return sorted;
+    }
+
+    public IntegerVector selectAll() {
+        IntegerVector rows = new IntegerVector(getTable().getRowCount());
+        ArrayList<TObject> values = new ArrayList<>(getTable().getRowCount());
+        RowEnumeration e = getTable().rowEnumeration();
+        while (e.hasMoreRows()) {
+            int row = e.nextRowIndex();
+            rows.addInt(row);
+            values.add(getCellContents(row));
+        }
+        return sortByValue(rows, values);
+    }
+
+    IntegerVector selectRange(SelectableRange range) {
+        return selectRange(new SelectableRange[]{range});
+    }
+
+    IntegerVector selectRange(SelectableRange[] ranges) {
+        // If no items in the set return an empty set
+        if (getTable().getRowCount() == 0) {
+            return new IntegerVector(0);
+        }
+        return new RangeChecker(ranges).resolve();
+    }
+
+
+    // ---------- Inner classes ----------
+
+    /**
+     * Object used to during range check loop.
+     */
+    private final class RangeChecker {
+
+        /**
+         * The sorted list of all items in the set created as a cache for finding
+         * the first and last values.
+         */
+        private IntegerVector sorted_set = null;
+
+        /**
+         * The list of flags for each check in the range.
+         * Either 0 for no check, 1 for < or >, 2 for <= or >=.
+         */
+        private final byte[] lower_flags;
+        private final byte[] upper_flags;
+
+        /**
+         * The TObject objects to check against.
+         */
+        private final TObject[] lower_cells;
+        private final TObject[] upper_cells;
+
+        RangeChecker(SelectableRange[] ranges) {
+            int size = ranges.length;
+            lower_flags = new byte[size];
+            upper_flags = new byte[size];
+            lower_cells = new TObject[size];
+            upper_cells = new TObject[size];
+            for (int i = 0; i < ranges.length; ++i) {
+                setupRange(i, ranges[i]);
+            }
+        }
+
+        /**
+         * Resolves a cell.
+         */
+        private TObject resolveCell(TObject ob) {
+            if (ob == SelectableRange.FIRST_IN_SET ||
+                    ob == SelectableRange.LAST_IN_SET) {
+                if (sorted_set == null) {
+                    sorted_set = selectAll();
+                }
+                return getCellContents(sorted_set.intAt(
+                        ob == SelectableRange.FIRST_IN_SET
+                                ? 0 : sorted_set.size() - 1));
+            }
+            return ob;
+        }
+
+        /**
+         * Set up a range.
+         */
+        private void setupRange(int i, SelectableRange range) {
+            TObject l = range.getStart();
+            byte lf = range.getStartFlag();
+            TObject u = range.getEnd();
+            byte uf = range.getEndFlag();
+
+            // Handle lower first
+            if (l == SelectableRange.FIRST_IN_SET &&
+                    lf == SelectableRange.FIRST_VALUE) {
+                // Special case no lower check
+                lower_flags[i] = 0;
+            } else {
+                if (lf == SelectableRange.FIRST_VALUE) {
+                    lower_flags[i] = 2;  // >=
+                } else if (lf == SelectableRange.AFTER_LAST_VALUE) {
+                    lower_flags[i] = 1;  // >
+                } else {
+                    throw new IllegalArgumentException("Incorrect lower flag.");
+                }
+                lower_cells[i] = resolveCell(l);
+            }
+
+            // Now handle upper
+            if (u == SelectableRange.LAST_IN_SET &&
+                    uf == SelectableRange.LAST_VALUE) {
+                // Special case no upper check
+                upper_flags[i] = 0;
+            } else {
+                if (uf == SelectableRange.LAST_VALUE) {
+                    upper_flags[i] = 2;  // <=
+                } else if (uf == SelectableRange.BEFORE_FIRST_VALUE) {
+                    upper_flags[i] = 1;  // <
+                } else {
+                    throw new IllegalArgumentException("Incorrect upper flag.");
+                }
+                upper_cells[i] = resolveCell(u);
+            }
+        }
+
+        /**
+         * Returns true if a value between 'min' and 'max' may be in one of the
+         * ranges.
+         */
+        private boolean mayMatch(TObject min, TObject max) {
+            for (int i = 0; i < lower_flags.length; ++i) {
+                byte lf = lower_flags[i];
+                if (lf != 0) {
+                    int compare = lower_cells[i].compareTo(max);
+                    if (lf == 1 ? compare >= 0 : compare > 0) {
+                        continue;
+                    }
+                }
+                byte uf = upper_flags[i];
+                if (uf != 0) {
+                    int compare = upper_cells[i].compareTo(min);
+                    if (uf == 1 ? compare <= 0 : compare < 0) {
+                        continue;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns true if the value is in one of the ranges.
+         */
+        private boolean matches(TObject v) {
+            for (int i = 0; i < lower_flags.length; ++i) {
+                byte lf = lower_flags[i];
+                if (lf != 0) {
+                    int compare = lower_cells[i].compareTo(v);
+                    if (lf == 1 ? compare >= 0 : compare > 0) {
+                        continue;
+                    }
+                }
+                byte uf = upper_flags[i];
+                if (uf != 0) {
+                    int compare = upper_cells[i].compareTo(v);
+                    if (uf == 1 ? compare <= 0 : compare < 0) {
+                        continue;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Resolves the ranges.
+         */
+        IntegerVector resolve() {
+            IntegerVector rows = new IntegerVector();
+            ArrayList<TObject> values = new ArrayList<>();
+            int column = getColumn();
+            int segment_rows = master.getSegmentRows();
+
+            int segment = -1;
+            boolean skip_segment = false;
+            RowEnumeration e = getTable().rowEnumeration();
+            while (e.hasMoreRows()) {
+                int row = e.nextRowIndex();
+                // Skip the rows of segments that can't have a value in the ranges
+                if (row / segment_rows != segment) {
+                    segment = row / segment_rows;
+                    TObject[] bounds = master.getSegmentBounds(column, segment);
+                    skip_segment = bounds != null &&
+                            !mayMatch(bounds[0], bounds[1]);
+                }
+                if (skip_segment) {
+                    continue;
+                }
+                TObject v = getCellContents(row);
+                if (matches(v)) {
+                    rows.addInt(row);
+                    values.add(v);
+                }
+            }
+
+            return sortByValue(rows, values);
+        }
+
+    }
+
+}
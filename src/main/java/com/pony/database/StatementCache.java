@@ -18,7 +18,7 @@
 
 package com.pony.database;
 
-import com.pony.util.Cache;
+import com.pony.util.BoundedCache;
 import com.pony.debug.*;
 
 /**
@@ -42,15 +42,14 @@ public final class StatementCache {
     /**
      * The internal cache representation.
      */
-    private final Cache cache;
+    private final BoundedCache<String, StatementTree> cache;
 
     /**
-     * Constructs the cache.
+     * Constructs the cache of up to 'max_size' statements.
      */
-    public StatementCache(DatabaseSystem system,
-                          int hash_size, int max_size, int clean_percentage) {
+    public StatementCache(DatabaseSystem system, int max_size) {
         this.system = system;
-        cache = new Cache(hash_size, max_size, clean_percentage);
+        cache = new BoundedCache<>(max_size);
     }
 
     /**
@@ -63,18 +62,17 @@ public final class StatementCache {
     /**
      * Puts a new query string/StatementTree into the cache.
      */
-    public synchronized void put(String query_string,
-                                 StatementTree statement_tree) {
+    public void put(String query_string, StatementTree statement_tree) {
         query_string = query_string.trim();
-        // Is this query string already in the cache?
-        if (cache.get(query_string) == null) {
-            try {
-                Object cloned_tree = statement_tree.clone();
-                cache.put(query_string, cloned_tree);
-            } catch (CloneNotSupportedException e) {
-                Debug().writeException(e);
-                throw new Error("Unable to clone statement tree: " + e.getMessage());
-            }
+        // A statement is only put after it missed the cache so it's rarely
+        // already there, and 'putIfAbsent' doesn't count a lookup.
+        try {
+            StatementTree cloned_tree =
+                    (StatementTree) statement_tree.clone();
+            cache.putIfAbsent(query_string, cloned_tree);
+        } catch (CloneNotSupportedException e) {
+            Debug().writeException(e);
+            throw new Error("Unable to clone statement tree: " + e.getMessage());
         }
     }
 
@@ -82,16 +80,15 @@ public final class StatementCache {
      * Gets a StatementTree for the query string if it is stored in the cache.
      * If it isn't stored in the cache returns null.
      */
-    public synchronized StatementTree get(String query_string) {
+    public StatementTree get(String query_string) {
         query_string = query_string.trim();
-        Object ob = cache.get(query_string);
-        if (ob != null) {
+        StatementTree cached_tree = cache.get(query_string);
+        if (cached_tree != null) {
             try {
-//        System.out.println("CACHE HIT!");
                 // We found a cached version of this query so deserialize and return
-                // it.
-                StatementTree cloned_tree = (StatementTree) ob;
-                return (StatementTree) cloned_tree.clone();
+                // it.  The cached tree is never changed so it can be cloned
+                // without a lock.
+                return (StatementTree) cached_tree.clone();
             } catch (CloneNotSupportedException e) {
                 Debug().writeException(e);
                 throw new Error("Unable to clone statement tree: " + e.getMessage());
@@ -101,4 +98,11 @@ public final class StatementCache {
         return null;
     }
 
+    /**
+     * Returns the cache of statement trees.
+     */
+    BoundedCache<String, StatementTree> getCache() {
+        return cache;
+    }
+
 }
@@ -100,6 +100,25 @@ interface StoreSystem {
      */
     void setCheckPoint();
 
+    /**
+     * Sets a new check point the same as 'setCheckPoint' except the check point
+     * may not be durable when this returns.  The returned id must be passed to
+     * 'waitForCheckPoint' before the check point is guaranteed to survive a
+     * crash.  This lets a committing transaction release the commit lock
+     * before it waits on the disk, so the wait can be shared by other commits.
+     * If 'async' is true the check point is for an asynchronous commit and is
+     * never synchronized with the disk by this call, it becomes durable when
+     * it's waited for or when the journal is next synchronized in the
+     * background.
+     */
+    long writeCheckPoint(boolean async);
+
+    /**
+     * Blocks until the check point with the given id (returned by
+     * 'writeCheckPoint') is durable.
+     */
+    void waitForCheckPoint(long check_point);
+
 
     // ---------- Locking ----------
 
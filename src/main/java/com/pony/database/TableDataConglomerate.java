@@ -31,6 +31,7 @@ import com.pony.debug.*;
 import com.pony.store.Store;
 import com.pony.store.MutableArea;
 import com.pony.store.Area;
+import com.pony.store.LoggingBufferManager;
 
 import com.pony.database.StateStore.StateResource;
 
@@ -286,6 +287,13 @@ public class TableDataConglomerate {
             if (master.exists(table_str)) {
                 return master;
             }
+        } else if (table_type == 3) {
+            ColumnarMasterTableDataSource master =
+                    new ColumnarMasterTableDataSource(getSystem(),
+                            storeSystem(), open_transactions, blob_store);
+            if (master.exists(table_str)) {
+                return master;
+            }
         }
 
         // If not exists, then generate an error message
@@ -308,6 +316,8 @@ public class TableDataConglomerate {
             type = '1';
         } else if (table instanceof V2MasterTableDataSource) {
             type = '2';
+        } else if (table instanceof ColumnarMasterTableDataSource) {
+            type = '3';
         } else {
             throw new RuntimeException("Unrecognised MasterTableDataSource class.");
         }
@@ -340,6 +350,8 @@ public class TableDataConglomerate {
                     table_type = 1;
                 } else if (file_name.charAt(1) == '2') {
                     table_type = 2;
+                } else if (file_name.charAt(1) == '3') {
+                    table_type = 3;
                 } else {
                     throw new RuntimeException("Table type is not known.");
                 }
@@ -361,6 +373,10 @@ public class TableDataConglomerate {
             } else if (master instanceof V2MasterTableDataSource) {
                 V2MasterTableDataSource v2_master = (V2MasterTableDataSource) master;
                 v2_master.open(file_name);
+            } else if (master instanceof ColumnarMasterTableDataSource) {
+                ColumnarMasterTableDataSource columnar_master =
+                        (ColumnarMasterTableDataSource) master;
+                columnar_master.open(file_name);
             } else {
                 throw new IllegalStateException(
                         "Unknown master table type: " + master.getClass());
@@ -395,6 +411,8 @@ public class TableDataConglomerate {
                     table_type = 1;
                 } else if (file_name.charAt(1) == '2') {
                     table_type = 2;
+                } else if (file_name.charAt(1) == '3') {
+                    table_type = 3;
                 } else {
                     throw new RuntimeException("Table type is not known.");
                 }
@@ -411,6 +429,10 @@ public class TableDataConglomerate {
             } else if (master instanceof V2MasterTableDataSource) {
                 V2MasterTableDataSource v2_master = (V2MasterTableDataSource) master;
                 v2_master.checkAndRepair(file_name, terminal);
+            } else if (master instanceof ColumnarMasterTableDataSource) {
+                ColumnarMasterTableDataSource columnar_master =
+                        (ColumnarMasterTableDataSource) master;
+                columnar_master.checkAndRepair(file_name, terminal);
             } else {
                 throw new IllegalStateException(
                         "Unknown master table type: " + master.getClass());
@@ -449,6 +471,8 @@ public class TableDataConglomerate {
                     table_type = 1;
                 } else if (file_name.charAt(1) == '2') {
                     table_type = 2;
+                } else if (file_name.charAt(1) == '3') {
+                    table_type = 3;
                 } else {
                     throw new RuntimeException("Table type is not known.");
                 }
@@ -469,6 +493,10 @@ public class TableDataConglomerate {
                 } else if (master instanceof V2MasterTableDataSource) {
                     V2MasterTableDataSource v2_master = (V2MasterTableDataSource) master;
                     v2_master.open(file_name);
+                } else if (master instanceof ColumnarMasterTableDataSource) {
+                    ColumnarMasterTableDataSource columnar_master =
+                            (ColumnarMasterTableDataSource) master;
+                    columnar_master.open(file_name);
                 } else {
                     throw new IllegalStateException(
                             "Unknown master table type: " + master.getClass());
@@ -1211,6 +1239,32 @@ public class TableDataConglomerate {
 
     }
 
+    /**
+     * Cycles the journal at a check point and waits until every journal up
+     * to the check point has been persisted and copied to the journal
+     * archive.  The check point is written under the commit lock so the
+     * archived state is always a committed state.  Returns the sequence
+     * number of the last archived journal.
+     */
+    public long archiveJournals() throws IOException {
+        LoggingBufferManager buffer_manager = getSystem().getBufferManager();
+        if (buffer_manager == null) {
+            throw new IllegalStateException(
+                    "The conglomerate does not use a journalled file store.");
+        }
+        try {
+            long check_point;
+            synchronized (commit_lock) {
+                check_point = buffer_manager.writeCheckPoint(true);
+            }
+            buffer_manager.waitForCheckPoint(check_point);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted: " + e.getMessage());
+        }
+        return buffer_manager.persistJournalArchives();
+    }
+
     // ---------- Diagnostic and repair ----------
 
     /**
@@ -2371,10 +2425,14 @@ public class TableDataConglomerate {
      *   (MutableTableDataSource)
      * @param journal the journal that describes all the changes within the
      *   transaction.
+     * @param async_commit if true, return without waiting for the commit to
+     *   be synchronized with the disk.  The commit becomes durable when the
+     *   journal is next synchronized in the background.
      */
     void processCommit(Transaction transaction, ArrayList visible_tables,
                        ArrayList selected_from_tables,
-                       ArrayList touched_tables, TransactionJournal journal)
+                       ArrayList touched_tables, TransactionJournal journal,
+                       boolean async_commit)
             throws TransactionException {
 
         // Get individual journals for updates made to tables in this
@@ -2416,6 +2474,9 @@ public class TableDataConglomerate {
         // The tables that were actually changed (MasterTableDataSource)
         ArrayList changed_tables_list = new ArrayList();
 
+        // The check point written at the end of the commit.
+        long check_point;
+
         // Grab the commit lock.
         synchronized (commit_lock) {
 
@@ -2955,12 +3016,18 @@ public class TableDataConglomerate {
                 }
             }
 
-            // Set a check point in the store system.  This means that the
+            // Write a check point in the store system.  This means that the
             // persistance state is now stable.
-            store_system.setCheckPoint();
+            check_point = store_system.writeCheckPoint(async_commit);
 
         }  // synchronized (commit_lock)
 
+        // Wait for the check point to reach the disk outside the commit lock so
+        // the journal sync can be shared with other committing transactions.
+        if (!async_commit) {
+            store_system.waitForCheckPoint(check_point);
+        }
+
     }
 
     /**
@@ -3102,10 +3169,20 @@ public class TableDataConglomerate {
                 int table_id = nextUniqueTableID();
 
                 // Create the object.
-                V2MasterTableDataSource master_table =
-                        new V2MasterTableDataSource(getSystem(),
-                                storeSystem(), open_transactions, blob_store);
-                master_table.create(table_id, table_def);
+                MasterTableDataSource master_table;
+                if (table_def.isColumnar()) {
+                    ColumnarMasterTableDataSource columnar_table =
+                            new ColumnarMasterTableDataSource(getSystem(),
+                                    storeSystem(), open_transactions, blob_store);
+                    columnar_table.create(table_id, table_def);
+                    master_table = columnar_table;
+                } else {
+                    V2MasterTableDataSource v2_table =
+                            new V2MasterTableDataSource(getSystem(),
+                                    storeSystem(), open_transactions, blob_store);
+                    v2_table.create(table_id, table_def);
+                    master_table = v2_table;
+                }
 
                 // Add to the list of all tables.
                 table_list.add(master_table);
@@ -3156,12 +3233,22 @@ public class TableDataConglomerate {
                 // The unique id that identifies this table,
                 int table_id = nextUniqueTableID();
 
-                // Create the object.
-                V2MasterTableDataSource master_table =
-                        new V2MasterTableDataSource(getSystem(),
-                                storeSystem(), open_transactions, blob_store);
-
-                master_table.copy(table_id, src_master_table, index_set);
+                // Create the object.  The copy is stored the same way as the
+                // source table.
+                MasterTableDataSource master_table;
+                if (src_master_table.getDataTableDef().isColumnar()) {
+                    ColumnarMasterTableDataSource columnar_table =
+                            new ColumnarMasterTableDataSource(getSystem(),
+                                    storeSystem(), open_transactions, blob_store);
+                    columnar_table.copy(table_id, src_master_table, index_set);
+                    master_table = columnar_table;
+                } else {
+                    V2MasterTableDataSource v2_table =
+                            new V2MasterTableDataSource(getSystem(),
+                                    storeSystem(), open_transactions, blob_store);
+                    v2_table.copy(table_id, src_master_table, index_set);
+                    master_table = v2_table;
+                }
 
                 // Add to the list of all tables.
                 table_list.add(master_table);
@@ -2062,6 +2062,18 @@ public class Transaction extends SimpleTransaction {
      * This should only be called under an exclusive lock on the connection.
      */
     public void closeAndCommit() throws TransactionException {
+        closeAndCommit(false);
+    }
+
+    /**
+     * Closes and commits the transaction.  If 'async_commit' is true this
+     * returns once the changes are written to the journal, without waiting
+     * for the journal to be synchronized with the disk.  The commit is still
+     * atomic after a crash, but it may be lost if the crash happens before
+     * the journal is next synchronized in the background.
+     */
+    public void closeAndCommit(boolean async_commit)
+            throws TransactionException {
 
         if (!closed) {
             try {
@@ -2069,7 +2081,7 @@ public class Transaction extends SimpleTransaction {
                 // Get the conglomerate to do this commit.
                 conglomerate.processCommit(this, getVisibleTables(),
                         selected_from_tables,
-                        touched_tables, journal);
+                        touched_tables, journal, async_commit);
             } finally {
                 cleanup();
             }
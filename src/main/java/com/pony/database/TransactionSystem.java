@@ -19,6 +19,7 @@
 package com.pony.database;
 
 import com.pony.store.LoggingBufferManager;
+import com.pony.util.BoundedCache;
 import com.pony.util.Stats;
 import com.pony.util.StringUtil;
 import com.pony.util.LogWriter;
@@ -44,6 +45,21 @@ import java.util.Properties;
 
 public class TransactionSystem {
 
+    /**
+     * The buffer pool classes of the stores (see 'getStoreClass').
+     */
+    public static final String[] STORE_CLASSES = { "table", "blob", "state" };
+
+    /**
+     * The default maximum size of a data file slice (1 GB).
+     */
+    public static final long DEFAULT_DATA_FILE_SLICE_SIZE = 16384 * 65536;
+
+    /**
+     * The extension of the first slice of a data file.
+     */
+    public static final String DATA_FILE_EXT = "pds";
+
     /**
      * The stats object that keeps track of database statistics.
      */
@@ -101,6 +117,13 @@ public class TransactionSystem {
      */
     private DataCellCache data_cell_cache = null;
 
+    /**
+     * The cache of decoded column segments shared by all the columnar tables,
+     * bounded by the memory used by the cells.  Null if the cache is disabled.
+     */
+    private BoundedCache<ColumnarMasterTableDataSource.SegmentKey,
+            ColumnarMasterTableDataSource.DecodedSegment> columnar_segment_cache = null;
+
     /**
      * The list of FunctionFactory objects that handle different functions from
      * SQL.
@@ -184,6 +207,19 @@ public class TransactionSystem {
         return res;
     }
 
+    /**
+     * Returns the buffer pool class ('table', 'blob' or 'state') of the store
+     * with the given name.
+     */
+    public static String getStoreClass(String store_name) {
+        if (store_name.equals("BlobStore")) {
+            return "blob";
+        } else if (store_name.endsWith(TableDataConglomerate.STATE_POST)) {
+            return "state";
+        }
+        return "table";
+    }
+
     /**
      * Sets up the log file from the config information.
      */
@@ -291,6 +327,17 @@ public class TransactionSystem {
         return Integer.parseInt(v);
     }
 
+    /**
+     * Returns a configuration value, or the default if it's not found.
+     */
+    public final long getConfigLong(String property, long default_val) {
+        String v = config.getValue(property);
+        if (v == null) {
+            return default_val;
+        }
+        return Long.parseLong(v.trim());
+    }
+
     /**
      * Returns a configuration value, or the default if it's not found.
      */
@@ -302,6 +349,17 @@ public class TransactionSystem {
         return v.trim().equalsIgnoreCase("enabled");
     }
 
+    /**
+     * Returns the maximum slice size of the data file of the store with the
+     * given name.  This is 'data_file_slice_size.[store name]' if it's set,
+     * otherwise 'data_file_slice_size'.
+     */
+    public final long getDataFileSliceSize(String store_name) {
+        return getConfigLong("data_file_slice_size." + store_name,
+                getConfigLong("data_file_slice_size",
+                        DEFAULT_DATA_FILE_SLICE_SIZE));
+    }
+
 
     /**
      * Given a regular expression string representing a particular library, this
@@ -404,6 +462,19 @@ public class TransactionSystem {
                         "Internal Data Cache disabled.");
             }
 
+            // The memory (in bytes) of decoded column segments cached for all
+            // the columnar tables (0 = disabled)
+            int columnar_cache_size = getConfigInt("columnar_cache_size", 16777216);
+            if (columnar_cache_size > 0) {
+                Debug().write(Lvl.MESSAGE, this,
+                        "Columnar segment cache size:       " + columnar_cache_size);
+                columnar_segment_cache = new BoundedCache<>(columnar_cache_size,
+                        (key, segment) -> segment.memory, 0);
+            } else {
+                Debug().write(Lvl.MESSAGE, this,
+                        "Columnar segment cache disabled.");
+            }
+
             // Are lookup comparison lists enabled?
 //      lookup_comparison_list_enabled =
 //                            getConfigBoolean("lookup_comparison_list", false);
@@ -479,7 +550,8 @@ public class TransactionSystem {
                 }
 
                 // If the configuration property 'use_nio_if_available' is enabled then
-                // we setup a LoggingBufferManager that uses NIO (default to 'false')
+                // we setup a LoggingBufferManager that memory maps the data files
+                // through NIO (default to 'false')
                 boolean use_nio_if_available =
                         getConfigBoolean("use_nio_if_available", false);
                 boolean force_use_nio = getConfigBoolean("force_use_nio", false);
@@ -487,30 +559,40 @@ public class TransactionSystem {
                 String api_to_use;
                 int page_size;
                 int max_pages;
-
-                final boolean disable_nio = true;
+                final boolean memory_mapped;
 
                 // If NIO interface available and configuration tells us to use NIO and
                 // we are not running on an OS where NIO is buggy, we set the NIO options
                 // here.
-                if (!disable_nio &&
-                        (force_use_nio ||
-                                (nio_interface_available &&
-                                        use_nio_if_available &&
-                                        !nio_bugged_os))) {
+                if (force_use_nio ||
+                        (nio_interface_available &&
+                                use_nio_if_available &&
+                                !nio_bugged_os)) {
                     Debug().write(Lvl.MESSAGE, this,
                             "Using NIO API for OS memory mapped file access.");
-                    page_size = getConfigInt("buffered_nio_page_size", 1024 * 1024);
-                    max_pages = getConfigInt("buffered_nio_max_pages", 64);
+                    page_size = getConfigInt("buffered_nio_page_size", 8192);
+                    max_pages = getConfigInt("buffered_nio_max_pages", 256);
                     api_to_use = "Java NIO";
+                    memory_mapped = true;
                 } else {
                     Debug().write(Lvl.MESSAGE, this,
                             "Using stardard IO API for heap buffered file access.");
                     page_size = getConfigInt("buffered_io_page_size", 8192);
                     max_pages = getConfigInt("buffered_io_max_pages", 256);
                     api_to_use = "Java IO";
+                    memory_mapped = false;
                 }
 
+                // Should the buffered pages be kept in direct memory outside the
+                // Java heap?
+                boolean off_heap = getConfigBoolean("buffered_io_off_heap", false);
+
+                // The page replacement policy of the buffer manager ('2q', 'clock'
+                // or 'weighted')
+                String replacement_policy = getConfigString(
+                        "buffered_io_page_replacement",
+                        LoggingBufferManager.DEFAULT_REPLACEMENT_POLICY);
+
                 // Output this information to the log
                 Debug().write(Lvl.MESSAGE, this,
                         "[Buffer Manager] Using IO API: " + api_to_use);
@@ -518,24 +600,152 @@ public class TransactionSystem {
                         "[Buffer Manager] Page Size: " + page_size);
                 Debug().write(Lvl.MESSAGE, this,
                         "[Buffer Manager] Max pages: " + max_pages);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Page replacement: " + replacement_policy);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Off heap: " + off_heap);
 
                 // Journal path is currently always the same as database path.
                 final File journal_path = db_path;
-                // Max slice size is 1 GB for file scattering class
-                final long max_slice_size = 16384 * 65536;
+                // Max slice size is 1 GB for file scattering class by default.
+                // The slice size of a store can be set with
+                // 'data_file_slice_size.[store name]' (eg.
+                // 'data_file_slice_size.BlobStore').  Existing stores with more
+                // than one slice keep their slice size.
+                final long max_slice_size = getConfigLong("data_file_slice_size",
+                        DEFAULT_DATA_FILE_SLICE_SIZE);
+                // The data files are preallocated in extents of up to this size
+                // as they grow (0 = disabled)
+                final long preallocation_size =
+                        getConfigLong("data_file_preallocation", 64 * 1024 * 1024);
                 // First file extention is 'pds'
-                final String first_file_ext = "pds";
+                final String first_file_ext = DATA_FILE_EXT;
+
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Data file slice size: " + max_slice_size);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Data file preallocation: " +
+                                preallocation_size);
 
                 // Set up the BufferManager
                 buffer_manager = new LoggingBufferManager(
                         db_path, journal_path, read_only_access, max_pages, page_size,
-                        first_file_ext, max_slice_size, Debug(), enable_logging);
+                        replacement_policy, off_heap, first_file_ext,
+                        this::getDataFileSliceSize,
+                        read_only_access ? 0 : preallocation_size,
+                        memory_mapped, Debug(), enable_logging);
                 // ^ This is a big constructor.  It sets up the logging manager and
                 //   sets a resource store data accessor converter to a scattering
-                //   implementation with a max slice size of 1 GB
+                //   implementation with a max slice size of 1 GB.  The slices are
+                //   memory mapped when the NIO API is used.
+
+                // Group commit shares the journal sync between transactions that
+                // commit at the same time.  'group_commit_max_wait' is the longest
+                // time (in ms) a sync is delayed for more commits to join.
+                boolean group_commit = getConfigBoolean("group_commit", true);
+                int group_commit_max_wait =
+                        getConfigInt("group_commit_max_wait", 0);
+                buffer_manager.setGroupCommit(group_commit, group_commit_max_wait);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Group commit: " + group_commit +
+                                " (max wait " + group_commit_max_wait + " ms)");
+
+                // Connections in asynchronous commit mode ('SET COMMIT ASYNC')
+                // don't wait for the journal sync.  The journal is synchronized
+                // in the background at this interval (in ms), which bounds how
+                // much committed work those connections can lose in a crash.
+                int async_commit_flush_interval =
+                        getConfigInt("async_commit_flush_interval", 200);
+                if (async_commit_flush_interval <= 0) {
+                    Debug().write(Lvl.MESSAGE, this,
+                            "Invalid async_commit_flush_interval value.  Setting to 200.");
+                    async_commit_flush_interval = 200;
+                }
+                buffer_manager.setCheckPointSynchInterval(async_commit_flush_interval);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Async commit flush interval: " +
+                                async_commit_flush_interval + " ms");
+
+                // Should page changes be compressed in the journal?
+                boolean journal_compression =
+                        getConfigBoolean("journal_compression", false);
+                buffer_manager.setCompressJournal(journal_compression);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Journal compression: " + journal_compression);
+
+                // The number of threads that recover the resources from the
+                // journals after an unclean shutdown (0 = number of processors)
+                int journal_recovery_threads =
+                        getConfigInt("journal_recovery_threads", 0);
+                buffer_manager.setRecoveryThreads(journal_recovery_threads);
+
+                // The rate (pages per second) at which dirty pages are written to
+                // the journal in the background so that check points at commit
+                // have less to write (0 = disabled)
+                int checkpoint_flush_rate = getConfigInt("checkpoint_flush_rate",
+                        LoggingBufferManager.DEFAULT_BACKGROUND_FLUSH_RATE);
+                buffer_manager.setBackgroundFlushRate(checkpoint_flush_rate);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Background flush rate: " +
+                                checkpoint_flush_rate + " pages/s");
+
+                // The maximum number of pages read ahead of a sequential reader
+                int read_ahead_max_depth = getConfigInt("read_ahead_max_depth",
+                        LoggingBufferManager.DEFAULT_READ_AHEAD_MAX_DEPTH);
+                buffer_manager.setReadAheadMaxDepth(read_ahead_max_depth);
+                Debug().write(Lvl.MESSAGE, this,
+                        "[Buffer Manager] Read ahead max depth: " +
+                                read_ahead_max_depth + " pages");
+
+                // The stores are classified as 'blob' (the BlobStore), 'state'
+                // (the conglomerate state store) and 'table' (table data and
+                // indexes).  A class with 'buffer_pool_pages.[class]' set has a
+                // pool of that many pages of its own, taken from the pages
+                // above, so it can't evict the pages of other classes.  The
+                // page size of the pool is 'buffer_pool_page_size.[class]'.
+                buffer_manager.setResourceClassifier(
+                        TransactionSystem::getStoreClass);
+                for (String store_class : STORE_CLASSES) {
+                    int pool_pages =
+                            getConfigInt("buffer_pool_pages." + store_class, 0);
+                    if (pool_pages > 0) {
+                        int pool_page_size = getConfigInt(
+                                "buffer_pool_page_size." + store_class, page_size);
+                        pool_pages = buffer_manager.addBufferPool(store_class,
+                                pool_page_size, pool_pages);
+                        if (pool_pages > 0) {
+                            Debug().write(Lvl.MESSAGE, this,
+                                    "[Buffer Manager] Buffer pool '" + store_class +
+                                            "': " + pool_pages + " pages of " +
+                                            pool_page_size + " bytes");
+                        }
+                    }
+                }
+
+                // The directory journals are copied to after they are persisted.
+                // A base backup plus the archived journals can be restored to
+                // any archived point (empty = journals are not archived)
+                String journal_archive_path =
+                        getConfigString("journal_archive_path", "");
 
                 // Start the buffer manager.
                 try {
+                    if (journal_archive_path.length() > 0 && !read_only_access) {
+                        if (!enable_logging) {
+                            Debug().write(Lvl.WARNING, this,
+                                    "journal_archive_path is ignored because " +
+                                            "journaling is disabled.");
+                        } else {
+                            File archive_path = parseFileString(
+                                    config.currentPath(),
+                                    getConfigString("root_path", "jvm"),
+                                    journal_archive_path);
+                            buffer_manager.setJournalArchivePath(archive_path);
+                            Debug().write(Lvl.MESSAGE, this,
+                                    "[Buffer Manager] Journal archive path: " +
+                                            archive_path);
+                        }
+                    }
                     buffer_manager.start();
                 } catch (IOException e) {
                     Debug().write(Lvl.ERROR, this, "Error starting buffer manager");
@@ -892,6 +1102,15 @@ public class TransactionSystem {
         return data_cell_cache;
     }
 
+    /**
+     * Returns the cache of decoded column segments that is shared by all the
+     * columnar tables, or null if the cache is disabled.
+     */
+    BoundedCache<ColumnarMasterTableDataSource.SegmentKey,
+            ColumnarMasterTableDataSource.DecodedSegment> getColumnarSegmentCache() {
+        return columnar_segment_cache;
+    }
+
     // ---------- Dispatch methods ----------
 
     /**
@@ -953,6 +1172,7 @@ public class TransactionSystem {
         buffer_manager = null;
         regex_library = null;
         data_cell_cache = null;
+        columnar_segment_cache = null;
         config = null;
         log_directory = null;
         function_factory_list = null;
@@ -189,9 +189,13 @@ class V1FileStoreSystem implements StoreSystem {
     }
 
     public void setCheckPoint() {
+        waitForCheckPoint(writeCheckPoint(false));
+    }
+
+    public long writeCheckPoint(boolean async) {
         try {
             LoggingBufferManager buffer_manager = system.getBufferManager();
-            buffer_manager.setCheckPoint(false);
+            return buffer_manager.writeCheckPoint(false, async);
         } catch (IOException e) {
             system.Debug().writeException(e);
             throw new RuntimeException("IO Error: " + e.getMessage());
@@ -201,6 +205,16 @@ class V1FileStoreSystem implements StoreSystem {
         }
     }
 
+    public void waitForCheckPoint(long check_point) {
+        try {
+            LoggingBufferManager buffer_manager = system.getBufferManager();
+            buffer_manager.waitForCheckPoint(check_point);
+        } catch (IOException e) {
+            system.Debug().writeException(e);
+            throw new RuntimeException("IO Error: " + e.getMessage());
+        }
+    }
+
     public void lock(String name) throws IOException {
         File flock_fn = new File(path, name + FLOCK_EXT);
         if (flock_fn.exists()) {
@@ -92,6 +92,15 @@ class V1HeapStoreSystem implements StoreSystem {
         // Check point logging not necessary with heap store
     }
 
+    public long writeCheckPoint(boolean async) {
+        // Check point logging not necessary with heap store
+        return 0;
+    }
+
+    public void waitForCheckPoint(long check_point) {
+        // Check point logging not necessary with heap store
+    }
+
     // ---------- Locking ----------
 
     public void lock(String lock_name) throws IOException {
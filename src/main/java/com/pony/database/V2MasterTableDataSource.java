@@ -21,6 +21,8 @@ package com.pony.database;
 import com.pony.store.*;
 import com.pony.debug.*;
 import com.pony.util.BlockIntegerList;
+import com.pony.util.BoundedCache;
+import com.pony.util.ByteArrayUtil;
 import com.pony.util.IntegerListInterface;
 import com.pony.util.UserTerminal;
 import com.pony.database.global.ObjectTransfer;
@@ -57,7 +59,10 @@ import java.io.*;
  * </pre>
  * <p>
  * Each record is comprised of a header which contains offsets to the fields
- * in the record, and a serializable of the fields themselves.
+ * in the record, and a serializable of the fields themselves.  Tables with a
+ * version 1 header store records in this V2 format, and tables with a
+ * version 2 header store records in the compact V3 format described in
+ * CompactRecordFormat.
  *
  * @author Tobias Downer
  */
@@ -125,6 +130,64 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
      */
     private boolean has_shutdown;
 
+    /**
+     * A cache of decoded rows (row index -> TObject[]) bounded by the memory
+     * used by the cells, or null if rows are not cached.  When more than one
+     * cell of a row is read from the store the whole record is decoded once
+     * and the other cells are read from here.
+     */
+    private final BoundedCache<Integer, TObject[]> row_cache;
+
+    /**
+     * The row of the last cell that was decoded by itself, or -1.  If the
+     * next cell decoded is from the same row then the whole row is decoded
+     * and cached.  This is only a hint so it isn't synchronized.
+     */
+    private volatile int last_cell_miss_row = -1;
+
+    /**
+     * A per thread work buffer that records are copied into from the store to
+     * be decoded.  Buffers that would be larger than MAX_RECORD_BUFFER_SIZE
+     * are not kept.
+     */
+    private static final ThreadLocal<byte[]> record_buffer =
+            ThreadLocal.withInitial(() -> new byte[512]);
+
+    private static final int MAX_RECORD_BUFFER_SIZE = 65536;
+
+    /**
+     * The header versions of tables that store records in the V2 format and
+     * in the compact V3 format.
+     */
+    private static final int V2_RECORDS_VERSION = 1;
+    private static final int V3_RECORDS_VERSION = 2;
+
+    /**
+     * Records of the compact format that are no larger than this are read
+     * whole when a single cell is read.  Otherwise the header is read first
+     * and then the cell.
+     */
+    private static final int COMPACT_WHOLE_RECORD_SIZE = 1024;
+
+    /**
+     * The format of the records in this table if they are stored in the
+     * compact V3 format, or null if they are stored in the V2 format.
+     */
+    private CompactRecordFormat compact_format;
+
+    /**
+     * Records in the compact format that are at least this size are
+     * compressed, or 0 if records are not compressed.
+     */
+    private int compression_threshold;
+
+    /**
+     * A cache of the decompressed records of rows that are compressed in the
+     * store (row index -> record) bounded by the size of the records, or null
+     * if the records of this table are not compressed.
+     */
+    private BoundedCache<Integer, byte[]> record_cache;
+
 
     /**
      * The Constructor.
@@ -136,6 +199,70 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
         super(system, store_system, open_transactions, blob_store_interface);
         first_delete_chain_record = -1;
         has_shutdown = false;
+
+        // The memory (in bytes) of decoded rows cached for each table
+        // (0 = disabled)
+        int row_cache_size = system.getConfigInt("row_cache_size", 65536);
+        row_cache = (row_cache_size > 0)
+                ? new BoundedCache<>(row_cache_size,
+                        (row, cells) -> rowMemory(cells), 0)
+                : null;
+    }
+
+    /**
+     * Sets up the compression of records from the DataTableDef, and the
+     * store that large strings are written to out of the record.  This is
+     * called after the record format is known and the store is open.
+     */
+    private void setupCompactFormat() {
+        if (compact_format != null) {
+            // Strings larger than this many bytes are written out of the
+            // record (0 = disabled)
+            compact_format.setOverflowStore(store,
+                    getSystem().getConfigInt("string_overflow_threshold", 2048));
+        }
+        compression_threshold = (compact_format == null)
+                ? 0 : getDataTableDef().getRecordCompressionThreshold();
+        if (compression_threshold > 0) {
+            // The memory (in bytes) of decompressed records cached for each
+            // table that compresses records (0 = disabled)
+            int record_cache_size =
+                    getSystem().getConfigInt("record_cache_size", 1048576);
+            record_cache = (record_cache_size > 0)
+                    ? new BoundedCache<>(record_cache_size,
+                            (row, record) -> 16 + record.length, 0)
+                    : null;
+        }
+    }
+
+    /**
+     * Returns an approximation of the memory used by a decoded row.
+     */
+    private static int rowMemory(TObject[] cells) {
+        int size = 16 + (cells.length * 4);
+        for (TObject cell : cells) {
+            if (cell != null) {
+                size += 16 + cell.approximateMemoryUse();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the work buffer of this thread with room for at least 'size'
+     * bytes.
+     */
+    private static byte[] recordBuffer(int size) {
+        byte[] buf = record_buffer.get();
+        if (buf.length < size) {
+            if (size > MAX_RECORD_BUFFER_SIZE) {
+                return new byte[size];
+            }
+            buf = new byte[Math.min(MAX_RECORD_BUFFER_SIZE,
+                    Math.max(size, buf.length * 2))];
+            record_buffer.set(buf);
+        }
+        return buf;
     }
 
     /**
@@ -204,7 +331,8 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
             index_header_p = index_store.create();
 
             // Write the main header
-            header_writer.putInt(1);                  // Version
+            header_writer.putInt(compact_format == null
+                    ? V2_RECORDS_VERSION : V3_RECORDS_VERSION);  // Version
             header_writer.putInt(table_id);           // table_id
             header_writer.putLong(sequence_id);       // initial sequence id
             header_writer.putLong(data_table_def_p);  // pointer to DataTableDef
@@ -246,8 +374,9 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
         header_area = store.getMutableArea(fixed_area.getLong());
 
         // Open a stream to the header
-        int version = header_area.getInt();              // version
-        if (version != 1) {
+        int header_version = header_area.getInt();       // version
+        if (header_version != V2_RECORDS_VERSION &&
+                header_version != V3_RECORDS_VERSION) {
             throw new IOException("Incorrect version identifier.");
         }
         this.table_id = header_area.getInt();         // table_id
@@ -259,13 +388,18 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
 
         // Read the data table def
         DataInputStream din = getDIn(store.getAreaInputStream(def_p));
-        version = din.readInt();
+        int version = din.readInt();
         if (version != 1) {
             throw new IOException("Incorrect DataTableDef version identifier.");
         }
         table_def = DataTableDef.read(din);
         din.close();
 
+        compact_format = (header_version == V3_RECORDS_VERSION)
+                ? new CompactRecordFormat(table_def, blob_store_interface)
+                : null;
+        setupCompactFormat();
+
         // Read the data index set def
         din = getDIn(store.getAreaInputStream(index_def_p));
         version = din.readInt();
@@ -311,11 +445,20 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
         // Initially set the table sequence_id to 1
         this.sequence_id = 1;
 
+        // New tables store records in the compact V3 format unless the V2
+        // format is configured.  Only compact records can be compressed so
+        // tables that compress records always use the compact format.
+        String record_format = getSystem().getConfigString("record_format", "v3");
+        compact_format = (record_format.equalsIgnoreCase("v2") &&
+                          table_def.getRecordCompressionThreshold() == 0)
+                ? null : new CompactRecordFormat(table_def, blob_store_interface);
+
         // Generate the name of the store file name.
         this.file_name = makeTableFileName(getSystem(), table_id, getTableName());
 
         // Create and open the store.
         store = storeSystem().createStore(file_name);
+        setupCompactFormat();
 
         try {
             store.lockForWrite();
@@ -519,6 +662,29 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
      */
     private long writeRecordToStore(RowData data) throws IOException {
 
+        if (compact_format != null) {
+            try {
+                store.lockForWrite();
+
+                byte[] record = compact_format.encode(data);
+                if (compression_threshold > 0 &&
+                        record.length >= compression_threshold) {
+                    // Large records are compressed if it makes them smaller
+                    byte[] compressed = CompactRecordFormat.compress(record);
+                    if (compressed != null) {
+                        record = compressed;
+                    }
+                }
+                AreaWriter writer = store.createArea(record.length);
+                writer.put(record);
+                writer.finish();
+                return writer.getID();
+
+            } finally {
+                store.unlockForWrite();
+            }
+        }
+
         // Calculate how much space this record will use
         int row_cells = data.getColumnCount();
 
@@ -655,6 +821,17 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
      */
     private void removeAllBlobReferencesForRecord(long record_p)
             throws IOException {
+        if (compact_format != null) {
+            int record_size = store.readArea(record_p, 0, recordBuffer(0), 0, 0);
+            byte[] buf = recordBuffer(record_size);
+            store.readArea(record_p, 0, buf, 0, record_size);
+            if (CompactRecordFormat.isCompressed(buf)) {
+                buf = CompactRecordFormat.decompress(buf, record_size);
+            }
+            compact_format.releaseReferences(buf);
+            return;
+        }
+
         // NOTE: Does this need to be optimized?
         Area record_area = store.getArea(record_p);
         int reserved = record_area.getInt();  // reserved
@@ -750,6 +927,17 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
 //          System.out.println("Not deleted = " + pointer);
                     // Record is not deleted,
                     used_areas.add(pointer);
+                    // And the strings of the record that are out of the record
+                    if (compact_format != null) {
+                        int record_size =
+                                store.readArea(pointer, 0, recordBuffer(0), 0, 0);
+                        byte[] buf = recordBuffer(record_size);
+                        store.readArea(pointer, 0, buf, 0, record_size);
+                        if (CompactRecordFormat.isCompressed(buf)) {
+                            buf = CompactRecordFormat.decompress(buf, record_size);
+                        }
+                        compact_format.addOverflowAreas(buf, used_areas);
+                    }
                 }
             }
 
@@ -1185,6 +1373,13 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
 
         }
 
+        if (row_cache != null) {
+            row_cache.remove(row_index);
+        }
+        if (record_cache != null) {
+            record_cache.remove(row_index);
+        }
+
     }
 
 
@@ -1352,6 +1547,15 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
             int_row_number = (int) row_number;
         }
 
+        // The row index may have been reused so forget any row decoded from
+        // the record that was here before.
+        if (row_cache != null) {
+            row_cache.remove(int_row_number);
+        }
+        if (record_cache != null) {
+            record_cache.remove(int_row_number);
+        }
+
         // Update the cell cache as appropriate
         if (DATA_CELL_CACHING) {
             int row_cells = data.getColumnCount();
@@ -1377,18 +1581,6 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
 
     // ---- getCellContents ----
 
-    private void skipStream(InputStream in, final long amount)
-            throws IOException {
-        long count = amount;
-        long skipped = 0;
-        while (skipped < amount) {
-            long last_skipped = in.skip(count);
-            skipped += last_skipped;
-            count -= last_skipped;
-        }
-    }
-
-
     //  private short s_run_total_hits = 0;
     private short s_run_file_hits = Short.MAX_VALUE;
 
@@ -1431,12 +1623,27 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
             }
         }
 
-        // We maintain a cache of byte[] arrays that contain the rows read in
-        // from the file.  If consequtive reads are made to the same row, then
-        // this will cause lots of fast cache hits.
+        // If the row was decoded when another cell of it was read, it's in
+        // the row cache.  Strings that are out of the record are not decoded
+        // with the row and are read when their cell is read.
+        TObject[] row_cells = null;
+        if (row_cache != null) {
+            row_cells = row_cache.get(row);
+            if (row_cells != null && row_cells[column] != null) {
+                cell = row_cells[column];
+                if (DATA_CELL_CACHING) {
+                    cache.put(table_id, row, column, cell);
+                }
+                return cell;
+            }
+        }
 
+        // The record is decoded by offset from the bytes of the store area
+        // copied into this thread's work buffer.  A V2 record starts with a 4
+        // byte header followed by the type and offset of each cell.
         long record_p = -1;
         try {
+            byte[] buf = recordBuffer(16);
             synchronized (list_structure) {
 
                 // Increment the file hits counter
@@ -1448,60 +1655,72 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
                 }
 
                 // Get the node for the record
-                Area list_block = list_structure.positionOnNode(row);
-                int status = list_block.getInt();
+                list_structure.positionOnNode(row).get(buf, 0, 12);
+                int status = ByteArrayUtil.getInt(buf, 0);
                 // Check it's not deleted
                 if ((status & 0x020000) != 0) {
                     throw new IllegalStateException("Unable to read deleted record.");
                 }
                 // Get the pointer to the record we are reading
-                record_p = list_block.getLong();
+                record_p = ByteArrayUtil.getLong(buf, 4);
 
             }
 
-            // Open a stream to the record
-            DataInputStream din = getDIn(store.getAreaInputStream(record_p));
-
-            skipStream(din, 4 + (column * 8));
-            int cell_type = din.readInt();
-            int cell_offset = din.readInt();
-
-            int cur_at = 8 + 4 + (column * 8);
-            int be_at = 4 + (column_count * 8);
-            int skip_amount = (be_at - cur_at) + cell_offset;
-
-            skipStream(din, skip_amount);
-
-            Object ob;
-            if (cell_type == 1) {
-                // If standard object type
-                ob = ObjectTransfer.readFrom(din);
-            } else if (cell_type == 2) {
-                // If reference to a blob in the BlobStore
-                int f_type = din.readInt();
-                int f_reserved = din.readInt();
-                long ref_id = din.readLong();
-                if (f_type == 0) {
-                    // Resolve the reference
-                    ob = blob_store_interface.getLargeObject(ref_id);
-                } else if (f_type == 1) {
-                    ob = null;
+            int header_size = 4 + (column_count * 8);
+
+            // If this is the second cell read from the row in a row, the row
+            // is probably being read whole (eg. 'SELECT *' or an update) so
+            // decode all the cells at once.
+            if (row_cache != null && row_cells == null &&
+                    last_cell_miss_row == row) {
+                last_cell_miss_row = -1;
+                int record_size = store.readArea(record_p, 0, buf, 0, 0);
+                buf = recordBuffer(record_size);
+                store.readArea(record_p, 0, buf, 0, record_size);
+                row_cells = new TObject[column_count];
+                if (compact_format != null) {
+                    if (CompactRecordFormat.isCompressed(buf)) {
+                        buf = readCompressedRecord(row, record_p, buf,
+                                record_size, record_size);
+                    }
+                    compact_format.decodeRow(buf, row_cells, false);
                 } else {
-                    throw new RuntimeException("Unknown blob type.");
+                    for (int i = 0; i < column_count; ++i) {
+                        int cell_type = ByteArrayUtil.getInt(buf, 4 + (i * 8));
+                        int cell_offset = ByteArrayUtil.getInt(buf, 8 + (i * 8));
+                        row_cells[i] = readCell(i, cell_type, buf,
+                                header_size + cell_offset);
+                    }
+                }
+                row_cache.put(row, row_cells);
+                cell = row_cells[column];
+                if (cell == null) {
+                    cell = readCompactCell(column, row, record_p, buf);
                 }
+            } else if (compact_format != null) {
+                last_cell_miss_row = row;
+                cell = readCompactCell(column, row, record_p, buf);
             } else {
-                throw new RuntimeException("Unrecognised cell type in data.");
+                last_cell_miss_row = row;
+
+                // Read the type and offset of the cell, and the offset of the
+                // next cell which is where this cell ends.
+                boolean last_column = (column == column_count - 1);
+                int record_size = store.readArea(record_p, 4 + (column * 8),
+                        buf, 0, last_column ? 8 : 16);
+                int cell_type = ByteArrayUtil.getInt(buf, 0);
+                int cell_offset = ByteArrayUtil.getInt(buf, 4);
+                int cell_end = last_column ? record_size - header_size
+                                           : ByteArrayUtil.getInt(buf, 12);
+
+                // Then jump to the cell
+                int cell_size = cell_end - cell_offset;
+                buf = recordBuffer(cell_size);
+                store.readArea(record_p, header_size + cell_offset,
+                        buf, 0, cell_size);
+                cell = readCell(column, cell_type, buf, 0);
             }
 
-            // Get the TType for this column
-            // NOTE: It's possible this call may need optimizing?
-            TType ttype = getDataTableDef().columnAt(column).getTType();
-            // Wrap it around a TObject
-            cell = new TObject(ttype, ob);
-
-            // And close the reader.
-            din.close();
-
         } catch (IOException e) {
             Debug().writeException(e);
 //      System.out.println("Pointer = " + row_pointer);
@@ -1519,6 +1738,96 @@ public final class V2MasterTableDataSource extends MasterTableDataSource {
     }
 
 
+    /**
+     * Reads the cell of the given column from a record in the compact format.
+     * 'buf' is the work buffer of this thread.
+     */
+    private TObject readCompactCell(int column, int row, long record_p,
+                                    byte[] buf) throws IOException {
+        int record_size = store.readArea(record_p, 0, buf, 0, 0);
+        int read_size = (record_size <= COMPACT_WHOLE_RECORD_SIZE)
+                ? record_size
+                : Math.min(record_size, compact_format.maximumHeaderSize());
+        buf = recordBuffer(read_size);
+        store.readArea(record_p, 0, buf, 0, read_size);
+        if (CompactRecordFormat.isCompressed(buf)) {
+            // The cell is decoded from the whole decompressed record
+            buf = readCompressedRecord(row, record_p, buf,
+                    read_size, record_size);
+            read_size = buf.length;
+        }
+        if (compact_format.isNull(buf, column)) {
+            return compact_format.decodeCell(column, buf, buf, 0, 0);
+        }
+
+        long location = compact_format.locateCell(buf, column);
+        int cell_p = (int) (location >>> 32);
+        int cell_size = (int) location;
+        if (cell_p + cell_size <= read_size) {
+            return compact_format.decodeCell(column, buf, buf, cell_p, cell_size);
+        }
+        // The cell isn't in the part of the record that was read
+        byte[] cell_buf = new byte[cell_size];
+        store.readArea(record_p, cell_p, cell_buf, 0, cell_size);
+        return compact_format.decodeCell(column, buf, cell_buf, 0, cell_size);
+    }
+
+    /**
+     * Returns the decompressed record of a row that is compressed in the
+     * store.  'buf' has the first 'read_size' bytes of the record area, which
+     * is 'record_size' bytes.
+     */
+    private byte[] readCompressedRecord(int row, long record_p, byte[] buf,
+                                        int read_size, int record_size)
+            throws IOException {
+        byte[] record = (record_cache == null) ? null : record_cache.get(row);
+        if (record == null) {
+            if (read_size < record_size) {
+                buf = recordBuffer(record_size);
+                store.readArea(record_p, 0, buf, 0, record_size);
+            }
+            record = CompactRecordFormat.decompress(buf, record_size);
+            if (record_cache != null) {
+                record_cache.put(row, record);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Decodes the cell of the given column from its serialization at the
+     * given offset of a record work buffer.
+     */
+    private TObject readCell(int column, int cell_type, byte[] buf, int off)
+            throws IOException {
+        Object ob;
+        if (cell_type == 1) {
+            // If standard object type
+            ob = ObjectTransfer.readFrom(buf, off);
+        } else if (cell_type == 2) {
+            // If reference to a blob in the BlobStore
+            int f_type = ByteArrayUtil.getInt(buf, off);
+            long ref_id = ByteArrayUtil.getLong(buf, off + 8);
+            if (f_type == 0) {
+                // Resolve the reference
+                ob = blob_store_interface.getLargeObject(ref_id);
+            } else if (f_type == 1) {
+                ob = null;
+            } else {
+                throw new RuntimeException("Unknown blob type.");
+            }
+        } else {
+            throw new RuntimeException("Unrecognised cell type in data.");
+        }
+
+        // Get the TType for this column
+        // NOTE: It's possible this call may need optimizing?
+        TType ttype = getDataTableDef().columnAt(column).getTType();
+        // Wrap it around a TObject
+        return new TObject(ttype, ob);
+    }
+
+
     long currentUniqueID() {
         synchronized (list_structure) {
             return sequence_id - 1;
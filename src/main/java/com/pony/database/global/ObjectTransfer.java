@@ -19,9 +19,11 @@
 package com.pony.database.global;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import com.pony.util.BigNumber;
+import com.pony.util.ByteArrayUtil;
 
 /**
  * Provides static methods for transfering different types of objects over
@@ -234,4 +236,148 @@ public class ObjectTransfer {
         }
     }
 
+    /**
+     * Reads an object from the given offset of a byte array.  This is the
+     * same as 'readFrom(DataInputStream)' except that the values are decoded
+     * directly from the array and, for the common types, nothing is created
+     * other than the object returned.  The bytes of the object in the array
+     * may be overwritten while it is decoded so the array should be a work
+     * buffer.
+     */
+    public static Object readFrom(byte[] buf, int off) throws IOException {
+        byte type = buf[off];
+        ++off;
+
+        switch (type) {
+            case (1):
+                return null;
+
+            case (3): {
+                // Modified UTF-8 with an unsigned short length
+                int utf_len = ByteArrayUtil.getShort(buf, off) & 0x0FFFF;
+                return StringObject.fromString(readUTF(buf, off + 2, utf_len));
+            }
+
+            case (6):
+            case (7): {
+                byte state = 0;
+                if (type == 7) {
+                    state = buf[off];
+                    ++off;
+                }
+                int scale = ByteArrayUtil.getInt(buf, off);
+                int blen = ByteArrayUtil.getInt(buf, off + 4);
+                off += 8;
+                if (state == 0 && blen > 0 && blen <= 8) {
+                    // The two's complement value fits in a long
+                    long v = buf[off];
+                    for (int i = 1; i < blen; ++i) {
+                        v = (v << 8) | (buf[off + i] & 0x0FF);
+                    }
+                    return BigNumber.fromLong(v, scale);
+                }
+                byte[] num = new byte[blen];
+                System.arraycopy(buf, off, num, 0, blen);
+                return BigNumber.fromData(num, scale, state);
+            }
+
+            case (8):
+                // 64-bit long numeric value
+                return BigNumber.fromLong(ByteArrayUtil.getLong(buf, off));
+
+            case (9):
+                return new Date(ByteArrayUtil.getLong(buf, off));
+
+            case (12):
+                return buf[off] != 0;
+
+            case (15): {
+                int size = (int) ByteArrayUtil.getLong(buf, off);
+                byte[] arr = new byte[size];
+                System.arraycopy(buf, off + 8, arr, 0, size);
+                return new ByteLongObject(arr);
+            }
+
+            case (16): {
+                final byte h_type = buf[off];
+                final long h_size = ByteArrayUtil.getLong(buf, off + 1);
+                final long h_id = ByteArrayUtil.getLong(buf, off + 9);
+                return new StreamableObject(h_type, h_size, h_id);
+            }
+
+            case (18): {
+                // UTF-16 characters with an int length
+                int len = ByteArrayUtil.getInt(buf, off);
+                off += 4;
+                int i = 0;
+                while (i < len && buf[off + (i * 2)] == 0) {
+                    ++i;
+                }
+                if (i == len) {
+                    // All the characters are Latin-1 so pack their low bytes
+                    // in place and decode them byte for byte
+                    for (i = 0; i < len; ++i) {
+                        buf[off + i] = buf[off + (i * 2) + 1];
+                    }
+                    return StringObject.fromString(
+                            new String(buf, off, len, StandardCharsets.ISO_8859_1));
+                }
+                char[] chars = new char[len];
+                for (i = 0; i < len; ++i) {
+                    chars[i] = ByteArrayUtil.getChar(buf, off + (i * 2));
+                }
+                return StringObject.fromString(new String(chars));
+            }
+
+            case (24):
+                // 32-bit int numeric value
+                return BigNumber.fromLong(ByteArrayUtil.getInt(buf, off));
+
+            default:
+                throw new IOException("Unrecognised type: " + type);
+
+        }
+    }
+
+    /**
+     * Decodes a modified UTF-8 string of 'utf_len' bytes at the given offset
+     * of a byte array, as written by 'DataOutput.writeUTF'.
+     */
+    private static String readUTF(byte[] buf, int off, int utf_len)
+            throws UTFDataFormatException {
+        // Most strings are ASCII, which decode byte for byte
+        int end = off + utf_len;
+        int i = off;
+        while (i < end && buf[i] > 0) {
+            ++i;
+        }
+        if (i == end) {
+            return new String(buf, off, utf_len, StandardCharsets.ISO_8859_1);
+        }
+
+        char[] chars = new char[utf_len];
+        int count = 0;
+        for (i = off; i < end; ++count) {
+            int c = buf[i] & 0x0FF;
+            if (c < 0x080) {
+                chars[count] = (char) c;
+                i += 1;
+            } else if ((c & 0x0E0) == 0x0C0 && i + 1 < end &&
+                    (buf[i + 1] & 0x0C0) == 0x080) {
+                chars[count] = (char) (((c & 0x01F) << 6) | (buf[i + 1] & 0x03F));
+                i += 2;
+            } else if ((c & 0x0F0) == 0x0E0 && i + 2 < end &&
+                    (buf[i + 1] & 0x0C0) == 0x080 &&
+                    (buf[i + 2] & 0x0C0) == 0x080) {
+                chars[count] = (char) (((c & 0x0F) << 12) |
+                        ((buf[i + 1] & 0x03F) << 6) | (buf[i + 2] & 0x03F));
+                i += 3;
+            } else {
+                throw new UTFDataFormatException(
+                        "Malformed input around byte " + (i - off));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
 }
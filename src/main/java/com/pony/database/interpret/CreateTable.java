@@ -55,6 +55,19 @@ public class CreateTable extends Statement {
      */
     ArrayList<Object> constraints;
 
+    /**
+     * True if the table is stored column by column (WITH (storage =
+     * 'columnar')).
+     */
+    boolean columnar = false;
+
+    /**
+     * True if large records of the table are compressed (WITH (compression =
+     * 'deflate')), and the size in bytes from which they are compressed.
+     */
+    boolean compress_records = false;
+    int compression_threshold = 1024;
+
 //  /**
 //   * The expression that must be evaluated to true for this row to be
 //   * added to the table.
@@ -93,6 +106,45 @@ public class CreateTable extends Statement {
 //    constraints.addElement(constraint);
 //  }
 
+    /**
+     * Sets an option given in the WITH clause of the create statement.
+     */
+    private void setTableOption(String option, String value)
+            throws DatabaseException {
+        if (option.equals("storage")) {
+            if (value.equalsIgnoreCase("columnar")) {
+                columnar = true;
+            } else if (value.equalsIgnoreCase("row")) {
+                columnar = false;
+            } else {
+                throw new DatabaseException(
+                        "Unknown table storage '" + value + "'");
+            }
+        } else if (option.equals("compression")) {
+            if (value.equalsIgnoreCase("deflate")) {
+                compress_records = true;
+            } else if (value.equalsIgnoreCase("none")) {
+                compress_records = false;
+            } else {
+                throw new DatabaseException(
+                        "Unknown table compression '" + value + "'");
+            }
+        } else if (option.equals("compression_threshold")) {
+            try {
+                compression_threshold = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                compression_threshold = 0;
+            }
+            if (compression_threshold <= 0) {
+                throw new DatabaseException(
+                        "Invalid compression threshold '" + value + "'");
+            }
+            compress_records = true;
+        } else {
+            throw new DatabaseException("Unknown table option '" + option + "'");
+        }
+    }
+
     /**
      * Creates a DataTableDef that describes the table that was defined by
      * this create statement.  This is used by the 'alter' statement.
@@ -101,7 +153,11 @@ public class CreateTable extends Statement {
         // Make all this information into a DataTableDef object...
         DataTableDef table_def = new DataTableDef();
         table_def.setTableName(tname);
-        table_def.setTableClass("com.pony.database.VariableSizeDataTableFile");
+        table_def.setTableClass(columnar ? DataTableDef.COLUMNAR_TABLE_CLASS
+                                         : DataTableDef.ROW_TABLE_CLASS);
+        if (compress_records) {
+            table_def.setRecordCompressionThreshold(compression_threshold);
+        }
 
         // Add the columns.
         // NOTE: Any duplicate column names will be found here...
@@ -197,6 +253,14 @@ public class CreateTable extends Statement {
         table_name = (String) cmd.getObject("table_name");
         ArrayList<Object> column_list = (ArrayList<Object>) cmd.getObject("column_list");
         constraints = (ArrayList<Object>) cmd.getObject("constraint_list");
+        // The WITH options are a list of option name and value pairs
+        ArrayList<String> table_options =
+                (ArrayList<String>) cmd.getObject("table_options");
+        if (table_options != null) {
+            for (int i = 0; i < table_options.size(); i += 2) {
+                setTableOption(table_options.get(i), table_options.get(i + 1));
+            }
+        }
 
         // Convert column_list to list of com.pony.database.DataTableColumnDef
         int size = column_list.size();
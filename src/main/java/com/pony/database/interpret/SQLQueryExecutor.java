@@ -68,10 +68,28 @@ public class SQLQueryExecutor {
             throws SQLException, DatabaseException, TransactionException,
             ParseException {
 
+        String query_str = query.getQuery();
+
+        // Is there a prepared plan for this query?
+        QueryPlanCache plan_cache =
+                connection.getDatabase().getQueryPlanCache();
+        QueryPlanCache.Key plan_key = null;
+        if (plan_cache != null) {
+            plan_key = new QueryPlanCache.Key(query_str,
+                    connection.getCurrentSchema(),
+                    connection.isInCaseInsensitiveMode());
+            QueryPlanCache.Plan cached_plan = plan_cache.get(plan_key, connection);
+            if (cached_plan != null) {
+                Select select = new Select();
+                select.init(connection, null, query);
+                select.prepare(cached_plan);
+                return select.evaluate();
+            }
+        }
+
         // StatementTree caching
 
         // Create a new parser and set the parameters...
-        String query_str = query.getQuery();
         StatementTree statement_tree = null;
         StatementCache statement_cache =
                 connection.getSystem().getStatementCache();
@@ -93,6 +111,15 @@ public class SQLQueryExecutor {
             }
         }
 
+        // The plan of a SELECT statement is cached with the parameters left
+        // unsubstituted, they are bound when the plan is evaluated.
+        long schema_version = -1;
+        if (plan_key != null &&
+                statement_tree.getClassName().equals(Select.class.getName()) &&
+                Select.isPlanCacheable(statement_tree)) {
+            schema_version = connection.getSchemaVersion();
+        }
+
         // Substitute all parameter substitutions in the statement tree.
         final Object[] vars = query.getVars();
         ExpressionPreparer preparer = new ExpressionPreparer() {
@@ -106,7 +133,9 @@ public class SQLQueryExecutor {
                 return TObject.objectVal(vars[param_id]);
             }
         };
-        statement_tree.prepareAllExpressions(preparer);
+        if (schema_version == -1) {
+            statement_tree.prepareAllExpressions(preparer);
+        }
 
         // Convert the StatementTree to a statement object
         Statement statement;
@@ -135,6 +164,11 @@ public class SQLQueryExecutor {
         // Prepare the statement.
         statement.prepare();
 
+        if (schema_version != -1) {
+            plan_cache.put(plan_key,
+                    ((Select) statement).getCachePlan(schema_version));
+        }
+
         // Evaluate the SQL statement.
         Table result = statement.evaluate();
 
@@ -22,6 +22,7 @@ import com.pony.database.*;
 import com.pony.debug.*;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Logic for interpreting an SQL SELECT statement.
@@ -128,6 +129,44 @@ public class Select extends Statement {
 
     }
 
+    /**
+     * Prepares the select statement from a plan held in the QueryPlanCache.
+     * This is used in place of 'resolveTree' and 'prepare'.
+     */
+    void prepare(QueryPlanCache.Plan cached_plan) {
+        plan = cached_plan.getPlan();
+        limit = cached_plan.getLimit();
+        offset = cached_plan.getOffset();
+    }
+
+    /**
+     * Returns the prepared plan of this statement to be put in the
+     * QueryPlanCache.  This must be called before 'evaluate'.
+     */
+    QueryPlanCache.Plan getCachePlan(long schema_version) {
+        return new QueryPlanCache.Plan(plan, limit, offset, schema_version);
+    }
+
+    /**
+     * Returns true if the plan of the given SELECT statement tree doesn't
+     * depend on the values of its parameters, so the plan may be cached with
+     * the parameters left unsubstituted.  A parameter on its own in the ORDER
+     * BY list could be a column number, which is resolved by the planner.
+     */
+    static boolean isPlanCacheable(StatementTree stree) {
+        List order_by = (List) stree.getObject("order_by");
+        if (order_by != null) {
+            for (Object ob : order_by) {
+                Expression exp = ((ByColumn) ob).exp;
+                if (exp.size() == 1 &&
+                        exp.last() instanceof ParameterSubstitution) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the number of rows an ORDER BY node must retain before the final
      * RowSubsetTable applies LIMIT/OFFSET.  -1 means no Top-N bound.
@@ -153,6 +192,11 @@ public class Select extends Statement {
     public Table evaluate() throws DatabaseException {
 
         DatabaseQueryContext context = new DatabaseQueryContext(database);
+        // Parameters are unsubstituted in a plan from the QueryPlanCache.  The
+        // values are copied because the result may be evaluated lazily.
+        if (query != null && query.getVars() != null) {
+            context.setParameters(query.getVars().clone());
+        }
 
         // Check the permissions for this user to select from the tables in the
         // given plan.
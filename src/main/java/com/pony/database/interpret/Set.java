@@ -86,6 +86,16 @@ public class Set extends Statement {
                     throw new DatabaseException("Unrecognised value for SET AUTO COMMIT");
                 }
                 break;
+            case "commit":
+                value = value.toLowerCase();
+                if (value.equals("async")) {
+                    database.setAsyncCommit(true);
+                } else if (value.equals("sync")) {
+                    database.setAsyncCommit(false);
+                } else {
+                    throw new DatabaseException("Unrecognised value for SET COMMIT");
+                }
+                break;
             case "schema":
                 // It's particularly important that this is done during exclusive
                 // lock because SELECT requires the schema name doesn't change in
@@ -28,6 +28,10 @@ import java.io.IOException;
  * A stored procedure that backs up the entire database to the given directory
  * in the file system.  Requires one parameter, the locate to back up the
  * database to.
+ * <p>
+ * Also provides the procedures for incremental backups, which make a base
+ * copy of the database files and archive the journals of the changes made
+ * since (see 'journal_archive_path').
  *
  * @author Tobias Downer
  */
@@ -56,5 +60,47 @@ public class SystemBackup {
 
     }
 
+    /**
+     * Makes a base backup of the database files in the given directory.
+     * Returns the sequence number of the archived journal that makes the
+     * backup consistent.
+     */
+    public static String makeBaseBackup(ProcedureConnection db_connection,
+                                        String path) {
+
+        File f = new File(path);
+        if (!f.exists() || !f.isDirectory()) {
+            throw new ProcedureException("Path '" + path +
+                    "' doesn't exist or is not a directory.");
+        }
+
+        try {
+            return Long.toString(db_connection.getDatabase().makeBaseBackup(f));
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new ProcedureException("IO Error: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ProcedureException(e.getMessage());
+        }
+
+    }
+
+    /**
+     * Archives the journals of every change committed so far.  Returns the
+     * sequence number of the last archived journal.
+     */
+    public static String archiveJournals(ProcedureConnection db_connection) {
+
+        try {
+            return Long.toString(db_connection.getDatabase().archiveJournals());
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new ProcedureException("IO Error: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ProcedureException(e.getMessage());
+        }
+
+    }
+
 }
 
@@ -384,25 +384,36 @@ public class SQL implements SQLConstants {
       jj_consume_token(LIMIT);
       limit = PositiveIntegerConstant();
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
-        jj_consume_token(210);
-        count = PositiveIntegerConstant();
+      case IDENTIFIER:
+      case 208:{
+        switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
+        case 208:{
+          jj_consume_token(208);
+          count = PositiveIntegerConstant();
 offset = limit; limit = count;
-        break;
+          break;
+          }
+        case IDENTIFIER:{
+          offset_token = jj_consume_token(IDENTIFIER);
+if (!offset_token.image.equalsIgnoreCase("offset")) {if (true) throw new ParseException("Expected OFFSET");}
+          offset = PositiveIntegerConstant();
+          break;
+          }
+        default:
+          jj_la1[5] = jj_gen;
+          jj_consume_token(-1);
+          throw new ParseException();
         }
-      case IDENTIFIER:{
-        offset_token = jj_consume_token(IDENTIFIER);
-if (!offset_token.image.equalsIgnoreCase("offset")) throw new ParseException("Expected OFFSET");
-        offset = PositiveIntegerConstant();
         break;
         }
       default:
+        jj_la1[6] = jj_gen;
         ;
       }
       break;
       }
     default:
-      jj_la1[5] = jj_gen;
+      jj_la1[7] = jj_gen;
       ;
     }
 cmd.putObject("table_expression", table_expr);
@@ -438,7 +449,7 @@ cmd.putObject("select_statement", select_statement);
       break;
       }
     default:
-      jj_la1[6] = jj_gen;
+      jj_la1[8] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -448,7 +459,7 @@ cmd.putObject("select_statement", select_statement);
       break;
       }
     default:
-      jj_la1[7] = jj_gen;
+      jj_la1[9] = jj_gen;
       ;
     }
 cmd.putObject("table_name", table_name);
@@ -472,7 +483,7 @@ cmd.putObject("table_name", table_name);
       break;
       }
     default:
-      jj_la1[8] = jj_gen;
+      jj_la1[10] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -500,7 +511,7 @@ cmd.putObject("create_statement", create_statement);
       break;
       }
     default:
-      jj_la1[9] = jj_gen;
+      jj_la1[11] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -525,6 +536,8 @@ cmd.putObject("table_name", table_name);
   ArrayList column_list = new ArrayList();
   ArrayList constraint_list = new ArrayList();
   Expression check_expression;
+  ArrayList table_options = new ArrayList();
+  Token t1, t2;
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case TEMPORARY:{
       jj_consume_token(TEMPORARY);
@@ -532,7 +545,7 @@ temporary = true;
       break;
       }
     default:
-      jj_la1[10] = jj_gen;
+      jj_la1[12] = jj_gen;
       ;
     }
     jj_consume_token(TABLE);
@@ -545,7 +558,7 @@ only_if_not_exists = true;
       break;
       }
     default:
-      jj_la1[11] = jj_gen;
+      jj_la1[13] = jj_gen;
       ;
     }
     table_name = TableName();
@@ -560,7 +573,41 @@ ConstraintDef check_constraint = new ConstraintDef();
       break;
       }
     default:
-      jj_la1[12] = jj_gen;
+      jj_la1[14] = jj_gen;
+      ;
+    }
+    switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
+    case WITH:{
+      jj_consume_token(WITH);
+      jj_consume_token(209);
+      t1 = jj_consume_token(IDENTIFIER);
+      jj_consume_token(ASSIGNMENT);
+      t2 = jj_consume_token(STRING_LITERAL);
+table_options.add(t1.image.toLowerCase());
+              table_options.add(((TObject) Util.toParamObject(t2, case_insensitive_identifiers)).toString());
+      label_1:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
+        case 208:{
+          ;
+          break;
+          }
+        default:
+          jj_la1[15] = jj_gen;
+          break label_1;
+        }
+        jj_consume_token(208);
+        t1 = jj_consume_token(IDENTIFIER);
+        jj_consume_token(ASSIGNMENT);
+        t2 = jj_consume_token(STRING_LITERAL);
+table_options.add(t1.image.toLowerCase());
+              table_options.add(((TObject) Util.toParamObject(t2, case_insensitive_identifiers)).toString());
+      }
+      jj_consume_token(210);
+      break;
+      }
+    default:
+      jj_la1[16] = jj_gen;
       ;
     }
 cmd.putBoolean("temporary", temporary);
@@ -568,6 +615,7 @@ cmd.putBoolean("temporary", temporary);
     cmd.putObject("table_name", table_name);
     cmd.putObject("column_list", column_list);
     cmd.putObject("constraint_list", constraint_list);
+    cmd.putObject("table_options", table_options);
     {if ("" != null) return cmd;}
     throw new Error("Missing return statement in function");
 }
@@ -604,9 +652,9 @@ cmd.putObject("type", "callback_trigger");
       jj_consume_token(EXECUTE);
       jj_consume_token(PROCEDURE);
       procedure_name = FunctionName();
-      jj_consume_token(208);
-      procedure_args = ExpressionList();
       jj_consume_token(209);
+      procedure_args = ExpressionList();
+      jj_consume_token(210);
 cmd.putObject("type", "procedure_trigger");
       cmd.putObject("before_after", before_after);
       cmd.putObject("procedure_name", procedure_name);
@@ -614,7 +662,7 @@ cmd.putObject("type", "procedure_trigger");
       break;
       }
     default:
-      jj_la1[13] = jj_gen;
+      jj_la1[17] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -646,7 +694,7 @@ cmd.putObject("trigger_name", trigger_name);
       break;
       }
     default:
-      jj_la1[14] = jj_gen;
+      jj_la1[18] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -662,9 +710,9 @@ cmd.putObject("trigger_name", trigger_name);
   TType return_type = null;
     jj_consume_token(FUNCTION);
     function_name = FunctionName();
-    jj_consume_token(208);
-    ProcParameterList(arg_names, arg_types);
     jj_consume_token(209);
+    ProcParameterList(arg_names, arg_types);
+    jj_consume_token(210);
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case RETURNS:{
       jj_consume_token(RETURNS);
@@ -672,7 +720,7 @@ cmd.putObject("trigger_name", trigger_name);
       break;
       }
     default:
-      jj_la1[15] = jj_gen;
+      jj_la1[19] = jj_gen;
       ;
     }
     jj_consume_token(LANGUAGE);
@@ -727,14 +775,14 @@ cmd.putObject("schema_name", schema_name);
     jj_consume_token(VIEW);
     view_name = TableName();
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-    case 208:{
-      jj_consume_token(208);
-      BasicColumnList(col_list);
+    case 209:{
       jj_consume_token(209);
+      BasicColumnList(col_list);
+      jj_consume_token(210);
       break;
       }
     default:
-      jj_la1[16] = jj_gen;
+      jj_la1[20] = jj_gen;
       ;
     }
     jj_consume_token(AS);
@@ -769,16 +817,16 @@ unique = true;
       break;
       }
     default:
-      jj_la1[17] = jj_gen;
+      jj_la1[21] = jj_gen;
       ;
     }
     jj_consume_token(INDEX);
     index_name = IndexName();
     jj_consume_token(ON);
     table_name = TableName();
-    jj_consume_token(208);
-    BasicColumnList(column_list);
     jj_consume_token(209);
+    BasicColumnList(column_list);
+    jj_consume_token(210);
 cmd.putObject("type", "create");
     cmd.putObject("index_name", index_name);
     cmd.putBoolean("unique", unique);
@@ -801,23 +849,23 @@ only_if_exists = true;
       break;
       }
     default:
-      jj_la1[18] = jj_gen;
+      jj_la1[22] = jj_gen;
       ;
     }
     table_name = TableName();
 table_list.add(table_name);
-    label_1:
+    label_2:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[19] = jj_gen;
-        break label_1;
+        jj_la1[23] = jj_gen;
+        break label_2;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       table_name = TableName();
 table_list.add(table_name);
     }
@@ -847,9 +895,9 @@ cmd.putObject("type", "drop");
   Expression[] args = null;
     jj_consume_token(CALL);
     proc_name = ProcedureName();
-    jj_consume_token(208);
-    args = ExpressionList();
     jj_consume_token(209);
+    args = ExpressionList();
+    jj_consume_token(210);
 cmd.putObject("proc_name", proc_name);
     cmd.putObject("args", args);
     {if ("" != null) return cmd;}
@@ -871,7 +919,7 @@ cmd.putObject("increment", v);
       break;
       }
     default:
-      jj_la1[20] = jj_gen;
+      jj_la1[24] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -882,7 +930,7 @@ cmd.putObject("min_value", v);
       break;
       }
     default:
-      jj_la1[21] = jj_gen;
+      jj_la1[25] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -893,7 +941,7 @@ cmd.putObject("max_value", v);
       break;
       }
     default:
-      jj_la1[22] = jj_gen;
+      jj_la1[26] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -904,7 +952,7 @@ cmd.putObject("start", v);
       break;
       }
     default:
-      jj_la1[23] = jj_gen;
+      jj_la1[27] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -915,7 +963,7 @@ cmd.putObject("cache", v);
       break;
       }
     default:
-      jj_la1[24] = jj_gen;
+      jj_la1[28] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -925,7 +973,7 @@ cmd.putObject("cycle", "yes");
       break;
       }
     default:
-      jj_la1[25] = jj_gen;
+      jj_la1[29] = jj_gen;
       ;
     }
 {if ("" != null) return cmd;}
@@ -999,14 +1047,14 @@ lock_status="UNLOCK";
         break;
         }
       default:
-        jj_la1[26] = jj_gen;
+        jj_la1[30] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
       break;
       }
     default:
-      jj_la1[27] = jj_gen;
+      jj_la1[31] = jj_gen;
       ;
     }
 cmd.putObject("username", username);
@@ -1029,7 +1077,7 @@ cmd.putObject("username", username);
       break;
       }
     default:
-      jj_la1[28] = jj_gen;
+      jj_la1[32] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1039,7 +1087,7 @@ cmd.putObject("username", username);
       break;
       }
     default:
-      jj_la1[29] = jj_gen;
+      jj_la1[33] = jj_gen;
       ;
     }
 cmd.putObject("table_name", table_name);
@@ -1063,23 +1111,23 @@ cmd.putObject("table_name", table_name);
       break;
       }
     default:
-      jj_la1[30] = jj_gen;
+      jj_la1[34] = jj_gen;
       ;
     }
     table_name = TableName();
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case SELECT:
     case VALUES:
-    case 208:{
+    case 209:{
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 208:{
-        jj_consume_token(208);
-        BasicColumnList(col_list);
+      case 209:{
         jj_consume_token(209);
+        BasicColumnList(col_list);
+        jj_consume_token(210);
         break;
         }
       default:
-        jj_la1[31] = jj_gen;
+        jj_la1[35] = jj_gen;
         ;
       }
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1095,7 +1143,7 @@ type = "from_select";
         break;
         }
       default:
-        jj_la1[32] = jj_gen;
+        jj_la1[36] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -1108,7 +1156,7 @@ type = "from_set";
       break;
       }
     default:
-      jj_la1[33] = jj_gen;
+      jj_la1[37] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1148,19 +1196,19 @@ cmd.putObject("table_name", table_name);
       break;
       }
     default:
-      jj_la1[34] = jj_gen;
+      jj_la1[38] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-    case 208:{
-      jj_consume_token(208);
-      args = ExpressionList();
+    case 209:{
       jj_consume_token(209);
+      args = ExpressionList();
+      jj_consume_token(210);
       break;
       }
     default:
-      jj_la1[35] = jj_gen;
+      jj_la1[39] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1170,7 +1218,7 @@ cmd.putObject("table_name", table_name);
       break;
       }
     default:
-      jj_la1[36] = jj_gen;
+      jj_la1[40] = jj_gen;
       ;
     }
 cmd.putObject("show", t.image);
@@ -1200,7 +1248,7 @@ grant_option = true;
       break;
       }
     default:
-      jj_la1[37] = jj_gen;
+      jj_la1[41] = jj_gen;
       ;
     }
 cmd.putObject("command", "GRANT");
@@ -1227,7 +1275,7 @@ revoke_grant_option = true;
       break;
       }
     default:
-      jj_la1[38] = jj_gen;
+      jj_la1[42] = jj_gen;
       ;
     }
     PrivList(priv_list);
@@ -1258,7 +1306,7 @@ command = "rollback";
       break;
       }
     default:
-      jj_la1[39] = jj_gen;
+      jj_la1[43] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1303,7 +1351,7 @@ cmd.putObject("type", "ISOLATIONSET");
         break;
         }
       default:
-        jj_la1[40] = jj_gen;
+        jj_la1[44] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -1311,6 +1359,13 @@ cmd.putObject("type", "AUTOCOMMIT");
           cmd.putObject("value", t1.image);
       break;
       }
+    case COMMIT:{
+      jj_consume_token(COMMIT);
+      t1 = jj_consume_token(IDENTIFIER);
+cmd.putObject("type", "COMMIT");
+          cmd.putObject("value", t1.image);
+      break;
+      }
     case SCHEMA:{
       jj_consume_token(SCHEMA);
       name = SchemaName();
@@ -1319,7 +1374,7 @@ cmd.putObject("type", "SCHEMA");
       break;
       }
     default:
-      jj_la1[41] = jj_gen;
+      jj_la1[45] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1354,7 +1409,7 @@ String TriggerType() throws ParseException {
       break;
       }
     default:
-      jj_la1[42] = jj_gen;
+      jj_la1[46] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1374,7 +1429,7 @@ String TriggerType() throws ParseException {
       break;
       }
     default:
-      jj_la1[43] = jj_gen;
+      jj_la1[47] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1386,7 +1441,7 @@ String TriggerType() throws ParseException {
   final public void TriggerTypes(ArrayList list) throws ParseException {String trig_type;
     trig_type = TriggerType();
 list.add(trig_type);
-    label_2:
+    label_3:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case OR:{
@@ -1394,8 +1449,8 @@ list.add(trig_type);
         break;
         }
       default:
-        jj_la1[44] = jj_gen;
-        break label_2;
+        jj_la1[48] = jj_gen;
+        break label_3;
       }
       jj_consume_token(OR);
       trig_type = TriggerType();
@@ -1431,7 +1486,7 @@ list.add(trig_type);
         break;
         }
       default:
-        jj_la1[45] = jj_gen;
+        jj_la1[49] = jj_gen;
         ;
       }
       table_name = TableName();
@@ -1445,7 +1500,7 @@ list.add(trig_type);
       break;
       }
     default:
-      jj_la1[46] = jj_gen;
+      jj_la1[50] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1455,18 +1510,18 @@ list.add(trig_type);
 // A list of privs
   final public ArrayList PrivList(ArrayList list) throws ParseException {
     PrivListItem(list);
-    label_3:
+    label_4:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[47] = jj_gen;
-        break label_3;
+        jj_la1[51] = jj_gen;
+        break label_4;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       PrivListItem(list);
     }
 {if ("" != null) return list;}
@@ -1508,13 +1563,13 @@ list.add(trig_type);
         break;
         }
       default:
-        jj_la1[48] = jj_gen;
+        jj_la1[52] = jj_gen;
         ;
       }
       break;
       }
     default:
-      jj_la1[49] = jj_gen;
+      jj_la1[53] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1535,7 +1590,7 @@ list.add(t.image);
       break;
       }
     default:
-      jj_la1[50] = jj_gen;
+      jj_la1[54] = jj_gen;
       ;
     }
     SelectColumnList(table_expr.columns);
@@ -1546,7 +1601,7 @@ list.add(t.image);
       break;
       }
     default:
-      jj_la1[51] = jj_gen;
+      jj_la1[55] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1556,7 +1611,7 @@ list.add(t.image);
       break;
       }
     default:
-      jj_la1[52] = jj_gen;
+      jj_la1[56] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1570,7 +1625,7 @@ list.add(t.image);
         break;
         }
       default:
-        jj_la1[53] = jj_gen;
+        jj_la1[57] = jj_gen;
         ;
       }
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1580,13 +1635,13 @@ list.add(t.image);
         break;
         }
       default:
-        jj_la1[54] = jj_gen;
+        jj_la1[58] = jj_gen;
         ;
       }
       break;
       }
     default:
-      jj_la1[55] = jj_gen;
+      jj_la1[59] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -1601,7 +1656,7 @@ is_all = true;
         break;
         }
       default:
-        jj_la1[56] = jj_gen;
+        jj_la1[60] = jj_gen;
         ;
       }
       next_composite_expression = GetTableSelectExpression();
@@ -1609,7 +1664,7 @@ table_expr.chainComposite(next_composite_expression, composite, is_all);
       break;
       }
     default:
-      jj_la1[57] = jj_gen;
+      jj_la1[61] = jj_gen;
       ;
     }
 {if ("" != null) return table_expr;}
@@ -1645,7 +1700,7 @@ table_expr.chainComposite(next_composite_expression, composite, is_all);
           break;
           }
         default:
-          jj_la1[58] = jj_gen;
+          jj_la1[62] = jj_gen;
           ;
         }
         column_def = ColumnDefinition();
@@ -1664,7 +1719,7 @@ action.setAction("ADD_CONSTRAINT");
         break;
         }
       default:
-        jj_la1[59] = jj_gen;
+        jj_la1[63] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -1678,7 +1733,7 @@ action.setAction("ADD_CONSTRAINT");
         break;
         }
       default:
-        jj_la1[60] = jj_gen;
+        jj_la1[64] = jj_gen;
         ;
       }
       col_name = ColumnName();
@@ -1699,7 +1754,7 @@ action.setAction("DROPDEFAULT");
         break;
         }
       default:
-        jj_la1[61] = jj_gen;
+        jj_la1[65] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -1728,7 +1783,7 @@ action.setAction("DROPDEFAULT");
           break;
           }
         default:
-          jj_la1[62] = jj_gen;
+          jj_la1[66] = jj_gen;
           ;
         }
         col_name = ColumnName();
@@ -1750,14 +1805,14 @@ action.setAction("DROP_CONSTRAINT_PRIMARY_KEY");
         break;
         }
       default:
-        jj_la1[63] = jj_gen;
+        jj_la1[67] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
       break;
       }
     default:
-      jj_la1[64] = jj_gen;
+      jj_la1[68] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1807,13 +1862,13 @@ action.setAction("DROP_CONSTRAINT_PRIMARY_KEY");
     case DOT_DELIMINATED_REF:
     case QUOTED_DELIMINATED_REF:
     case PARAMETER_REF:
-    case 208:{
+    case 209:{
       e = DoExpression();
 {if ("" != null) return e;}
       break;
       }
     default:
-      jj_la1[65] = jj_gen;
+      jj_la1[69] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1857,28 +1912,28 @@ action.setAction("DROP_CONSTRAINT_PRIMARY_KEY");
     case DOT_DELIMINATED_REF:
     case QUOTED_DELIMINATED_REF:
     case PARAMETER_REF:
-    case 208:{
+    case 209:{
       elem = InsertElement();
 list.add(elem);
-      label_4:
+      label_5:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-        case 210:{
+        case 208:{
           ;
           break;
           }
         default:
-          jj_la1[66] = jj_gen;
-          break label_4;
+          jj_la1[70] = jj_gen;
+          break label_5;
         }
-        jj_consume_token(210);
+        jj_consume_token(208);
         elem = InsertElement();
 list.add(elem);
       }
       break;
       }
     default:
-      jj_la1[67] = jj_gen;
+      jj_la1[71] = jj_gen;
       ;
     }
 {if ("" != null) return list;}
@@ -1887,25 +1942,25 @@ list.add(elem);
 
 // The list of columns to insert formatted as; eg.  (9, 4), (3, 2), (9, 9), ....
   final public void InsertDataList(ArrayList data_list) throws ParseException {ArrayList insert_vals;
-    jj_consume_token(208);
-    insert_vals = InsertExpressionList();
     jj_consume_token(209);
+    insert_vals = InsertExpressionList();
+    jj_consume_token(210);
 data_list.add(insert_vals);
-    label_5:
+    label_6:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[68] = jj_gen;
-        break label_5;
+        jj_la1[72] = jj_gen;
+        break label_6;
       }
-      jj_consume_token(210);
       jj_consume_token(208);
-      insert_vals = InsertExpressionList();
       jj_consume_token(209);
+      insert_vals = InsertExpressionList();
+      jj_consume_token(210);
 data_list.add(insert_vals);
     }
 }
@@ -1924,7 +1979,7 @@ data_list.add(insert_vals);
       break;
       }
     default:
-      jj_la1[69] = jj_gen;
+      jj_la1[73] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1934,18 +1989,18 @@ data_list.add(insert_vals);
   final public void SelectColumnList(ArrayList list) throws ParseException {SelectColumn col;
     col = SelectColumn();
 list.add(col);
-    label_6:
+    label_7:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[70] = jj_gen;
-        break label_6;
+        jj_la1[74] = jj_gen;
+        break label_7;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       col = SelectColumn();
 list.add(col);
     }
@@ -1988,7 +2043,7 @@ list.add(col);
     case DOT_DELIMINATED_REF:
     case QUOTED_DELIMINATED_REF:
     case PARAMETER_REF:
-    case 208:{
+    case 209:{
       col.expression = DoExpression();
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case AS:{
@@ -1996,7 +2051,7 @@ list.add(col);
         break;
         }
       default:
-        jj_la1[71] = jj_gen;
+        jj_la1[75] = jj_gen;
         ;
       }
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -2015,7 +2070,7 @@ list.add(col);
         break;
         }
       default:
-        jj_la1[72] = jj_gen;
+        jj_la1[76] = jj_gen;
         ;
       }
       break;
@@ -2036,7 +2091,7 @@ col.glob_name = caseCheck(Util.asNonQuotedRef(t));
       break;
       }
     default:
-      jj_la1[73] = jj_gen;
+      jj_la1[77] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2050,18 +2105,18 @@ col.glob_name = caseCheck(Util.asNonQuotedRef(t));
 col = new ByColumn();
                            col.exp = exp;
                            list.add(col);
-    label_7:
+    label_8:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[74] = jj_gen;
-        break label_7;
+        jj_la1[78] = jj_gen;
+        break label_8;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       exp = DoExpression();
 col = new ByColumn();
                                col.exp = exp;
@@ -2090,25 +2145,25 @@ col = new ByColumn();
       break;
       }
     default:
-      jj_la1[75] = jj_gen;
+      jj_la1[79] = jj_gen;
       ;
     }
 col = new ByColumn();
                            col.exp = exp;
                            col.ascending = ascending;
                            list.add(col);
-    label_8:
+    label_9:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[76] = jj_gen;
-        break label_8;
+        jj_la1[80] = jj_gen;
+        break label_9;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       exp = DoExpression();
 ascending=true;
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -2118,7 +2173,7 @@ ascending=true;
         break;
         }
       default:
-        jj_la1[77] = jj_gen;
+        jj_la1[81] = jj_gen;
         ;
       }
 col = new ByColumn();
@@ -2141,7 +2196,7 @@ col = new ByColumn();
       break;
       }
     default:
-      jj_la1[78] = jj_gen;
+      jj_la1[82] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2170,14 +2225,14 @@ col = new ByColumn();
       table = TableName();
       break;
       }
-    case 208:{
-      jj_consume_token(208);
-      select_stmt = GetTableSelectExpression();
+    case 209:{
       jj_consume_token(209);
+      select_stmt = GetTableSelectExpression();
+      jj_consume_token(210);
       break;
       }
     default:
-      jj_la1[79] = jj_gen;
+      jj_la1[83] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2204,14 +2259,14 @@ col = new ByColumn();
         break;
         }
       default:
-        jj_la1[80] = jj_gen;
+        jj_la1[84] = jj_gen;
         ;
       }
       declare_as = TableName();
       break;
       }
     default:
-      jj_la1[81] = jj_gen;
+      jj_la1[85] = jj_gen;
       ;
     }
 from_clause.addTableDeclaration(table, select_stmt, declare_as);
@@ -2224,20 +2279,20 @@ from_clause.addTableDeclaration(table, select_stmt, declare_as);
     case JOIN:
     case RIGHT:
     case INNER:
-    case 210:{
+    case 208:{
       FromClauseJoin(from_clause);
       break;
       }
     default:
-      jj_la1[82] = jj_gen;
+      jj_la1[86] = jj_gen;
       ;
     }
 }
 
   final public void FromClauseJoin(FromClause from_clause) throws ParseException {Expression on_expression;
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-    case 210:{
-      jj_consume_token(210);
+    case 208:{
+      jj_consume_token(208);
 from_clause.addJoin(JoiningSet.INNER_JOIN);
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case OLD:
@@ -2255,12 +2310,12 @@ from_clause.addJoin(JoiningSet.INNER_JOIN);
       case IDENTIFIER:
       case DOT_DELIMINATED_REF:
       case QUOTED_DELIMINATED_REF:
-      case 208:{
+      case 209:{
         SelectTableList(from_clause);
         break;
         }
       default:
-        jj_la1[83] = jj_gen;
+        jj_la1[87] = jj_gen;
         ;
       }
       break;
@@ -2273,7 +2328,7 @@ from_clause.addJoin(JoiningSet.INNER_JOIN);
         break;
         }
       default:
-        jj_la1[84] = jj_gen;
+        jj_la1[88] = jj_gen;
         ;
       }
       jj_consume_token(JOIN);
@@ -2286,12 +2341,12 @@ from_clause.addPreviousJoin(JoiningSet.INNER_JOIN, on_expression);
       case JOIN:
       case RIGHT:
       case INNER:
-      case 210:{
+      case 208:{
         FromClauseJoin(from_clause);
         break;
         }
       default:
-        jj_la1[85] = jj_gen;
+        jj_la1[89] = jj_gen;
         ;
       }
       break;
@@ -2304,7 +2359,7 @@ from_clause.addPreviousJoin(JoiningSet.INNER_JOIN, on_expression);
         break;
         }
       default:
-        jj_la1[86] = jj_gen;
+        jj_la1[90] = jj_gen;
         ;
       }
       jj_consume_token(JOIN);
@@ -2317,12 +2372,12 @@ from_clause.addPreviousJoin(JoiningSet.LEFT_OUTER_JOIN, on_expression);
       case JOIN:
       case RIGHT:
       case INNER:
-      case 210:{
+      case 208:{
         FromClauseJoin(from_clause);
         break;
         }
       default:
-        jj_la1[87] = jj_gen;
+        jj_la1[91] = jj_gen;
         ;
       }
       break;
@@ -2335,7 +2390,7 @@ from_clause.addPreviousJoin(JoiningSet.LEFT_OUTER_JOIN, on_expression);
         break;
         }
       default:
-        jj_la1[88] = jj_gen;
+        jj_la1[92] = jj_gen;
         ;
       }
       jj_consume_token(JOIN);
@@ -2348,18 +2403,18 @@ from_clause.addPreviousJoin(JoiningSet.RIGHT_OUTER_JOIN, on_expression);
       case JOIN:
       case RIGHT:
       case INNER:
-      case 210:{
+      case 208:{
         FromClauseJoin(from_clause);
         break;
         }
       default:
-        jj_la1[89] = jj_gen;
+        jj_la1[93] = jj_gen;
         ;
       }
       break;
       }
     default:
-      jj_la1[90] = jj_gen;
+      jj_la1[94] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2428,24 +2483,24 @@ name = null;
         break;
         }
       default:
-        jj_la1[91] = jj_gen;
+        jj_la1[95] = jj_gen;
         ;
       }
       type = GetTType();
 decl_names.add(name);
                                                           decl_types.add(type);
-      label_9:
+      label_10:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-        case 210:{
+        case 208:{
           ;
           break;
           }
         default:
-          jj_la1[92] = jj_gen;
-          break label_9;
+          jj_la1[96] = jj_gen;
+          break label_10;
         }
-        jj_consume_token(210);
+        jj_consume_token(208);
 name = null;
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
         case NAME:
@@ -2463,7 +2518,7 @@ name = null;
           break;
           }
         default:
-          jj_la1[93] = jj_gen;
+          jj_la1[97] = jj_gen;
           ;
         }
         type = GetTType();
@@ -2473,7 +2528,7 @@ decl_names.add(name);
       break;
       }
     default:
-      jj_la1[94] = jj_gen;
+      jj_la1[98] = jj_gen;
       ;
     }
 }
@@ -2486,13 +2541,13 @@ decl_names.add(name);
     exp = DoExpression();
 assignment_list.add(new Assignment(Variable.resolve(column), exp));
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-    case 210:{
-      jj_consume_token(210);
+    case 208:{
+      jj_consume_token(208);
       AssignmentList(assignment_list);
       break;
       }
     default:
-      jj_la1[95] = jj_gen;
+      jj_la1[99] = jj_gen;
       ;
     }
 }
@@ -2500,23 +2555,23 @@ assignment_list.add(new Assignment(Variable.resolve(column), exp));
 // Parses a list of column declarations.  eg. ' id NUMERIC(5, 20), number VARCHAR(90), ... '
 // and also any constraints.
   final public void ColumnDeclarationList(ArrayList column_list, ArrayList constraint_list) throws ParseException {
-    jj_consume_token(208);
+    jj_consume_token(209);
     ColumnOrConstraintDefinition(column_list, constraint_list);
-    label_10:
+    label_11:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[96] = jj_gen;
-        break label_10;
+        jj_la1[100] = jj_gen;
+        break label_11;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       ColumnOrConstraintDefinition(column_list, constraint_list);
     }
-    jj_consume_token(209);
+    jj_consume_token(210);
 }
 
   final public void ColumnOrConstraintDefinition(ArrayList column_list, ArrayList constraint_list) throws ParseException {ColumnDef coldef = null;
@@ -2549,7 +2604,7 @@ constraint_list.add(condef);
       break;
       }
     default:
-      jj_la1[97] = jj_gen;
+      jj_la1[101] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2571,10 +2626,10 @@ column.setDefaultExpression(default_exp);
       break;
       }
     default:
-      jj_la1[98] = jj_gen;
+      jj_la1[102] = jj_gen;
       ;
     }
-    label_11:
+    label_12:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case NULL_LITERAL:
@@ -2585,8 +2640,8 @@ column.setDefaultExpression(default_exp);
         break;
         }
       default:
-        jj_la1[99] = jj_gen;
-        break label_11;
+        jj_la1[103] = jj_gen;
+        break label_12;
       }
       ColumnConstraint(column);
     }
@@ -2603,7 +2658,7 @@ column.setDefaultExpression(default_exp);
         break;
         }
       default:
-        jj_la1[100] = jj_gen;
+        jj_la1[104] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -2611,7 +2666,7 @@ column.setIndex(t);
       break;
       }
     default:
-      jj_la1[101] = jj_gen;
+      jj_la1[105] = jj_gen;
       ;
     }
 {if ("" != null) return column;}
@@ -2646,7 +2701,7 @@ column.addConstraint("UNIQUE");
       break;
       }
     default:
-      jj_la1[102] = jj_gen;
+      jj_la1[106] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2675,7 +2730,7 @@ column.addConstraint("UNIQUE");
       break;
       }
     default:
-      jj_la1[103] = jj_gen;
+      jj_la1[107] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2700,7 +2755,7 @@ column.addConstraint("UNIQUE");
       break;
       }
     default:
-      jj_la1[104] = jj_gen;
+      jj_la1[108] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2736,7 +2791,7 @@ column.addConstraint("UNIQUE");
           break;
           }
         default:
-          jj_la1[105] = jj_gen;
+          jj_la1[109] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
@@ -2755,7 +2810,7 @@ column.addConstraint("UNIQUE");
           break;
           }
         default:
-          jj_la1[106] = jj_gen;
+          jj_la1[110] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
@@ -2773,7 +2828,7 @@ column.addConstraint("UNIQUE");
         break;
         }
       default:
-        jj_la1[107] = jj_gen;
+        jj_la1[111] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -2795,7 +2850,7 @@ column.addConstraint("UNIQUE");
         break;
         }
       default:
-        jj_la1[108] = jj_gen;
+        jj_la1[112] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -2843,7 +2898,7 @@ column.addConstraint("UNIQUE");
       break;
       }
     default:
-      jj_la1[109] = jj_gen;
+      jj_la1[113] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2861,7 +2916,7 @@ column.addConstraint("UNIQUE");
       break;
       }
     default:
-      jj_la1[110] = jj_gen;
+      jj_la1[114] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2887,7 +2942,7 @@ column.addConstraint("UNIQUE");
       break;
       }
     default:
-      jj_la1[111] = jj_gen;
+      jj_la1[115] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -2927,7 +2982,7 @@ column.addConstraint("UNIQUE");
         break;
         }
       default:
-        jj_la1[112] = jj_gen;
+        jj_la1[116] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -2950,8 +3005,8 @@ column.addConstraint("UNIQUE");
     case JAVA_OBJECT:{
       jj_consume_token(JAVA_OBJECT);
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 208:{
-        jj_consume_token(208);
+      case 209:{
+        jj_consume_token(209);
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
         case DOT_DELIMINATED_REF:{
           class_tok = jj_consume_token(DOT_DELIMINATED_REF);
@@ -2962,15 +3017,15 @@ column.addConstraint("UNIQUE");
           break;
           }
         default:
-          jj_la1[113] = jj_gen;
+          jj_la1[117] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
-        jj_consume_token(209);
+        jj_consume_token(210);
         break;
         }
       default:
-        jj_la1[114] = jj_gen;
+        jj_la1[118] = jj_gen;
         ;
       }
 String class_str = "java.lang.Object";
@@ -2981,18 +3036,18 @@ String class_str = "java.lang.Object";
       break;
       }
     default:
-      jj_la1[122] = jj_gen;
+      jj_la1[126] = jj_gen;
       if (jj_2_6(2147483647)) {
         data_type = GetStringSQLType();
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-        case 208:{
-          jj_consume_token(208);
-          size = PositiveIntegerConstant();
+        case 209:{
           jj_consume_token(209);
+          size = PositiveIntegerConstant();
+          jj_consume_token(210);
           break;
           }
         default:
-          jj_la1[115] = jj_gen;
+          jj_la1[119] = jj_gen;
           ;
         }
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -3009,7 +3064,7 @@ loc = ((TObject) Util.toParamObject(t, case_insensitive_identifiers)).toString()
             break;
             }
           default:
-            jj_la1[116] = jj_gen;
+            jj_la1[120] = jj_gen;
             ;
           }
           switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -3020,13 +3075,13 @@ loc = ((TObject) Util.toParamObject(t, case_insensitive_identifiers)).toString()
             break;
             }
           default:
-            jj_la1[117] = jj_gen;
+            jj_la1[121] = jj_gen;
             ;
           }
           break;
           }
         default:
-          jj_la1[118] = jj_gen;
+          jj_la1[122] = jj_gen;
           ;
         }
 {if ("" != null) return TType.stringType(data_type, size, loc, strength, decomposition);}
@@ -3044,24 +3099,24 @@ loc = ((TObject) Util.toParamObject(t, case_insensitive_identifiers)).toString()
         case SMALLINT:{
           data_type = GetNumericSQLType();
           switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-          case 208:{
-            jj_consume_token(208);
+          case 209:{
+            jj_consume_token(209);
             size = PositiveIntegerConstant();
             switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-            case 210:{
-              jj_consume_token(210);
+            case 208:{
+              jj_consume_token(208);
               scale = PositiveIntegerConstant();
               break;
               }
             default:
-              jj_la1[119] = jj_gen;
+              jj_la1[123] = jj_gen;
               ;
             }
-            jj_consume_token(209);
+            jj_consume_token(210);
             break;
             }
           default:
-            jj_la1[120] = jj_gen;
+            jj_la1[124] = jj_gen;
             ;
           }
 {if ("" != null) return TType.numericType(data_type, size, scale);}
@@ -3087,21 +3142,21 @@ loc = ((TObject) Util.toParamObject(t, case_insensitive_identifiers)).toString()
         case LONGVARBINARY:{
           data_type = GetBinarySQLType();
           switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-          case 208:{
-            jj_consume_token(208);
-            size = PositiveIntegerConstant();
+          case 209:{
             jj_consume_token(209);
+            size = PositiveIntegerConstant();
+            jj_consume_token(210);
             break;
             }
           default:
-            jj_la1[121] = jj_gen;
+            jj_la1[125] = jj_gen;
             ;
           }
 {if ("" != null) return TType.binaryType(data_type, size);}
           break;
           }
         default:
-          jj_la1[123] = jj_gen;
+          jj_la1[127] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
@@ -3134,52 +3189,52 @@ constraint.setName(constraint_name);
       break;
       }
     default:
-      jj_la1[124] = jj_gen;
+      jj_la1[128] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case PRIMARY:{
       jj_consume_token(PRIMARY);
       jj_consume_token(KEY);
-      jj_consume_token(208);
-      BasicColumnList(column_list);
       jj_consume_token(209);
+      BasicColumnList(column_list);
+      jj_consume_token(210);
 constraint.setPrimaryKey(column_list);
       break;
       }
     case UNIQUE:{
       jj_consume_token(UNIQUE);
-      jj_consume_token(208);
-      BasicColumnList(column_list);
       jj_consume_token(209);
+      BasicColumnList(column_list);
+      jj_consume_token(210);
 constraint.setUnique(column_list);
       break;
       }
     case CHECK:{
       jj_consume_token(CHECK);
-      jj_consume_token(208);
-      expression = DoExpression();
       jj_consume_token(209);
+      expression = DoExpression();
+      jj_consume_token(210);
 constraint.setCheck(expression);
       break;
       }
     case FOREIGN:{
       jj_consume_token(FOREIGN);
       jj_consume_token(KEY);
-      jj_consume_token(208);
-      BasicColumnList(column_list);
       jj_consume_token(209);
+      BasicColumnList(column_list);
+      jj_consume_token(210);
       jj_consume_token(REFERENCES);
       reference_table = TableName();
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 208:{
-        jj_consume_token(208);
-        BasicColumnList(column_list2);
+      case 209:{
         jj_consume_token(209);
+        BasicColumnList(column_list2);
+        jj_consume_token(210);
         break;
         }
       default:
-        jj_la1[125] = jj_gen;
+        jj_la1[129] = jj_gen;
         ;
       }
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -3196,7 +3251,7 @@ constraint.setCheck(expression);
             break;
             }
           default:
-            jj_la1[126] = jj_gen;
+            jj_la1[130] = jj_gen;
             ;
           }
         } else {
@@ -3213,13 +3268,13 @@ constraint.setCheck(expression);
               break;
               }
             default:
-              jj_la1[127] = jj_gen;
+              jj_la1[131] = jj_gen;
               ;
             }
             break;
             }
           default:
-            jj_la1[128] = jj_gen;
+            jj_la1[132] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3227,14 +3282,14 @@ constraint.setCheck(expression);
         break;
         }
       default:
-        jj_la1[129] = jj_gen;
+        jj_la1[133] = jj_gen;
         ;
       }
 constraint.setForeignKey(reference_table, column_list, column_list2, delete_rule, update_rule);
       break;
       }
     default:
-      jj_la1[130] = jj_gen;
+      jj_la1[134] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -3246,7 +3301,7 @@ constraint.setForeignKey(reference_table, column_list, column_list2, delete_rule
       break;
       }
     default:
-      jj_la1[131] = jj_gen;
+      jj_la1[135] = jj_gen;
       ;
     }
 {if ("" != null) return constraint;}
@@ -3273,7 +3328,7 @@ trigger_str="CASCADE";
       break;
       }
     default:
-      jj_la1[132] = jj_gen;
+      jj_la1[136] = jj_gen;
       if (jj_2_8(2)) {
         jj_consume_token(SET);
         jj_consume_token(NULL_LITERAL);
@@ -3287,7 +3342,7 @@ trigger_str="SET DEFAULT";
           break;
           }
         default:
-          jj_la1[133] = jj_gen;
+          jj_la1[137] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
@@ -3312,7 +3367,7 @@ constraint.setInitiallyDeferred();
         break;
         }
       default:
-        jj_la1[134] = jj_gen;
+        jj_la1[138] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -3331,14 +3386,14 @@ constraint.setNotDeferrable();
           break;
           }
         default:
-          jj_la1[135] = jj_gen;
+          jj_la1[139] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
         break;
         }
       default:
-        jj_la1[136] = jj_gen;
+        jj_la1[140] = jj_gen;
         ;
       }
       break;
@@ -3357,7 +3412,7 @@ constraint.setNotDeferrable();
         break;
         }
       default:
-        jj_la1[137] = jj_gen;
+        jj_la1[141] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -3375,20 +3430,20 @@ constraint.setInitiallyDeferred();
           break;
           }
         default:
-          jj_la1[138] = jj_gen;
+          jj_la1[142] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
         break;
         }
       default:
-        jj_la1[139] = jj_gen;
+        jj_la1[143] = jj_gen;
         ;
       }
       break;
       }
     default:
-      jj_la1[140] = jj_gen;
+      jj_la1[144] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -3398,18 +3453,18 @@ constraint.setInitiallyDeferred();
   final public ArrayList BasicColumnList(ArrayList list) throws ParseException {String col_name;
     col_name = ColumnName();
 list.add(col_name);
-    label_12:
+    label_13:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[141] = jj_gen;
-        break label_12;
+        jj_la1[145] = jj_gen;
+        break label_13;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       col_name = ColumnName();
 list.add(col_name);
     }
@@ -3421,18 +3476,18 @@ list.add(col_name);
   final public ArrayList UserNameList(ArrayList list) throws ParseException {String username;
     username = UserName();
 list.add(username);
-    label_13:
+    label_14:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-      case 210:{
+      case 208:{
         ;
         break;
         }
       default:
-        jj_la1[142] = jj_gen;
-        break label_13;
+        jj_la1[146] = jj_gen;
+        break label_14;
       }
-      jj_consume_token(210);
+      jj_consume_token(208);
       username = UserName();
 list.add(username);
     }
@@ -3476,12 +3531,12 @@ expEnd(exp, stack);
  */
   final public void expression(Expression exp, Stack stack) throws ParseException {
     Operand(exp, stack);
-    label_14:
+    label_15:
     while (true) {
       if (jj_2_9(2)) {
         ;
       } else {
-        break label_14;
+        break label_15;
       }
       OpPart(exp, stack);
     }
@@ -3492,12 +3547,12 @@ expEnd(exp, stack);
  */
   final public void nonBooleanExpression(Expression exp, Stack stack) throws ParseException {
     Operand(exp, stack);
-    label_15:
+    label_16:
     while (true) {
       if (jj_2_10(2)) {
         ;
       } else {
-        break label_15;
+        break label_16;
       }
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case CONCAT:{
@@ -3512,7 +3567,7 @@ expEnd(exp, stack);
         break;
         }
       default:
-        jj_la1[143] = jj_gen;
+        jj_la1[147] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -3525,13 +3580,13 @@ expEnd(exp, stack);
 //  Expression[] exp_arr;
   Expression regex_expression;
   Object regex_ob;
-    if (isSingleSubQueryOperatorAhead()) {
+    if (jj_2_11(3)) {
       SingleSubQueryOperator(exp, stack);
       SubQueryExpression(exp, stack);
-    } else if (isAnyAllSubQueryOperatorAhead()) {
-      SubQueryOperator(exp, stack);
+    } else if (jj_2_12(3)) {
+      AnyAllSubQueryOperator(exp, stack);
       SubQueryExpression(exp, stack);
-    } else if (jj_2_11(3)) {
+    } else if (jj_2_13(3)) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case ASSIGNMENT:
       case EQUALS:
@@ -3560,7 +3615,7 @@ expEnd(exp, stack);
         break;
         }
       default:
-        jj_la1[144] = jj_gen;
+        jj_la1[148] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -3586,15 +3641,15 @@ regex_ob = Util.toParamObject(t, case_insensitive_identifiers);
           break;
           }
         default:
-          jj_la1[145] = jj_gen;
+          jj_la1[149] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
         break;
         }
       default:
-        jj_la1[146] = jj_gen;
-        if (jj_2_12(2)) {
+        jj_la1[150] = jj_gen;
+        if (jj_2_14(2)) {
           SubQueryOperator(exp, stack);
           SubQueryExpression(exp, stack);
         } else {
@@ -3605,7 +3660,7 @@ regex_ob = Util.toParamObject(t, case_insensitive_identifiers);
             break;
             }
           default:
-            jj_la1[147] = jj_gen;
+            jj_la1[151] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3621,11 +3676,11 @@ regex_ob = Util.toParamObject(t, case_insensitive_identifiers);
   boolean negative = false;
   Object param_ob;
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-    case 208:{
-      jj_consume_token(208);
+    case 209:{
+      jj_consume_token(209);
 stack.push(Operator.get("(")); exp.text().append("(");
       expression(exp, stack);
-      jj_consume_token(209);
+      jj_consume_token(210);
 expEndParen(exp, stack); exp.text().append(")");
       break;
       }
@@ -3637,13 +3692,13 @@ Object param_resolve = createSubstitution(t.image);
       break;
       }
     default:
-      jj_la1[154] = jj_gen;
-      if (jj_2_13(2)) {
+      jj_la1[158] = jj_gen;
+      if (jj_2_15(2)) {
         jj_consume_token(NOT);
 expOperator(exp, stack, Operator.get("not"));
         exp.text().append(" not ");
         Operand(exp, stack);
-      } else if (jj_2_14(3)) {
+      } else if (jj_2_16(3)) {
         f = Function();
 exp.addElement(f); exp.text().append(f);
       } else {
@@ -3668,7 +3723,7 @@ time_fname="TIMESTAMPOB";
             break;
             }
           default:
-            jj_la1[148] = jj_gen;
+            jj_la1[152] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3700,7 +3755,7 @@ time_fname="DATEOB";
             break;
             }
           default:
-            jj_la1[149] = jj_gen;
+            jj_la1[153] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3733,7 +3788,7 @@ exp.addElement(f); exp.text().append(f);
             break;
             }
           default:
-            jj_la1[150] = jj_gen;
+            jj_la1[154] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3772,14 +3827,14 @@ negative = true;
               break;
               }
             default:
-              jj_la1[151] = jj_gen;
+              jj_la1[155] = jj_gen;
               jj_consume_token(-1);
               throw new ParseException();
             }
             break;
             }
           default:
-            jj_la1[152] = jj_gen;
+            jj_la1[156] = jj_gen;
             ;
           }
           switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -3813,7 +3868,7 @@ negative = true;
             break;
             }
           default:
-            jj_la1[153] = jj_gen;
+            jj_la1[157] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3839,7 +3894,7 @@ if (t.kind == SQLConstants.NUMBER_LITERAL) {
           break;
           }
         default:
-          jj_la1[155] = jj_gen;
+          jj_la1[159] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
@@ -3849,7 +3904,7 @@ if (t.kind == SQLConstants.NUMBER_LITERAL) {
 
   final public void SubQueryExpression(Expression exp, Stack stack) throws ParseException {TableSelectExpression select;
   Expression[] exp_arr;
-    jj_consume_token(208);
+    jj_consume_token(209);
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case SELECT:{
       select = GetTableSelectExpression();
@@ -3858,12 +3913,12 @@ exp.addElement(select);
       break;
       }
     default:
-      jj_la1[156] = jj_gen;
+      jj_la1[160] = jj_gen;
       exp_arr = ExpressionList();
 exp.addElement(Util.toArrayParamObject(exp_arr));
         exp.text().append(" (" + Util.expressionListToString(exp_arr) + ")");
     }
-    jj_consume_token(209);
+    jj_consume_token(210);
 }
 
   final public void SingleSubQueryOperator(Expression exp, Stack stack) throws ParseException {String op_string;
@@ -3874,6 +3929,33 @@ op = Operator.get(op_string).getSubQueryForm("SINGLE");
     exp.text().append(" " + op + " ");
 }
 
+  final public void AnyAllSubQueryOperator(Expression exp, Stack stack) throws ParseException {Token t;
+  String op_string;
+  Operator op;
+    op_string = GetSubQueryBooleanOperator();
+    switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
+    case ANY:{
+      t = jj_consume_token(ANY);
+      break;
+      }
+    case ALL:{
+      t = jj_consume_token(ALL);
+      break;
+      }
+    case SOME:{
+      t = jj_consume_token(SOME);
+      break;
+      }
+    default:
+      jj_la1[161] = jj_gen;
+      jj_consume_token(-1);
+      throw new ParseException();
+    }
+op = Operator.get(op_string).getSubQueryForm(t.image);
+    expOperator(exp, stack, op);
+    exp.text().append(" " + op + " ");
+}
+
 // Parses a simple positive integer constant.
   final public int PositiveIntegerConstant() throws ParseException {Token t;
     t = jj_consume_token(NUMBER_LITERAL);
@@ -3887,7 +3969,7 @@ int val = Integer.parseInt(t.image);
   String op_string;
   String query_type = "SINGLE";
   Operator op;
-    if (jj_2_15(2)) {
+    if (jj_2_17(2)) {
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case IN:{
         jj_consume_token(IN);
@@ -3901,7 +3983,7 @@ op = Operator.get("NOT IN");
         break;
         }
       default:
-        jj_la1[157] = jj_gen;
+        jj_la1[162] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -3934,7 +4016,7 @@ op = Operator.get(op_string);
             break;
             }
           default:
-            jj_la1[158] = jj_gen;
+            jj_la1[163] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
@@ -3942,14 +4024,14 @@ query_type=t.image;
           break;
           }
         default:
-          jj_la1[159] = jj_gen;
+          jj_la1[164] = jj_gen;
           ;
         }
 op = op.getSubQueryForm(query_type);
         break;
         }
       default:
-        jj_la1[160] = jj_gen;
+        jj_la1[165] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -3967,7 +4049,7 @@ not_s = true;
       break;
       }
     default:
-      jj_la1[161] = jj_gen;
+      jj_la1[166] = jj_gen;
       ;
     }
     jj_consume_token(BETWEEN);
@@ -4028,7 +4110,7 @@ expOperator(exp, stack, op);
     exp.text().append(" " + op + " ");
 }
 
-  final public String GetBooleanOperator() throws ParseException {Token t;
+  final public String GetBooleanOperator() throws ParseException {Token t = null;
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case ASSIGNMENT:{
       t = jj_consume_token(ASSIGNMENT);
@@ -4059,11 +4141,11 @@ expOperator(exp, stack, op);
       break;
       }
     default:
-      jj_la1[162] = jj_gen;
-      if (jj_2_16(2)) {
+      jj_la1[167] = jj_gen;
+      if (jj_2_18(2)) {
         jj_consume_token(IS);
         jj_consume_token(NOT);
-{if (true) return "IS NOT";}
+{if ("" != null) return "IS NOT";}
       } else {
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
         case IS:{
@@ -4077,7 +4159,7 @@ expOperator(exp, stack, op);
         case NOT:{
           jj_consume_token(NOT);
           jj_consume_token(LIKE);
-{if (true) return "NOT LIKE";}
+{if ("" != null) return "NOT LIKE";}
           break;
           }
         case AND:{
@@ -4089,7 +4171,7 @@ expOperator(exp, stack, op);
           break;
           }
         default:
-          jj_la1[163] = jj_gen;
+          jj_la1[168] = jj_gen;
           jj_consume_token(-1);
           throw new ParseException();
         }
@@ -4130,7 +4212,7 @@ expOperator(exp, stack, op);
       break;
       }
     default:
-      jj_la1[164] = jj_gen;
+      jj_la1[169] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4157,7 +4239,7 @@ expOperator(exp, stack, op);
       break;
       }
     default:
-      jj_la1[165] = jj_gen;
+      jj_la1[170] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4186,7 +4268,7 @@ expOperator(exp, stack, op);
       break;
       }
     default:
-      jj_la1[166] = jj_gen;
+      jj_la1[171] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4202,7 +4284,7 @@ expOperator(exp, stack, op);
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
     case COUNT:{
       t = jj_consume_token(COUNT);
-      jj_consume_token(208);
+      jj_consume_token(209);
       switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
       case DISTINCT:{
         jj_consume_token(DISTINCT);
@@ -4210,17 +4292,17 @@ t.image="distinct_count";
         break;
         }
       default:
-        jj_la1[167] = jj_gen;
+        jj_la1[172] = jj_gen;
         ;
       }
       exp_list = FunctionParams();
-      jj_consume_token(209);
+      jj_consume_token(210);
       break;
       }
     case TRIM:{
       t = jj_consume_token(TRIM);
-      jj_consume_token(208);
-      if (jj_2_17(3)) {
+      jj_consume_token(209);
+      if (jj_2_19(3)) {
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
         case BOTH:
         case LEADING:
@@ -4239,14 +4321,14 @@ t.image="distinct_count";
             break;
             }
           default:
-            jj_la1[168] = jj_gen;
+            jj_la1[173] = jj_gen;
             jj_consume_token(-1);
             throw new ParseException();
           }
           break;
           }
         default:
-          jj_la1[169] = jj_gen;
+          jj_la1[174] = jj_gen;
           ;
         }
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
@@ -4255,7 +4337,7 @@ t.image="distinct_count";
           break;
           }
         default:
-          jj_la1[170] = jj_gen;
+          jj_la1[175] = jj_gen;
           ;
         }
         jj_consume_token(FROM);
@@ -4263,7 +4345,7 @@ t.image="distinct_count";
         ;
       }
       exp1 = DoExpression();
-      jj_consume_token(209);
+      jj_consume_token(210);
 exp_list = new Expression[3];
                           String ttype = t2 == null ? "both" : t2.image.toLowerCase();
                           Object str_char = t3 == null ? TObject.stringVal(" ") :
@@ -4278,11 +4360,11 @@ exp_list = new Expression[3];
       }
     case CAST:{
       t = jj_consume_token(CAST);
-      jj_consume_token(208);
+      jj_consume_token(209);
       exp1 = DoExpression();
       jj_consume_token(AS);
       cast_type = GetTType();
-      jj_consume_token(209);
+      jj_consume_token(210);
 exp_list = new Expression[2];
                           String enc_form = TType.asEncodedString(cast_type);
                           exp_list[0] = exp1;
@@ -4295,13 +4377,13 @@ exp_list = new Expression[2];
     case USER:
     case IDENTIFIER:{
       t = FunctionIdentifier();
-      jj_consume_token(208);
-      exp_list = FunctionParams();
       jj_consume_token(209);
+      exp_list = FunctionParams();
+      jj_consume_token(210);
       break;
       }
     default:
-      jj_la1[171] = jj_gen;
+      jj_la1[176] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4314,9 +4396,9 @@ exp_list = new Expression[2];
   Expression[] args;
     // PENDING: Handling arrays (eg. 'java.lang.String[] { 'Tobias', 'Downer' }' or 'double[] { 25, 2, 75, 26 }' )
       t = jj_consume_token(DOT_DELIMINATED_REF);
-    jj_consume_token(208);
-    args = ExpressionList();
     jj_consume_token(209);
+    args = ExpressionList();
+    jj_consume_token(210);
 Expression[] comp_args = new Expression[args.length + 1];
     System.arraycopy(args, 0, comp_args, 1, args.length);
     comp_args[0] = new Expression(TObject.stringVal(t.image));
@@ -4334,7 +4416,7 @@ exp_list = FunctionFactory.GLOB_LIST;
       break;
       }
     default:
-      jj_la1[172] = jj_gen;
+      jj_la1[177] = jj_gen;
       exp_list = ExpressionList();
     }
 {if ("" != null) return exp_list;}
@@ -4377,28 +4459,28 @@ exp_list = FunctionFactory.GLOB_LIST;
     case DOT_DELIMINATED_REF:
     case QUOTED_DELIMINATED_REF:
     case PARAMETER_REF:
-    case 208:{
+    case 209:{
       e = DoExpression();
 list.add(e);
-      label_16:
+      label_17:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
-        case 210:{
+        case 208:{
           ;
           break;
           }
         default:
-          jj_la1[173] = jj_gen;
-          break label_16;
+          jj_la1[178] = jj_gen;
+          break label_17;
         }
-        jj_consume_token(210);
+        jj_consume_token(208);
         e = DoExpression();
 list.add(e);
       }
       break;
       }
     default:
-      jj_la1[174] = jj_gen;
+      jj_la1[179] = jj_gen;
       ;
     }
 {if ("" != null) return (Expression[]) list.toArray(new Expression[list.size()]);}
@@ -4420,7 +4502,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[175] = jj_gen;
+      jj_la1[180] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4464,7 +4546,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[176] = jj_gen;
+      jj_la1[181] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4500,7 +4582,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[177] = jj_gen;
+      jj_la1[182] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4528,7 +4610,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[178] = jj_gen;
+      jj_la1[183] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4556,7 +4638,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[179] = jj_gen;
+      jj_la1[184] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4580,7 +4662,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[180] = jj_gen;
+      jj_la1[185] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4609,7 +4691,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[181] = jj_gen;
+      jj_la1[186] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4638,7 +4720,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[182] = jj_gen;
+      jj_la1[187] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4675,7 +4757,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[183] = jj_gen;
+      jj_la1[188] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4712,7 +4794,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[184] = jj_gen;
+      jj_la1[189] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4741,7 +4823,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[185] = jj_gen;
+      jj_la1[190] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4778,7 +4860,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[186] = jj_gen;
+      jj_la1[191] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4815,7 +4897,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[187] = jj_gen;
+      jj_la1[192] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4844,7 +4926,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[188] = jj_gen;
+      jj_la1[193] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4896,7 +4978,7 @@ list.add(e);
       break;
       }
     default:
-      jj_la1[189] = jj_gen;
+      jj_la1[194] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -4912,44 +4994,6 @@ list.add(e);
     finally { jj_save(0, xla); }
   }
 
-  private boolean isSingleSubQueryOperatorAhead() {
-    return isSubQueryBooleanOperatorToken(getToken(1).kind) &&
-            getToken(2).kind == 208 &&
-            getToken(3).kind == SELECT;
-  }
-
-  private boolean isAnyAllSubQueryOperatorAhead() {
-    return isSubQueryBooleanOperatorToken(getToken(1).kind) &&
-            isAnyAllSubQueryToken(getToken(2).kind) &&
-            getToken(3).kind == 208;
-  }
-
-  private boolean isAnyAllSubQueryToken(int kind) {
-    switch (kind) {
-      case ANY:
-      case ALL:
-      case SOME:
-        return true;
-      default:
-        return false;
-    }
-  }
-
-  private boolean isSubQueryBooleanOperatorToken(int kind) {
-    switch (kind) {
-      case ASSIGNMENT:
-      case EQUALS:
-      case GR:
-      case LE:
-      case GREQ:
-      case LEEQ:
-      case NOTEQ:
-        return true;
-      default:
-        return false;
-    }
-  }
-
   private boolean jj_2_2(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
@@ -5078,757 +5122,915 @@ list.add(e);
     finally { jj_save(16, xla); }
   }
 
-  private boolean jj_3R_83()
- {
-    if (jj_3R_72()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_35()
- {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_3R_52()) return false;
-    jj_scanpos = xsp;
-    if (jj_3R_53()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_82()
+  private boolean jj_2_18(int xla)
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (jj_3R_83()) jj_scanpos = xsp;
-    return false;
+    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    try { return (!jj_3_18()); }
+    catch(LookaheadSuccess ls) { return true; }
+    finally { jj_save(17, xla); }
   }
 
-  private boolean jj_3R_20()
+  private boolean jj_2_19(int xla)
  {
-    if (jj_3R_38()) return true;
-    return false;
+    jj_la = xla; jj_lastpos = jj_scanpos = token;
+    try { return (!jj_3_19()); }
+    catch(LookaheadSuccess ls) { return true; }
+    finally { jj_save(18, xla); }
   }
 
-  private boolean jj_3R_19()
+  private boolean jj_3R_DoNonBooleanExpression_1901_3_82()
  {
-    if (jj_3R_37()) return true;
+    if (jj_3R_nonBooleanExpression_1928_3_89()) return true;
     return false;
   }
 
-  private boolean jj_3_11()
+  private boolean jj_3R_FunctionIdentifier_2283_3_80()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3R_22()) return false;
+    if (jj_scan_token(40)) {
     jj_scanpos = xsp;
-    if (!jj_3R_23()) return false;
+    if (jj_scan_token(66)) {
     jj_scanpos = xsp;
-    if (jj_3R_24()) return true;
-    if (jj_3R_21()) return true;
+    if (jj_scan_token(197)) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_74()
+  private boolean jj_3R_SubQueryExpression_2086_7_51()
  {
-    if (jj_scan_token(NOT)) return true;
+    if (jj_3R_ExpressionList_2366_3_72()) return true;
     return false;
   }
 
-  private boolean jj_3R_80()
+  private boolean jj_3R_SubQueryExpression_2083_7_50()
  {
-    if (jj_3R_82()) return true;
+    if (jj_3R_GetTableSelectExpression_1311_3_71()) return true;
     return false;
   }
 
-  private boolean jj_3R_18()
+  private boolean jj_3R_GetStringOperator_2273_4_61()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_3_11()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_35()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3_12()) return false;
-    jj_scanpos = xsp;
-    if (jj_3R_36()) return true;
+    if (jj_scan_token(CONCAT)) return true;
     return false;
   }
 
-  private boolean jj_3R_54()
+  private boolean jj_3R_SubQueryExpression_2082_3_24()
  {
+    if (jj_scan_token(209)) return true;
     Token xsp;
     xsp = jj_scanpos;
-    if (jj_3R_74()) jj_scanpos = xsp;
-    if (jj_scan_token(BETWEEN)) return true;
-    if (jj_3R_75()) return true;
-    return false;
-  }
-
-  private boolean jj_3R_29()
- {
-    if (jj_scan_token(NOT)) return true;
-    if (jj_scan_token(IN)) return true;
+    if (jj_3R_SubQueryExpression_2083_7_50()) {
+    jj_scanpos = xsp;
+    if (jj_3R_SubQueryExpression_2086_7_51()) return true;
+    }
+    if (jj_scan_token(210)) return true;
     return false;
   }
 
-  private boolean jj_3R_79()
+  private boolean jj_3_5()
  {
-    if (jj_scan_token(STAR)) return true;
+    if (jj_scan_token(LONG)) return true;
+    if (jj_scan_token(BINARY)) return true;
+    if (jj_scan_token(VARYING)) return true;
     return false;
   }
 
-  private boolean jj_3R_28()
+  private boolean jj_3_4()
  {
-    if (jj_scan_token(IN)) return true;
+    if (jj_scan_token(BINARY)) return true;
+    if (jj_scan_token(VARYING)) return true;
     return false;
   }
 
-  private boolean jj_3R_71()
+  private boolean jj_3R_DoExpression_1885_3_79()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_3R_79()) return false;
-    jj_scanpos = xsp;
-    if (jj_3R_80()) return true;
+    if (jj_3R_expression_1916_3_74()) return true;
     return false;
   }
 
-  private boolean jj_3_9()
+  private boolean jj_3R_GetTableSelectExpression_1311_3_71()
  {
-    if (jj_3R_18()) return true;
+    if (jj_scan_token(SELECT)) return true;
     return false;
   }
 
-  private boolean jj_3_10()
+  private boolean jj_3R_GetNumericOperator_2263_4_62()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3R_19()) return false;
+    if (jj_scan_token(15)) {
     jj_scanpos = xsp;
-    if (jj_3R_20()) return true;
-    if (jj_3R_21()) return true;
+    if (jj_scan_token(16)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(17)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(7)) return true;
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3_6()
+  private boolean jj_3R_GetBooleanOperator_2244_18_86()
  {
-    if (jj_3R_17()) return true;
+    if (jj_scan_token(NOT)) return true;
+    if (jj_scan_token(LIKE)) return true;
     return false;
   }
 
-  private boolean jj_3R_69()
+  private boolean jj_3R_GetSubQueryBooleanOperator_2254_3_49()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(44)) return false;
+    if (jj_scan_token(8)) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(43)) return false;
+    if (jj_scan_token(9)) {
     jj_scanpos = xsp;
-    if (jj_scan_token(56)) return true;
+    if (jj_scan_token(10)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(11)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(12)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(13)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(14)) return true;
+    }
+    }
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_47()
+  private boolean jj_3R_Operand_2042_19_83()
  {
-    if (jj_3R_68()) return true;
-    Token xsp;
-    xsp = jj_scanpos;
-    if (jj_3R_69()) jj_scanpos = xsp;
+    if (jj_scan_token(SUBTRACT)) return true;
     return false;
   }
 
-  private boolean jj_3R_81()
+  private boolean jj_3R_Operand_2048_13_70()
  {
-    if (jj_3R_21()) return true;
+    if (jj_3R_SQLIdentifier_2513_3_84()) return true;
     return false;
   }
 
-  private boolean jj_3R_67()
+  private boolean jj_3_18()
  {
-    if (jj_scan_token(DOT_DELIMINATED_REF)) return true;
+    if (jj_scan_token(IS)) return true;
+    if (jj_scan_token(NOT)) return true;
     return false;
   }
 
-  private boolean jj_3_15()
+  private boolean jj_3R_GetBooleanOperator_2242_3_73()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3R_28()) return false;
+    if (jj_scan_token(8)) {
     jj_scanpos = xsp;
-    if (jj_3R_29()) return true;
+    if (jj_scan_token(9)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(10)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(11)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(12)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(13)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(14)) {
+    jj_scanpos = xsp;
+    if (jj_3_18()) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(37)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(188)) {
+    jj_scanpos = xsp;
+    if (jj_3R_GetBooleanOperator_2244_18_86()) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(190)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(191)) return true;
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_30()
+  private boolean jj_3R_Operand_2042_11_69()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(107)) return false;
+    if (jj_scan_token(16)) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(55)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(121)) return true;
+    if (jj_3R_Operand_2042_19_83()) return true;
+    }
     return false;
   }
 
-  private boolean jj_3R_25()
+  private boolean jj_3R_GetStringSQLType_1662_5_37()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_3_15()) return false;
-    jj_scanpos = xsp;
-    if (jj_3R_47()) return true;
+    if (jj_scan_token(CLOB)) return true;
     return false;
   }
 
-  private boolean jj_3R_66()
+  private boolean jj_3R_Operand_2042_7_48()
  {
-    if (jj_3R_21()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_Operand_2042_11_69()) jj_scanpos = xsp;
+    xsp = jj_scanpos;
+    if (jj_scan_token(194)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(196)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(198)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(199)) {
+    jj_scanpos = xsp;
+    if (jj_3R_Operand_2048_13_70()) return true;
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_51()
+  private boolean jj_3R_GetStringSQLType_1661_5_36()
  {
-    if (jj_3R_73()) return true;
-    if (jj_scan_token(208)) return true;
-    if (jj_3R_71()) return true;
+    if (jj_scan_token(VARCHAR)) return true;
     return false;
   }
 
-  private boolean jj_3R_77()
+  private boolean jj_3R_GetStringSQLType_1660_5_35()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(197)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(95)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(106)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(120)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(134)) return false;
+    if (jj_scan_token(157)) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(93)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(126)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(69)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(70)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(92)) return true;
+    if (jj_scan_token(129)) return true;
+    }
     return false;
   }
 
-  private boolean jj_3_17()
+  private boolean jj_3R_GetStringSQLType_1659_5_34()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (jj_3R_30()) jj_scanpos = xsp;
-    xsp = jj_scanpos;
-    if (jj_scan_token(195)) jj_scanpos = xsp;
-    if (jj_scan_token(FROM)) return true;
+    if (jj_scan_token(158)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(164)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(176)) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_70()
+  private boolean jj_3_3()
  {
-    if (jj_scan_token(DISTINCT)) return true;
+    if (jj_scan_token(LONG)) return true;
+    if (jj_scan_token(CHARACTER)) return true;
+    if (jj_scan_token(VARYING)) return true;
     return false;
   }
 
-  private boolean jj_3R_50()
+  private boolean jj_3R_GetStringSQLType_1657_5_18()
  {
-    if (jj_scan_token(CAST)) return true;
-    if (jj_scan_token(208)) return true;
-    if (jj_3R_72()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3_2()) {
+    jj_scanpos = xsp;
+    if (jj_3_3()) {
+    jj_scanpos = xsp;
+    if (jj_3R_GetStringSQLType_1659_5_34()) {
+    jj_scanpos = xsp;
+    if (jj_3R_GetStringSQLType_1660_5_35()) {
+    jj_scanpos = xsp;
+    if (jj_3R_GetStringSQLType_1661_5_36()) {
+    jj_scanpos = xsp;
+    if (jj_3R_GetStringSQLType_1662_5_37()) return true;
+    }
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_75()
+  private boolean jj_3_2()
  {
-    if (jj_3R_81()) return true;
+    if (jj_scan_token(CHARACTER)) return true;
+    if (jj_scan_token(VARYING)) return true;
     return false;
   }
 
-  private boolean jj_3_5()
+  private boolean jj_3R_StringOperator_2230_3_40()
  {
-    if (jj_scan_token(LONG)) return true;
-    if (jj_scan_token(BINARY)) return true;
-    if (jj_scan_token(VARYING)) return true;
+    if (jj_3R_GetStringOperator_2273_4_61()) return true;
     return false;
   }
 
-  private boolean jj_3R_49()
+  private boolean jj_3R_Operand_2034_7_47()
  {
-    if (jj_scan_token(TRIM)) return true;
-    if (jj_scan_token(208)) return true;
     Token xsp;
     xsp = jj_scanpos;
-    if (jj_3_17()) jj_scanpos = xsp;
-    if (jj_3R_72()) return true;
+    if (jj_scan_token(195)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(19)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(20)) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3_4()
+  private boolean jj_3R_Operand_2030_7_46()
  {
-    if (jj_scan_token(BINARY)) return true;
-    if (jj_scan_token(VARYING)) return true;
+    if (jj_scan_token(NEW)) return true;
+    if (jj_3R_JavaInstantiation_2338_3_75()) return true;
     return false;
   }
 
-  private boolean jj_3R_48()
+  private boolean jj_3R_Operand_2020_9_68()
  {
-    if (jj_scan_token(COUNT)) return true;
-    if (jj_scan_token(208)) return true;
-    Token xsp;
-    xsp = jj_scanpos;
-    if (jj_3R_70()) jj_scanpos = xsp;
-    if (jj_3R_71()) return true;
+    if (jj_scan_token(CURRENT_DATE)) return true;
     return false;
   }
 
-  private boolean jj_3R_26()
+  private boolean jj_3R_Operand_2019_9_67()
  {
-    if (jj_scan_token(208)) return true;
+    if (jj_scan_token(CURRENT_TIME)) return true;
     return false;
   }
 
-  private boolean jj_3R_72()
+  private boolean jj_3R_NumericOperator_2216_3_41()
  {
-    if (jj_3R_66()) return true;
+    if (jj_3R_GetNumericOperator_2263_4_62()) return true;
     return false;
   }
 
-  private boolean jj_3R_27()
+  private boolean jj_3R_Operand_2018_9_66()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_3R_48()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_49()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_50()) return false;
-    jj_scanpos = xsp;
-    if (jj_3R_51()) return true;
+    if (jj_scan_token(CURRENT_TIMESTAMP)) return true;
     return false;
   }
 
-  private boolean jj_3R_73()
+  private boolean jj_3R_Operand_2018_3_45()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(40)) return false;
+    if (jj_3R_Operand_2018_9_66()) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(66)) return false;
+    if (jj_3R_Operand_2019_9_67()) {
     jj_scanpos = xsp;
-    if (jj_scan_token(197)) return true;
+    if (jj_3R_Operand_2020_9_68()) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_76()
+  private boolean jj_3R_Operand_2006_9_65()
  {
-    if (jj_scan_token(SUBTRACT)) return true;
+    if (jj_scan_token(TIMESTAMP)) return true;
     return false;
   }
 
-  private boolean jj_3R_64()
+  private boolean jj_3R_Operand_2005_9_64()
  {
-    if (jj_3R_77()) return true;
+    if (jj_scan_token(TIME)) return true;
     return false;
   }
 
-  private boolean jj_3R_55()
+  private boolean jj_3R_BooleanOperator_2202_3_52()
  {
-    if (jj_scan_token(CONCAT)) return true;
+    if (jj_3R_GetBooleanOperator_2242_3_73()) return true;
     return false;
   }
 
-  private boolean jj_3R_34()
+  private boolean jj_3R_Operand_2004_9_63()
  {
-    if (jj_scan_token(CLOB)) return true;
+    if (jj_scan_token(DATE)) return true;
     return false;
   }
 
-  private boolean jj_3R_63()
+  private boolean jj_3R_Operand_2004_3_44()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(16)) return false;
+    if (jj_3R_Operand_2004_9_63()) {
+    jj_scanpos = xsp;
+    if (jj_3R_Operand_2005_9_64()) {
     jj_scanpos = xsp;
-    if (jj_3R_76()) return true;
+    if (jj_3R_Operand_2006_9_65()) return true;
+    }
+    }
+    if (jj_scan_token(STRING_LITERAL)) return true;
     return false;
   }
 
-  private boolean jj_3R_33()
+  private boolean jj_3_16()
  {
-    if (jj_scan_token(VARCHAR)) return true;
+    if (jj_3R_Function_2295_3_30()) return true;
     return false;
   }
 
-  private boolean jj_3R_32()
+  private boolean jj_3_8()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_scan_token(157)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(129)) return true;
+    if (jj_scan_token(SET)) return true;
+    if (jj_scan_token(NULL_LITERAL)) return true;
     return false;
   }
 
-  private boolean jj_3R_56()
+  private boolean jj_3_15()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_scan_token(15)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(16)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(17)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(7)) return true;
+    if (jj_scan_token(NOT)) return true;
+    if (jj_3R_Operand_1985_3_22()) return true;
     return false;
   }
 
-  private boolean jj_3R_31()
+  private boolean jj_3R_Operand_1987_7_43()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_scan_token(158)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(164)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(176)) return true;
+    if (jj_scan_token(PARAMETER_REF)) return true;
     return false;
   }
 
-  private boolean jj_3_3()
+  private boolean jj_3R_Operand_1985_7_42()
  {
-    if (jj_scan_token(LONG)) return true;
-    if (jj_scan_token(CHARACTER)) return true;
-    if (jj_scan_token(VARYING)) return true;
+    if (jj_scan_token(209)) return true;
+    if (jj_3R_expression_1916_3_74()) return true;
     return false;
   }
 
-  private boolean jj_3R_45()
+  private boolean jj_3R_ExpressionList_2366_5_85()
+ {
+    if (jj_3R_DoExpression_1885_3_79()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_Operand_1985_3_22()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (jj_3R_63()) jj_scanpos = xsp;
-    xsp = jj_scanpos;
-    if (!jj_scan_token(194)) return false;
+    if (jj_3R_Operand_1985_7_42()) {
+    jj_scanpos = xsp;
+    if (jj_3R_Operand_1987_7_43()) {
+    jj_scanpos = xsp;
+    if (jj_3_15()) {
+    jj_scanpos = xsp;
+    if (jj_3_16()) {
+    jj_scanpos = xsp;
+    if (jj_3R_Operand_2004_3_44()) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(196)) return false;
+    if (jj_3R_Operand_2018_3_45()) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(198)) return false;
+    if (jj_3R_Operand_2030_7_46()) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(199)) return false;
+    if (jj_3R_Operand_2034_7_47()) {
     jj_scanpos = xsp;
-    if (jj_3R_64()) return true;
+    if (jj_3R_Operand_2042_7_48()) return true;
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_17()
+  private boolean jj_3R_ExpressionList_2366_3_72()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3_2()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3_3()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_31()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_32()) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_33()) return false;
-    jj_scanpos = xsp;
-    if (jj_3R_34()) return true;
+    if (jj_3R_ExpressionList_2366_5_85()) jj_scanpos = xsp;
     return false;
   }
 
-  private boolean jj_3_2()
+  private boolean jj_3_1()
  {
-    if (jj_scan_token(CHARACTER)) return true;
-    if (jj_scan_token(VARYING)) return true;
+    if (jj_scan_token(SET)) return true;
+    if (jj_scan_token(GROUPS)) return true;
+    return false;
+  }
+
+  private boolean jj_3R_OpPart_1959_24_59()
+ {
+    if (jj_scan_token(REGEX_LITERAL)) return true;
+    return false;
+  }
+
+  private boolean jj_3_7()
+ {
+    if (jj_scan_token(ON)) return true;
+    if (jj_scan_token(DELETE)) return true;
     return false;
   }
 
-  private boolean jj_3R_78()
+  private boolean jj_3R_BetweenPredicate_2163_7_81()
  {
     if (jj_scan_token(NOT)) return true;
-    if (jj_scan_token(LIKE)) return true;
     return false;
   }
 
-  private boolean jj_3R_44()
+  private boolean jj_3R_FunctionParams_2353_7_88()
  {
-    Token xsp;
-    xsp = jj_scanpos;
-    if (!jj_scan_token(195)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(19)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(20)) return true;
+    if (jj_3R_ExpressionList_2366_3_72()) return true;
     return false;
   }
 
-  private boolean jj_3R_68()
+  private boolean jj_3R_BetweenPredicate_2163_5_60()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(8)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(9)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(10)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(11)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(12)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(13)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(14)) return true;
+    if (jj_3R_BetweenPredicate_2163_7_81()) jj_scanpos = xsp;
+    if (jj_scan_token(BETWEEN)) return true;
+    if (jj_3R_DoNonBooleanExpression_1901_3_82()) return true;
     return false;
   }
 
-  private boolean jj_3R_43()
+  private boolean jj_3R_OpPart_1969_7_39()
  {
-    if (jj_scan_token(NEW)) return true;
-    if (jj_3R_67()) return true;
+    if (jj_3R_BetweenPredicate_2163_5_60()) return true;
     return false;
   }
 
-  private boolean jj_3_16()
+  private boolean jj_3R_SubQueryOperator_2143_24_32()
  {
-    if (jj_scan_token(IS)) return true;
     if (jj_scan_token(NOT)) return true;
+    if (jj_scan_token(IN)) return true;
     return false;
   }
 
-  private boolean jj_3R_62()
+  private boolean jj_3R_FunctionParams_2352_5_87()
  {
-    if (jj_scan_token(CURRENT_DATE)) return true;
+    if (jj_scan_token(STAR)) return true;
     return false;
   }
 
-  private boolean jj_3R_61()
+  private boolean jj_3R_SubQueryOperator_2142_24_31()
  {
-    if (jj_scan_token(CURRENT_TIME)) return true;
+    if (jj_scan_token(IN)) return true;
+    return false;
+  }
+
+  private boolean jj_3R_OpPart_1950_24_28()
+ {
+    if (jj_3R_StringOperator_2230_3_40()) return true;
+    return false;
+  }
+
+  private boolean jj_3_14()
+ {
+    if (jj_3R_SubQueryOperator_2142_3_29()) return true;
+    if (jj_3R_SubQueryExpression_2082_3_24()) return true;
     return false;
   }
 
-  private boolean jj_3R_65()
+  private boolean jj_3R_FunctionParams_2352_3_78()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_scan_token(8)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(9)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(10)) return false;
+    if (jj_3R_FunctionParams_2352_5_87()) {
     jj_scanpos = xsp;
-    if (!jj_scan_token(11)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(12)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(13)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(14)) return false;
-    jj_scanpos = xsp;
-    if (!jj_3_16()) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(37)) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(188)) return false;
-    jj_scanpos = xsp;
-    if (!jj_3R_78()) return false;
-    jj_scanpos = xsp;
-    if (!jj_scan_token(190)) return false;
-    jj_scanpos = xsp;
-    if (jj_scan_token(191)) return true;
+    if (jj_3R_FunctionParams_2353_7_88()) return true;
+    }
     return false;
   }
 
-  private boolean jj_3R_60()
+  private boolean jj_3R_OpPart_1949_24_27()
  {
-    if (jj_scan_token(CURRENT_TIMESTAMP)) return true;
+    if (jj_3R_NumericOperator_2216_3_41()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_OpPart_1948_24_26()
+ {
+    if (jj_3R_BooleanOperator_2202_3_52()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_OpPart_1955_11_58()
+ {
+    if (jj_scan_token(REGEX)) return true;
+    if (jj_3R_expression_1916_3_74()) return true;
     return false;
   }
 
-  private boolean jj_3R_42()
+  private boolean jj_3R_SubQueryOperator_2147_7_76()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3R_60()) return false;
+    if (jj_scan_token(44)) {
     jj_scanpos = xsp;
-    if (!jj_3R_61()) return false;
+    if (jj_scan_token(43)) {
     jj_scanpos = xsp;
-    if (jj_3R_62()) return true;
+    if (jj_scan_token(56)) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_37()
+  private boolean jj_3R_OpPart_1955_7_38()
  {
-    if (jj_3R_55()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_OpPart_1955_11_58()) {
+    jj_scanpos = xsp;
+    if (jj_3R_OpPart_1959_24_59()) return true;
+    }
     return false;
   }
 
-  private boolean jj_3R_59()
+  private boolean jj_3R_SubQueryOperator_2146_7_53()
  {
-    if (jj_scan_token(TIMESTAMP)) return true;
+    if (jj_3R_GetSubQueryBooleanOperator_2254_3_49()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_SubQueryOperator_2147_7_76()) jj_scanpos = xsp;
     return false;
   }
 
-  private boolean jj_3R_58()
+  private boolean jj_3R_JavaInstantiation_2338_3_75()
  {
-    if (jj_scan_token(TIME)) return true;
+    if (jj_scan_token(DOT_DELIMINATED_REF)) return true;
     return false;
   }
 
-  private boolean jj_3R_57()
+  private boolean jj_3_17()
  {
-    if (jj_scan_token(DATE)) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_SubQueryOperator_2142_24_31()) {
+    jj_scanpos = xsp;
+    if (jj_3R_SubQueryOperator_2143_24_32()) return true;
+    }
     return false;
   }
 
-  private boolean jj_3R_41()
+  private boolean jj_3R_Function_2298_41_33()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3R_57()) return false;
+    if (jj_scan_token(107)) {
     jj_scanpos = xsp;
-    if (!jj_3R_58()) return false;
+    if (jj_scan_token(55)) {
     jj_scanpos = xsp;
-    if (jj_3R_59()) return true;
-    if (jj_scan_token(STRING_LITERAL)) return true;
+    if (jj_scan_token(121)) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3_8()
+  private boolean jj_3_13()
  {
-    if (jj_scan_token(SET)) return true;
-    if (jj_scan_token(NULL_LITERAL)) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_OpPart_1948_24_26()) {
+    jj_scanpos = xsp;
+    if (jj_3R_OpPart_1949_24_27()) {
+    jj_scanpos = xsp;
+    if (jj_3R_OpPart_1950_24_28()) return true;
+    }
+    }
+    if (jj_3R_Operand_1985_3_22()) return true;
     return false;
   }
 
-  private boolean jj_3_14()
+  private boolean jj_3R_nonBooleanExpression_1930_24_21()
+ {
+    if (jj_3R_NumericOperator_2216_3_41()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_SubQueryOperator_2142_3_29()
  {
-    if (jj_3R_27()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3_17()) {
+    jj_scanpos = xsp;
+    if (jj_3R_SubQueryOperator_2146_7_53()) return true;
+    }
     return false;
   }
 
-  private boolean jj_3R_38()
+  private boolean jj_3R_nonBooleanExpression_1929_24_20()
  {
-    if (jj_3R_56()) return true;
+    if (jj_3R_StringOperator_2230_3_40()) return true;
     return false;
   }
 
-  private boolean jj_3_13()
+  private boolean jj_3_12()
  {
-    if (jj_scan_token(NOT)) return true;
-    if (jj_3R_21()) return true;
+    if (jj_3R_AnyAllSubQueryOperator_2112_3_25()) return true;
+    if (jj_3R_SubQueryExpression_2082_3_24()) return true;
     return false;
   }
 
-  private boolean jj_3R_40()
+  private boolean jj_3_11()
  {
-    if (jj_scan_token(PARAMETER_REF)) return true;
+    if (jj_3R_SingleSubQueryOperator_2099_3_23()) return true;
+    if (jj_3R_SubQueryExpression_2082_3_24()) return true;
     return false;
   }
 
-  private boolean jj_3_1()
+  private boolean jj_3R_OpPart_1944_3_19()
  {
-    if (jj_scan_token(SET)) return true;
-    if (jj_scan_token(GROUPS)) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3_11()) {
+    jj_scanpos = xsp;
+    if (jj_3_12()) {
+    jj_scanpos = xsp;
+    if (jj_3_13()) {
+    jj_scanpos = xsp;
+    if (jj_3R_OpPart_1955_7_38()) {
+    jj_scanpos = xsp;
+    if (jj_3_14()) {
+    jj_scanpos = xsp;
+    if (jj_3R_OpPart_1969_7_39()) return true;
+    }
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_39()
+  private boolean jj_3R_Function_2321_7_57()
  {
-    if (jj_scan_token(208)) return true;
-    if (jj_3R_66()) return true;
+    if (jj_3R_FunctionIdentifier_2283_3_80()) return true;
+    if (jj_scan_token(209)) return true;
+    if (jj_3R_FunctionParams_2352_3_78()) return true;
     return false;
   }
 
-  private boolean jj_3R_21()
+  private boolean jj_3R_SQLIdentifier_2513_3_84()
  {
     Token xsp;
     xsp = jj_scanpos;
-    if (!jj_3R_39()) return false;
+    if (jj_scan_token(197)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(95)) {
     jj_scanpos = xsp;
-    if (!jj_3R_40()) return false;
+    if (jj_scan_token(106)) {
     jj_scanpos = xsp;
-    if (!jj_3_13()) return false;
+    if (jj_scan_token(120)) {
     jj_scanpos = xsp;
-    if (!jj_3_14()) return false;
+    if (jj_scan_token(134)) {
     jj_scanpos = xsp;
-    if (!jj_3R_41()) return false;
+    if (jj_scan_token(93)) {
     jj_scanpos = xsp;
-    if (!jj_3R_42()) return false;
+    if (jj_scan_token(126)) {
     jj_scanpos = xsp;
-    if (!jj_3R_43()) return false;
+    if (jj_scan_token(69)) {
     jj_scanpos = xsp;
-    if (!jj_3R_44()) return false;
+    if (jj_scan_token(70)) {
     jj_scanpos = xsp;
-    if (jj_3R_45()) return true;
+    if (jj_scan_token(92)) return true;
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_46()
+  private boolean jj_3_19()
  {
-    if (jj_3R_65()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_Function_2298_41_33()) jj_scanpos = xsp;
+    xsp = jj_scanpos;
+    if (jj_scan_token(195)) jj_scanpos = xsp;
+    if (jj_scan_token(FROM)) return true;
     return false;
   }
 
-  private boolean jj_3_7()
+  private boolean jj_3R_Function_2296_27_77()
  {
-    if (jj_scan_token(ON)) return true;
-    if (jj_scan_token(DELETE)) return true;
+    if (jj_scan_token(DISTINCT)) return true;
     return false;
   }
 
-  private boolean jj_3R_53()
+  private boolean jj_3_9()
  {
-    if (jj_scan_token(REGEX_LITERAL)) return true;
+    if (jj_3R_OpPart_1944_3_19()) return true;
     return false;
   }
 
-  private boolean jj_3R_36()
+  private boolean jj_3_10()
  {
-    if (jj_3R_54()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_nonBooleanExpression_1929_24_20()) {
+    jj_scanpos = xsp;
+    if (jj_3R_nonBooleanExpression_1930_24_21()) return true;
+    }
+    if (jj_3R_Operand_1985_3_22()) return true;
     return false;
   }
 
-  private boolean jj_3R_24()
+  private boolean jj_3R_Function_2312_7_56()
  {
-    if (jj_3R_37()) return true;
+    if (jj_scan_token(CAST)) return true;
+    if (jj_scan_token(209)) return true;
+    if (jj_3R_DoExpression_1885_3_79()) return true;
     return false;
   }
 
-  private boolean jj_3_12()
+  private boolean jj_3_6()
  {
-    if (jj_3R_25()) return true;
-    if (jj_3R_26()) return true;
+    if (jj_3R_GetStringSQLType_1657_5_18()) return true;
     return false;
   }
 
-  private boolean jj_3R_23()
+  private boolean jj_3R_nonBooleanExpression_1928_3_89()
  {
-    if (jj_3R_38()) return true;
+    if (jj_3R_Operand_1985_3_22()) return true;
     return false;
   }
 
-  private boolean jj_3R_22()
+  private boolean jj_3R_AnyAllSubQueryOperator_2112_3_25()
  {
-    if (jj_3R_46()) return true;
+    if (jj_3R_GetSubQueryBooleanOperator_2254_3_49()) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_scan_token(44)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(43)) {
+    jj_scanpos = xsp;
+    if (jj_scan_token(56)) return true;
+    }
+    }
     return false;
   }
 
-  private boolean jj_3R_52()
+  private boolean jj_3R_Function_2298_7_55()
  {
-    if (jj_scan_token(REGEX)) return true;
-    if (jj_3R_66()) return true;
+    if (jj_scan_token(TRIM)) return true;
+    if (jj_scan_token(209)) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3_19()) jj_scanpos = xsp;
+    if (jj_3R_DoExpression_1885_3_79()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_Function_2296_7_54()
+ {
+    if (jj_scan_token(COUNT)) return true;
+    if (jj_scan_token(209)) return true;
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_Function_2296_27_77()) jj_scanpos = xsp;
+    if (jj_3R_FunctionParams_2352_3_78()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_expression_1916_3_74()
+ {
+    if (jj_3R_Operand_1985_3_22()) return true;
+    return false;
+  }
+
+  private boolean jj_3R_Function_2295_3_30()
+ {
+    Token xsp;
+    xsp = jj_scanpos;
+    if (jj_3R_Function_2296_7_54()) {
+    jj_scanpos = xsp;
+    if (jj_3R_Function_2298_7_55()) {
+    jj_scanpos = xsp;
+    if (jj_3R_Function_2312_7_56()) {
+    jj_scanpos = xsp;
+    if (jj_3R_Function_2321_7_57()) return true;
+    }
+    }
+    }
+    return false;
+  }
+
+  private boolean jj_3R_SingleSubQueryOperator_2099_3_23()
+ {
+    if (jj_3R_GetSubQueryBooleanOperator_2254_3_49()) return true;
     return false;
   }
 
@@ -5843,7 +6045,7 @@ list.add(e);
   private Token jj_scanpos, jj_lastpos;
   private int jj_la;
   private int jj_gen;
-  final private int[] jj_la1 = new int[190];
+  final private int[] jj_la1 = new int[195];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static private int[] jj_la1_2;
@@ -5861,27 +6063,27 @@ list.add(e);
 	   jj_la1_init_6();
 	}
 	private static void jj_la1_init_0() {
-	   jj_la1_0 = new int[] {0xffc00000,0x1,0x0,0x0,0x0,0x0,0x0,0x0,0x8000000,0x8000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x2000000,0x2000000,0x0,0x0,0x0,0x0,0x0,0x40000000,0x0,0x0,0x34000000,0x0,0x0,0x0,0x0,0x0,0x0,0x36000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x400000,0x0,0x0,0x1400000,0x1b0000,0x0,0x1b0000,0x0,0x0,0x0,0x0,0x0,0x1b0080,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100000,0x0,0x0,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x78080,0x7ff80,0x200000,0x200000,0x0,0x0,0x0,0x180000,0x30000,0x30000,0x0,0x0,0x1b0000,0x2000000,0x0,0x0,0x0,0x7f00,0x0,0x7f00,0x0,0x7f00,0x38080,0x0,0x0,0x0,0x0,0x0,0x0,0x80,0x0,0x1b0000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
+	   jj_la1_0 = new int[] {0xffc00000,0x1,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x8000000,0x8000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x2000000,0x2000000,0x0,0x0,0x0,0x0,0x0,0x40000000,0x0,0x40000000,0x34000000,0x0,0x0,0x0,0x0,0x0,0x0,0x36000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x400000,0x0,0x0,0x1400000,0x1b0000,0x0,0x1b0000,0x0,0x0,0x0,0x0,0x0,0x1b0080,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100000,0x0,0x0,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x78080,0x7ff80,0x200000,0x200000,0x0,0x0,0x0,0x180000,0x30000,0x30000,0x0,0x0,0x1b0000,0x2000000,0x0,0x0,0x0,0x0,0x7f00,0x0,0x7f00,0x0,0x7f00,0x38080,0x0,0x0,0x0,0x0,0x0,0x0,0x80,0x0,0x1b0000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
 	}
 	private static void jj_la1_init_1() {
-	   jj_la1_1 = new int[] {0x40201a,0x0,0x80000000,0x80000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100,0x0,0x0,0x0,0x0,0x0,0x0,0x100,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x2000,0x0,0x0,0x10000000,0x0,0x0,0x2000,0x0,0x0,0x0,0x0,0x0,0x2,0x80,0x0,0x0,0x0,0x0,0x0,0x30000,0x0,0x0,0x800,0x800,0x2000000,0x0,0x0,0x0,0x0,0x800,0x0,0x0,0x0,0x0,0x2000,0x0,0x0,0x40000,0x40020100,0x0,0x40020100,0x0,0x800,0x0,0x40,0x0,0x40020100,0x0,0x8008000,0x0,0x8008000,0x8008000,0x30000,0x40,0x30040,0x24000000,0x30000,0x0,0x24000000,0x0,0x24000000,0x0,0x24000000,0x24000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80,0x80,0x80,0x80,0x0,0x0,0x400,0x2000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20000,0x0,0x0,0x1001800,0x1001800,0x0,0x0,0x0,0x20,0x0,0x0,0x100,0x0,0x800000,0x800000,0x0,0x40000100,0x0,0x0,0x40020100,0x0,0x30000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
+	   jj_la1_1 = new int[] {0x40201b,0x0,0x80000000,0x80000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x2000,0x0,0x0,0x10000000,0x0,0x0,0x2000,0x0,0x0,0x0,0x0,0x0,0x2,0x80,0x0,0x0,0x0,0x0,0x0,0x30000,0x0,0x0,0x800,0x800,0x2000000,0x0,0x0,0x0,0x0,0x800,0x0,0x0,0x0,0x0,0x2000,0x0,0x0,0x40000,0x40020100,0x0,0x40020100,0x0,0x800,0x0,0x40,0x0,0x40020100,0x0,0x8008000,0x0,0x8008000,0x8008000,0x30000,0x40,0x30040,0x24000000,0x30000,0x0,0x24000000,0x0,0x24000000,0x0,0x24000000,0x24000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80,0x80,0x80,0x80,0x0,0x0,0x400,0x2000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20000,0x0,0x1001800,0x0,0x1001800,0x1001800,0x0,0x0,0x0,0x20,0x0,0x0,0x100,0x0,0x800000,0x800000,0x0,0x40000100,0x0,0x0,0x40020100,0x0,0x30000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
 	}
 	private static void jj_la1_init_2() {
-	   jj_la1_2 = new int[] {0x40800000,0x0,0x24004,0x24004,0x0,0x8000,0x400,0x8000,0x4004,0x4000,0x0,0x0,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100,0x1000,0x800,0x8000001,0x0,0x400,0x8000,0x0,0x0,0x0,0x0,0x0,0x0,0x400,0x2,0x800000,0x0,0x0,0x0,0x0,0x4000080,0x0,0x4000,0xb0004060,0x0,0x0,0x1000000,0x0,0x0,0x400,0x0,0x0,0x0,0x0,0x400000,0x0,0xb0100060,0x0,0x0,0x0,0xb0000060,0x0,0xb000026c,0x0,0xb000026c,0x0,0x0,0x0,0x0,0xb0000060,0xb000026c,0x0,0x0,0x0,0x0,0x0,0xb0000060,0x0,0xb0000060,0x12000,0xb0000060,0x10000,0x12000,0x80000,0x12000,0x80000,0x12000,0x12000,0xb0000060,0x0,0xb0000060,0xb0000070,0x0,0x0,0xb0100060,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10,0x0,0x0,0x0,0x0,0x0,0x0,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xb0000060,0x0,0xb0000060,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x4,0x0,0x0,0x0,0x0,0x20c,0x0,0x0,0xb000026c,0x400000,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0x0,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,};
+	   jj_la1_2 = new int[] {0x40800000,0x0,0x24004,0x24004,0x0,0x0,0x0,0x8000,0x400,0x8000,0x4004,0x4000,0x0,0x0,0x100000,0x0,0x2,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x100,0x1000,0x800,0x8000001,0x0,0x400,0x8000,0x0,0x0,0x0,0x0,0x0,0x0,0x400,0x2,0x800000,0x0,0x0,0x0,0x0,0x4000080,0x0,0x4000,0xb0004060,0x0,0x0,0x1000000,0x0,0x0,0x400,0x0,0x0,0x0,0x0,0x400000,0x0,0xb0100060,0x0,0x0,0x0,0xb0000060,0x0,0xb000026c,0x0,0xb000026c,0x0,0x0,0x0,0x0,0xb0000060,0xb000026c,0x0,0x0,0x0,0x0,0x0,0xb0000060,0x0,0xb0000060,0x12000,0xb0000060,0x10000,0x12000,0x80000,0x12000,0x80000,0x12000,0x12000,0xb0000060,0x0,0xb0000060,0xb0000070,0x0,0x0,0xb0100060,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10,0x0,0x0,0x0,0x0,0x0,0x0,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xb0000060,0x0,0xb0000060,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x4,0x0,0x0,0x0,0x0,0x20c,0x0,0x0,0xb000026c,0x400000,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0x0,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,0xb0000060,};
 	}
 	private static void jj_la1_init_3() {
-	   jj_la1_3 = new int[] {0x0,0x0,0x644088,0x644008,0x8000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x44000,0x44000,0x200,0x0,0x80,0x0,0x0,0x80000000,0x80000,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20,0x20,0x8,0x0,0x0,0x0,0x0,0x0,0x0,0x8,0x0,0x0,0x0,0x0,0x41000408,0x0,0x0,0x0,0x20000000,0x0,0x0,0x0,0x40,0x4000000,0x0,0x2,0x100,0x41000580,0x100,0x0,0x100,0x41000500,0x0,0x41008400,0x0,0x41008400,0x0,0x20000000,0x0,0x0,0x41000400,0x41000400,0x0,0x0,0x0,0x0,0x0,0x41000400,0x0,0x41000400,0x0,0x41000400,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x41000400,0x0,0x41000400,0x41000400,0x0,0x0,0x41000480,0x8000,0x80,0x0,0x0,0x80,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80,0x0,0x800000,0x0,0x10000000,0x0,0x0,0x0,0x10000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x2000,0x0,0x0,0x0,0x0,0x0,0x41000400,0x0,0x41000400,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20000000,0x2000800,0x2000800,0x0,0x0,0x0,0x0,0x41000400,0x2,0x41000400,0x41000400,0x41000400,0x41000400,0x1,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,};
+	   jj_la1_3 = new int[] {0x0,0x0,0x644088,0x644008,0x8000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x44000,0x44000,0x200,0x0,0x80,0x0,0x0,0x80000000,0x80000,0x100000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20,0x20,0x8,0x0,0x0,0x0,0x0,0x0,0x0,0x8,0x0,0x0,0x0,0x0,0x41000408,0x0,0x0,0x0,0x20000000,0x0,0x0,0x0,0x40,0x4000000,0x0,0x2,0x100,0x41000580,0x100,0x0,0x100,0x41000500,0x0,0x41008400,0x0,0x41008400,0x0,0x20000000,0x0,0x0,0x41000400,0x41000400,0x0,0x0,0x0,0x0,0x0,0x41000400,0x0,0x41000400,0x0,0x41000400,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x41000400,0x0,0x41000400,0x41000400,0x0,0x0,0x41000480,0x8000,0x80,0x0,0x0,0x80,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80,0x0,0x800000,0x0,0x10000000,0x0,0x0,0x0,0x10000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x2000,0x0,0x0,0x0,0x0,0x0,0x41000400,0x0,0x41000400,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20000000,0x2000800,0x2000800,0x0,0x0,0x0,0x0,0x41000400,0x2,0x41000400,0x41000400,0x41000400,0x41000400,0x1,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,0x41000400,};
 	}
 	private static void jj_la1_init_4() {
-	   jj_la1_4 = new int[] {0x0,0x0,0x10,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x40,0x0,0x40,0x200,0x0,0x0,0x0,0x8000,0x0,0x0,0x0,0x20,0x0,0xcc0,0x0,0x0,0x0,0x4c0,0x0,0x80000040,0x0,0x80000040,0x0,0x0,0x0,0x0,0x40,0x80000040,0x0,0x0,0x0,0x0,0x0,0x40,0x0,0x40,0x0,0x40,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x40,0x0,0x40,0xff000042,0x0,0x0,0xcc0,0x0,0x400,0x6000,0x6000,0x400,0x1e0000,0xe00000,0x40000000,0x20000002,0x68000002,0x2000000,0x6000000,0x1000000,0x80000000,0x10000000,0x0,0x0,0x0,0x1e0000,0xe00000,0x10000,0x0,0x0,0x0,0x0,0x97000000,0x80,0x0,0x0,0x0,0x0,0x0,0xc00,0x108,0x0,0x0,0x4,0x100,0x100,0x100,0x4,0x8,0x108,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80000000,0x0,0x0,0x0,0x0,0x40,0x0,0x80000040,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80000040,0x20,0x40,0x40,0x40,0x40,0x0,0x40,0x40,0x40,0x40,0x40,0x40,0x40,0x40,0x40,};
+	   jj_la1_4 = new int[] {0x0,0x0,0x10,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x40,0x0,0x40,0x200,0x0,0x0,0x0,0x8000,0x0,0x0,0x0,0x20,0x0,0xcc0,0x0,0x0,0x0,0x4c0,0x0,0x80000040,0x0,0x80000040,0x0,0x0,0x0,0x0,0x40,0x80000040,0x0,0x0,0x0,0x0,0x0,0x40,0x0,0x40,0x0,0x40,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x40,0x0,0x40,0xff000042,0x0,0x0,0xcc0,0x0,0x400,0x6000,0x6000,0x400,0x1e0000,0xe00000,0x40000000,0x20000002,0x68000002,0x2000000,0x6000000,0x1000000,0x80000000,0x10000000,0x0,0x0,0x0,0x1e0000,0xe00000,0x10000,0x0,0x0,0x0,0x0,0x97000000,0x80,0x0,0x0,0x0,0x0,0x0,0xc00,0x108,0x0,0x0,0x4,0x100,0x100,0x100,0x4,0x8,0x108,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80000000,0x0,0x0,0x0,0x0,0x40,0x0,0x80000040,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x80000040,0x20,0x40,0x40,0x40,0x40,0x0,0x40,0x40,0x40,0x40,0x40,0x40,0x40,0x40,0x40,};
 	}
 	private static void jj_la1_init_5() {
-	   jj_la1_5 = new int[] {0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xc0000,0x0,0x0,0x80000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x3ffff,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10010,0x0,0x10810,0x400,0x16ce,0x100,0x4001,0x22020,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x8000,0x277ef,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x1000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xd0000000,0x20000000,0x20000000,0x0,0x4001,0xe000000,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xd0000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
+	   jj_la1_5 = new int[] {0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xc0000,0x0,0x0,0x80000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x3ffff,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10010,0x0,0x10810,0x400,0x16ce,0x100,0x4001,0x22020,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x8000,0x277ef,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x1000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xd0000000,0x20000000,0x20000000,0x0,0x4001,0xe000000,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xd0000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xe004001,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
 	}
 	private static void jj_la1_init_6() {
-	   jj_la1_6 = new int[] {0x0,0x8000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10000,0x0,0x0,0x40000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10000,0x0,0x10000,0x20,0x10000,0x0,0x0,0x0,0x0,0x20,0x20,0x0,0x0,0x0,0x0,0xf0,0x40000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xf0,0x0,0x0,0x0,0xf0,0x0,0x110fe,0x40000,0x110fe,0x40000,0x0,0x40000,0x0,0x30,0x11cfe,0x40000,0x0,0x40000,0x0,0x0,0x100f0,0x0,0xf0,0x40000,0x100f0,0x0,0x40000,0x0,0x40000,0x0,0x40000,0x40000,0x30,0x40000,0x30,0x30,0x40000,0x40000,0xf0,0x0,0x2,0x0,0x0,0x2,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x140,0x10000,0x10000,0x0,0x0,0x0,0x40000,0x10000,0x10000,0x0,0x0,0x0,0x10000,0x0,0x0,0x0,0x0,0x0,0x2,0x0,0x0,0x0,0x2,0x2,0x2,0x0,0x0,0x2,0x40000,0x40000,0x0,0x2,0x0,0x0,0x2,0x0,0x0,0x8,0x0,0x0,0xf4,0x11000,0xfc,0x0,0x3,0x0,0x0,0x0,0x2,0x0,0x2,0x0,0x0,0x20,0x0,0x0,0x0,0x8,0x20,0x0,0x40000,0x110fe,0x0,0xf0,0xf0,0x30,0x30,0x30,0x30,0x30,0xf0,0xf0,0x30,0xf0,0xf0,0x30,0x20,};
+	   jj_la1_6 = new int[] {0x0,0x8000,0x0,0x0,0x0,0x10020,0x10020,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x10000,0x0,0x0,0x0,0x0,0x20000,0x0,0x0,0x10000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x20000,0x0,0x20000,0x20,0x20000,0x0,0x0,0x0,0x0,0x20,0x20,0x0,0x0,0x0,0x0,0xf0,0x10000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xf0,0x0,0x0,0x0,0xf0,0x0,0x210fe,0x10000,0x210fe,0x10000,0x0,0x10000,0x0,0x30,0x21cfe,0x10000,0x0,0x10000,0x0,0x0,0x200f0,0x0,0xf0,0x10000,0x200f0,0x0,0x10000,0x0,0x10000,0x0,0x10000,0x10000,0x30,0x10000,0x30,0x30,0x10000,0x10000,0xf0,0x0,0x2,0x0,0x0,0x2,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x140,0x20000,0x20000,0x0,0x0,0x0,0x10000,0x20000,0x20000,0x0,0x0,0x0,0x20000,0x0,0x0,0x0,0x0,0x0,0x2,0x0,0x0,0x0,0x2,0x2,0x2,0x0,0x0,0x2,0x10000,0x10000,0x0,0x2,0x0,0x0,0x2,0x0,0x0,0x8,0x0,0x0,0xf4,0x21000,0xfc,0x0,0x0,0x3,0x0,0x0,0x0,0x2,0x0,0x2,0x0,0x0,0x20,0x0,0x0,0x0,0x8,0x20,0x0,0x10000,0x210fe,0x0,0xf0,0xf0,0x30,0x30,0x30,0x30,0x30,0xf0,0xf0,0x30,0xf0,0xf0,0x30,0x20,};
 	}
-  final private JJCalls[] jj_2_rtns = new JJCalls[17];
+  final private JJCalls[] jj_2_rtns = new JJCalls[19];
   private boolean jj_rescan = false;
   private int jj_gc = 0;
 
@@ -5896,7 +6098,7 @@ list.add(e);
 	 token = new Token();
 	 jj_ntk = -1;
 	 jj_gen = 0;
-	 for (int i = 0; i < 190; i++) jj_la1[i] = -1;
+	 for (int i = 0; i < 195; i++) jj_la1[i] = -1;
 	 for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -5911,7 +6113,7 @@ list.add(e);
 	 token = new Token();
 	 jj_ntk = -1;
 	 jj_gen = 0;
-	 for (int i = 0; i < 190; i++) jj_la1[i] = -1;
+	 for (int i = 0; i < 195; i++) jj_la1[i] = -1;
 	 for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -5922,7 +6124,7 @@ list.add(e);
 	 token = new Token();
 	 jj_ntk = -1;
 	 jj_gen = 0;
-	 for (int i = 0; i < 190; i++) jj_la1[i] = -1;
+	 for (int i = 0; i < 195; i++) jj_la1[i] = -1;
 	 for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -5941,7 +6143,7 @@ list.add(e);
 	 token = new Token();
 	 jj_ntk = -1;
 	 jj_gen = 0;
-	 for (int i = 0; i < 190; i++) jj_la1[i] = -1;
+	 for (int i = 0; i < 195; i++) jj_la1[i] = -1;
 	 for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -5951,7 +6153,7 @@ list.add(e);
 	 token = new Token();
 	 jj_ntk = -1;
 	 jj_gen = 0;
-	 for (int i = 0; i < 190; i++) jj_la1[i] = -1;
+	 for (int i = 0; i < 195; i++) jj_la1[i] = -1;
 	 for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -5961,7 +6163,7 @@ list.add(e);
 	 token = new Token();
 	 jj_ntk = -1;
 	 jj_gen = 0;
-	 for (int i = 0; i < 190; i++) jj_la1[i] = -1;
+	 for (int i = 0; i < 195; i++) jj_la1[i] = -1;
 	 for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -6097,7 +6299,7 @@ list.add(e);
 	   la1tokens[jj_kind] = true;
 	   jj_kind = -1;
 	 }
-	 for (int i = 0; i < 190; i++) {
+	 for (int i = 0; i < 195; i++) {
 	   if (jj_la1[i] == jj_gen) {
 		 for (int j = 0; j < 32; j++) {
 		   if ((jj_la1_0[i] & (1<<j)) != 0) {
@@ -6158,7 +6360,7 @@ list.add(e);
 
   private void jj_rescan_token() {
 	 jj_rescan = true;
-	 for (int i = 0; i < 17; i++) {
+	 for (int i = 0; i < 19; i++) {
 	   try {
 		 JJCalls p = jj_2_rtns[i];
 
@@ -6183,6 +6385,8 @@ list.add(e);
 			   case 14: jj_3_15(); break;
 			   case 15: jj_3_16(); break;
 			   case 16: jj_3_17(); break;
+			   case 17: jj_3_18(); break;
+			   case 18: jj_3_19(); break;
 			 }
 		   }
 		   p = p.next;
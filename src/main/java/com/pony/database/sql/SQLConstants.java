@@ -642,9 +642,9 @@ public interface SQLConstants {
     "<LETTER>",
     "<DIGIT>",
     "\";\"",
+    "\",\"",
     "\"(\"",
     "\")\"",
-    "\",\"",
   };
 
 }
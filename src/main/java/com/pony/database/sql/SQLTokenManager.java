@@ -65,10 +65,10 @@ private int jjMoveStringLiteralDfa0_0(){
          jjmatchedKind = 1;
          return jjMoveNfa_0(5, 0);
       case 40:
-         jjmatchedKind = 208;
+         jjmatchedKind = 209;
          return jjMoveNfa_0(5, 0);
       case 41:
-         jjmatchedKind = 209;
+         jjmatchedKind = 210;
          return jjMoveNfa_0(5, 0);
       case 42:
          jjmatchedKind = 7;
@@ -77,7 +77,7 @@ private int jjMoveStringLiteralDfa0_0(){
          jjmatchedKind = 16;
          return jjMoveNfa_0(5, 0);
       case 44:
-         jjmatchedKind = 210;
+         jjmatchedKind = 208;
          return jjMoveNfa_0(5, 0);
       case 45:
          jjmatchedKind = 17;
@@ -3867,7 +3867,7 @@ null, null, null, null, null, null, null, null, null, null, null, null, null, nu
 null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
 null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
 null, null, null, null, null, null, null, null, null, null, null, null, "\77", null, 
-null, "\73", "\50", "\51", "\54", };
+null, "\73", "\54", "\50", "\51", };
 protected Token jjFillToken()
 {
    final Token t;
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 import com.pony.util.ByteArrayUtil;
 import com.pony.util.UserTerminal;
@@ -35,6 +36,11 @@ import com.pony.util.UserTerminal;
  * structure is searched for the first bin that contains an area that best fits
  * the size requested.
  * <p>
+ * The bin chains are kept in the store so they survive a restart, and a copy
+ * of each chain is kept in memory after it's first used.  Allocating and
+ * freeing an area searches the copy in memory, so only the headers that
+ * change are read from and written to the store.
+ * <p>
  * Provided the derived class supports safe atomic IO operations, this store
  * is designed for robustness to the level that at no point is the store left
  * in a unworkable (corrupt) state.
@@ -75,6 +81,16 @@ public abstract class AbstractStore implements Store {
      */
     private boolean dirty_open;
 
+    /**
+     * The in memory copy of the bin chains.  'bin_chains' is the first free
+     * area of each bin and 'free_areas' maps the pointer of each free area in
+     * a loaded bin to its FreeArea.  A bin is loaded from the store the first
+     * time it's used.
+     */
+    private final FreeArea[] bin_chains = new FreeArea[BIN_ENTRIES + 1];
+    private final boolean[] bin_chain_loaded = new boolean[BIN_ENTRIES + 1];
+    private final HashMap<Long, FreeArea> free_areas = new HashMap<>();
+
     // ---------- Statics ----------
 
     /**
@@ -502,6 +518,7 @@ public abstract class AbstractStore implements Store {
         for (int i = 0; i < BIN_ENTRIES + 1; ++i) {
             free_bin_list[i] = -1;
         }
+        resetFreeAreas(true);
 
         terminal.println("+ Rebuilding free bins.");
         long[] header = new long[2];
@@ -669,6 +686,26 @@ public abstract class AbstractStore implements Store {
 
     }
 
+    /**
+     * Returns the pointers of the free areas in each bin chain, in the order
+     * of the chain.  Chains that aren't in memory yet are loaded from the
+     * store.  This is useful for checking the in memory chains against the
+     * store.
+     */
+    public synchronized List<List<Long>> getBinChains() throws IOException {
+        List<List<Long>> chains = new ArrayList<>(BIN_ENTRIES + 1);
+        for (int i = 0; i < BIN_ENTRIES + 1; ++i) {
+            List<Long> chain = new ArrayList<>();
+            if (free_bin_list[i] != -1) {
+                for (FreeArea area = binChain(i); area != null; area = area.next) {
+                    chain.add(area.pointer);
+                }
+            }
+            chains.add(chain);
+        }
+        return chains;
+    }
+
     /**
      * Returns the total allocated space since the file was openned.
      */
@@ -722,6 +759,33 @@ public abstract class AbstractStore implements Store {
     protected abstract void writeByteArrayTo(long position,
                                              byte[] buf, int off, int len) throws IOException;
 
+    /**
+     * Returns a read only ByteBuffer of a part of the file.  This copies the
+     * bytes into a new buffer, but a derived class that holds the file in
+     * memory may return a view of its memory instead.
+     */
+    protected ByteBuffer readByteBufferFrom(long position, int len)
+            throws IOException {
+        byte[] buf = new byte[len];
+        readByteArrayFrom(position, buf, 0, len);
+        return ByteBuffer.wrap(buf).asReadOnlyBuffer();
+    }
+
+    /**
+     * Reads the long at 'long_position' and 'len' bytes at 'position' in the
+     * file, and returns the long.  A derived class that caches the file in
+     * pages may read both with one page access when they are in the same
+     * page.
+     */
+    protected long readLongAndBytesFrom(long long_position, long position,
+                                        byte[] buf, int off, int len)
+            throws IOException {
+        byte[] long_buf = new byte[8];
+        readByteArrayFrom(long_position, long_buf, 0, 8);
+        readByteArrayFrom(position, buf, off, len);
+        return ByteArrayUtil.getLong(long_buf, 0);
+    }
+
     /**
      * Returns a pointer to the end of the current data area.
      */
@@ -778,6 +842,89 @@ public abstract class AbstractStore implements Store {
         for (int i = 0; i < 128; ++i) {
             free_bin_list[i] = in.readLong();
         }
+        resetFreeAreas(false);
+    }
+
+    /**
+     * Clears the in memory copy of the bin chains.  If 'loaded' is true the
+     * bins are all empty, otherwise they are loaded from the store as they are
+     * used.
+     */
+    private void resetFreeAreas(boolean loaded) {
+        free_areas.clear();
+        Arrays.fill(bin_chains, null);
+        Arrays.fill(bin_chain_loaded, loaded);
+    }
+
+    /**
+     * Returns the first free area in the given bin, loading the chain from the
+     * store if this is the first time the bin is used.
+     */
+    private FreeArea binChain(int bin_index) throws IOException {
+        if (!bin_chain_loaded[bin_index]) {
+            long[] header = new long[2];
+            FreeArea last = null;
+            long pointer = free_bin_list[bin_index];
+            while (pointer != -1) {
+                getAreaHeader(pointer, header);
+                FreeArea area = new FreeArea(bin_index, pointer,
+                        header[0] & 0x07FFFFFFFFFFFFFFFL);
+                linkFreeArea(last, area);
+                last = area;
+                pointer = header[1];
+            }
+            bin_chain_loaded[bin_index] = true;
+        }
+        return bin_chains[bin_index];
+    }
+
+    /**
+     * Links the area into its bin chain after 'previous', or at the start of
+     * the chain if 'previous' is null.
+     */
+    private void linkFreeArea(FreeArea previous, FreeArea area) {
+        FreeArea next = (previous == null) ? bin_chains[area.bin] : previous.next;
+        area.previous = previous;
+        area.next = next;
+        if (previous == null) {
+            bin_chains[area.bin] = area;
+        } else {
+            previous.next = area;
+        }
+        if (next != null) {
+            next.previous = area;
+        }
+        free_areas.put(area.pointer, area);
+    }
+
+    /**
+     * Unlinks the area from its bin chain.
+     */
+    private void unlinkFreeArea(FreeArea area) {
+        if (area.previous == null) {
+            bin_chains[area.bin] = area.next;
+        } else {
+            area.previous.next = area.next;
+        }
+        if (area.next != null) {
+            area.next.previous = area.previous;
+        }
+        free_areas.remove(area.pointer);
+    }
+
+    /**
+     * Removes the free area from its bin chain in the store and in memory.
+     */
+    private void removeFreeArea(FreeArea area) throws IOException {
+        long next_pointer = (area.next == null) ? -1 : area.next.pointer;
+        if (area.previous == null) {
+            free_bin_list[area.bin] = next_pointer;
+            writeBinIndex(area.bin);
+        } else {
+            header_info2[1] = next_pointer;
+            reboundArea(area.previous.pointer, header_info2, false);
+        }
+        unlinkFreeArea(area);
     }
 
     /**
@@ -960,117 +1107,50 @@ public abstract class AbstractStore implements Store {
         // What bin would this area fit into?
         int bin_chain_index = minimumBinSizeIndex(size);
 
-//    System.out.println("+ Adding to bin chain: " + pointer + " size: " + size);
-//    System.out.println("+ Adding to index: " + bin_chain_index);
-
-        long cur_pointer = free_bin_list[bin_chain_index];
-        if (cur_pointer == -1) {
-            // If the bin chain has no elements,
-            header_info[0] = (size | 0x08000000000000000L);
-            header_info[1] = -1;
-            reboundArea(pointer, header_info, true);
+        // Insert before the first area that is greater or equal to the size we
+        // are adding, searching at most 12 entries.
+        FreeArea previous = null;
+        FreeArea cur = binChain(bin_chain_index);
+        int searches = 0;
+        while (cur != null && cur.size < size && searches < 12) {
+            previous = cur;
+            cur = cur.next;
+            ++searches;
+        }
+
+        // Set up the deleted area
+        header_info[0] = (size | 0x08000000000000000L);
+        header_info[1] = (cur == null) ? -1 : cur.pointer;
+        reboundArea(pointer, header_info, true);
+
+        if (previous != null) {
+            // Set the previous in the chain to point to the deleted area
+            header_info[1] = pointer;
+            reboundArea(previous.pointer, header_info, false);
+        } else {
+            // Otherwise set the head bin item
             free_bin_list[bin_chain_index] = pointer;
             writeBinIndex(bin_chain_index);
-        } else {
-            boolean inserted = false;
-            long last_pointer = -1;
-            int searches = 0;
-            while (cur_pointer != -1 && inserted == false) {
-                // Get the current pointer
-                getAreaHeader(cur_pointer, header_info);
-
-                long header = header_info[0];
-                long next = header_info[1];
-                // Assert - the header must have deleted flag
-                if ((header & 0x08000000000000000L) == 0) {
-                    throw new IllegalStateException("Assert failed - area not marked as deleted.  " +
-                            "pos = " + cur_pointer +
-                            " this = " + toString());
-                }
-                long area_size = header ^ 0x08000000000000000L;
-                if (area_size >= size || searches >= 12) {
-                    // Insert if the area size is >= than the size we are adding.
-                    // Set the previous header to point to this
-                    long previous = last_pointer;
-
-                    // Set up the deleted area
-                    header_info[0] = (size | 0x08000000000000000L);
-                    header_info[1] = cur_pointer;
-                    reboundArea(pointer, header_info, true);
-
-                    if (last_pointer != -1) {
-                        // Set the previous in the chain to point to the deleted area
-                        getAreaHeader(previous, header_info);
-                        header_info[1] = pointer;
-                        reboundArea(previous, header_info, false);
-                    } else {
-                        // Otherwise set the head bin item
-                        free_bin_list[bin_chain_index] = pointer;
-                        writeBinIndex(bin_chain_index);
-                    }
-
-                    inserted = true;
-                }
-                last_pointer = cur_pointer;
-                cur_pointer = next;
-                ++searches;
-            }
-
-            // If we reach the end and we haven't inserted,
-            if (!inserted) {
-                // Set the new deleted area.
-                header_info[0] = (size | 0x08000000000000000L);
-                header_info[1] = -1;
-                reboundArea(pointer, header_info, true);
-
-                // Set the previous entry to this
-                getAreaHeader(last_pointer, header_info);
-                header_info[1] = pointer;
-                reboundArea(last_pointer, header_info, false);
-
-            }
-
         }
 
+        linkFreeArea(previous, new FreeArea(bin_chain_index, pointer, size));
+
     }
 
     /**
-     * Removes the given area from the bin chain.  This requires a search of the
-     * bin chain for the given size.
+     * Removes the given area from the bin chain.
      */
     private void removeFromBinChain(long pointer, long size) throws IOException {
         // What bin index should we be looking in?
         int bin_chain_index = minimumBinSizeIndex(size);
 
-//    System.out.println("- Removing from bin chain " + pointer + " size " + size);
-//    System.out.println("- Removing from index " + bin_chain_index);
-
-        long previous_pointer = -1;
-        long cur_pointer = free_bin_list[bin_chain_index];
-        // Search this bin for the pointer
-        // NOTE: This is an iterative search through the bin chain
-        while (pointer != cur_pointer) {
-            if (cur_pointer == -1) {
-                throw new IOException("Area not found in bin chain!  " +
-                        "pos = " + pointer + " store = " + toString());
-            }
-            // Move to the next in the chain
-            getAreaHeader(cur_pointer, header_info);
-            previous_pointer = cur_pointer;
-            cur_pointer = header_info[1];
-        }
-
-        // Found the pointer, so remove it,
-        if (previous_pointer == -1) {
-            getAreaHeader(pointer, header_info);
-            free_bin_list[bin_chain_index] = header_info[1];
-            writeBinIndex(bin_chain_index);
-        } else {
-            getAreaHeader(previous_pointer, header_info2);
-            getAreaHeader(pointer, header_info);
-            header_info2[1] = header_info[1];
-            reboundArea(previous_pointer, header_info2, false);
+        binChain(bin_chain_index);
+        FreeArea area = free_areas.get(pointer);
+        if (area == null || area.bin != bin_chain_index) {
+            throw new IOException("Area not found in bin chain!  " +
+                    "pos = " + pointer + " store = " + toString());
         }
+        removeFreeArea(area);
 
     }
 
@@ -1079,14 +1159,10 @@ public abstract class AbstractStore implements Store {
      * from a bin.  This method decides if it's worth reusing any space left over
      * and the end of the area.
      */
-    private void cropArea(long pointer, long allocated_size) throws IOException {
-        // Get the header info
-        getAreaHeader(pointer, header_info);
-        long header = header_info[0];
-        // Can we recycle the difference in area size?
-        final long free_area_size = header;
-        // The difference between the size of the free area and the size
-        // of the allocated area?
+    private void cropArea(long pointer, long free_area_size,
+                          long allocated_size) throws IOException {
+        // Can we recycle the difference in area size?  The difference between
+        // the size of the free area and the size of the allocated area?
         final long size_difference = free_area_size - allocated_size;
         // If the difference is greater than 512 bytes, add the excess space to
         // a free bin.
@@ -1150,37 +1226,28 @@ public abstract class AbstractStore implements Store {
 
         // Search the bins until we find the first area that is the nearest fit to
         // the size requested.
-        int found_bin_index = -1;
-        long previous_pointer = -1;
+        FreeArea found = null;
         boolean first = true;
         for (int i = bin_chain_index;
-             i < BIN_ENTRIES + 1 && found_bin_index == -1; ++i) {
-            long cur_pointer = free_bin_list[i];
-            if (cur_pointer != -1) {
+             i < BIN_ENTRIES + 1 && found == null; ++i) {
+            FreeArea cur = (free_bin_list[i] == -1) ? null : binChain(i);
+            if (cur != null) {
                 if (!first) {
                     // Pick this..
-                    found_bin_index = i;
-                    previous_pointer = -1;
+                    found = cur;
                 }
                 // Search this bin for the first that's big enough.
                 // We only search the first 12 entries in the bin before giving up.
                 else {
-                    long last_pointer = -1;
                     int searches = 0;
-                    while (cur_pointer != -1 &&
-                            found_bin_index == -1 &&
-                            searches < 12) {
-                        getAreaHeader(cur_pointer, header_info);
-                        long area_size = (header_info[0] & 0x07FFFFFFFFFFFFFFFL);
+                    while (cur != null && found == null && searches < 12) {
                         // Is this area is greater or equal than the required size
                         // and is not the wilderness area, pick it.
-                        if (cur_pointer != wilderness_pointer && area_size >= size) {
-                            found_bin_index = i;
-                            previous_pointer = last_pointer;
+                        if (cur.pointer != wilderness_pointer && cur.size >= size) {
+                            found = cur;
                         }
                         // Go to next in chain.
-                        last_pointer = cur_pointer;
-                        cur_pointer = header_info[1];
+                        cur = cur.next;
                         ++searches;
                     }
                 }
@@ -1190,7 +1257,7 @@ public abstract class AbstractStore implements Store {
         }
 
         // If no area can be recycled,
-        if (found_bin_index == -1) {
+        if (found == null) {
 
             // Allocate a new area of the given size.
             // If there is a wilderness, grow the wilderness area to the new size,
@@ -1220,9 +1287,10 @@ public abstract class AbstractStore implements Store {
                 expanded_size = expandDataArea(size_to_grow);
             }
             // Coalesc the new area to the given size
-            coalescArea(working_pointer, current_area_size + expanded_size);
+            long new_area_size = current_area_size + expanded_size;
+            coalescArea(working_pointer, new_area_size);
             // crop the area
-            cropArea(working_pointer, size);
+            cropArea(working_pointer, new_area_size, size);
 
             // Add to the total allocated space
             total_allocated_space += real_alloc_size;
@@ -1231,28 +1299,19 @@ public abstract class AbstractStore implements Store {
         } else {
 
             // An area is taken from the bins,
-            long free_area_pointer;
+            long free_area_pointer = found.pointer;
+            long next_pointer = (found.next == null) ? -1 : found.next.pointer;
             // Remove this area from the bin chain and possibly add any excess space
             // left over to a new bin.
-            if (previous_pointer == -1) {
-                free_area_pointer = free_bin_list[found_bin_index];
-                getAreaHeader(free_area_pointer, header_info);
-                free_bin_list[found_bin_index] = header_info[1];
-                writeBinIndex(found_bin_index);
-            } else {
-                getAreaHeader(previous_pointer, header_info2);
-                free_area_pointer = header_info2[1];
-                getAreaHeader(free_area_pointer, header_info);
-                header_info2[1] = header_info[1];
-                reboundArea(previous_pointer, header_info2, false);
-            }
+            removeFreeArea(found);
 
             // Reset the header of the recycled area.
-            header_info[0] = (header_info[0] & 0x07FFFFFFFFFFFFFFFL);
+            header_info[0] = found.size;
+            header_info[1] = next_pointer;
             reboundArea(free_area_pointer, header_info, true);
 
             // Crop the area to the given size.
-            cropArea(free_area_pointer, size);
+            cropArea(free_area_pointer, found.size, size);
 
             // Add to the total allocated space
             total_allocated_space += real_alloc_size;
@@ -1364,6 +1423,22 @@ public abstract class AbstractStore implements Store {
         }
     }
 
+    public int readArea(long id, int offset, byte[] buf, int off, int len)
+            throws IOException {
+        checkPointer(id);
+        // The size of the area is read with the bytes, and the bounds are
+        // checked afterwards.
+        long v = readLongAndBytesFrom(id, id + 8 + offset, buf, off, len);
+        if ((v & 0x08000000000000000L) != 0) {
+            throw new IOException("Area is deleted.");
+        }
+        long capacity = v - 16;
+        if (offset < 0 || len < 0 || offset + len > capacity) {
+            throw new IOException("Read out of area bounds.");
+        }
+        return (int) capacity;
+    }
+
     public Area getArea(long id) throws IOException {
         // If this is the fixed area
         if (id == -1) {
@@ -1392,6 +1467,26 @@ public abstract class AbstractStore implements Store {
 
     // ---------- Inner classes ----------
 
+    /**
+     * A free area in the in memory copy of a bin chain.
+     */
+    private static final class FreeArea {
+
+        final int bin;
+        final long pointer;
+        final long size;
+
+        FreeArea previous;
+        FreeArea next;
+
+        FreeArea(int bin, long pointer, long size) {
+            this.bin = bin;
+            this.pointer = pointer;
+            this.size = size;
+        }
+
+    }
+
     private class StoreAreaInputStream extends InputStream {
 
         private long pointer;
@@ -1583,6 +1678,10 @@ public abstract class AbstractStore implements Store {
             return ByteArrayUtil.getChar(buffer, 0);
         }
 
+        public ByteBuffer getByteBuffer(int length) throws IOException {
+            return readByteBufferFrom(checkPositionBounds(length), length);
+        }
+
 
         public String toString() {
             return "[Area start_pointer=" + start_pointer +
@@ -19,6 +19,7 @@
 package com.pony.store;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An interface for access the contents of an area of a store.  The area object
@@ -72,5 +73,14 @@ public interface Area {
 
     char getChar() throws IOException;
 
+    /**
+     * Returns a read only ByteBuffer of the next 'length' bytes of the area and
+     * moves the position past them.  The buffer is big endian like the get
+     * methods above.  Where possible the buffer is a view of the memory the
+     * store already holds the area in, so no bytes are copied.  The buffer
+     * should be read straight away and not kept.
+     */
+    ByteBuffer getByteBuffer(int length) throws IOException;
+
 }
 
@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An implementation of the Store interface that persists information in the
@@ -187,6 +188,16 @@ public final class HeapStore implements Store {
         return getElement(pointer).getMutableArea();
     }
 
+    public int readArea(long pointer, int offset, byte[] buf, int off, int len)
+            throws IOException {
+        byte[] heap_area = getElement(pointer).heap_area;
+        if (offset < 0 || len < 0 || offset + len > heap_area.length) {
+            throw new IOException("Read out of area bounds.");
+        }
+        System.arraycopy(heap_area, offset, buf, off, len);
+        return heap_area.length;
+    }
+
     public MutableArea getMutableArea(long pointer) throws IOException {
         return getElement(pointer).getMutableArea();
     }
@@ -362,6 +373,11 @@ public final class HeapStore implements Store {
             return c;
         }
 
+        public ByteBuffer getByteBuffer(int length) throws IOException {
+            return ByteBuffer.wrap(heap_area, checkPositionBounds(length), length)
+                    .slice().asReadOnlyBuffer();
+        }
+
         public void putChar(char c) throws IOException {
             ByteArrayUtil.setChar(c, heap_area, checkPositionBounds(2));
         }
@@ -19,13 +19,20 @@
 package com.pony.store;
 
 import java.io.File;
-import java.io.SyncFailedException;
+import java.io.EOFException;
 import java.io.RandomAccessFile;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 
 /**
  * An implementation of StoreDataAccessor that uses the standard Java IO API to
  * access data in some underlying file in the filesystem.
+ * <p>
+ * Reads and writes use positional FileChannel operations that don't change
+ * any shared file pointer, so concurrent reads and writes on the file are not
+ * serialized by this object and go to the OS in parallel.
  *
  * @author Tobias Downer
  */
@@ -33,7 +40,7 @@ import java.io.IOException;
 class IOStoreDataAccessor implements StoreDataAccessor {
 
     /**
-     * A lock because access to the data is stateful.
+     * A lock when opening, closing and changing the size of the file.
      */
     private final Object lock = new Object();
 
@@ -47,10 +54,20 @@ class IOStoreDataAccessor implements StoreDataAccessor {
      */
     private RandomAccessFile data;
 
+    /**
+     * The channel of the above file that all reads and writes go through.
+     */
+    private volatile FileChannel channel;
+
+    /**
+     * True if the file was opened read only.
+     */
+    private boolean read_only;
+
     /**
      * The size of the data area.
      */
-    private long size;
+    private volatile long size;
 
     /**
      * True if the file is open.
@@ -65,11 +82,56 @@ class IOStoreDataAccessor implements StoreDataAccessor {
         this.is_open = false;
     }
 
+    /**
+     * Reopens the channel after it was closed under us.  A FileChannel is
+     * closed when a thread blocked in an operation on it is interrupted, which
+     * would otherwise break the file for every other thread.
+     */
+    private void reopenChannel(FileChannel closed_channel) throws IOException {
+        synchronized (lock) {
+            if (is_open && channel == closed_channel) {
+                data = new RandomAccessFile(file, read_only ? "r" : "rw");
+                channel = data.getChannel();
+            }
+        }
+    }
+
+    /**
+     * Reads or writes the given buffer at the given position of the channel
+     * until the buffer is fully transferred.
+     */
+    private void transfer(long position, ByteBuffer bb, boolean is_write)
+            throws IOException {
+        while (true) {
+            final FileChannel ch = channel;
+            try {
+                while (bb.hasRemaining()) {
+                    int n = is_write ? ch.write(bb, position)
+                                     : ch.read(bb, position);
+                    if (n < 0) {
+                        throw new EOFException();
+                    }
+                    position += n;
+                }
+                return;
+            } catch (ClosedChannelException e) {
+                reopenChannel(ch);
+                // If this thread was interrupted the operation fails, otherwise
+                // another thread was interrupted and we retry on the new channel.
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     // ---------- Implemented from StoreDataAccessor ----------
 
     public void open(boolean is_read_only) throws IOException {
         synchronized (lock) {
             data = new RandomAccessFile(file, is_read_only ? "r" : "rw");
+            channel = data.getChannel();
+            read_only = is_read_only;
             size = file.length();
             is_open = true;
         }
@@ -77,9 +139,10 @@ class IOStoreDataAccessor implements StoreDataAccessor {
 
     public void close() throws IOException {
         synchronized (lock) {
+            is_open = false;
             data.close();
             data = null;
-            is_open = false;
+            channel = null;
         }
     }
 
@@ -98,24 +161,18 @@ class IOStoreDataAccessor implements StoreDataAccessor {
     public void read(long position, byte[] buf, int off, int len)
             throws IOException {
         // Make sure we don't read past the end
-        synchronized (lock) {
-            len = Math.max(0, Math.min(len, (int) (size - position)));
-            if (position < size) {
-                data.seek(position);
-                data.readFully(buf, off, len);
-            }
+        len = (int) Math.max(0, Math.min(len, size - position));
+        if (len > 0) {
+            transfer(position, ByteBuffer.wrap(buf, off, len), false);
         }
     }
 
     public void write(long position, byte[] buf, int off, int len)
             throws IOException {
         // Make sure we don't write past the end
-        synchronized (lock) {
-            len = Math.max(0, Math.min(len, (int) (size - position)));
-            if (position < size) {
-                data.seek(position);
-                data.write(buf, off, len);
-            }
+        len = (int) Math.max(0, Math.min(len, size - position));
+        if (len > 0) {
+            transfer(position, ByteBuffer.wrap(buf, off, len), true);
         }
     }
 
@@ -123,22 +180,16 @@ class IOStoreDataAccessor implements StoreDataAccessor {
         synchronized (lock) {
             // If expanding the size of the file,
             if (new_size > this.size) {
-                // Seek to the new size - 1 and write a single byte to the end of the
-                // file.
+                // Write a single byte to the end of the file.
                 long p = new_size - 1;
                 if (p > 0) {
-                    data.seek(p);
-                    data.write(0);
+                    transfer(p, ByteBuffer.wrap(new byte[1]), true);
                     this.size = new_size;
                 }
             } else if (new_size < this.size) {
-                // Otherwise the size of the file is shrinking, so setLength().
-                // Note that we don't use 'setLength' to grow the file because of a
-                // bug in the Linux 1.2, 1.3 and 1.4 JVM that generates an error when
-                // expanding the size of a file via 'setLength' on some file systems
-                // (specifically VFAT).
-                data.setLength(new_size);
+                // Otherwise the size of the file is shrinking, so truncate.
                 this.size = new_size;
+                channel.truncate(new_size);
             }
         }
     }
@@ -156,15 +207,15 @@ class IOStoreDataAccessor implements StoreDataAccessor {
     public void synch() throws IOException {
         synchronized (lock) {
             try {
-                data.getFD().sync();
-            } catch (SyncFailedException e) {
-                // There isn't much we can do about this exception.  By itself it
-                // doesn't indicate a terminating error so it's a good idea to ignore
-                // it.  Should it be silently ignored?
+                channel.force(true);
+            } catch (ClosedChannelException e) {
+                // Closed by an interrupt, so reopen and try again.
+                FileChannel ch = channel;
+                reopenChannel(ch);
+                channel.force(true);
             }
         }
     }
 
 
 }
-
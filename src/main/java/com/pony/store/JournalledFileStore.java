@@ -19,6 +19,7 @@
 package com.pony.store;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An implementation of AbstractStore that persists to an underlying data
@@ -127,6 +128,18 @@ public final class JournalledFileStore extends AbstractStore {
                 position, buf, off, len);
     }
 
+    protected ByteBuffer readByteBufferFrom(long position, int len)
+            throws IOException {
+        return buffer_manager.readByteBufferFrom(store_resource, position, len);
+    }
+
+    protected long readLongAndBytesFrom(long long_position, long position,
+                                        byte[] buf, int off, int len)
+            throws IOException {
+        return buffer_manager.readLongAndBytesFrom(store_resource,
+                long_position, position, buf, off, len);
+    }
+
     protected void writeByteTo(long position, int b) throws IOException {
         buffer_manager.writeByteTo(store_resource, position, b);
     }
@@ -19,9 +19,22 @@
 package com.pony.store;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
 
 import com.pony.debug.DebugLogger;
 import com.pony.debug.Lvl;
@@ -104,6 +117,111 @@ class JournalledSystem {
      */
     private final DebugLogger debug;
 
+    // ---------- Group commit ----------
+
+    /**
+     * True if the synchronization of the journal at a check point may be
+     * shared by concurrently committing threads.
+     */
+    private boolean group_commit;
+
+    /**
+     * The maximum time (in ms) a group commit will wait for other committing
+     * threads to join the group before the journal is synchronized.
+     */
+    private long group_commit_wait;
+
+    /**
+     * The id of the last check point written to the top journal.  Guarded by
+     * 'top_journal_lock'.
+     */
+    private long check_point_id;
+
+    /**
+     * The id of the last check point that is known to be synchronized with the
+     * disk.  Guarded by 'group_commit_lock'.
+     */
+    private long synched_check_point_id;
+
+    /**
+     * True when a thread is synchronizing the journal on behalf of a group of
+     * committing threads.  Guarded by 'group_commit_lock'.
+     */
+    private boolean group_synch_in_progress;
+
+    /**
+     * The number of check points that were made durable by the last journal
+     * synchronization.
+     */
+    private long last_group_size;
+
+    /**
+     * Mutex for the group commit state.
+     */
+    private final Object group_commit_lock = new Object();
+
+    /**
+     * The interval (in ms) at which check points that nobody waited on are
+     * synchronized with the disk in the background.
+     */
+    private long check_point_synch_interval = 200;
+
+    /**
+     * A thread that synchronizes the check points of asynchronous commits.
+     */
+    private CheckPointSynchThread check_point_synch_thread;
+
+    /**
+     * The maximum number of threads used to apply journal changes to the
+     * resources during recovery.
+     */
+    private int recovery_threads = Runtime.getRuntime().availableProcessors();
+
+    // ---------- Journal compression ----------
+
+    /**
+     * Page modifications smaller than this are never compressed.
+     */
+    private static final int MIN_COMPRESS_LENGTH = 128;
+
+    /**
+     * True if page modifications are compressed in the journal.
+     */
+    private boolean compress_journal;
+
+    /**
+     * The number of bytes of page data logged since the system started, and
+     * the number of bytes of the journal entries that were written for them
+     * (including headers).  Guarded by 'top_journal_lock'.
+     */
+    private long page_bytes_logged;
+    private long page_entry_bytes_written;
+
+    /**
+     * The number of times the journal was synchronized with the disk to make
+     * check points durable.  Guarded by 'top_journal_lock'.
+     */
+    private long check_point_synch_count;
+
+    /**
+     * Gives the page size of a resource by name, or null if all resources
+     * have the default page size.
+     */
+    private ToIntFunction<String> resource_page_sizes;
+
+    /**
+     * The directory journals are copied to after they are persisted, or null
+     * if journals are not archived.
+     */
+    private File archive_path;
+
+    /**
+     * The sequence number given to the next archived journal.  Guarded by
+     * 'archive_lock'.
+     */
+    private long archive_sequence = 1;
+    private final Object archive_lock = new Object();
+
 
     JournalledSystem(File journal_path, boolean read_only, int page_size,
                      StoreDataAccessorFactory sda_factory, DebugLogger debug,
@@ -120,6 +238,197 @@ class JournalledSystem {
     }
 
 
+    /**
+     * Sets the group commit properties of the journal.  If 'group_commit' is
+     * true then the journal synchronization of concurrent check points is
+     * shared.  'max_wait' is the maximum time in ms to wait for other check
+     * points to join a group.  A wait only happens when the previous group
+     * contained more than one check point.
+     */
+    void setGroupCommit(boolean group_commit, long max_wait) {
+        synchronized (group_commit_lock) {
+            this.group_commit = group_commit;
+            this.group_commit_wait = Math.max(0, max_wait);
+        }
+    }
+
+    /**
+     * Sets the interval (in ms) at which check points written by asynchronous
+     * commits are synchronized with the disk.  This bounds how much committed
+     * work can be lost in a crash.  Must be set before the system is started.
+     */
+    void setCheckPointSynchInterval(long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be > 0");
+        }
+        this.check_point_synch_interval = interval;
+    }
+
+    /**
+     * Sets whether page modifications are compressed when they are written to
+     * the journal.  Compressed and uncompressed entries can be mixed in a
+     * journal so this may change between sessions.
+     */
+    void setCompressJournal(boolean compress_journal) {
+        synchronized (top_journal_lock) {
+            this.compress_journal = compress_journal;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of page data logged to the journal since
+     * the system started.
+     */
+    long getPageBytesLogged() {
+        synchronized (top_journal_lock) {
+            return page_bytes_logged;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of journal written to log page data since
+     * the system started.  This is less than 'getPageBytesLogged' when
+     * compression is enabled.
+     */
+    long getPageEntryBytesWritten() {
+        synchronized (top_journal_lock) {
+            return page_entry_bytes_written;
+        }
+    }
+
+    /**
+     * Returns the number of times the journal was synchronized with the disk
+     * to make check points durable since the system started.
+     */
+    long getCheckPointSynchCount() {
+        synchronized (top_journal_lock) {
+            return check_point_synch_count;
+        }
+    }
+
+    /**
+     * Sets the maximum number of threads used to recover resources from the
+     * journals.  If 'threads' is 0 or less, the number of processors is used.
+     */
+    void setRecoveryThreads(int threads) {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        this.recovery_threads = threads;
+    }
+
+    /**
+     * Sets the function that gives the page size of each resource by name.
+     * The journal records changes by position so the page size of a resource
+     * may change between sessions.  Must be set before the system is started.
+     */
+    void setResourcePageSizes(ToIntFunction<String> resource_page_sizes) {
+        this.resource_page_sizes = resource_page_sizes;
+    }
+
+    /**
+     * Sets the directory persisted journals are archived to.  Each journal is
+     * copied to the directory before it is deleted and named by a sequence
+     * number that continues from the archives already in the directory.  A
+     * base copy of the resources plus the journals archived after the copy
+     * started can be replayed with 'replayJournals'.  Must be set before the
+     * system is started.
+     */
+    void setJournalArchivePath(File path) throws IOException {
+        if (!path.exists() && !path.mkdirs()) {
+            throw new IOException("Unable to create journal archive path: " + path);
+        }
+        long last_sequence = 0;
+        String[] names = path.list();
+        if (names != null) {
+            for (String name : names) {
+                long sequence = parseArchiveFileName(name);
+                last_sequence = Math.max(last_sequence, sequence);
+            }
+        }
+        synchronized (archive_lock) {
+            this.archive_path = path;
+            this.archive_sequence = last_sequence + 1;
+        }
+    }
+
+    /**
+     * Returns true if journals are written and archived after they are
+     * persisted.
+     */
+    boolean isArchivingJournals() {
+        synchronized (archive_lock) {
+            return ENABLE_LOGGING && !read_only && archive_path != null;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last journal archived, or 0 if no
+     * journals have been archived.
+     */
+    long getLastArchiveSequence() {
+        synchronized (archive_lock) {
+            return archive_sequence - 1;
+        }
+    }
+
+    /**
+     * Returns the file in the archive directory for the journal with the given
+     * sequence number.
+     */
+    static File getArchiveFile(File archive_path, long sequence) {
+        return new File(archive_path, String.format("%012d.jnl", sequence));
+    }
+
+    /**
+     * Returns the sequence number of an archived journal file name, or -1 if
+     * the name isn't an archived journal.
+     */
+    static long parseArchiveFileName(String name) {
+        if (name.length() != 16 || !name.endsWith(".jnl")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, 12));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Copies a persisted journal to the archive directory, if there is one.
+     * The copy is synchronized and then renamed so an archive is never seen
+     * partially written.  If the copy fails the sequence number is left
+     * unused so the gap in the archive is visible to a restore.
+     */
+    private void archiveJournal(JournalFile jf) {
+        synchronized (archive_lock) {
+            if (archive_path == null) {
+                return;
+            }
+            long sequence = archive_sequence;
+            ++archive_sequence;
+            File archive = getArchiveFile(archive_path, sequence);
+            File temp = new File(archive_path, archive.getName() + ".tmp");
+            try {
+                Files.copy(jf.file.toPath(), temp.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                try (FileChannel ch = FileChannel.open(temp.toPath(),
+                        StandardOpenOption.WRITE)) {
+                    ch.force(true);
+                }
+                Files.move(temp.toPath(), archive.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                debug.write(Lvl.ERROR, this, "Unable to archive journal " + jf +
+                        " as " + archive + ", journals archived after this can " +
+                        "not be restored over an earlier base copy.");
+                debug.writeException(Lvl.ERROR, e);
+                temp.delete();
+            }
+        }
+    }
+
     /**
      * Returns a journal file name with the given number.  The journal number
      * must be between 10 and 63
@@ -149,6 +458,9 @@ class JournalledSystem {
                     if (!read_only) {
                         // Create a new top journal file
                         newTopJournalFile();
+                        // Start the thread that synchronizes asynchronous commits
+                        check_point_synch_thread = new CheckPointSynchThread();
+                        check_point_synch_thread.start();
                     }
                 } else {
                     throw new IllegalStateException("Assertion failed - already started.");
@@ -164,6 +476,12 @@ class JournalledSystem {
     void stop() throws IOException {
         if (ENABLE_LOGGING) {
             synchronized (init_lock) {
+                if (check_point_synch_thread != null) {
+                    // Synchronize any outstanding check points and stop
+                    check_point_synch_thread.finish();
+                    check_point_synch_thread.waitUntilFinished();
+                    check_point_synch_thread = null;
+                }
                 if (journaling_thread != null) {
                     // Stop the journal thread
                     journaling_thread.persistArchives(0);
@@ -251,7 +569,86 @@ class JournalledSystem {
 
         long last_journal_number = -1;
 
-        // Persist the journals
+        // Nothing to do if there are no journals
+        if (journal_files_list.isEmpty()) {
+            return;
+        }
+
+        // Assert that we are recovering the journals in the correct order
+        for (Object item : journal_files_list) {
+            JournalFile jf = ((JournalSummary) item).journal_file;
+            if (jf.journal_number < last_journal_number) {
+                throw new IllegalStateException("Assertion failed, sort failed.");
+            }
+            last_journal_number = jf.journal_number;
+        }
+
+        recoverJournals(journal_files_list);
+
+        // Everything is persisted and synchronized so archive, close and delete
+        // the journals.
+        for (Object item : journal_files_list) {
+            JournalSummary summary = (JournalSummary) item;
+            archiveJournal(summary.journal_file);
+            summary.journal_file.closeAndDelete();
+        }
+
+    }
+
+    /**
+     * Replays the given archived journals over the resources, oldest first.
+     * Each journal is applied up to its last check point.  The journals are
+     * not deleted.  Journal entries are whole page images, sizes and deletes
+     * so replaying a journal over a resource that already contains some of
+     * its changes is safe.  This must not be called on a started system.
+     */
+    void replayJournals(File[] journals) throws IOException {
+        if (journaling_thread != null) {
+            throw new IllegalStateException("Journal system is started.");
+        }
+        // Replay in batches to bound the number of open journal files
+        final int batch_size = 64;
+        for (int n = 0; n < journals.length; n += batch_size) {
+            ArrayList journal_files_list = new ArrayList();
+            try {
+                int end = Math.min(journals.length, n + batch_size);
+                for (int i = n; i < end; ++i) {
+                    JournalFile jf = new JournalFile(journals[i], read_only);
+                    JournalSummary summary = jf.openForRecovery();
+                    journal_files_list.add(summary);
+                }
+                ArrayList recoverable = new ArrayList();
+                for (Object item : journal_files_list) {
+                    JournalSummary summary = (JournalSummary) item;
+                    if (summary.can_be_recovered) {
+                        recoverable.add(summary);
+                    }
+                }
+                if (!recoverable.isEmpty()) {
+                    recoverJournals(recoverable);
+                }
+            } finally {
+                for (Object item : journal_files_list) {
+                    ((JournalSummary) item).journal_file.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the changes up to the last check point of each journal in the
+     * given list of JournalSummary (oldest first) to the resources.
+     */
+    private void recoverJournals(ArrayList journal_files_list)
+            throws IOException {
+
+        long start_time = System.currentTimeMillis();
+
+        // Scan the journals from oldest to newest and make a list of the
+        // changes for each resource (resource_name -> ArrayList of
+        // RecoveryEntry) in the order they must be applied.
+        HashMap resource_entries = new HashMap();
+        long page_count = 0;
         for (Object item : journal_files_list) {
             JournalSummary summary = (JournalSummary) item;
 
@@ -260,39 +657,148 @@ class JournalledSystem {
             for (Object value : res_list) {
                 String resource_name = (String) value;
                 // This puts the resource into the hash map.
-                JournalledResource resource = createResource(resource_name);
+                createResource(resource_name);
+                if (!resource_entries.containsKey(resource_name)) {
+                    resource_entries.put(resource_name, new ArrayList());
+                }
             }
 
-            // Assert that we are recovering the journals in the correct order
             JournalFile jf = summary.journal_file;
-            if (jf.journal_number < last_journal_number) {
-                throw new IllegalStateException("Assertion failed, sort failed.");
-            }
-            last_journal_number = jf.journal_number;
-
             if (debug.isInterestedIn(Lvl.INFORMATION)) {
                 debug.write(Lvl.INFORMATION, this, "Recovering: " + jf +
                         " (8 .. " + summary.last_checkpoint + ")");
             }
 
-            jf.persist(8, summary.last_checkpoint);
-            // Then close and delete.
-            jf.closeAndDelete();
+            page_count += jf.scanForRecovery(8, summary.last_checkpoint,
+                    resource_entries);
+        }
+
+        // Apply the changes to the resources.  Each resource is independent
+        // so they are recovered in parallel.
+        int thread_count = recoverResources(resource_entries);
 
-            // Check the resources for this summary and close them
-            for (Object o : res_list) {
-                String resource_name = (String) o;
-                AbstractResource resource =
-                        (AbstractResource) createResource(resource_name);
-                // When we finished, make sure the resource is closed again
-                // Close the resource
-                resource.persistClose();
-                // Post recover notification
-                resource.notifyPostRecover();
+        long time_taken = Math.max(1, System.currentTimeMillis() - start_time);
+        debug.write(Lvl.MESSAGE, this, "Recovered " + page_count +
+                " page changes to " + resource_entries.size() + " resources from " +
+                journal_files_list.size() + " journals in " + time_taken + " ms (" +
+                (page_count * 1000 / time_taken) + " pages/s, " + thread_count +
+                " threads)");
+
+    }
+
+    /**
+     * Applies the recovery entries of each resource (resource_name ->
+     * ArrayList of RecoveryEntry) to the resource, then synchronizes and
+     * closes it.  The resources are recovered in parallel on up to
+     * 'recovery_threads' threads.  Returns the number of threads used.
+     */
+    private int recoverResources(HashMap resource_entries) throws IOException {
+        int thread_count = Math.min(recovery_threads, resource_entries.size());
+        if (thread_count <= 1) {
+            for (Object o : resource_entries.entrySet()) {
+                Map.Entry entry = (Map.Entry) o;
+                recoverResource((String) entry.getKey(), (ArrayList) entry.getValue());
+            }
+            return 1;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(thread_count, r -> {
+            Thread thread = new Thread(r, "Pony - Journal Recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ArrayList futures = new ArrayList();
+            for (Object o : resource_entries.entrySet()) {
+                final Map.Entry entry = (Map.Entry) o;
+                futures.add(pool.submit(() -> {
+                    recoverResource((String) entry.getKey(),
+                            (ArrayList) entry.getValue());
+                    return null;
+                }));
             }
+            // Wait for all the resources to finish
+            IOException error = null;
+            for (Object o : futures) {
+                try {
+                    ((Future) o).get();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        Throwable cause = e.getCause();
+                        error = cause instanceof IOException ? (IOException) cause :
+                                new IOException("Recovery failed: " + cause, cause);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted during recovery");
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return thread_count;
+    }
 
+    /**
+     * Applies the given list of RecoveryEntry objects to the resource with the
+     * given name, then synchronizes and closes the resource.
+     */
+    private void recoverResource(String resource_name, ArrayList entries)
+            throws IOException {
+        AbstractResource resource =
+                (AbstractResource) createResource(resource_name);
+
+        byte[] buf = null;
+        byte[] compressed = null;
+        Inflater inflater = null;
+        try {
+            for (Object o : entries) {
+                RecoveryEntry entry = (RecoveryEntry) o;
+                if (entry.type == 6) {         // Resource delete
+                    resource.persistDelete();
+                } else if (entry.type == 3) {  // Resource size change
+                    resource.persistSetSize(entry.new_size);
+                } else {                       // Page modification
+                    if (buf == null || buf.length < entry.length) {
+                        buf = new byte[Math.max(entry.length, page_size)];
+                    }
+                    if (entry.type == 1) {
+                        entry.journal.readFully(entry.position, buf, 0, entry.length);
+                    } else {
+                        if (compressed == null ||
+                                compressed.length < entry.body_length) {
+                            compressed = new byte[entry.body_length];
+                        }
+                        entry.journal.readFully(entry.position, compressed, 0,
+                                entry.body_length);
+                        if (inflater == null) {
+                            inflater = new Inflater();
+                        }
+                        decompress(inflater, compressed, entry.body_length,
+                                buf, 0, entry.length);
+                    }
+                    resource.persistPageChange(entry.page, entry.offset,
+                            entry.length, new DataInputStream(
+                                    new ByteArrayInputStream(buf, 0, entry.length)));
+                }
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
         }
 
+        if (debug.isInterestedIn(Lvl.INFORMATION)) {
+            debug.write(Lvl.INFORMATION, this, "Synch: " + resource);
+        }
+        resource.synch();
+        // When we finished, make sure the resource is closed again
+        resource.persistClose();
+        // Post recover notification
+        resource.notifyPostRecover();
     }
 
     private final Comparator journal_list_comparator = (ob1, ob2) -> {
@@ -354,10 +860,14 @@ class JournalledSystem {
                 // Create the StoreDataAccessor for this resource.
                 StoreDataAccessor accessor =
                         sda_factory.createStoreDataAccessor(resource_name);
+                int resource_page_size = (resource_page_sizes == null) ? page_size
+                        : resource_page_sizes.applyAsInt(resource_name);
                 if (ENABLE_LOGGING) {
-                    resource = new Resource(resource_name, id, accessor);
+                    resource = new Resource(resource_name, id, accessor,
+                            resource_page_size);
                 } else {
-                    resource = new NonLoggingResource(resource_name, id, accessor);
+                    resource = new NonLoggingResource(resource_name, id, accessor,
+                            resource_page_size);
                 }
                 // Put this in the map.
                 all_resources.put(resource_name, resource);
@@ -375,37 +885,214 @@ class JournalledSystem {
      * assume the journals will be empty when the method returns.
      */
     void setCheckPoint(boolean flush_journals) throws IOException {
+        long id = writeCheckPoint(flush_journals);
+        throttleArchives();
+        waitForCheckPoint(id);
+    }
+
+    /**
+     * Writes a check point to the log and returns an id for the check point.
+     * When group commit is enabled the journal may not be synchronized with
+     * the disk when this returns, and 'waitForCheckPoint' must be called with
+     * the returned id before the check point can be considered durable.  This
+     * allows the caller to release any locks before waiting on the disk.
+     */
+    long writeCheckPoint(boolean flush_journals) throws IOException {
+        return writeCheckPoint(flush_journals, false);
+    }
+
+    /**
+     * Writes a check point to the log the same as 'writeCheckPoint' except, if
+     * 'async' is true, the journal is only synchronized with the disk when it's
+     * cycled.  An asynchronous check point is made durable by
+     * 'CheckPointSynchThread' even when group commit is disabled.
+     */
+    long writeCheckPoint(boolean flush_journals, boolean async)
+            throws IOException {
         // No Logging
         if (!ENABLE_LOGGING) {
-            return;
+            return 0;
         }
         // Return if read-only
         if (read_only) {
-            return;
+            return 0;
         }
 
-        boolean something_to_persist;
+        boolean synched;
+        long id;
 
         synchronized (top_journal_lock) {
             JournalFile top_j = topJournal();
 
             // When the journal exceeds a threshold then we cycle the top journal
-            if (flush_journals || top_j.size() > (256 * 1024)) {
+            boolean cycle = flush_journals || top_j.size() > (256 * 1024);
+            if (cycle) {
                 // Cycle to the next journal file
                 newTopJournalFile();
                 // Add this to the archives
                 journal_archives.add(top_j);
             }
-            something_to_persist = journal_archives.size() > 0;
-            top_j.setCheckPoint();
+            // A journal must be synchronized before it's archived because the
+            // journaling thread may persist it at any time.  Otherwise a
+            // synchronous check point is synchronized here unless group commit
+            // will do it, and an asynchronous one is left to the background.
+            synched = cycle || (!group_commit && !async);
+            top_j.setCheckPoint(synched);
+            if (synched) {
+                ++check_point_synch_count;
+            }
+            id = ++check_point_id;
+        }
+
+        if (synched) {
+            // Everything up to this check point is on the disk.
+            synchronized (group_commit_lock) {
+                if (id > synched_check_point_id) {
+                    synched_check_point_id = id;
+                    group_commit_lock.notifyAll();
+                }
+            }
         }
 
+        return id;
+    }
+
+    /**
+     * If there are archived journals, notifies the background thread that
+     * there is something to persist.  This blocks until there are at most 10
+     * journal files waiting to be persisted.
+     */
+    void throttleArchives() {
+        if (!ENABLE_LOGGING || read_only) {
+            return;
+        }
+        boolean something_to_persist;
+        synchronized (top_journal_lock) {
+            something_to_persist = journal_archives.size() > 0;
+        }
         if (something_to_persist) {
-            // Notifies the background thread that there is something to persist.
-            // This will block until there are at most 10 journal files open.
             journaling_thread.persistArchives(10);
         }
+    }
+
+    /**
+     * Blocks until every journal cycled into the archive list has been
+     * persisted (and archived).
+     */
+    void persistArchives() {
+        if (!ENABLE_LOGGING || read_only) {
+            return;
+        }
+        journaling_thread.persistArchives(0);
+    }
+
+    /**
+     * Blocks until the check point with the given id (returned by
+     * 'writeCheckPoint') is synchronized with the disk.  The first thread to
+     * arrive synchronizes the journal for every check point written so far,
+     * and any threads that arrive while it's doing so wait for the next
+     * synchronization, so the cost of a sync is shared by a group of commits.
+     */
+    void waitForCheckPoint(long id) throws IOException {
+        long max_wait;
+        synchronized (group_commit_lock) {
+            while (true) {
+                if (id <= synched_check_point_id) {
+                    return;
+                }
+                if (!group_synch_in_progress) {
+                    // This thread leads the next group
+                    group_synch_in_progress = true;
+                    max_wait = last_group_size > 1 ? group_commit_wait : 0;
+                    break;
+                }
+                try {
+                    group_commit_lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                            "Interrupted waiting for group commit");
+                }
+            }
+        }
 
+        long synched_id = 0;
+        try {
+            // If the last group had more than one commit then give other
+            // committing threads the chance to write their check point.
+            if (max_wait > 0) {
+                try {
+                    Thread.sleep(max_wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            JournalFile top_j;
+            long target_id;
+            synchronized (top_journal_lock) {
+                target_id = check_point_id;
+                top_j = top_journal_file;
+                // Prevent the journal being deleted while it's synchronized
+                top_j.addReference();
+                ++check_point_synch_count;
+            }
+            try {
+                top_j.synch();
+            } finally {
+                top_j.removeReference();
+            }
+            synched_id = target_id;
+        } finally {
+            synchronized (group_commit_lock) {
+                group_synch_in_progress = false;
+                if (synched_id > synched_check_point_id) {
+                    last_group_size = synched_id - synched_check_point_id;
+                    synched_check_point_id = synched_id;
+                }
+                group_commit_lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Synchronizes every check point written so far with the disk, if there
+     * are any that are not yet synchronized.
+     */
+    void synchCheckPoints() throws IOException {
+        long id;
+        synchronized (top_journal_lock) {
+            id = check_point_id;
+        }
+        waitForCheckPoint(id);
+    }
+
+    /**
+     * Decompresses the compressed page change into the given buffer.  The
+     * change must decompress to exactly 'len' bytes.
+     */
+    private static void decompress(Inflater inflater,
+                                   byte[] compressed, int compressed_len,
+                                   byte[] buf, int off, int len)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressed_len);
+        try {
+            int count = 0;
+            while (count < len && !inflater.finished()) {
+                int n = inflater.inflate(buf, off + count, len - count);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                count += n;
+            }
+            if (count != len || !inflater.finished()) {
+                throw new IOException("Compressed journal entry is corrupt.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed journal entry is corrupt: " +
+                    e.getMessage());
+        }
     }
 
     /**
@@ -478,6 +1165,18 @@ class JournalledSystem {
          */
         private int reference_count;
 
+        /**
+         * The compressor for page modifications and the buffer it compresses
+         * into (created when first needed).
+         */
+        private Deflater deflater;
+        private byte[] compress_buffer;
+
+        /**
+         * The decompressor used when rebuilding pages.
+         */
+        private Inflater inflater;
+
         /**
          * Constructs the journal file.
          */
@@ -640,6 +1339,15 @@ class JournalledSystem {
                     throw new IOException("Journal file is already closed.");
                 }
 
+                if (deflater != null) {
+                    deflater.end();
+                    deflater = null;
+                }
+                if (inflater != null) {
+                    inflater.end();
+                    inflater = null;
+                }
+
                 data.close();
                 data = null;
                 is_open = false;
@@ -722,6 +1430,9 @@ class JournalledSystem {
             // A map from resource id to resource name for this journal.
             HashMap id_name_map = new HashMap();
 
+            // Decompresses compressed page modifications
+            final Inflater persist_inflater = new Inflater();
+
             boolean finished = false;
             long position = start;
 
@@ -793,6 +1504,31 @@ class JournalledSystem {
 
                     resource.persistPageChange(page, off, len, din);
 
+                } else if (type == 7) {   // Compressed page modification
+                    long id = din.readLong();
+                    long page = din.readLong();
+                    int off = din.readInt();
+                    int len = din.readInt();
+                    int compressed_len = size - (8 + 8 + 4 + 4);
+
+                    String resource_name = (String) id_name_map.get(id);
+                    AbstractResource resource = getResource(resource_name);
+
+                    if (debug.isInterestedIn(Lvl.INFORMATION)) {
+                        debug.write(Lvl.INFORMATION, this,
+                                "Journal Command: Compressed Page Modify: " +
+                                        resource_name + " page = " + page +
+                                        " off = " + off + " len = " + len);
+                    }
+
+                    byte[] compressed = new byte[compressed_len];
+                    din.readFully(compressed, 0, compressed_len);
+                    byte[] change = new byte[len];
+                    decompress(persist_inflater, compressed, compressed_len,
+                            change, 0, len);
+                    resource.persistPageChange(page, off, len,
+                            new DataInputStream(new ByteArrayInputStream(change)));
+
                 } else if (type == 100) { // Checkpoint (end)
 
                     if (debug.isInterestedIn(Lvl.INFORMATION)) {
@@ -818,10 +1554,116 @@ class JournalledSystem {
                 r.synch();
             }
 
+            persist_inflater.end();
             din.close();
 
         }
 
+        /**
+         * Scans the log from the given offset to the check point that ends at
+         * 'end' and adds a RecoveryEntry for each change to the list of the
+         * resource it changes in 'resource_entries' (resource_name ->
+         * ArrayList).  Page contents aren't read, the entries point into this
+         * journal.  Returns the number of page modifications found.
+         */
+        long scanForRecovery(final long start, final long end,
+                             HashMap resource_entries) throws IOException {
+
+            long page_count = 0;
+
+            try (DataInputStream din = new DataInputStream(
+                    new BufferedInputStream(data.getInputStream()))) {
+                long count = start;
+                // Skip to the offset
+                while (count > 0) {
+                    count -= din.skip(count);
+                }
+
+                // A map from resource id to resource name for this journal.
+                HashMap id_name_map = new HashMap();
+
+                boolean finished = false;
+                long position = start;
+
+                while (!finished) {
+                    final long entry_position = position;
+                    long type = din.readLong();
+                    int size = din.readInt();
+                    position = position + size + 12;
+
+                    int to_skip = 0;
+                    if (type == 2) {       // Resource id tag
+                        long id = din.readLong();
+                        int len = din.readInt();
+                        StringBuffer buf = new StringBuffer(len);
+                        for (int i = 0; i < len; ++i) {
+                            buf.append(din.readChar());
+                        }
+                        String resource_name = new String(buf);
+                        id_name_map.put(id, resource_name);
+                        if (!resource_entries.containsKey(resource_name)) {
+                            resource_entries.put(resource_name, new ArrayList());
+                        }
+                    } else if (type == 6) {  // Resource delete
+                        long id = din.readLong();
+                        RecoveryEntry entry = new RecoveryEntry(type, this);
+                        recoveryEntries(resource_entries, id_name_map, id).add(entry);
+                    } else if (type == 3) {  // Resource size change
+                        long id = din.readLong();
+                        RecoveryEntry entry = new RecoveryEntry(type, this);
+                        entry.new_size = din.readLong();
+                        recoveryEntries(resource_entries, id_name_map, id).add(entry);
+                    } else if (type == 1 || type == 7) {  // Page modification
+                        long id = din.readLong();
+                        RecoveryEntry entry = new RecoveryEntry(type, this);
+                        entry.page = din.readLong();
+                        entry.offset = din.readInt();
+                        entry.length = din.readInt();
+                        entry.body_length = size - (8 + 8 + 4 + 4);
+                        entry.position = entry_position + 36;
+                        recoveryEntries(resource_entries, id_name_map, id).add(entry);
+                        to_skip = entry.body_length;
+                        ++page_count;
+                    } else if (type == 100) { // Checkpoint (end)
+                        if (position == end) {
+                            finished = true;
+                        }
+                    } else {
+                        throw new IOException("Unknown tag type: " + type +
+                                " position = " + position);
+                    }
+
+                    while (to_skip > 0) {
+                        to_skip -= din.skip(to_skip);
+                    }
+                }
+            }
+
+            return page_count;
+        }
+
+        /**
+         * Returns the list of recovery entries for the resource with the given
+         * id in this journal.
+         */
+        private ArrayList recoveryEntries(HashMap resource_entries,
+                                          HashMap id_name_map, long id)
+                throws IOException {
+            String resource_name = (String) id_name_map.get(id);
+            if (resource_name == null) {
+                throw new IOException("Unknown resource id: " + id + " in " + this);
+            }
+            return (ArrayList) resource_entries.get(resource_name);
+        }
+
+        /**
+         * Reads data from the journal at the given position.
+         */
+        void readFully(long position, byte[] buf, int off, int len)
+                throws IOException {
+            data.readFully(position, buf, off, len);
+        }
+
         /**
          * Writes a resource identifier to the stream for the resource with the
          * given name.
@@ -892,16 +1734,22 @@ class JournalledSystem {
         }
 
         /**
-         * Sets a check point.  This will add an entry to the log.
+         * Sets a check point.  This will add an entry to the log.  If 'synch'
+         * is false the entry is written to the file but the file is not
+         * synchronized with the disk.
          */
-        void setCheckPoint() throws IOException {
+        void setCheckPoint(boolean synch) throws IOException {
             synchronized (this) {
 
                 data_out.writeLong(100);
                 data_out.writeInt(0);
 
-                // Flush and synch the journal file
-                flushAndSynch();
+                if (synch) {
+                    // Flush and synch the journal file
+                    flushAndSynch();
+                } else {
+                    data_out.flush();
+                }
             }
         }
 
@@ -910,7 +1758,8 @@ class JournalledSystem {
          * in the file to the modification.
          */
         JournalEntry logPageModification(String resource_name, long page_number,
-                                         byte[] buf, int off, int len) throws IOException {
+                                         int page_size, byte[] buf, int off,
+                                         int len) throws IOException {
 
             long ref;
             synchronized (this) {
@@ -920,10 +1769,16 @@ class JournalledSystem {
                 // The absolute position of the page,
                 final long absolute_position = page_number * page_size;
 
+                // Compress the change if it's worth it.  A compressed change is
+                // logged as type 7 and the body is the compressed data.
+                int compressed_len = compress_journal ? compress(buf, off, len) : -1;
+                long type = compressed_len >= 0 ? 7 : 1;
+                int body_len = compressed_len >= 0 ? compressed_len : len;
+
                 // Write the header
                 long resource_id = v;
-                data_out.writeLong(1);
-                data_out.writeInt(8 + 8 + 4 + 4 + len);
+                data_out.writeLong(type);
+                data_out.writeInt(8 + 8 + 4 + 4 + body_len);
                 data_out.writeLong(resource_id);
 //        data_out.writeLong(page_number);
 //        data_out.writeInt(off);
@@ -931,11 +1786,18 @@ class JournalledSystem {
                 data_out.writeInt(off + (int) (absolute_position & 8191));
                 data_out.writeInt(len);
 
-                data_out.write(buf, off, len);
+                if (compressed_len >= 0) {
+                    data_out.write(compress_buffer, 0, compressed_len);
+                } else {
+                    data_out.write(buf, off, len);
+                }
 
                 // Flush the changes so we can work out the pointer.
                 data_out.flush();
-                ref = data.length() - len - 36;
+                ref = data.length() - body_len - 36;
+
+                page_bytes_logged += len;
+                page_entry_bytes_written += body_len + 36;
             }
 
             // Returns a JournalEntry object
@@ -943,10 +1805,37 @@ class JournalledSystem {
         }
 
 
+        /**
+         * Compresses the given page change into 'compress_buffer' and returns the
+         * compressed size, or -1 if the change shouldn't be compressed because
+         * it's small or doesn't compress.
+         */
+        private int compress(byte[] buf, int off, int len) {
+            if (len < MIN_COMPRESS_LENGTH) {
+                return -1;
+            }
+            if (deflater == null) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+            }
+            if (compress_buffer == null || compress_buffer.length < len) {
+                compress_buffer = new byte[len];
+            }
+            deflater.reset();
+            deflater.setInput(buf, off, len);
+            deflater.finish();
+            // Only the space the uncompressed data would have taken is offered,
+            // so if the output doesn't fit then compressing isn't a win.
+            int compressed_len = deflater.deflate(compress_buffer, 0, len - 1);
+            if (!deflater.finished()) {
+                return -1;
+            }
+            return compressed_len;
+        }
+
         /**
          * Reconstructs a modification that is logged in this journal.
          */
-        void buildPage(long in_page_number,
+        void buildPage(long in_page_number, int page_size,
                        long position, byte[] buf, int off) throws IOException {
             long type;
             long resource_id;
@@ -963,20 +1852,51 @@ class JournalledSystem {
                 page_length = ByteArrayUtil.getInt(buffer, 32);
 
                 // Some asserts,
-                if (type != 1) {
+                if (type != 1 && type != 7) {
                     throw new IOException("Invalid page type. type = " + type +
                             " pos = " + position);
                 }
-                if (page_number != in_page_number) {
+                // The change is logged by position in 8192 byte units, so
+                // find where it is in a page of this resource's size.
+                long change_position = (page_number * 8192) + page_offset;
+                long page_position = in_page_number * page_size;
+                if (change_position < page_position ||
+                        change_position + page_length > page_position + page_size) {
                     throw new IOException("Page numbers do not match.");
                 }
+                page_offset = (int) (change_position - page_position);
 
                 // Read the content.
-                data.readFully(position + 36, buf, off + page_offset, page_length);
+                if (type == 1) {
+                    data.readFully(position + 36, buf, off + page_offset, page_length);
+                } else {
+                    int compressed_len = ByteArrayUtil.getInt(buffer, 8) - 24;
+                    byte[] compressed = new byte[compressed_len];
+                    data.readFully(position + 36, compressed, 0, compressed_len);
+                    if (inflater == null) {
+                        inflater = new Inflater();
+                    }
+                    decompress(inflater, compressed, compressed_len,
+                            buf, off + page_offset, page_length);
+                }
             }
 
         }
 
+        /**
+         * Synchronizes everything written to the log with the disk.  Unlike
+         * 'flushAndSynch' this doesn't hold the lock on the journal while the
+         * disk is synchronized, so entries may be logged concurrently.
+         */
+        void synch() throws IOException {
+            StreamFile file_data;
+            synchronized (this) {
+                data_out.flush();
+                file_data = data;
+            }
+            file_data.synch();
+        }
+
         /**
          * Synchronizes the log.
          */
@@ -1079,6 +1999,11 @@ class JournalledSystem {
          */
         protected final StoreDataAccessor data;
 
+        /**
+         * The size of the pages of this resource.
+         */
+        protected final int page_size;
+
         /**
          * True if this resource is read_only.
          */
@@ -1087,10 +2012,12 @@ class JournalledSystem {
         /**
          * Constructs the resource.
          */
-        AbstractResource(String name, long id, StoreDataAccessor data) {
+        AbstractResource(String name, long id, StoreDataAccessor data,
+                         int page_size) {
             this.name = name;
             this.id = id;
             this.data = data;
+            this.page_size = page_size;
         }
 
 
@@ -1143,8 +2070,9 @@ class JournalledSystem {
         /**
          * Constructs the resource.
          */
-        NonLoggingResource(String name, long id, StoreDataAccessor data) {
-            super(name, id, data);
+        NonLoggingResource(String name, long id, StoreDataAccessor data,
+                           int page_size) {
+            super(name, id, data, page_size);
         }
 
 
@@ -1292,8 +2220,8 @@ class JournalledSystem {
         /**
          * Constructs the resource.
          */
-        Resource(String name, long id, StoreDataAccessor data) {
-            super(name, id, data);
+        Resource(String name, long id, StoreDataAccessor data, int page_size) {
+            super(name, id, data, page_size);
             journal_map = new JournalEntry[257];
             data_open = false;
             data_exists = data.exists();
@@ -1494,7 +2422,7 @@ class JournalledSystem {
                     JournalFile file = entry.getJournalFile();
                     final long position = entry.getPosition();
                     synchronized (file) {
-                        file.buildPage(page_number, position, buf, off);
+                        file.buildPage(page_number, page_size, position, buf, off);
                     }
                 }
 
@@ -1529,7 +2457,7 @@ class JournalledSystem {
                 JournalEntry journal;
                 synchronized (top_journal_lock) {
                     journal = topJournal().logPageModification(name, page_number,
-                            buf, off, len);
+                            page_size, buf, off, len);
                 }
 
                 // This adds the modification to the END of the hash list.  This means
@@ -1656,6 +2584,45 @@ class JournalledSystem {
 
     }
 
+    /**
+     * A change to a resource found in a journal during recovery.
+     */
+    private static final class RecoveryEntry {
+
+        /**
+         * The type of the journal entry (1, 7 = page modification, 3 = size
+         * change, 6 = delete).
+         */
+        final long type;
+
+        /**
+         * The journal that contains the change.
+         */
+        final JournalFile journal;
+
+        /**
+         * For a page modification, the position of the page data in the
+         * journal, the page, the offset and length of the change, and the
+         * length of the data in the journal (less than 'length' if compressed).
+         */
+        long position;
+        long page;
+        int offset;
+        int length;
+        int body_length;
+
+        /**
+         * For a size change, the new size of the resource.
+         */
+        long new_size;
+
+        RecoveryEntry(long type, JournalFile journal) {
+            this.type = type;
+            this.journal = journal;
+        }
+
+    }
+
     /**
      * Summary information about a journal.
      */
@@ -1742,6 +2709,8 @@ class JournalledSystem {
                         try {
                             // Persist the journal
                             jf.persist(8, jf.size());
+                            // Copy it to the archive
+                            archiveJournal(jf);
                             // Close and then delete the journal file
                             jf.closeAndDelete();
                         } catch (IOException e) {
@@ -1819,4 +2788,67 @@ class JournalledSystem {
 
     }
 
+    /**
+     * A thread that periodically synchronizes the journal with the disk so
+     * that check points written by asynchronous commits become durable within
+     * a bounded time.
+     */
+    private class CheckPointSynchThread extends Thread {
+
+        private boolean finished = false;
+        private boolean actually_finished;
+
+        /**
+         * Constructor.
+         */
+        CheckPointSynchThread() {
+            setName("Pony - Check Point Synch");
+            setDaemon(true);
+        }
+
+        public void run() {
+            boolean local_finished = false;
+
+            while (!local_finished) {
+                synchronized (this) {
+                    if (!finished) {
+                        try {
+                            wait(check_point_synch_interval);
+                        } catch (InterruptedException e) { /* ignore */ }
+                    }
+                    local_finished = finished;
+                }
+
+                try {
+                    synchCheckPoints();
+                } catch (IOException e) {
+                    debug.write(Lvl.ERROR, this, "Error synchronizing journal");
+                    debug.writeException(Lvl.ERROR, e);
+                }
+            }
+
+            synchronized (this) {
+                actually_finished = true;
+                notifyAll();
+            }
+        }
+
+        public synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        public synchronized void waitUntilFinished() {
+            try {
+                while (!actually_finished) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted: " + e.getMessage(), e);
+            }
+        }
+
+    }
+
 }
@@ -18,13 +18,26 @@
 
 package com.pony.store;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.io.IOException;
 import java.io.File;
 
 import com.pony.debug.DebugLogger;
+import com.pony.debug.Lvl;
 
 /**
  * A paged random access buffer manager that caches access between a Store and
@@ -42,32 +55,77 @@ public class LoggingBufferManager {
     private static final boolean PARANOID_CHECKS = false;
 
     /**
-     * A timer that represents the T value in buffer pages.
+     * The page replacement policy used when none is configured.
      */
-    private long current_T;
+    public static final String DEFAULT_REPLACEMENT_POLICY = "2q";
 
     /**
-     * The number of pages in this buffer.
+     * The pool of pages of every resource that doesn't have a pool of its
+     * own.  The pages that are reserved for other pools are taken from this
+     * pool.
      */
-    private int current_page_count;
+    private BufferPool default_pool;
 
     /**
-     * The list of all pages.
+     * The pools that are reserved for classes of resources, keyed by the
+     * name of the class.
      */
-    private final ArrayList page_list;
+    private final LinkedHashMap buffer_pools = new LinkedHashMap();
 
     /**
-     * A lock used when accessing the current_T, page_list and current_page_count
-     * members.
+     * Returns the class of a resource by name, or null if resources are not
+     * classified.  Resources of a class that has a pool are buffered in that
+     * pool.
+     */
+    private Function<String, String> resource_classifier;
+
+    /**
+     * The pool of each resource that is buffered in a reserved pool (resource
+     * id -> BufferPool).
+     */
+    private final ConcurrentHashMap resource_pools = new ConcurrentHashMap();
+
+    /**
+     * The name of the page replacement policy of the pools.
+     */
+    private final String replacement_policy_name;
+
+    /**
+     * True if pages are buffered off the Java heap.
+     */
+    private final boolean off_heap;
+
+    /**
+     * The minimum number of pages left in the default pool after pages are
+     * reserved for other pools.
+     */
+    private static final int MIN_DEFAULT_POOL_PAGES = 16;
+
+    /**
+     * A lock used when accessing the replacement policy.  Page hits don't
+     * take this lock.
      */
     private final Object T_lock = new Object();
 
+    /**
+     * The number of independently locked stripes in the page map.  Must be a
+     * power of 2.
+     */
+    private static final int PAGE_MAP_STRIPES = 64;
+
+    /**
+     * The number of hash buckets in each stripe of the page map.
+     */
+    private static final int STRIPE_BUCKETS = 61;
+
     /**
      * A hash map of all pages currently in memory keyed by store_id and page
-     * number.
+     * number.  The map is split into stripes that are each guarded by their
+     * own lock so that fetches of pages that hash to different stripes never
+     * contend with each other.
      * NOTE: This MUST be final for the 'fetchPage' method to be safe.
      */
-    private final BMPage[] page_map;
+    private final PageMapStripe[] page_map;
 
     /**
      * The JournalledSystem object that handles journalling of all data.
@@ -81,7 +139,7 @@ public class LoggingBufferManager {
     private final int max_pages;
 
     /**
-     * The size of each page.
+     * The size of each page in the default pool.
      */
     private final int page_size;
 
@@ -104,6 +162,94 @@ public class LoggingBufferManager {
      */
     private final Object write_lock = new Object();
 
+    // ---------- Background check point ----------
+
+    /**
+     * True if the buffer manager is read only.
+     */
+    private final boolean read_only;
+
+    /**
+     * A debug log to output information to.
+     */
+    private final DebugLogger debug;
+
+    /**
+     * The maximum number of dirty pages per second the background check point
+     * thread writes out, or 0 if there is no background check point thread.
+     */
+    private int background_flush_rate = DEFAULT_BACKGROUND_FLUSH_RATE;
+
+    /**
+     * The thread that writes dirty pages out in the background.
+     */
+    private BackgroundCheckPointThread background_check_point;
+
+    /**
+     * The number of pages written out by the background check point thread.
+     */
+    private volatile long background_flush_count;
+
+    /**
+     * The default rate (in pages per second) at which dirty pages are written
+     * out in the background.
+     */
+    public static final int DEFAULT_BACKGROUND_FLUSH_RATE = 1024;
+
+    /**
+     * The interval (in ms) between each pass of the background check point.
+     */
+    private static final int BACKGROUND_FLUSH_INTERVAL = 100;
+
+    // ---------- Read ahead ----------
+
+    /**
+     * The maximum number of pages read ahead of a sequential reader, or 0 if
+     * read ahead is disabled.
+     */
+    private int read_ahead_max_depth;
+
+    /**
+     * The read ahead state of each resource being read sequentially
+     * (resource id -> ReadAheadState).
+     */
+    private final ConcurrentHashMap read_ahead_states = new ConcurrentHashMap();
+
+    /**
+     * The threads that read pages ahead, or null if read ahead is disabled.
+     */
+    private ThreadPoolExecutor read_ahead_executor;
+
+    /**
+     * Counters of the pages that were read ahead, the pages read ahead that
+     * were then accessed, and the pages read ahead that were evicted without
+     * being accessed.
+     */
+    private final AtomicLong prefetch_count = new AtomicLong();
+    private final AtomicLong prefetch_hit_count = new AtomicLong();
+    private final AtomicLong prefetch_waste_count = new AtomicLong();
+
+    /**
+     * The default maximum read ahead depth in pages.
+     */
+    public static final int DEFAULT_READ_AHEAD_MAX_DEPTH = 32;
+
+    /**
+     * The number of consecutive pages that must be accessed in order before a
+     * resource is considered to be read sequentially.
+     */
+    private static final int SEQUENTIAL_RUN_THRESHOLD = 3;
+
+    /**
+     * The read ahead depth when a sequential read is first detected.
+     */
+    private static final int INITIAL_READ_AHEAD_DEPTH = 4;
+
+    /**
+     * The number of threads that read pages ahead.
+     */
+    private static final int READ_AHEAD_THREADS = 2;
+
 
 //  /**
 //   * The number of cache hits.
@@ -117,21 +263,34 @@ public class LoggingBufferManager {
 
 
     /**
-     * Constructs the manager.
+     * Constructs the manager.  'replacement_policy' is the name of the page
+     * replacement policy to use ('2q', 'clock' or 'weighted').  If 'off_heap'
+     * is true then the content of buffered pages is kept in direct memory
+     * outside the Java heap.
      */
     public LoggingBufferManager(File journal_path, boolean read_only,
                                 int max_pages, int page_size,
+                                String replacement_policy, boolean off_heap,
                                 StoreDataAccessorFactory sda_factory,
                                 DebugLogger debug, boolean enable_logging) {
         this.max_pages = max_pages;
         this.page_size = page_size;
+        this.replacement_policy_name = replacement_policy;
+        this.off_heap = off_heap;
+        this.read_only = read_only;
+        this.debug = debug;
+        setReadAheadMaxDepth(DEFAULT_READ_AHEAD_MAX_DEPTH);
 
         check_point_in_progress = false;
         write_lock_count = 0;
 
-        current_T = 0;
-        page_list = new ArrayList();
-        page_map = new BMPage[257];
+        this.default_pool = new BufferPool("default", page_size, max_pages,
+                createReplacementPolicy(replacement_policy, max_pages),
+                off_heap ? new PageFrameArena(page_size) : null);
+        page_map = new PageMapStripe[PAGE_MAP_STRIPES];
+        for (int i = 0; i < PAGE_MAP_STRIPES; ++i) {
+            page_map[i] = new PageMapStripe(STRIPE_BUCKETS);
+        }
         int unique_id_seq = 0;
 
         journalled_system = new JournalledSystem(journal_path, read_only,
@@ -140,15 +299,43 @@ public class LoggingBufferManager {
 
     /**
      * Constructs the manager with a scattering store implementation that
-     * converts the resource to a file in the given path.
+     * converts the resource to a file in the given path.  If 'memory_mapped'
+     * is true then the file slices are memory mapped.
+     */
+    public LoggingBufferManager(final File resource_path,
+                                final File journal_path, final boolean read_only, final int max_pages,
+                                final int page_size, final String replacement_policy,
+                                final boolean off_heap,
+                                final String file_ext, final long max_slice_size,
+                                final boolean memory_mapped,
+                                DebugLogger debug, boolean enable_logging) {
+        this(resource_path, journal_path, read_only, max_pages, page_size,
+                replacement_policy, off_heap, file_ext,
+                resource_name -> max_slice_size, 0, memory_mapped,
+                debug, enable_logging);
+    }
+
+    /**
+     * Constructs the manager with a scattering store implementation that
+     * converts the resource to a file in the given path.  'slice_sizes' gives
+     * the maximum slice size of each resource by name.  If
+     * 'preallocation_size' is greater than 0 then the files are preallocated
+     * in extents of up to that size as they grow.
      */
     public LoggingBufferManager(final File resource_path,
                                 final File journal_path, final boolean read_only, final int max_pages,
-                                final int page_size, final String file_ext, final long max_slice_size,
+                                final int page_size, final String replacement_policy,
+                                final boolean off_heap, final String file_ext,
+                                final ToLongFunction<String> slice_sizes,
+                                final long preallocation_size,
+                                final boolean memory_mapped,
                                 DebugLogger debug, boolean enable_logging) {
-        this(journal_path, read_only, max_pages, page_size,
-                resource_name -> new ScatteringStoreDataAccessor(resource_path, resource_name,
-                        file_ext, max_slice_size), debug, enable_logging);
+        this(journal_path, read_only, max_pages, page_size, replacement_policy,
+                off_heap,
+                resource_name -> new ScatteringStoreDataAccessor(resource_path,
+                        resource_name, file_ext,
+                        slice_sizes.applyAsLong(resource_name), preallocation_size,
+                        memory_mapped), debug, enable_logging);
     }
 
     /**
@@ -156,22 +343,243 @@ public class LoggingBufferManager {
      */
     public void start() throws IOException {
         journalled_system.start();
+        if (!read_only && background_flush_rate > 0) {
+            background_check_point = new BackgroundCheckPointThread();
+            background_check_point.start();
+        }
+        if (read_ahead_max_depth > 0) {
+            // Read ahead requests are dropped if the threads fall behind
+            read_ahead_executor = new ThreadPoolExecutor(
+                    READ_AHEAD_THREADS, READ_AHEAD_THREADS, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue(64), r -> {
+                        Thread thread = new Thread(r, "Pony - Read Ahead");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.DiscardPolicy());
+        }
     }
 
     /**
      * Stops the buffer manager.
      */
     public void stop() throws IOException {
+        if (background_check_point != null) {
+            background_check_point.finish();
+            // The thread may be writing pages, so wait for it to finish before
+            // the journals and resources are closed.
+            try {
+                background_check_point.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            background_check_point = null;
+        }
+        if (read_ahead_executor != null) {
+            read_ahead_executor.shutdownNow();
+            try {
+                read_ahead_executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            read_ahead_executor = null;
+        }
         journalled_system.stop();
     }
 
+    /**
+     * Sets the maximum number of pages that are read ahead of a sequential
+     * reader.  The depth adapts between 1 and this value depending on how many
+     * of the pages read ahead are used.  0 disables read ahead.  Must be called
+     * before the buffer manager is started.
+     */
+    public void setReadAheadMaxDepth(int max_depth) {
+        // Reading ahead more than a small part of the cache would evict the
+        // pages read ahead before they are used.
+        this.read_ahead_max_depth = Math.max(0, Math.min(max_depth, max_pages / 8));
+    }
+
+    /**
+     * Returns the number of pages that were read ahead.
+     */
+    public long getPrefetchCount() {
+        return prefetch_count.get();
+    }
+
+    /**
+     * Returns the number of pages read ahead that were later accessed.
+     */
+    public long getPrefetchHitCount() {
+        return prefetch_hit_count.get();
+    }
+
+    /**
+     * Returns the number of pages read ahead that were evicted before they
+     * were accessed.
+     */
+    public long getPrefetchWasteCount() {
+        return prefetch_waste_count.get();
+    }
+
+    /**
+     * Sets the maximum rate (in pages per second) at which dirty pages are
+     * written to the journal in the background between check points.  The
+     * more pages written in the background, the less work a check point has
+     * to do while writers are blocked.  0 disables the background writes.
+     * Must be called before the buffer manager is started.
+     */
+    public void setBackgroundFlushRate(int pages_per_second) {
+        this.background_flush_rate = Math.max(0, pages_per_second);
+    }
+
+    /**
+     * Returns the number of pages written out by the background check point
+     * since the buffer manager started.
+     */
+    public long getBackgroundFlushCount() {
+        return background_flush_count;
+    }
+
     // ----------
 
     /**
      * Creates a new resource.
      */
     JournalledResource createResource(String resource_name) {
-        return journalled_system.createResource(resource_name);
+        JournalledResource resource =
+                journalled_system.createResource(resource_name);
+        BufferPool pool = poolOf(resource_name);
+        if (pool != default_pool) {
+            resource_pools.put(resource.getID(), pool);
+        }
+        return resource;
+    }
+
+    /**
+     * Returns the pool the pages of the named resource are buffered in.
+     */
+    private BufferPool poolOf(String resource_name) {
+        if (resource_classifier != null) {
+            BufferPool pool = (BufferPool) buffer_pools.get(
+                    resource_classifier.apply(resource_name));
+            if (pool != null) {
+                return pool;
+            }
+        }
+        return default_pool;
+    }
+
+    /**
+     * Sets the function that returns the class of a resource given its name.
+     * Resources of a class that has a pool (see 'addBufferPool') are buffered
+     * in that pool.  Must be set before the buffer manager is started.
+     */
+    public void setResourceClassifier(Function<String, String> classifier) {
+        this.resource_classifier = classifier;
+        journalled_system.setResourcePageSizes(
+                resource_name -> poolOf(resource_name).page_size);
+    }
+
+    /**
+     * Reserves a pool of 'max_pages' pages of 'page_size' bytes for the
+     * resources of the given class.  The pages are taken from the default
+     * pool, so pages of other resources never evict pages of this class and
+     * this class never has more than 'max_pages' pages buffered.  The pool
+     * is made smaller if the default pool would be left with fewer than
+     * MIN_DEFAULT_POOL_PAGES pages, and isn't made at all if there are no
+     * pages to spare, so the pools never have more pages than the buffer
+     * manager.  Returns the number of pages of the pool, or 0 if it wasn't
+     * made.  Must be called before the buffer manager is started.
+     */
+    public int addBufferPool(String class_name, int page_size, int max_pages) {
+        if (page_size <= 0 || (page_size & 7) != 0) {
+            throw new IllegalArgumentException(
+                    "Page size must be a positive multiple of 8: " + page_size);
+        }
+        if (buffer_pools.containsKey(class_name)) {
+            throw new IllegalArgumentException(
+                    "Buffer pool already defined: " + class_name);
+        }
+        max_pages = Math.max(max_pages, 1);
+        int spare_pages = default_pool.max_pages - MIN_DEFAULT_POOL_PAGES;
+        if (spare_pages < 1) {
+            debug.write(Lvl.WARNING, this, "Buffer pool '" + class_name +
+                    "' not made, the default pool has no pages to spare.");
+            return 0;
+        }
+        if (max_pages > spare_pages) {
+            debug.write(Lvl.WARNING, this, "Buffer pool '" + class_name +
+                    "' reduced from " + max_pages + " to " + spare_pages +
+                    " pages to fit in the maximum pages.");
+            max_pages = spare_pages;
+        }
+        buffer_pools.put(class_name, new BufferPool(class_name, page_size,
+                max_pages,
+                createReplacementPolicy(replacement_policy_name, max_pages),
+                off_heap ? new PageFrameArena(page_size) : null));
+
+        // Take the pages from the default pool
+        int default_pages = default_pool.max_pages - max_pages;
+        default_pool = new BufferPool(default_pool.name, default_pool.page_size,
+                default_pages,
+                createReplacementPolicy(replacement_policy_name, default_pages),
+                default_pool.frame_arena);
+        return max_pages;
+    }
+
+    /**
+     * Returns the names of the buffer pools, starting with 'default'.
+     */
+    public String[] getBufferPoolNames() {
+        String[] names = new String[buffer_pools.size() + 1];
+        names[0] = default_pool.name;
+        int i = 1;
+        for (Object name : buffer_pools.keySet()) {
+            names[i++] = (String) name;
+        }
+        return names;
+    }
+
+    /**
+     * Returns the named buffer pool.
+     */
+    private BufferPool getBufferPool(String name) {
+        BufferPool pool = (BufferPool) buffer_pools.get(name);
+        if (pool == null) {
+            if (!name.equals(default_pool.name)) {
+                throw new IllegalArgumentException("No buffer pool: " + name);
+            }
+            pool = default_pool;
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the maximum number of pages in the named buffer pool.
+     */
+    public int getBufferPoolMaxPages(String name) {
+        return getBufferPool(name).max_pages;
+    }
+
+    /**
+     * Returns the size of the pages in the named buffer pool.
+     */
+    public int getBufferPoolPageSize(String name) {
+        return getBufferPool(name).page_size;
+    }
+
+    /**
+     * Returns the number of pages that were not in the named buffer pool when
+     * they were fetched.
+     */
+    public long getBufferPoolMissCount(String name) {
+        return getBufferPool(name).miss_count.get();
+    }
+
+    /**
+     * Returns the number of pages evicted from the named buffer pool.
+     */
+    public long getBufferPoolEvictionCount(String name) {
+        return getBufferPool(name).eviction_count.get();
     }
 
     /**
@@ -215,6 +623,31 @@ public class LoggingBufferManager {
      */
     public void setCheckPoint(boolean flush_journals)
             throws IOException, InterruptedException {
+        waitForCheckPoint(writeCheckPoint(flush_journals));
+    }
+
+    /**
+     * Sets a check point in the log the same as 'setCheckPoint' except the
+     * journal may not be synchronized with the disk when this returns.  The
+     * returned id must be passed to 'waitForCheckPoint' for the check point to
+     * be durable.  Waiting separately lets the caller release its locks so
+     * that the journal sync can be shared with other committing threads.
+     */
+    public long writeCheckPoint(boolean flush_journals)
+            throws IOException, InterruptedException {
+        return writeCheckPoint(flush_journals, false);
+    }
+
+    /**
+     * Sets a check point in the log the same as 'writeCheckPoint' except, if
+     * 'async' is true, the journal is never synchronized with the disk by this
+     * call.  The check point of an asynchronous commit is made durable by the
+     * background synchronization of the journal.
+     */
+    public long writeCheckPoint(boolean flush_journals, boolean async)
+            throws IOException, InterruptedException {
+
+        long check_point;
 
         // Wait until the writes have finished, and then set the
         // 'check_point_in_progress' boolean.
@@ -227,39 +660,15 @@ public class LoggingBufferManager {
 
         try {
 //      System.out.println("SET CHECKPOINT");
-            synchronized (page_map) {
-                // Flush all the pages out to the log.
-                for (int i = 0; i < page_map.length; ++i) {
-                    BMPage page = page_map[i];
-                    BMPage prev = null;
-
-                    while (page != null) {
-                        boolean deleted_hash = false;
-                        synchronized (page) {
-                            // Flush the page (will only actually flush if there are changes)
-                            page.flush();
-
-                            // Remove this page if it is no longer in use
-                            if (page.notInUse()) {
-                                deleted_hash = true;
-                                if (prev == null) {
-                                    page_map[i] = page.hash_next;
-                                } else {
-                                    prev.hash_next = page.hash_next;
-                                }
-                            }
-
-                        }
-                        // Go to next page in hash chain
-                        if (!deleted_hash) {
-                            prev = page;
-                        }
-                        page = page.hash_next;
-                    }
+            // Flush all the pages out to the log.  Each stripe is locked in turn
+            // so readers on other stripes may continue while we flush.
+            for (PageMapStripe stripe : page_map) {
+                synchronized (stripe) {
+                    stripe.flushPages(-1);
                 }
             }
 
-            journalled_system.setCheckPoint(flush_journals);
+            check_point = journalled_system.writeCheckPoint(flush_journals, async);
 
         } finally {
             // Make sure we unset the 'check_point_in_progress' boolean and notify
@@ -270,123 +679,289 @@ public class LoggingBufferManager {
             }
         }
 
-    }
+        // Writers may continue while we wait for the journals to be persisted.
+        journalled_system.throttleArchives();
 
+        return check_point;
+    }
 
     /**
-     * Called when a new page is created.
+     * Writes out up to 'max_pages' dirty pages to the journal, starting at the
+     * given stripe of the page map.  Unlike a check point this doesn't block
+     * writers; each page is locked only while it's written.  Returns the number
+     * of pages written.
      */
-    private void pageCreated(final BMPage page) throws IOException {
-        synchronized (T_lock) {
-
-            if (PARANOID_CHECKS) {
-                int i = page_list.indexOf(page);
-                if (i != -1) {
-                    BMPage f = (BMPage) page_list.get(i);
-                    if (f == page) {
-                        throw new IllegalStateException("Same page added multiple times.");
-                    }
-                    if (f != null) {
-                        throw new IllegalStateException("Duplicate pages.");
+    private int flushDirtyPages(int start_stripe, int max_pages)
+            throws IOException {
+        int count = 0;
+        ArrayList dirty = new ArrayList();
+        for (int i = 0; i < PAGE_MAP_STRIPES && count < max_pages; ++i) {
+            PageMapStripe stripe =
+                    page_map[(start_stripe + i) & (PAGE_MAP_STRIPES - 1)];
+            dirty.clear();
+            synchronized (stripe) {
+                stripe.dirtyPages(dirty, max_pages - count);
+            }
+            // The pages are written outside the stripe lock.  A page that was
+            // disposed in the meantime is no longer dirty so it's skipped.
+            for (Object o : dirty) {
+                BMPage page = (BMPage) o;
+                synchronized (page) {
+                    if (page.isDirty()) {
+                        page.flush();
+                        ++count;
                     }
                 }
             }
+        }
+        return count;
+    }
 
-            page.t = current_T;
-            ++current_T;
+    /**
+     * Blocks until the check point with the given id (returned by
+     * 'writeCheckPoint') is synchronized with the disk.
+     */
+    public void waitForCheckPoint(long check_point) throws IOException {
+        journalled_system.waitForCheckPoint(check_point);
+    }
 
-            ++current_page_count;
-            page_list.add(page);
+    /**
+     * Sets the group commit properties of the journal.  When 'group_commit' is
+     * true, threads waiting for a check point share the journal sync and
+     * 'max_wait' is the longest time in ms a sync is delayed so more commits
+     * can join the group.
+     */
+    public void setGroupCommit(boolean group_commit, long max_wait) {
+        journalled_system.setGroupCommit(group_commit, max_wait);
+    }
 
-            // Below is the page purge algorithm.  If the maximum number of pages
-            // has been created we sort the page list weighting each page by time
-            // since last accessed and total number of accesses and clear the bottom
-            // 20% of this list.
+    /**
+     * Sets the interval (in ms) at which check points that were not waited
+     * on (asynchronous commits) are synchronized with the disk in the
+     * background.  Must be called before the buffer manager is started.
+     */
+    public void setCheckPointSynchInterval(long interval) {
+        journalled_system.setCheckPointSynchInterval(interval);
+    }
 
-            // Check if we should purge old pages and purge some if we do...
-            if (current_page_count > max_pages) {
-                // Purge 20% of the cache
-                // Sort the pages by the current formula,
-                //  ( 1 / page_access_count ) * (current_t - page_t)
-                // Further, if the page has written data then we multiply by 0.75.
-                // This scales down page writes so they have a better chance of
-                // surviving in the cache than page writes.
-                Object[] pages = page_list.toArray();
-                Arrays.sort(pages, PAGE_CACHE_COMPARATOR);
+    /**
+     * Sets the maximum number of threads used to recover the resources from
+     * the journals when the buffer manager starts.  If 0 or less, the number
+     * of processors is used.
+     */
+    public void setRecoveryThreads(int threads) {
+        journalled_system.setRecoveryThreads(threads);
+    }
 
-                int purge_size = Math.max((int) (pages.length * 0.20f), 2);
-                for (int i = 0; i < purge_size; ++i) {
-                    BMPage dpage = (BMPage) pages[pages.length - (i + 1)];
-                    synchronized (dpage) {
-                        dpage.dispose();
-                    }
-                }
+    /**
+     * Sets whether page modifications are compressed in the journal.
+     */
+    public void setCompressJournal(boolean compress_journal) {
+        journalled_system.setCompressJournal(compress_journal);
+    }
 
-                // Remove all the elements from page_list and set it with the sorted
-                // list (minus the elements we removed).
-                page_list.clear();
-                page_list.addAll(Arrays.asList(pages).subList(0, pages.length - purge_size));
+    /**
+     * Sets the directory the journals are archived to after they are
+     * persisted.  Must be called before the buffer manager is started.
+     */
+    public void setJournalArchivePath(File archive_path) throws IOException {
+        journalled_system.setJournalArchivePath(archive_path);
+    }
 
-                current_page_count -= purge_size;
+    /**
+     * Returns the sequence number of the last journal that was archived, or 0
+     * if no journal has been archived.
+     */
+    public long getLastArchiveSequence() {
+        return journalled_system.getLastArchiveSequence();
+    }
 
-            }
+    /**
+     * Blocks until every journal cycled by a check point (written by
+     * 'writeCheckPoint' with 'flush_journals' true) has been persisted and
+     * archived.  Returns the sequence number of the last archived journal.
+     */
+    public long persistJournalArchives() {
+        if (!journalled_system.isArchivingJournals()) {
+            throw new IllegalStateException("Journals are not being archived.");
         }
+        journalled_system.persistArchives();
+        return getLastArchiveSequence();
     }
 
     /**
-     * Called when a page is accessed.
+     * Replays the given archived journals (oldest first) over the resources.
+     * This is used to restore a base copy of the resources and must be called
+     * on a buffer manager that hasn't been started.
      */
-    private void pageAccessed(BMPage page) {
-        synchronized (T_lock) {
-            page.t = current_T;
-            ++current_T;
-            ++page.access_count;
-        }
+    public void replayJournals(File[] journals) throws IOException {
+        journalled_system.replayJournals(journals);
     }
 
     /**
-     * Calculates a hash code given an id value and a page_number value.
+     * Returns the file of the archived journal with the given sequence
+     * number in the archive directory.
      */
-    private static int calcHashCode(long id, long page_number) {
-        return (int) ((id << 6) + (page_number * ((id + 25) << 2)));
+    public static File getArchivedJournalFile(File archive_path, long sequence) {
+        return JournalledSystem.getArchiveFile(archive_path, sequence);
     }
 
     /**
-     * Fetches and returns a page from a store.  Pages may be cached.  If the
-     * page is not available in the cache then a new BMPage object is created
-     * for the page requested.
+     * Returns the sequence number of the archived journal with the given file
+     * name, or -1 if the name isn't an archived journal.
      */
-    private BMPage fetchPage(JournalledResource data,
-                             final long page_number) throws IOException {
-        final long id = data.getID();
+    public static long parseArchivedJournalName(String file_name) {
+        return JournalledSystem.parseArchiveFileName(file_name);
+    }
 
-        BMPage prev_page = null;
-        boolean new_page = false;
-        BMPage page;
+    /**
+     * Returns the size of the pages in the default pool of this buffer
+     * manager.
+     */
+    public int getPageSize() {
+        return page_size;
+    }
 
-        synchronized (page_map) {
-            // Generate the hash code for this page.
-            final int p = (calcHashCode(id, page_number) & 0x07FFFFFFF) %
-                    page_map.length;
-            // Search for this page in the hash
-            page = page_map[p];
-            while (page != null && !page.isPage(id, page_number)) {
-                prev_page = page;
+    /**
+     * Returns the number of bytes of page data logged to the journal since
+     * the buffer manager started.
+     */
+    public long getJournalPageBytesLogged() {
+        return journalled_system.getPageBytesLogged();
+    }
+
+    /**
+     * Returns the number of bytes written to the journal to log page data
+     * since the buffer manager started (after compression).
+     */
+    public long getJournalPageBytesWritten() {
+        return journalled_system.getPageEntryBytesWritten();
+    }
+
+    /**
+     * Returns the number of times the journal was synchronized with the disk
+     * to make check points durable since the buffer manager started.
+     */
+    public long getJournalCheckPointSynchCount() {
+        return journalled_system.getCheckPointSynchCount();
+    }
+
+
+    /**
+     * Creates the page replacement policy with the given name.
+     */
+    private static PageReplacementPolicy createReplacementPolicy(
+            String name, int max_pages) {
+        if (name == null || name.equalsIgnoreCase(DEFAULT_REPLACEMENT_POLICY)) {
+            return new TwoQueuePolicy(max_pages);
+        } else if (name.equalsIgnoreCase("clock")) {
+            return new ClockPolicy(max_pages);
+        } else if (name.equalsIgnoreCase("weighted")) {
+            return new WeightedPolicy(max_pages);
+        }
+        throw new IllegalArgumentException(
+                "Unknown page replacement policy: " + name);
+    }
+
+    /**
+     * Called when a new page is created.
+     */
+    private void pageCreated(final BMPage page) throws IOException {
+        final ArrayList victims = new ArrayList(2);
+        final BufferPool pool = page.pool;
+        pool.miss_count.incrementAndGet();
+        synchronized (T_lock) {
+            // Add the page to the replacement policy of its pool, and dispose
+            // of any pages the policy decided to purge to make room for it.
+            pool.replacement_policy.pageCreated(page, victims);
+            pool.eviction_count.addAndGet(victims.size());
+            for (Object victim : victims) {
+                BMPage dpage = (BMPage) victim;
+                boolean wasted;
+                synchronized (dpage) {
+                    wasted = dpage.prefetched;
+                    dpage.prefetched = false;
+                    dpage.dispose();
+                }
+                if (wasted) {
+                    readAheadWasted(dpage.getID());
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when a page is accessed.  This does not take any lock.
+     */
+    private void pageAccessed(BMPage page) {
+        page.pool.replacement_policy.pageAccessed(page);
+    }
+
+    /**
+     * Calculates a hash code given an id value and a page_number value.  The
+     * bits are spread so that both the stripe (low bits) and the bucket
+     * within the stripe (high bits) are well distributed.
+     */
+    private static int calcHashCode(long id, long page_number) {
+        long h = (id * 0x9E3779B97F4A7C15L) + page_number;
+        h ^= (h >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= (h >>> 33);
+        return (int) h;
+    }
+
+    /**
+     * Fetches and returns a page from a store.  Pages may be cached.  If the
+     * page is not available in the cache then a new BMPage object is created
+     * for the page requested.
+     */
+    private BMPage fetchPage(JournalledResource data,
+                             final long page_number) throws IOException {
+        return fetchPage(data, page_number, false);
+    }
+
+    /**
+     * Fetches the page as above.  If 'prefetch' is true the page is being read
+     * ahead, and if it isn't already in the cache it's marked as prefetched.
+     */
+    private BMPage fetchPage(JournalledResource data,
+                             final long page_number,
+                             final boolean prefetch) throws IOException {
+        final long id = data.getID();
+
+        BMPage prev_page = null;
+        boolean new_page = false;
+        boolean prefetch_hit = false;
+        BMPage page;
+
+        // Generate the hash code for this page.
+        final int hash_code = calcHashCode(id, page_number);
+        final PageMapStripe stripe = page_map[hash_code & (PAGE_MAP_STRIPES - 1)];
+
+        synchronized (stripe) {
+            final BMPage[] buckets = stripe.buckets;
+            final int p = ((hash_code >>> 6) & 0x03FFFFFF) % buckets.length;
+            // Search for this page in the hash
+            page = buckets[p];
+            while (page != null && !page.isPage(id, page_number)) {
+                prev_page = page;
                 page = page.hash_next;
             }
 
             // Page isn't found so create it and add to the cache
             if (page == null) {
-                page = new BMPage(data, page_number, page_size);
+                BufferPool pool = resource_pools.isEmpty() ? default_pool
+                        : (BufferPool) resource_pools.getOrDefault(id, default_pool);
+                page = new BMPage(data, page_number, pool);
                 // Add this page to the map
-                page.hash_next = page_map[p];
-                page_map[p] = page;
+                page.hash_next = buckets[p];
+                buckets[p] = page;
             } else {
                 // Move this page to the head if it's not already at the head.
                 if (prev_page != null) {
                     prev_page.hash_next = page.hash_next;
-                    page.hash_next = page_map[p];
-                    page_map[p] = page;
+                    page.hash_next = buckets[p];
+                    buckets[p] = page;
                 }
             }
 
@@ -397,6 +972,11 @@ public class LoggingBufferManager {
                     page.reset();
                     new_page = true;
                     page.referenceAdd();
+                    page.prefetched = prefetch;
+                } else if (page.prefetched && !prefetch) {
+                    // First access of a page that was read ahead
+                    page.prefetched = false;
+                    prefetch_hit = true;
                 }
                 // Add a reference for this fetch
                 page.referenceAdd();
@@ -411,12 +991,151 @@ public class LoggingBufferManager {
             pageAccessed(page);
         }
 
+        // A miss or the first access of a page read ahead may be part of a
+        // sequential read.
+        if (read_ahead_executor != null && !prefetch && (new_page || prefetch_hit)) {
+            readAheadAccess(data, page_number, prefetch_hit);
+        }
+
         // Return the page.
         return page;
 
     }
 
 
+    /**
+     * Records a page miss or a hit on a page read ahead for the resource, and
+     * if the resource is being read sequentially, schedules the next pages to
+     * be read ahead.
+     */
+    private void readAheadAccess(final JournalledResource data,
+                                 long page_number, boolean prefetch_hit)
+            throws IOException {
+        final long id = data.getID();
+        ReadAheadState state = (ReadAheadState) read_ahead_states.get(id);
+        if (state == null) {
+            state = new ReadAheadState(
+                    Math.min(INITIAL_READ_AHEAD_DEPTH, read_ahead_max_depth));
+            ReadAheadState existing =
+                    (ReadAheadState) read_ahead_states.putIfAbsent(id, state);
+            if (existing != null) {
+                state = existing;
+            }
+        }
+        if (prefetch_hit) {
+            prefetch_hit_count.incrementAndGet();
+        }
+
+        final long first_page;
+        final long last_page;
+        synchronized (state) {
+            if (prefetch_hit) {
+                ++state.hits;
+            }
+            // A hit on a page read ahead continues the current run
+            if (prefetch_hit || page_number == state.last_page + 1) {
+                ++state.run;
+            } else if (page_number != state.last_page) {
+                // Not sequential, so start again
+                state.run = 0;
+                state.next_page = 0;
+            }
+            state.last_page = page_number;
+
+            if (state.run < SEQUENTIAL_RUN_THRESHOLD) {
+                return;
+            }
+            // Adapt the depth after each window of 'depth' outcomes.  If a
+            // significant part of the pages read ahead were wasted the depth is
+            // halved, otherwise it's doubled.
+            if (state.hits + state.wasted >= state.depth) {
+                if (state.wasted * 4 > state.hits) {
+                    state.depth = Math.max(1, state.depth / 2);
+                } else {
+                    state.depth = Math.min(read_ahead_max_depth,
+                                           Math.max(state.depth * 2, 2));
+                }
+                state.hits = 0;
+                state.wasted = 0;
+            }
+            // Wait until the reader is at least half way through the pages
+            // already read ahead.
+            if (state.next_page > page_number + (state.depth + 1) / 2) {
+                return;
+            }
+            first_page = Math.max(state.next_page, page_number + 1);
+            final int page_size = data.getPageSize();
+            long end_page = (data.getSize() + page_size - 1) / page_size;
+            last_page = Math.min(page_number + state.depth, end_page - 1);
+            if (last_page < first_page) {
+                return;
+            }
+            state.next_page = last_page + 1;
+        }
+
+        final ReadAheadState read_state = state;
+        read_ahead_executor.execute(
+                () -> readAhead(data, read_state, first_page, last_page));
+    }
+
+    /**
+     * Records that a page read ahead of the given resource was evicted before
+     * it was accessed.
+     */
+    private void readAheadWasted(long id) {
+        prefetch_waste_count.incrementAndGet();
+        ReadAheadState state = (ReadAheadState) read_ahead_states.get(id);
+        if (state != null) {
+            synchronized (state) {
+                ++state.wasted;
+            }
+        }
+    }
+
+    /**
+     * Reads the given range of pages of the resource into the cache.  This is
+     * run by the read ahead threads.
+     */
+    private void readAhead(JournalledResource data, ReadAheadState state,
+                           long first_page, long last_page) {
+        try {
+            for (long p = first_page; p <= last_page; ++p) {
+                // Stop if the resource was closed
+                synchronized (state) {
+                    if (state.closed || Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    ++state.in_flight;
+                }
+                try {
+                    BMPage page = fetchPage(data, p, true);
+                    synchronized (page) {
+                        try {
+                            boolean loaded = !page.initialized && page.prefetched;
+                            page.initialize();
+                            if (loaded) {
+                                prefetch_count.incrementAndGet();
+                            }
+                        } finally {
+                            page.dispose();
+                        }
+                    }
+                } finally {
+                    synchronized (state) {
+                        --state.in_flight;
+                        state.notifyAll();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Read ahead is only a hint so the error is ignored here.  If the
+            // page really can't be read the reader will see the error.
+            if (debug.isInterestedIn(Lvl.INFORMATION)) {
+                debug.write(Lvl.INFORMATION, this, "Read ahead failed: " + e.getMessage());
+            }
+        }
+    }
+
     // ------
     // Buffered access methods.  These are all thread safe methods.  When a page
     // is accessed the page is synchronized so no 2 or more operations can
@@ -426,6 +1145,7 @@ public class LoggingBufferManager {
     // ------
 
     int readByteFrom(JournalledResource data, long position) throws IOException {
+        final int page_size = data.getPageSize();
         final long page_number = position / page_size;
         int v;
 
@@ -446,6 +1166,7 @@ public class LoggingBufferManager {
                           long position, byte[] buf, int off, int len) throws IOException {
 
         final int orig_len = len;
+        final int page_size = data.getPageSize();
         long page_number = position / page_size;
         int start_offset = (int) (position % page_size);
         int to_read = Math.min(len, page_size - start_offset);
@@ -482,8 +1203,74 @@ public class LoggingBufferManager {
         return orig_len;
     }
 
+    /**
+     * Reads the long at 'long_position' and 'len' bytes at 'position' of the
+     * resource and returns the long.  When both are in the same page, as
+     * with the size header and a small part of a store area, they are read
+     * with one page access.
+     */
+    long readLongAndBytesFrom(JournalledResource data, long long_position,
+                              long position, byte[] buf, int off, int len)
+            throws IOException {
+        final int page_size = data.getPageSize();
+        final long page_number = long_position / page_size;
+        final int long_offset = (int) (long_position % page_size);
+        final int start_offset = (int) (position % page_size);
+        if (long_offset + 8 <= page_size &&
+                position / page_size == page_number &&
+                start_offset + len <= page_size) {
+            BMPage page = fetchPage(data, page_number);
+            synchronized (page) {
+                try {
+                    page.initialize();
+                    page.read(start_offset, buf, off, len);
+                    return page.readLong(long_offset);
+                } finally {
+                    page.dispose();
+                }
+            }
+        }
+        long v = 0;
+        for (int i = 0; i < 8; ++i) {
+            v = (v << 8) | readByteFrom(data, long_position + i);
+        }
+        readByteArrayFrom(data, position, buf, off, len);
+        return v;
+    }
+
+    /**
+     * Returns a read only ByteBuffer of a part of the resource.  If the part is
+     * within one page and the page is on the Java heap, the buffer is a view of
+     * the page and nothing is copied.  The view isn't affected if the page is
+     * evicted because the frame of an on-heap page is never reused.  Otherwise
+     * the bytes are copied into a new buffer.
+     */
+    ByteBuffer readByteBufferFrom(JournalledResource data,
+                                  long position, int len) throws IOException {
+        final int page_size = data.getPageSize();
+        int start_offset = (int) (position % page_size);
+        if (start_offset + len <= page_size) {
+            BMPage page = fetchPage(data, position / page_size);
+            synchronized (page) {
+                try {
+                    page.initialize();
+                    ByteBuffer view = page.view(start_offset, len);
+                    if (view != null) {
+                        return view;
+                    }
+                } finally {
+                    page.dispose();
+                }
+            }
+        }
+        byte[] buf = new byte[len];
+        readByteArrayFrom(data, position, buf, 0, len);
+        return ByteBuffer.wrap(buf).asReadOnlyBuffer();
+    }
+
     void writeByteTo(JournalledResource data,
                      long position, int b) throws IOException {
+        final int page_size = data.getPageSize();
 
         if (PARANOID_CHECKS) {
             synchronized (write_lock) {
@@ -510,6 +1297,7 @@ public class LoggingBufferManager {
     void writeByteArrayTo(JournalledResource data,
                           long position, byte[] buf, int off, int len) throws IOException {
 
+        final int page_size = data.getPageSize();
         if (PARANOID_CHECKS) {
             synchronized (write_lock) {
                 if (write_lock_count == 0) {
@@ -565,45 +1353,33 @@ public class LoggingBufferManager {
 
     void close(JournalledResource data) throws IOException {
         long id = data.getID();
-        // Flush all changes made to the resource then close.
-        synchronized (page_map) {
-//      System.out.println("Looking for id: " + id);
-            // Flush all the pages out to the log.
-            // This scans the entire hash for values and could be an expensive
-            // operation.  Fortunately 'close' isn't used all that often.
-            for (int i = 0; i < page_map.length; ++i) {
-                BMPage page = page_map[i];
-                BMPage prev = null;
-
-                while (page != null) {
-                    boolean deleted_hash = false;
-                    if (page.getID() == id) {
-//            System.out.println("Found page id: " + page.getID());
-                        synchronized (page) {
-                            // Flush the page (will only actually flush if there are changes)
-                            page.flush();
-
-                            // Remove this page if it is no longer in use
-                            if (page.notInUse()) {
-                                deleted_hash = true;
-                                if (prev == null) {
-                                    page_map[i] = page.hash_next;
-                                } else {
-                                    prev.hash_next = page.hash_next;
-                                }
-                            }
-                        }
-
-                    }
-
-                    // Go to next page in hash chain
-                    if (!deleted_hash) {
-                        prev = page;
+        // Stop reading ahead and wait for any pages being read ahead, so no
+        // pages of the resource are loaded after it's flushed.
+        ReadAheadState state = (ReadAheadState) read_ahead_states.remove(id);
+        if (state != null) {
+            boolean interrupted = false;
+            synchronized (state) {
+                state.closed = true;
+                while (state.in_flight > 0) {
+                    try {
+                        state.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
                     }
-                    page = page.hash_next;
-
                 }
             }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Flush all changes made to the resource then close.
+        // Flush all the pages out to the log.
+        // This scans the entire hash for values and could be an expensive
+        // operation.  Fortunately 'close' isn't used all that often.
+        for (PageMapStripe stripe : page_map) {
+            synchronized (stripe) {
+                stripe.flushPages(id);
+            }
         }
 
         data.close();
@@ -628,6 +1404,11 @@ public class LoggingBufferManager {
          */
         private final long page;
 
+        /**
+         * The pool the page is buffered in.
+         */
+        final BufferPool pool;
+
         /**
          * The size of the page.
          */
@@ -635,9 +1416,16 @@ public class LoggingBufferManager {
 
 
         /**
-         * The buffer that contains the data for this page.
+         * The arena the page frame is allocated from, or null if the frame is
+         * an on-heap byte array.
+         */
+        private final PageFrameArena arena;
+
+        /**
+         * The frame that contains the data for this page.  This is either a
+         * wrapped byte array or a slice of direct memory from the arena.
          */
-        private byte[] buffer;
+        private ByteBuffer frame;
 
         /**
          * True if this page is initialized.
@@ -653,15 +1441,39 @@ public class LoggingBufferManager {
 
         /**
          * The time this page was last accessed.  This value is reset each time
-         * the page is requested.
+         * the page is requested.  Used by the 'weighted' policy.
          */
         long t;
 
         /**
          * The number of times this page has been accessed since it was created.
+         * Used by the 'weighted' policy.
          */
         int access_count;
 
+        /**
+         * The weight of this page calculated by the page purge algorithm
+         * immediately before the page list is sorted.
+         */
+        float purge_weight;
+
+        /**
+         * The reference bit of the clock.  Set without a lock each time the
+         * page is accessed and cleared by the clock hand.
+         */
+        boolean referenced;
+
+        /**
+         * The slot of this page in the clock ring, or -1 if the page is not
+         * in a clock ring.
+         */
+        int clock_slot;
+
+        /**
+         * True if this page was read ahead and hasn't been accessed since.
+         */
+        boolean prefetched;
+
 
         /**
          * The first position in the buffer that was last written.
@@ -682,11 +1494,13 @@ public class LoggingBufferManager {
         /**
          * Constructs the page.
          */
-        BMPage(JournalledResource data, long page, int page_size) {
+        BMPage(JournalledResource data, long page, BufferPool pool) {
             this.data = data;
             this.page = page;
             this.reference_count = 0;
-            this.page_size = page_size;
+            this.pool = pool;
+            this.page_size = pool.page_size;
+            this.arena = pool.frame_arena;
             reset();
         }
 
@@ -702,6 +1516,25 @@ public class LoggingBufferManager {
             this.initialized = false;
             this.t = 0;
             this.access_count = 0;
+            this.referenced = false;
+            this.clock_slot = -1;
+            this.prefetched = false;
+        }
+
+        /**
+         * Returns the key of this page in the replacement policy history.
+         */
+        long pageKey() {
+            return (getID() * 0x9E3779B97F4A7C15L) ^ page;
+        }
+
+        /**
+         * Returns true if this page has changes that are not yet flushed.
+         * This is read without the page lock by the replacement policy, so it
+         * is only a hint.
+         */
+        boolean isDirty() {
+            return initialized && last_write_position > -1;
         }
 
         /**
@@ -746,16 +1579,20 @@ public class LoggingBufferManager {
         }
 
         /**
-         * Reads the current page content into memory.  This may read from the
-         * data files or from a log.
+         * Reads the current page content into the frame.  This may read from
+         * the data files or from a log.
          */
-        private void readPageContent(
-                long page_number, byte[] buf, int pos) throws IOException {
-            if (pos != 0) {
-                throw new IllegalArgumentException("Assert failed: pos != 0");
+        private void readPageContent(long page_number) throws IOException {
+            if (frame.hasArray()) {
+                // Read from the resource
+                data.read(page_number, frame.array(), 0);
+            } else {
+                // Read from the resource into a scratch buffer and copy into the
+                // direct memory frame.
+                byte[] scratch = arena.scratchBuffer();
+                data.read(page_number, scratch, 0);
+                frame.put(0, scratch, 0, page_size);
             }
-            // Read from the resource
-            data.read(page_number, buf, pos);
         }
 
         /**
@@ -765,9 +1602,16 @@ public class LoggingBufferManager {
         void flush() throws IOException {
             if (initialized) {
                 if (last_write_position > -1) {
+                    final int len = last_write_position - first_write_position;
                     // Write to the store data.
-                    data.write(page, buffer, first_write_position,
-                            last_write_position - first_write_position);
+                    if (frame.hasArray()) {
+                        data.write(page, frame.array(), first_write_position, len);
+                    } else {
+                        byte[] scratch = arena.scratchBuffer();
+                        frame.get(first_write_position, scratch,
+                                first_write_position, len);
+                        data.write(page, scratch, first_write_position, len);
+                    }
 //          System.out.println("FLUSH " + data + " off = " + first_write_position +
 //                             " len = " + (last_write_position - first_write_position));
                 }
@@ -786,11 +1630,14 @@ public class LoggingBufferManager {
 
                 try {
 
-                    // Create the buffer to contain the page in memory
-                    buffer = new byte[page_size];
+                    // Create the frame to contain the page in memory
+                    if (frame == null) {
+                        frame = (arena == null) ? ByteBuffer.wrap(new byte[page_size])
+                                                : arena.allocate();
+                    }
                     // Read the page.  This will either read the page from the backing
                     // store or from a log.
-                    readPageContent(page, buffer, 0);
+                    readPageContent(page);
                     initialized = true;
 
 //          access_count = 0;
@@ -825,8 +1672,8 @@ public class LoggingBufferManager {
 
                     // Page is no longer initialized.
                     initialized = false;
-                    // Clear the buffer from memory.
-                    buffer = null;
+                    // Clear the frame from memory.
+                    releaseFrame();
 
                 } else {
                     // This happens if initialization failed.  If this case we don't
@@ -834,7 +1681,7 @@ public class LoggingBufferManager {
                     // in the normal way.
                     // Note that any exception generated by the initialization failure
                     // will propogate correctly.
-                    buffer = null;
+                    releaseFrame();
 //          throw new RuntimeException(
 //                "Assertion failed: tried to dispose an uninitialized page.");
                 }
@@ -842,18 +1689,47 @@ public class LoggingBufferManager {
         }
 
 
+        /**
+         * Releases the frame of this page (back to the arena if it is off-heap).
+         */
+        private void releaseFrame() {
+            if (frame != null && arena != null) {
+                arena.free(frame);
+            }
+            frame = null;
+        }
+
         /**
          * Reads a single byte from the cached page from memory.
          */
         byte read(int pos) {
-            return buffer[pos];
+            return frame.get(pos);
+        }
+
+        /**
+         * Reads a long from the cached page from memory.
+         */
+        long readLong(int pos) {
+            return frame.getLong(pos);
         }
 
         /**
          * Reads a part of this page into the cached page from memory.
          */
         void read(int pos, byte[] buf, int off, int len) {
-            System.arraycopy(buffer, pos, buf, off, len);
+            frame.get(pos, buf, off, len);
+        }
+
+        /**
+         * Returns a read only view of a part of this page, or null if the page
+         * is in direct memory.  Direct memory frames are recycled so a view of
+         * one could change under the reader.
+         */
+        ByteBuffer view(int pos, int len) {
+            if (arena != null) {
+                return null;
+            }
+            return frame.slice(pos, len).asReadOnlyBuffer();
         }
 
         /**
@@ -863,7 +1739,7 @@ public class LoggingBufferManager {
             first_write_position = Math.min(pos, first_write_position);
             last_write_position = Math.max(pos + 1, last_write_position);
 
-            buffer[pos] = v;
+            frame.put(pos, v);
         }
 
         /**
@@ -873,7 +1749,7 @@ public class LoggingBufferManager {
             first_write_position = Math.min(pos, first_write_position);
             last_write_position = Math.max(pos + len, last_write_position);
 
-            System.arraycopy(buf, off, buffer, pos, len);
+            frame.put(pos, buf, off, len);
         }
 
         public boolean equals(Object ob) {
@@ -883,6 +1759,245 @@ public class LoggingBufferManager {
 
     }
 
+    /**
+     * A pool of pages of one size with its own page replacement policy.
+     * Pages are only evicted to make room for pages of the same pool.
+     */
+    private static final class BufferPool {
+
+        /**
+         * The name of the pool.
+         */
+        final String name;
+
+        /**
+         * The size of each page in the pool.
+         */
+        final int page_size;
+
+        /**
+         * The maximum number of pages in the pool.
+         */
+        final int max_pages;
+
+        /**
+         * The policy that decides which pages are purged from the pool when
+         * the maximum number of pages is exceeded.
+         */
+        final PageReplacementPolicy replacement_policy;
+
+        /**
+         * The arena that page frames are allocated from when pages are
+         * buffered off the Java heap, or null if page frames are on-heap byte
+         * arrays.
+         */
+        final PageFrameArena frame_arena;
+
+        /**
+         * The number of pages created in and evicted from this pool.
+         */
+        final AtomicLong miss_count = new AtomicLong();
+        final AtomicLong eviction_count = new AtomicLong();
+
+        BufferPool(String name, int page_size, int max_pages,
+                   PageReplacementPolicy replacement_policy,
+                   PageFrameArena frame_arena) {
+            this.name = name;
+            this.page_size = page_size;
+            this.max_pages = max_pages;
+            this.replacement_policy = replacement_policy;
+            this.frame_arena = frame_arena;
+        }
+
+    }
+
+    /**
+     * An arena of page frames in direct memory outside the Java heap.  Direct
+     * memory is allocated in large chunks that are sliced into page sized
+     * frames, and frames are recycled through a free list.  Direct memory is
+     * never returned to the OS while the buffer manager is alive, so the
+     * arena grows to the largest number of pages buffered at once.
+     */
+    private static final class PageFrameArena {
+
+        /**
+         * The number of frames allocated in one chunk of direct memory.
+         */
+        private static final int FRAMES_PER_CHUNK = 128;
+
+        /**
+         * The size of each frame.
+         */
+        private final int page_size;
+
+        /**
+         * The list of free frames.
+         */
+        private final ArrayDeque free_frames = new ArrayDeque();
+
+        /**
+         * A page sized scratch buffer per thread used to transfer data between
+         * a frame and a JournalledResource.
+         */
+        private final ThreadLocal scratch;
+
+        PageFrameArena(final int page_size) {
+            this.page_size = page_size;
+            this.scratch = ThreadLocal.withInitial(() -> new byte[page_size]);
+        }
+
+        /**
+         * Returns a free frame, allocating a new chunk of direct memory if
+         * there are no free frames.
+         */
+        synchronized ByteBuffer allocate() {
+            if (free_frames.isEmpty()) {
+                ByteBuffer chunk =
+                        ByteBuffer.allocateDirect(page_size * FRAMES_PER_CHUNK);
+                for (int i = 0; i < FRAMES_PER_CHUNK; ++i) {
+                    free_frames.add(chunk.slice(i * page_size, page_size));
+                }
+            }
+            return (ByteBuffer) free_frames.removeLast();
+        }
+
+        /**
+         * Returns a frame to the free list.
+         */
+        synchronized void free(ByteBuffer frame) {
+            free_frames.addLast(frame);
+        }
+
+        /**
+         * Returns the scratch buffer of the current thread.
+         */
+        byte[] scratchBuffer() {
+            return (byte[]) scratch.get();
+        }
+
+    }
+
+    /**
+     * The read ahead state of a resource.  Accessed under a lock on the
+     * object.
+     */
+    private static final class ReadAheadState {
+
+        /**
+         * The highest page number accessed in the current sequential run.
+         */
+        long last_page = -2;
+
+        /**
+         * The number of consecutive pages accessed in order.
+         */
+        int run;
+
+        /**
+         * The current number of pages to read ahead.
+         */
+        int depth;
+
+        /**
+         * The page after the last page scheduled to be read ahead.
+         */
+        long next_page;
+
+        /**
+         * The number of pages read ahead that were used and wasted since the
+         * depth was last adapted.
+         */
+        int hits;
+        int wasted;
+
+        /**
+         * True when the resource is closed, and the number of pages currently
+         * being read ahead.
+         */
+        boolean closed;
+        int in_flight;
+
+        ReadAheadState(int depth) {
+            this.depth = depth;
+        }
+
+    }
+
+    /**
+     * A stripe of the page map.  A stripe is a small hash of BMPage chains
+     * that is locked independently of all other stripes.
+     */
+    private static final class PageMapStripe {
+
+        /**
+         * The hash buckets of this stripe.
+         */
+        final BMPage[] buckets;
+
+        /**
+         * Constructs the stripe.
+         */
+        PageMapStripe(int bucket_count) {
+            buckets = new BMPage[bucket_count];
+        }
+
+        /**
+         * Adds up to 'max_pages' pages in this stripe that have changes that are
+         * not yet flushed to the given list.  The caller must hold the lock on
+         * this stripe.
+         */
+        void dirtyPages(ArrayList list, int max_pages) {
+            for (int i = 0; i < buckets.length && max_pages > 0; ++i) {
+                for (BMPage page = buckets[i]; page != null && max_pages > 0;
+                     page = page.hash_next) {
+                    if (page.isDirty()) {
+                        list.add(page);
+                        --max_pages;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Flushes all the pages in this stripe with the given resource id (or
+         * all pages if 'id' is -1), and removes any page that is no longer in
+         * use from the hash.  The caller must hold the lock on this stripe.
+         */
+        void flushPages(long id) throws IOException {
+            for (int i = 0; i < buckets.length; ++i) {
+                BMPage page = buckets[i];
+                BMPage prev = null;
+
+                while (page != null) {
+                    boolean deleted_hash = false;
+                    if (id == -1 || page.getID() == id) {
+                        synchronized (page) {
+                            // Flush the page (will only actually flush if there are changes)
+                            page.flush();
+
+                            // Remove this page if it is no longer in use
+                            if (page.notInUse()) {
+                                deleted_hash = true;
+                                if (prev == null) {
+                                    buckets[i] = page.hash_next;
+                                } else {
+                                    prev.hash_next = page.hash_next;
+                                }
+                            }
+                        }
+                    }
+
+                    // Go to next page in hash chain
+                    if (!deleted_hash) {
+                        prev = page;
+                    }
+                    page = page.hash_next;
+                }
+            }
+        }
+
+    }
+
     /**
      * A data resource that is being buffered.
      */
@@ -922,10 +2037,97 @@ public class LoggingBufferManager {
 
     }
 
+    // ---------- Page replacement policies ----------
+
     /**
-     * A Comparator used to sort cache entries.
+     * A policy that decides which pages are purged from the buffer.  Pages
+     * are added and purged under 'T_lock', but 'pageAccessed' is called
+     * without any lock so it must only make hints on the page.
      */
-    private final Comparator PAGE_CACHE_COMPARATOR = new Comparator() {
+    private abstract static class PageReplacementPolicy {
+
+        /**
+         * Adds a newly created page to the policy and adds to 'victims' any
+         * pages that must be purged from the buffer.
+         */
+        abstract void pageCreated(BMPage page, ArrayList victims);
+
+        /**
+         * Records that a page that is in the buffer was accessed.
+         */
+        abstract void pageAccessed(BMPage page);
+
+    }
+
+    /**
+     * The original policy.  When the buffer is full the page list is sorted
+     * by a weighting of the time since last access and the number of
+     * accesses, and the bottom 20% of the list is purged.
+     */
+    private static final class WeightedPolicy extends PageReplacementPolicy {
+
+        /**
+         * The maximum number of pages.
+         */
+        private final int max_pages;
+
+        /**
+         * The list of all pages.
+         */
+        private final ArrayList page_list = new ArrayList();
+
+        /**
+         * A timer that represents the T value in buffer pages.  This is only
+         * advanced when a page is created, and is read without a lock when a
+         * page is accessed.
+         */
+        private volatile long current_T;
+
+        WeightedPolicy(int max_pages) {
+            this.max_pages = max_pages;
+        }
+
+        void pageCreated(BMPage page, ArrayList victims) {
+            page.t = current_T;
+            ++current_T;
+
+            page_list.add(page);
+
+            // Check if we should purge old pages and purge some if we do...
+            if (page_list.size() > max_pages) {
+                // Purge 20% of the cache
+                // Sort the pages by the current formula,
+                //  ( 1 / page_access_count ) * (current_t - page_t)
+                // The weights are calculated before the sort because page hits
+                // may change 't' and 'access_count' while we sort.
+                Object[] pages = page_list.toArray();
+                for (Object p : pages) {
+                    BMPage bpage = (BMPage) p;
+                    bpage.purge_weight = pageEnumValue(bpage);
+                }
+                Arrays.sort(pages, PAGE_CACHE_COMPARATOR);
+
+                int purge_size = Math.max((int) (pages.length * 0.20f), 2);
+                for (int i = 0; i < purge_size; ++i) {
+                    victims.add(pages[pages.length - (i + 1)]);
+                }
+
+                // Remove all the elements from page_list and set it with the sorted
+                // list (minus the elements we removed).
+                page_list.clear();
+                page_list.addAll(Arrays.asList(pages).subList(0, pages.length - purge_size));
+            }
+        }
+
+        void pageAccessed(BMPage page) {
+            final long t = current_T;
+            if (page.t != t) {
+                page.t = t;
+            }
+            if (page.access_count < 10000) {
+                ++page.access_count;
+            }
+        }
 
         /**
          * The calculation for finding the 'weight' of a page in the cache.  A
@@ -942,18 +2144,226 @@ public class LoggingBufferManager {
             return v;
         }
 
-        public int compare(Object ob1, Object ob2) {
-            float v1 = pageEnumValue((BMPage) ob1);
-            float v2 = pageEnumValue((BMPage) ob2);
-            if (v1 > v2) {
-                return 1;
-            } else if (v1 < v2) {
-                return -1;
+        /**
+         * A Comparator used to sort cache entries.
+         */
+        private static final Comparator PAGE_CACHE_COMPARATOR = (ob1, ob2) ->
+                Float.compare(((BMPage) ob1).purge_weight,
+                        ((BMPage) ob2).purge_weight);
+
+    }
+
+    /**
+     * A CLOCK policy.  Each page has a reference bit that is set on access.
+     * The clock hand sweeps the ring of pages clearing the bits and purges
+     * the first page it finds that has not been referenced since the last
+     * sweep.  Pages with unflushed changes are given one more revolution
+     * than clean pages before they are purged.  The cost of a purge is
+     * constant amortized.
+     */
+    private static final class ClockPolicy extends PageReplacementPolicy {
+
+        /**
+         * The ring of pages.  Empty slots are null.
+         */
+        private final BMPage[] ring;
+
+        /**
+         * A stack of the empty slots in the ring.
+         */
+        private final int[] free_slots;
+
+        /**
+         * The number of entries in the 'free_slots' stack.
+         */
+        private int free_count;
+
+        /**
+         * The position of the clock hand.
+         */
+        private int hand;
+
+        ClockPolicy(int capacity) {
+            capacity = Math.max(capacity, 1);
+            ring = new BMPage[capacity];
+            free_slots = new int[capacity];
+            for (int i = 0; i < capacity; ++i) {
+                free_slots[i] = capacity - (i + 1);
+            }
+            free_count = capacity;
+        }
+
+        /**
+         * Returns the number of pages in the ring.
+         */
+        int size() {
+            return ring.length - free_count;
+        }
+
+        /**
+         * Adds a page to the ring.  The ring must not be full.
+         */
+        void add(BMPage page) {
+            if (free_count == 0) {
+                throw new IllegalStateException("Clock ring is full.");
+            }
+            final int slot = free_slots[--free_count];
+            ring[slot] = page;
+            page.clock_slot = slot;
+            page.referenced = false;
+        }
+
+        /**
+         * Sweeps the clock hand and removes and returns the page to purge.
+         * The ring must not be empty.
+         */
+        BMPage evict() {
+            final int capacity = ring.length;
+            int dirty_slot = -1;
+            int swept = 0;
+            while (true) {
+                final int slot = hand;
+                hand = (hand + 1) % capacity;
+                ++swept;
+
+                BMPage page = ring[slot];
+                if (page != null) {
+                    if (swept > capacity * 2) {
+                        // Pages are being referenced faster than we can sweep
+                        return remove(slot);
+                    } else if (page.referenced) {
+                        // Second chance
+                        page.referenced = false;
+                    } else if (!page.isDirty()) {
+                        return remove(slot);
+                    } else if (dirty_slot == -1) {
+                        // Remember the first unreferenced dirty page in case there
+                        // are no unreferenced clean pages.
+                        dirty_slot = slot;
+                    }
+                }
+
+                // After one full revolution purge the dirty page if we found one.
+                if (swept >= capacity && dirty_slot != -1 &&
+                        ring[dirty_slot] != null) {
+                    return remove(dirty_slot);
+                }
+            }
+        }
+
+        private BMPage remove(int slot) {
+            BMPage page = ring[slot];
+            ring[slot] = null;
+            page.clock_slot = -1;
+            free_slots[free_count++] = slot;
+            return page;
+        }
+
+        void pageCreated(BMPage page, ArrayList victims) {
+            if (free_count == 0) {
+                victims.add(evict());
+            }
+            add(page);
+        }
+
+        void pageAccessed(BMPage page) {
+            if (!page.referenced) {
+                page.referenced = true;
             }
-            return 0;
         }
 
-    };
+    }
+
+    /**
+     * A 2Q policy.  A newly created page enters a FIFO queue (A1in) and is
+     * not promoted by hits while in that queue, so a single sequential scan
+     * only ever cycles through the FIFO.  When a page is purged from the
+     * FIFO its key is remembered in a ghost queue (A1out), and if the page
+     * is created again while its key is remembered it is put in the main
+     * buffer (Am) which is managed by a CLOCK.
+     */
+    private static final class TwoQueuePolicy extends PageReplacementPolicy {
+
+        /**
+         * The maximum number of pages.
+         */
+        private final int max_pages;
+
+        /**
+         * The target size of the A1in queue.
+         */
+        private final int kin;
+
+        /**
+         * The maximum number of keys in the A1out ghost queue.
+         */
+        private final int kout;
+
+        /**
+         * The A1in FIFO queue.
+         */
+        private final ArrayDeque a1in = new ArrayDeque();
+
+        /**
+         * The A1out ghost queue of page keys, in insertion order.
+         */
+        private final LinkedHashSet a1out = new LinkedHashSet();
+
+        /**
+         * The main buffer.
+         */
+        private final ClockPolicy am;
+
+        TwoQueuePolicy(int max_pages) {
+            this.max_pages = Math.max(max_pages, 1);
+            this.kin = Math.max(this.max_pages / 4, 1);
+            this.kout = Math.max(this.max_pages / 2, 1);
+            this.am = new ClockPolicy(this.max_pages);
+        }
+
+        void pageCreated(BMPage page, ArrayList victims) {
+            if (a1out.remove(page.pageKey())) {
+                // Seen recently so this page goes to the main buffer
+                if (am.size() + a1in.size() >= max_pages) {
+                    reclaim(victims);
+                }
+                am.add(page);
+            } else {
+                if (am.size() + a1in.size() >= max_pages) {
+                    reclaim(victims);
+                }
+                a1in.addLast(page);
+            }
+        }
+
+        /**
+         * Purges one page from either the FIFO or the main buffer.
+         */
+        private void reclaim(ArrayList victims) {
+            if (a1in.size() > kin || am.size() == 0) {
+                BMPage page = (BMPage) a1in.removeFirst();
+                victims.add(page);
+                // Remember the page in the ghost queue
+                a1out.add(page.pageKey());
+                if (a1out.size() > kout) {
+                    Iterator i = a1out.iterator();
+                    i.next();
+                    i.remove();
+                }
+            } else {
+                victims.add(am.evict());
+            }
+        }
+
+        void pageAccessed(BMPage page) {
+            // Hits in A1in are correlated references and are ignored.  The
+            // reference bit is only meaningful for pages in the clock.
+            if (page.clock_slot != -1 && !page.referenced) {
+                page.referenced = true;
+            }
+        }
+
+    }
 
     /**
      * A factory interface for creating StoreDataAccessor objects from resource
@@ -969,4 +2379,54 @@ public class LoggingBufferManager {
     }
 
 
+    /**
+     * A thread that writes dirty pages to the journal at a limited rate
+     * between check points.  This moves most of the page writing out of the
+     * check point, so a commit spends less time with writers blocked.
+     */
+    private final class BackgroundCheckPointThread extends Thread {
+
+        private boolean finished = false;
+
+        /**
+         * Constructor.
+         */
+        BackgroundCheckPointThread() {
+            setName("Pony - Background Check Point");
+            setDaemon(true);
+        }
+
+        public void run() {
+            final int pages_per_pass = Math.max(1,
+                    background_flush_rate * BACKGROUND_FLUSH_INTERVAL / 1000);
+            int stripe = 0;
+            while (true) {
+                synchronized (this) {
+                    if (!finished) {
+                        try {
+                            wait(BACKGROUND_FLUSH_INTERVAL);
+                        } catch (InterruptedException e) { /* ignore */ }
+                    }
+                    if (finished) {
+                        return;
+                    }
+                }
+                try {
+                    int count = flushDirtyPages(stripe, pages_per_pass);
+                    background_flush_count += count;
+                } catch (IOException e) {
+                    debug.write(Lvl.ERROR, this, "Error writing dirty pages");
+                    debug.writeException(Lvl.ERROR, e);
+                }
+                stripe = (stripe + 1) & (PAGE_MAP_STRIPES - 1);
+            }
+        }
+
+        public synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+    }
+
 }
@@ -0,0 +1,232 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of StoreDataAccessor that memory maps the underlying
+ * file in the file system.  The file is mapped in fixed size regions, so a
+ * read or write is a memory copy to or from the OS page cache and doesn't
+ * need a lock.  When the size of the file changes the regions that changed
+ * are remapped.
+ * <p>
+ * Note that a mapping is only released when the MappedByteBuffer is garbage
+ * collected, so on some operating systems a file can't be deleted or
+ * truncated shortly after it was closed.
+ */
+
+class MappedStoreDataAccessor implements StoreDataAccessor {
+
+    /**
+     * The size of each mapped region of the file.
+     */
+    private static final int MAP_REGION_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * An empty set of regions.
+     */
+    private static final MappedByteBuffer[] NO_REGIONS = new MappedByteBuffer[0];
+
+    /**
+     * A lock when opening, closing and changing the size of the file.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The File object representing the file in the file system.
+     */
+    private final File file;
+
+    /**
+     * The underlying RandomAccessFile containing the data.
+     */
+    private RandomAccessFile data;
+
+    /**
+     * The channel of the above file.
+     */
+    private FileChannel channel;
+
+    /**
+     * True if the file is mapped read only.
+     */
+    private boolean read_only;
+
+    /**
+     * The regions of the file currently mapped.  This array is replaced (never
+     * modified) when the size of the file changes.
+     */
+    private volatile MappedByteBuffer[] regions = NO_REGIONS;
+
+    /**
+     * The size of the data area.
+     */
+    private volatile long size;
+
+    /**
+     * True if the file is open.
+     */
+    private boolean is_open;
+
+    /**
+     * Constructor.
+     */
+    MappedStoreDataAccessor(File file) {
+        this.file = file;
+        this.is_open = false;
+    }
+
+    /**
+     * Maps the file into regions for the given size of file.  Regions that
+     * are fully mapped in the given array are reused.
+     */
+    private MappedByteBuffer[] mapRegions(MappedByteBuffer[] old_regions,
+                                          long new_size) throws IOException {
+        int count = (int) ((new_size + MAP_REGION_SIZE - 1) / MAP_REGION_SIZE);
+        MappedByteBuffer[] new_regions = new MappedByteBuffer[count];
+        FileChannel.MapMode mode = read_only ? FileChannel.MapMode.READ_ONLY
+                                             : FileChannel.MapMode.READ_WRITE;
+        for (int i = 0; i < count; ++i) {
+            long region_start = (long) i * MAP_REGION_SIZE;
+            long region_size = Math.min(MAP_REGION_SIZE, new_size - region_start);
+            if (i < old_regions.length &&
+                    old_regions[i].capacity() == region_size) {
+                new_regions[i] = old_regions[i];
+            } else {
+                new_regions[i] = channel.map(mode, region_start, region_size);
+            }
+        }
+        return new_regions;
+    }
+
+    // ---------- Implemented from StoreDataAccessor ----------
+
+    public void open(boolean is_read_only) throws IOException {
+        synchronized (lock) {
+            data = new RandomAccessFile(file, is_read_only ? "r" : "rw");
+            channel = data.getChannel();
+            read_only = is_read_only;
+            long file_size = file.length();
+            regions = mapRegions(NO_REGIONS, file_size);
+            size = file_size;
+            is_open = true;
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (lock) {
+            regions = NO_REGIONS;
+            size = 0;
+            channel = null;
+            data.close();
+            data = null;
+            is_open = false;
+        }
+    }
+
+    public boolean delete() {
+        if (!is_open) {
+            return file.delete();
+        }
+        return false;
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+
+    public void read(long position, byte[] buf, int off, int len)
+            throws IOException {
+        // The size must be read before the regions
+        final long cur_size = size;
+        final MappedByteBuffer[] cur_regions = regions;
+        // Make sure we don't read past the end
+        len = (int) Math.max(0, Math.min(len, cur_size - position));
+        while (len > 0) {
+            MappedByteBuffer region = cur_regions[(int) (position / MAP_REGION_SIZE)];
+            int region_p = (int) (position % MAP_REGION_SIZE);
+            int to_read = Math.min(len, region.capacity() - region_p);
+            region.get(region_p, buf, off, to_read);
+            position += to_read;
+            off += to_read;
+            len -= to_read;
+        }
+    }
+
+    public void write(long position, byte[] buf, int off, int len)
+            throws IOException {
+        final long cur_size = size;
+        final MappedByteBuffer[] cur_regions = regions;
+        // Make sure we don't write past the end
+        len = (int) Math.max(0, Math.min(len, cur_size - position));
+        while (len > 0) {
+            MappedByteBuffer region = cur_regions[(int) (position / MAP_REGION_SIZE)];
+            int region_p = (int) (position % MAP_REGION_SIZE);
+            int to_write = Math.min(len, region.capacity() - region_p);
+            region.put(region_p, buf, off, to_write);
+            position += to_write;
+            off += to_write;
+            len -= to_write;
+        }
+    }
+
+    public void setSize(long new_size) throws IOException {
+        synchronized (lock) {
+            if (new_size > this.size) {
+                // Grow the file and then map the new regions.  The regions must be
+                // published before the size.
+                data.setLength(new_size);
+                regions = mapRegions(regions, new_size);
+                this.size = new_size;
+            } else if (new_size < this.size) {
+                // Unpublish the regions past the end before shrinking the file.
+                this.size = new_size;
+                regions = mapRegions(regions, new_size);
+                data.setLength(new_size);
+            }
+        }
+    }
+
+    public long getSize() throws IOException {
+        synchronized (lock) {
+            if (is_open) {
+                return size;
+            } else {
+                return file.length();
+            }
+        }
+    }
+
+    public void synch() throws IOException {
+        synchronized (lock) {
+            if (!read_only) {
+                for (MappedByteBuffer region : regions) {
+                    region.force();
+                }
+            }
+        }
+    }
+
+}
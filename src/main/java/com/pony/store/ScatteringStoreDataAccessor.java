@@ -26,6 +26,12 @@ import java.io.*;
  * data resource across multiple files in the file system.  When one store
  * data resource reaches a certain threshold size, the content 'flows' over
  * to the next file.
+ * <p>
+ * The files may be preallocated in large extents as the data grows so the
+ * file system isn't asked to change the length of a file for every small
+ * growth.  While the files are longer than the data, the end of the data is
+ * recorded in a small '.end' file next to the first slice.  The files are
+ * trimmed and the '.end' file is removed when the store is closed.
  *
  * @author Tobias Downer
  */
@@ -54,8 +60,27 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
 
     /**
      * The maximum size a file slice can grow too before a new slice is created.
+     * If the store already has more than one slice this is the size of the
+     * existing slices, regardless of the size given to the constructor.
      */
-    private final long max_slice_size;
+    private long max_slice_size;
+
+    /**
+     * The largest extent the files are preallocated by as the data grows, or 0
+     * if the files are not preallocated.
+     */
+    private final long preallocation_size;
+
+    /**
+     * The smallest extent a file is preallocated by.
+     */
+    private static final long MIN_PREALLOCATION_SIZE = 64 * 1024;
+
+    /**
+     * True if the slices are memory mapped, otherwise the slices are accessed
+     * through the standard IO API.
+     */
+    private final boolean memory_mapped;
 
     /**
      * The list of RandomAccessFile objects for each file that represents a
@@ -64,10 +89,33 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
     private ArrayList slice_list;
 
     /**
-     * The current actual physical size of the store data on disk.
+     * A snapshot of 'slice_list' that is read without a lock by the read and
+     * write methods.  It is replaced whenever 'slice_list' changes.
+     */
+    private volatile FileSlice[] slices = new FileSlice[0];
+
+    /**
+     * The size of the store data.  This is the logical end of the data which
+     * may be less than the length of the files when they are preallocated.
      */
     private long true_file_length;
 
+    /**
+     * The total length of the slice files on disk.
+     */
+    private long physical_file_length;
+
+    /**
+     * The data size recorded in the '.end' file, or -1 if there is no '.end'
+     * file.
+     */
+    private long end_marker = -1;
+
+    /**
+     * True if the store is open read only.
+     */
+    private boolean read_only;
+
     /**
      * A lock when modifying the true_data_size, and slice_list.
      */
@@ -80,15 +128,38 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
 
 
     /**
-     * Constructs the store data accessor.
+     * Constructs the store data accessor.  If 'preallocation_size' is greater
+     * than 0 then the files grow in extents of up to that size.
      */
     public ScatteringStoreDataAccessor(File path, String file_name,
-                                       String first_ext, long max_slice_size) {
+                                       String first_ext, long max_slice_size,
+                                       long preallocation_size,
+                                       boolean memory_mapped) {
         slice_list = new ArrayList();
         this.path = path;
         this.file_name = file_name;
         this.first_ext = first_ext;
         this.max_slice_size = max_slice_size;
+        this.preallocation_size = preallocation_size;
+        this.memory_mapped = memory_mapped;
+    }
+
+    /**
+     * Constructs the store data accessor without preallocation.
+     */
+    public ScatteringStoreDataAccessor(File path, String file_name,
+                                       String first_ext, long max_slice_size,
+                                       boolean memory_mapped) {
+        this(path, file_name, first_ext, max_slice_size, 0, memory_mapped);
+    }
+
+    /**
+     * Constructs the store data accessor with slices that are accessed through
+     * the standard IO API.
+     */
+    public ScatteringStoreDataAccessor(File path, String file_name,
+                                       String first_ext, long max_slice_size) {
+        this(path, file_name, first_ext, max_slice_size, false);
     }
 
     /**
@@ -164,6 +235,43 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
         return new File(path, fn.toString());
     }
 
+    /**
+     * Returns the File object of the '.end' file that records the size of the
+     * data while the slices are preallocated.
+     */
+    private File endMarkerFile() {
+        return new File(path, file_name + ".end");
+    }
+
+    /**
+     * Returns the size recorded in the '.end' file, or -1 if there is no
+     * '.end' file.
+     */
+    private long readEndMarker() throws IOException {
+        File f = endMarkerFile();
+        if (!f.exists()) {
+            return -1;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            if (raf.length() < 8) {
+                return -1;
+            }
+            return raf.readLong();
+        }
+    }
+
+    /**
+     * Records the size of the data in the '.end' file and synchronizes it with
+     * the disk.
+     */
+    private void writeEndMarker(long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(endMarkerFile(), "rw")) {
+            raf.writeLong(size);
+            raf.getFD().sync();
+        }
+        end_marker = size;
+    }
+
     /**
      * Counts the number of files in the file store that represent this store.
      */
@@ -181,7 +289,9 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
      * Creates a StoreDataAccessor object for accessing a given slice.
      */
     private StoreDataAccessor createSliceDataAccessor(File file) {
-        // Currently we only support an IOStoreDataAccessor object.
+        if (memory_mapped) {
+            return new MappedStoreDataAccessor(file);
+        }
         return new IOStoreDataAccessor(file);
     }
 
@@ -202,6 +312,11 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
                 ++i;
                 f = slicePartFile(i);
             }
+            // The end of the data if the files are preallocated
+            long end = readEndMarker();
+            if (end >= 0) {
+                running_total = Math.min(running_total, end);
+            }
         }
 
         return running_total;
@@ -219,6 +334,12 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
             File f = slicePartFile(0);
             boolean open_existing = f.exists();
 
+            // If there is more than one slice then every slice but the last is
+            // full, so the slice size is the size of the first slice.
+            if (open_existing && slicePartFile(1).exists()) {
+                max_slice_size = f.length();
+            }
+
             // If the file already exceeds the threshold and there isn't a secondary
             // file then we need to convert the file.
             if (open_existing && f.length() > max_slice_size) {
@@ -263,7 +384,14 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
                 }
             }
 
+            physical_file_length = running_length;
             true_file_length = running_length;
+            end_marker = readEndMarker();
+            if (end_marker >= 0) {
+                true_file_length = Math.min(running_length, end_marker);
+            }
+            this.read_only = read_only;
+            slices = (FileSlice[]) slice_list.toArray(new FileSlice[0]);
 
             open = true;
         }
@@ -271,12 +399,27 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
 
     public void close() throws IOException {
         synchronized (lock) {
+            // Trim any space preallocated past the end of the data
+            if (!read_only) {
+                if (physical_file_length > true_file_length) {
+                    int last = slice_list.size() - 1;
+                    FileSlice slice = (FileSlice) slice_list.get(last);
+                    slice.data.setSize(true_file_length - (last * max_slice_size));
+                    slice.data.synch();
+                    physical_file_length = true_file_length;
+                }
+                if (end_marker >= 0) {
+                    endMarkerFile().delete();
+                    end_marker = -1;
+                }
+            }
             int sz = slice_list.size();
             for (Object o : slice_list) {
                 FileSlice slice = (FileSlice) o;
                 slice.data.close();
             }
             slice_list = null;
+            slices = new FileSlice[0];
             open = false;
         }
     }
@@ -292,7 +435,8 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
                 return false;
             }
         }
-        return true;
+        File end_file = endMarkerFile();
+        return !end_file.exists() || end_file.delete();
     }
 
     public boolean exists() {
@@ -308,14 +452,12 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
             long file_p = (position % max_slice_size);
             int file_len = (int) Math.min(len, max_slice_size - file_p);
 
-            FileSlice slice;
-            synchronized (lock) {
-                // Return if out of bounds.
-                if (file_i < 0 || file_i >= slice_list.size()) {
-                    return;
-                }
-                slice = (FileSlice) slice_list.get(file_i);
+            final FileSlice[] cur_slices = slices;
+            // Return if out of bounds.
+            if (file_i < 0 || file_i >= cur_slices.length) {
+                return;
             }
+            FileSlice slice = cur_slices[file_i];
             slice.data.read(file_p, buf, off, file_len);
 
             position += file_len;
@@ -332,14 +474,12 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
             long file_p = (position % max_slice_size);
             int file_len = (int) Math.min(len, max_slice_size - file_p);
 
-            FileSlice slice;
-            synchronized (lock) {
-                // Return if out of bounds.
-                if (file_i < 0 || file_i >= slice_list.size()) {
-                    return;
-                }
-                slice = (FileSlice) slice_list.get(file_i);
+            final FileSlice[] cur_slices = slices;
+            // Return if out of bounds.
+            if (file_i < 0 || file_i >= cur_slices.length) {
+                return;
             }
+            FileSlice slice = cur_slices[file_i];
             slice.data.write(file_p, buf, off, file_len);
 
             position += file_len;
@@ -350,45 +490,79 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
 
     public void setSize(long length) throws IOException {
         synchronized (lock) {
-            // The size we need to grow the data area
-            long total_size_to_grow = length - true_file_length;
             // Assert that we aren't shrinking the data area size.
-            if (total_size_to_grow < 0) {
+            if (length < true_file_length) {
                 throw new IOException("Unable to make the data area size " +
                         "smaller for this type of store.");
             }
 
-            while (total_size_to_grow > 0) {
-                // Grow the last slice by this size
-                int last = slice_list.size() - 1;
-                FileSlice slice = (FileSlice) slice_list.get(last);
-                final long old_slice_length = slice.data.getSize();
-                long to_grow = Math.min(total_size_to_grow,
-                        (max_slice_size - old_slice_length));
-
-                // Flush the buffer and set the length of the file
-                slice.data.setSize(old_slice_length + to_grow);
-                // Synchronize the file change.  XP appears to defer a file size change
-                // and it can result in errors if the JVM is terminated.
-                slice.data.synch();
-
-                total_size_to_grow -= to_grow;
-                // Create a new empty slice if we need to extend the data area
-                if (total_size_to_grow > 0) {
-                    File slice_file = slicePartFile(last + 1);
-
-                    slice = new FileSlice();
-                    slice.data = createSliceDataAccessor(slice_file);
-                    slice.data.open(false);
-
-                    slice_list.add(slice);
+            if (length > physical_file_length) {
+                long new_file_length = length;
+                if (preallocation_size > 0) {
+                    // Grow the files by an extent that is proportional to the
+                    // size of the data, up to the preallocation size.  Small
+                    // files grow by up to their own size, large files grow in
+                    // whole extents.
+                    long extent = Math.min(preallocation_size,
+                            Math.max(MIN_PREALLOCATION_SIZE,
+                                    Long.highestOneBit(length)));
+                    new_file_length = ((length + extent - 1) / extent) * extent;
+                    // Don't preallocate past the end of the slice the data ends in
+                    long slice_end = ((length + max_slice_size - 1) /
+                            max_slice_size) * max_slice_size;
+                    new_file_length = Math.max(length,
+                            Math.min(new_file_length, slice_end));
+                    // The end of the data must be known before the files are
+                    // longer than the data.
+                    if (new_file_length > length && end_marker < 0) {
+                        writeEndMarker(true_file_length);
+                    }
                 }
+                growFiles(new_file_length);
             }
             true_file_length = length;
         }
 
     }
 
+    /**
+     * Grows the slice files to the given total length, creating new slices as
+     * necessary.
+     */
+    private void growFiles(long length) throws IOException {
+        // The size we need to grow the files
+        long total_size_to_grow = length - physical_file_length;
+
+        while (total_size_to_grow > 0) {
+            // Grow the last slice by this size
+            int last = slice_list.size() - 1;
+            FileSlice slice = (FileSlice) slice_list.get(last);
+            final long old_slice_length = slice.data.getSize();
+            long to_grow = Math.min(total_size_to_grow,
+                    (max_slice_size - old_slice_length));
+
+            // Flush the buffer and set the length of the file
+            slice.data.setSize(old_slice_length + to_grow);
+            // Synchronize the file change.  XP appears to defer a file size change
+            // and it can result in errors if the JVM is terminated.
+            slice.data.synch();
+
+            total_size_to_grow -= to_grow;
+            // Create a new empty slice if we need to extend the data area
+            if (total_size_to_grow > 0) {
+                File slice_file = slicePartFile(last + 1);
+
+                slice = new FileSlice();
+                slice.data = createSliceDataAccessor(slice_file);
+                slice.data.open(false);
+
+                slice_list.add(slice);
+                slices = (FileSlice[]) slice_list.toArray(new FileSlice[0]);
+            }
+        }
+        physical_file_length = length;
+    }
+
     public long getSize() throws IOException {
         synchronized (lock) {
             if (open) {
@@ -406,6 +580,11 @@ public class ScatteringStoreDataAccessor implements StoreDataAccessor {
                 FileSlice slice = (FileSlice) o;
                 slice.data.synch();
             }
+            // Record the end of the data if the files are preallocated
+            if ((end_marker >= 0 || physical_file_length > true_file_length) &&
+                    end_marker != true_file_length) {
+                writeEndMarker(true_file_length);
+            }
         }
     }
 
@@ -97,6 +97,22 @@ public interface Store {
      */
     Area getArea(long id) throws IOException;
 
+    /**
+     * Copies 'len' bytes starting at 'offset' in the area with the given id
+     * into the given array, and returns the capacity of the area.  This is
+     * the same as reading from the Area returned by 'getArea' except that no
+     * objects are created, so it suits hot paths that read small parts of
+     * many areas.
+     *
+     * @param id the identifier of the area to read.
+     * @param offset the position in the area to read from.
+     * @return the capacity of the area.
+     * @throws IOException if the id is invalid or the bytes are not within
+     *   the area.
+     */
+    int readArea(long id, int offset, byte[] buf, int off, int len)
+            throws IOException;
+
     /**
      * Returns an object that allows for the contents of an area (represented by
      * the 'id' parameter) to be read and written.  The behaviour of this method,
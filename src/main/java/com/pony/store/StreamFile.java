@@ -69,19 +69,22 @@ public class StreamFile {
     }
 
     /**
-     * Synchs the file.
+     * Synchs the file.  The file isn't locked while the disk is synchronized
+     * so other threads may continue to write to it.
      */
     public void synch() throws IOException {
+        FileDescriptor fd;
         synchronized (data) {
-            try {
-                data.getFD().sync();
-            } catch (SyncFailedException e) {
-                // A SyncFailedException seems to occur on some specific OS under
-                // JDK 1.4.x.  We ignore the exception which reduces the robustness
-                // of the journal file for the OS where this problem occurs.
-                // Unfortunately there's no sane way to handle this excption when it
-                // does occur.
-            }
+            fd = data.getFD();
+        }
+        try {
+            fd.sync();
+        } catch (SyncFailedException e) {
+            // A SyncFailedException seems to occur on some specific OS under
+            // JDK 1.4.x.  We ignore the exception which reduces the robustness
+            // of the journal file for the OS where this problem occurs.
+            // Unfortunately there's no sane way to handle this excption when it
+            // does occur.
         }
     }
 
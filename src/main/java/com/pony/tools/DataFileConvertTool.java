@@ -26,7 +26,8 @@ import com.pony.util.CommandLine;
 
 /**
  * A tool for converting between different versions of the database file
- * system.
+ * system.  The user tables of a current version database are rewritten so
+ * their records are stored in the current record format.
  *
  * @author Tobias Downer
  */
@@ -37,8 +37,10 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * A small command line benchmark runner for comparing PonySQL and SQLite through
@@ -53,8 +55,13 @@ public final class PonySqliteBenchmark {
             Arrays.asList("bulk_insert", "sequential_read", "indexed_point",
                     "indexed_range", "composite_lookup");
 
+    private static final List<String> ALL_SCENARIOS =
+            Arrays.asList("bulk_insert", "sequential_read", "indexed_point",
+                    "indexed_range", "composite_lookup", "concurrent_point");
+
     private static final int DEFAULT_COMMIT_EVERY = 10_000;
     private static final int DEFAULT_LOOKUP_REPETITIONS = 1_000;
+    private static final int DEFAULT_THREADS = 4;
     private static final DateTimeFormatter RUN_ID_FORMAT =
             DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
@@ -74,13 +81,15 @@ public final class PonySqliteBenchmark {
         Files.createDirectories(runDirectory);
 
         List<BenchmarkResult> results = new ArrayList<>();
+        List<String> notes = new ArrayList<>();
         for (int rows : options.rowCounts) {
             for (String engine : options.engines) {
                 Path databaseDirectory = runDirectory.resolve(engine + "-" + rows);
                 Files.createDirectories(databaseDirectory);
-                BenchmarkDatabase database = openDatabase(engine, databaseDirectory);
+                BenchmarkDatabase database = openDatabase(engine, databaseDirectory,
+                        options);
                 try {
-                    results.addAll(runForDatabase(database, rows, options));
+                    results.addAll(runForDatabase(database, rows, options, notes));
                 } finally {
                     database.close();
                     if (!options.keepDatabases) {
@@ -90,33 +99,38 @@ public final class PonySqliteBenchmark {
             }
         }
 
-        writeReports(runDirectory, results);
+        writeReports(runDirectory, results, notes);
         System.out.println("Benchmark results written to " + runDirectory);
     }
 
-    private static BenchmarkDatabase openDatabase(String engine, Path directory)
+    private static BenchmarkDatabase openDatabase(String engine, Path directory,
+                                                  BenchmarkOptions options)
             throws Exception {
         if ("pony".equals(engine)) {
             DefaultDBConfig config = new DefaultDBConfig();
             config.setDatabasePath(directory.resolve("data").toString());
             config.setLogPath(directory.resolve("log").toString());
+            for (Map.Entry<String, String> entry : options.ponyConfig.entrySet()) {
+                config.setValue(entry.getKey(), entry.getValue());
+            }
             DBSystem database = DBController.getDefault()
                     .createDatabase(config, "test", "test");
             Connection connection = database.getConnection("test", "test");
-            return new BenchmarkDatabase(engine, connection, database);
+            return new BenchmarkDatabase(engine, connection, database, null);
         } else if ("sqlite".equals(engine)) {
             Class.forName("org.sqlite.JDBC");
             Path databaseFile = directory.resolve("sqlite.db");
-            Connection connection = DriverManager.getConnection(
-                    "jdbc:sqlite:" + databaseFile);
-            return new BenchmarkDatabase(engine, connection, null);
+            String url = "jdbc:sqlite:" + databaseFile;
+            Connection connection = DriverManager.getConnection(url);
+            return new BenchmarkDatabase(engine, connection, null, url);
         } else {
             throw new IllegalArgumentException("Unsupported engine: " + engine);
         }
     }
 
     private static List<BenchmarkResult> runForDatabase(
-            BenchmarkDatabase database, int rows, BenchmarkOptions options)
+            BenchmarkDatabase database, int rows, BenchmarkOptions options,
+            List<String> notes)
             throws SQLException {
         List<BenchmarkResult> results = new ArrayList<>();
         Connection connection = database.connection;
@@ -129,6 +143,11 @@ public final class PonySqliteBenchmark {
         if (options.scenarios.contains("bulk_insert")) {
             results.add(new BenchmarkResult(database.engine, "bulk_insert",
                     rows, rows, insertElapsed));
+            if ("pony".equals(database.engine)) {
+                String note = journalUsage(connection, rows);
+                System.out.println(note);
+                notes.add(note);
+            }
         }
 
         createIndexes(connection);
@@ -154,6 +173,13 @@ public final class PonySqliteBenchmark {
             results.add(timeScenario(database.engine, "composite_lookup", rows,
                     repetitions, () -> compositeLookup(connection, repetitions)));
         }
+        if (options.scenarios.contains("concurrent_point")) {
+            int repetitions = Math.min(options.lookupRepetitions, rows);
+            results.add(timeScenario(database.engine, "concurrent_point", rows,
+                    (long) repetitions * options.threads,
+                    () -> concurrentPointLookup(database, rows, repetitions,
+                            options.threads)));
+        }
 
         return results;
     }
@@ -201,6 +227,34 @@ public final class PonySqliteBenchmark {
         }
     }
 
+    /**
+     * Describes how much page data was logged to the journal by the pony
+     * database and how many bytes of journal that took.
+     */
+    private static String journalUsage(Connection connection, int rows)
+            throws SQLException {
+        long loggedKB = 0;
+        long writtenKB = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT stat_name, value FROM SYS_INFO.DatabaseStatistics " +
+                             "WHERE stat_name LIKE 'Journal.%'")) {
+            while (resultSet.next()) {
+                String name = resultSet.getString(1);
+                long value = Long.parseLong(resultSet.getString(2).trim());
+                if (name.equals("Journal.page_data_loggedKB")) {
+                    loggedKB = value;
+                } else if (name.equals("Journal.page_data_writtenKB")) {
+                    writtenKB = value;
+                }
+            }
+        }
+        double ratio = loggedKB == 0 ? 1.0 : (double) writtenKB / loggedKB;
+        return String.format(Locale.ROOT,
+                "pony bulk_insert %d rows: journal page data %d KB, written %d KB (%.2f)",
+                rows, loggedKB, writtenKB, ratio);
+    }
+
     private static void sequentialRead(Connection connection) throws SQLException {
         try (Statement statement = connection.createStatement();
              ResultSet result = statement.executeQuery(
@@ -239,6 +293,65 @@ public final class PonySqliteBenchmark {
         }
     }
 
+    /**
+     * Runs the point lookups on 'threads' connections at the same time.  The
+     * threads look up the same rows in a different order so that they share
+     * the cached cells.
+     */
+    private static void concurrentPointLookup(BenchmarkDatabase database,
+                                              int rows, int repetitions,
+                                              int threads) throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; ++t) {
+                connections.add(database.openConnection());
+            }
+            List<Thread> workers = new ArrayList<>();
+            SQLException[] error = new SQLException[1];
+            for (int t = 0; t < threads; ++t) {
+                Connection connection = connections.get(t);
+                int offset = t * (repetitions / threads);
+                Thread worker = new Thread(() -> {
+                    try (PreparedStatement select = connection.prepareStatement(
+                            "SELECT payload FROM bench_data WHERE id = ?")) {
+                        long checksum = 0;
+                        for (int i = 0; i < repetitions; ++i) {
+                            select.setInt(1, deterministicRow(
+                                    (i + offset) % repetitions, rows));
+                            try (ResultSet result = select.executeQuery()) {
+                                while (result.next()) {
+                                    checksum += result.getString(1).length();
+                                }
+                            }
+                        }
+                        consume(checksum);
+                    } catch (SQLException e) {
+                        synchronized (error) {
+                            error[0] = e;
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted", e);
+                }
+            }
+            if (error[0] != null) {
+                throw error[0];
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
     private static void indexedRangeLookup(Connection connection, int rows,
                                            int repetitions) throws SQLException {
         int rangeSize = Math.max(1, Math.min(1_000, rows / 100));
@@ -303,7 +416,8 @@ public final class PonySqliteBenchmark {
     }
 
     private static void writeReports(Path runDirectory,
-                                     List<BenchmarkResult> results)
+                                     List<BenchmarkResult> results,
+                                     List<String> notes)
             throws IOException {
         Path csv = runDirectory.resolve("benchmark-results.csv");
         try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
@@ -328,6 +442,13 @@ public final class PonySqliteBenchmark {
                 writer.write(result.toMarkdownRow());
                 writer.newLine();
             }
+            if (!notes.isEmpty()) {
+                writer.newLine();
+                for (String note : notes) {
+                    writer.write("- " + note);
+                    writer.newLine();
+                }
+            }
         }
     }
 
@@ -356,11 +477,13 @@ public final class PonySqliteBenchmark {
         System.out.println("Options:");
         System.out.println("  --rows 10000,100000,1000000,10000000");
         System.out.println("  --engines pony,sqlite");
-        System.out.println("  --scenarios bulk_insert,sequential_read,indexed_point,indexed_range,composite_lookup");
+        System.out.println("  --scenarios bulk_insert,sequential_read,indexed_point,indexed_range,composite_lookup,concurrent_point");
         System.out.println("  --out target/benchmarks");
         System.out.println("  --commit-every 10000");
         System.out.println("  --lookup-repetitions 1000");
+        System.out.println("  --threads 4 (concurrent_point)");
         System.out.println("  --keep-databases");
+        System.out.println("  --pony-config journal_compression=enabled,...");
         System.out.println("  --help");
     }
 
@@ -371,7 +494,9 @@ public final class PonySqliteBenchmark {
         private Path outputDirectory = Path.of("target", "benchmarks");
         private int commitEvery = DEFAULT_COMMIT_EVERY;
         private int lookupRepetitions = DEFAULT_LOOKUP_REPETITIONS;
+        private int threads = DEFAULT_THREADS;
         private boolean keepDatabases = false;
+        private Map<String, String> ponyConfig = new LinkedHashMap<>();
         private boolean help = false;
 
         private static BenchmarkOptions parse(String[] args) {
@@ -403,9 +528,16 @@ public final class PonySqliteBenchmark {
                         options.lookupRepetitions = Integer.parseInt(
                                 nextValue(args, ++i, arg));
                         break;
+                    case "--threads":
+                        options.threads = Integer.parseInt(
+                                nextValue(args, ++i, arg));
+                        break;
                     case "--keep-databases":
                         options.keepDatabases = true;
                         break;
+                    case "--pony-config":
+                        parseConfig(nextValue(args, ++i, arg), options.ponyConfig);
+                        break;
                     default:
                         throw new IllegalArgumentException("Unknown option: " + arg);
                 }
@@ -429,6 +561,18 @@ public final class PonySqliteBenchmark {
             return result;
         }
 
+        private static void parseConfig(String value, Map<String, String> config) {
+            for (String part : value.split(",")) {
+                int eq = part.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException(
+                            "Invalid pony config (expected key=value): " + part);
+                }
+                config.put(part.substring(0, eq).trim(),
+                        part.substring(eq + 1).trim());
+            }
+        }
+
         private static List<String> parseStrings(String value) {
             List<String> result = new ArrayList<>();
             for (String part : value.split(",")) {
@@ -443,13 +587,16 @@ public final class PonySqliteBenchmark {
                     throw new IllegalArgumentException("Rows must be positive.");
                 }
             }
+            if (options.threads <= 0) {
+                throw new IllegalArgumentException("Threads must be positive.");
+            }
             for (String engine : options.engines) {
                 if (!"pony".equals(engine) && !"sqlite".equals(engine)) {
                     throw new IllegalArgumentException("Unsupported engine: " + engine);
                 }
             }
             for (String scenario : options.scenarios) {
-                if (!DEFAULT_SCENARIOS.contains(scenario)) {
+                if (!ALL_SCENARIOS.contains(scenario)) {
                     throw new IllegalArgumentException(
                             "Unsupported scenario: " + scenario);
                 }
@@ -461,12 +608,24 @@ public final class PonySqliteBenchmark {
         private final String engine;
         private final Connection connection;
         private final DBSystem ponyDatabase;
+        private final String sqliteUrl;
 
         private BenchmarkDatabase(String engine, Connection connection,
-                                  DBSystem ponyDatabase) {
+                                  DBSystem ponyDatabase, String sqliteUrl) {
             this.engine = engine;
             this.connection = connection;
             this.ponyDatabase = ponyDatabase;
+            this.sqliteUrl = sqliteUrl;
+        }
+
+        /**
+         * Opens another connection to the database.
+         */
+        private Connection openConnection() throws SQLException {
+            if (ponyDatabase != null) {
+                return ponyDatabase.getConnection("test", "test");
+            }
+            return DriverManager.getConnection(sqliteUrl);
         }
 
         public void close() throws Exception {
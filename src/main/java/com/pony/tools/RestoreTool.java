@@ -0,0 +1,234 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tools;
+
+import com.pony.database.Database;
+import com.pony.database.TransactionSystem;
+import com.pony.database.control.DBConfig;
+import com.pony.database.control.DefaultDBConfig;
+import com.pony.debug.DefaultDebugLogger;
+import com.pony.debug.Lvl;
+import com.pony.store.LoggingBufferManager;
+import com.pony.util.CommandLine;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Properties;
+
+/**
+ * A command line tool that restores a database from an incremental backup.
+ * The base backup (made by the SYSTEM_MAKE_BASE_BACKUP procedure) is copied
+ * to the destination and the archived journals from the start of the base
+ * backup are replayed over it, either to the last archived journal or up to
+ * a chosen journal sequence number.
+ *
+ * @author Tobias Downer
+ */
+
+public class RestoreTool {
+
+    /**
+     * Restores the base backup in 'base_path' to 'dest_path' and replays the
+     * journals archived in 'archive_path' up to 'until_sequence' (or all of
+     * them if -1).
+     */
+    public static void restore(File base_path, File archive_path,
+                               File dest_path, long until_sequence)
+            throws IOException {
+        restore(base_path, archive_path, dest_path, until_sequence, null);
+    }
+
+    /**
+     * Restores the base backup the same as above.  The data file slice sizes
+     * and buffer pool page sizes are read from the base backup, and from
+     * 'config' (the configuration of the database, or null) if the base
+     * backup doesn't have them, for example the slice size of a store that
+     * was created after the base backup was made.
+     */
+    public static void restore(File base_path, File archive_path,
+                               File dest_path, long until_sequence,
+                               DBConfig config)
+            throws IOException {
+
+        Properties properties = new Properties();
+        File properties_file =
+                new File(base_path, Database.BASE_BACKUP_PROPERTIES);
+        if (!properties_file.exists()) {
+            throw new IOException("'" + base_path + "' is not a base backup.");
+        }
+        try (InputStream in = new FileInputStream(properties_file)) {
+            properties.load(in);
+        }
+        int page_size = Integer.parseInt(properties.getProperty("page_size"));
+        long start_sequence =
+                Long.parseLong(properties.getProperty("start_sequence"));
+        long consistent_sequence =
+                Long.parseLong(properties.getProperty("consistent_sequence"));
+
+        if (until_sequence == -1) {
+            until_sequence = Long.MAX_VALUE;
+        } else if (until_sequence < consistent_sequence) {
+            throw new IOException("The base backup is consistent from journal " +
+                    consistent_sequence + ", can not restore to " + until_sequence);
+        }
+
+        // The archived journals to replay.  The sequence must not have gaps.
+        ArrayList journals = new ArrayList();
+        long sequence = start_sequence;
+        while (sequence <= until_sequence) {
+            File f = LoggingBufferManager.getArchivedJournalFile(
+                    archive_path, sequence);
+            if (!f.exists()) {
+                break;
+            }
+            journals.add(f);
+            ++sequence;
+        }
+        long last_sequence = sequence - 1;
+        if (last_sequence < consistent_sequence) {
+            throw new IOException("Archived journal " + sequence +
+                    " is missing, the base backup needs the journals up to " +
+                    consistent_sequence);
+        }
+        if (until_sequence != Long.MAX_VALUE && last_sequence < until_sequence) {
+            throw new IOException("Archived journal " + sequence +
+                    " is missing, can not restore to " + until_sequence);
+        }
+        String[] archive_names = archive_path.list();
+        if (until_sequence == Long.MAX_VALUE && archive_names != null) {
+            for (String name : archive_names) {
+                if (LoggingBufferManager.parseArchivedJournalName(name) >
+                        last_sequence) {
+                    System.out.println("Warning: Archived journal " + sequence +
+                            " is missing, later journals are not restored.");
+                    break;
+                }
+            }
+        }
+
+        // Copy the base backup to the destination
+        if (!dest_path.exists() && !dest_path.mkdirs()) {
+            throw new IOException("Unable to create " + dest_path);
+        }
+        String[] dest_names = dest_path.list();
+        if (dest_names != null && dest_names.length > 0) {
+            throw new IOException("'" + dest_path + "' is not empty.");
+        }
+        String[] names = base_path.list();
+        for (String name : names) {
+            File f = new File(base_path, name);
+            if (f.isFile() && !name.equals(Database.BASE_BACKUP_PROPERTIES)) {
+                Files.copy(f.toPath(), new File(dest_path, name).toPath());
+            }
+        }
+
+        // Replay the journals over the copy.  The buffer manager is not
+        // started, it's only used to apply the journals to the resources.
+        // The stores are laid out the same as by TransactionSystem.
+        DefaultDebugLogger debug = new DefaultDebugLogger();
+        debug.setDebugLevel(Lvl.MESSAGE);
+        final long max_slice_size = getSetting(properties, config,
+                "data_file_slice_size",
+                TransactionSystem.DEFAULT_DATA_FILE_SLICE_SIZE);
+        LoggingBufferManager buffer_manager = new LoggingBufferManager(
+                dest_path, dest_path, false, 64, page_size, null, false,
+                TransactionSystem.DATA_FILE_EXT,
+                resource_name -> getSetting(properties, config,
+                        "data_file_slice_size." + resource_name, max_slice_size),
+                0, false, debug, true);
+        // The pools only give the page sizes of the stores here
+        buffer_manager.setResourceClassifier(TransactionSystem::getStoreClass);
+        for (String store_class : TransactionSystem.STORE_CLASSES) {
+            if (getSetting(properties, config,
+                    "buffer_pool_pages." + store_class, 0) > 0) {
+                int pool_page_size = (int) getSetting(properties, config,
+                        "buffer_pool_page_size." + store_class, page_size);
+                buffer_manager.addBufferPool(store_class, pool_page_size, 1);
+            }
+        }
+        buffer_manager.replayJournals(
+                (File[]) journals.toArray(new File[0]));
+
+        System.out.println("Restored " + dest_path + " to archived journal " +
+                last_sequence + " (" + journals.size() + " journals replayed)");
+    }
+
+    /**
+     * Returns the numeric setting from the base backup properties, or from
+     * the configuration if the base backup doesn't have it, or the default.
+     */
+    private static long getSetting(Properties properties, DBConfig config,
+                                   String key, long default_val) {
+        String v = properties.getProperty(key);
+        if (v == null && config != null) {
+            v = config.getValue(key);
+        }
+        if (v == null) {
+            return default_val;
+        }
+        return Long.parseLong(v.trim());
+    }
+
+    /**
+     * Prints the syntax.
+     */
+    private static void printSyntax() {
+        System.out.println("RestoreTool -base [base backup directory] " +
+                "-archive [journal archive directory] " +
+                "-path [destination data directory] " +
+                "[-until [journal sequence number]] " +
+                "[-config [database configuration file]]");
+    }
+
+    /**
+     * Application start point.
+     */
+    public static void main(String[] args) {
+        CommandLine cl = new CommandLine(args);
+
+        String base = cl.switchArgument("-base");
+        String archive = cl.switchArgument("-archive");
+        String path = cl.switchArgument("-path");
+        String until = cl.switchArgument("-until", "-1");
+        String config_file = cl.switchArgument("-config");
+
+        if (base == null || archive == null || path == null) {
+            printSyntax();
+            System.out.println("Error: -base, -archive and -path are required.");
+            System.exit(-1);
+        }
+
+        try {
+            DefaultDBConfig config = null;
+            if (config_file != null) {
+                File f = new File(config_file);
+                config = new DefaultDBConfig(f.getAbsoluteFile().getParentFile());
+                config.loadFromFile(f);
+            }
+            restore(new File(base), new File(archive), new File(path),
+                    Long.parseLong(until), config);
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.exit(-1);
+        }
+
+    }
+
+}
@@ -0,0 +1,587 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tools;
+
+import com.pony.debug.DefaultDebugLogger;
+import com.pony.debug.Lvl;
+import com.pony.store.Area;
+import com.pony.store.AreaWriter;
+import com.pony.store.JournalledFileStore;
+import com.pony.store.LoggingBufferManager;
+import com.pony.store.ScatteringStoreDataAccessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A command line micro benchmark for the store layer (the buffer manager,
+ * the journalled resources and the store data accessors).  Each scenario is
+ * run once for every thread count so the scaling of the store layer with the
+ * number of cores can be seen.
+ */
+public final class StoreBenchmark {
+
+    private static final List<String> DEFAULT_SCENARIOS =
+            Arrays.asList("buffer_hits", "random_reads", "allocation", "growth");
+
+    private static final int DEFAULT_PAGE_SIZE = 8192;
+    private static final int DEFAULT_PAGES_PER_THREAD = 64;
+    private static final long DEFAULT_DURATION_MILLIS = 3_000;
+    private static final long DEFAULT_STORE_SIZE_MEGABYTES = 10_240;
+    private static final int DEFAULT_LIVE_AREAS_PER_THREAD = 4096;
+    private static final long DEFAULT_PREALLOCATION_MEGABYTES = 64;
+
+    private StoreBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkOptions options = BenchmarkOptions.parse(args);
+        if (options.help) {
+            printUsage();
+            return;
+        }
+
+        System.out.println("| Scenario | Threads | Operations | Elapsed ms | Ops/sec | Scaling |");
+        System.out.println("| --- | ---: | ---: | ---: | ---: | ---: |");
+        for (String scenario : options.scenarios) {
+            double single_thread_rate = 0;
+            // The directory is shared by all the runs of the scenario so that
+            // large data sets are only created once.
+            Path directory = Files.createTempDirectory("pony-store-bench");
+            try {
+                for (int threads : options.threadCounts) {
+                    BenchmarkResult result = runScenario(scenario, threads,
+                            directory, options);
+                    if (single_thread_rate == 0) {
+                        single_thread_rate = result.operationsPerSecond() / threads;
+                    }
+                    System.out.println(result.toMarkdownRow(single_thread_rate));
+                }
+            } finally {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static BenchmarkResult runScenario(String scenario, int threads,
+                                               Path directory,
+                                               BenchmarkOptions options)
+            throws Exception {
+        if ("buffer_hits".equals(scenario)) {
+            return bufferHits(threads,
+                    Files.createDirectories(directory.resolve("run-" + threads)),
+                    options);
+        } else if ("random_reads".equals(scenario)) {
+            return randomReads(threads, directory, options);
+        } else if ("allocation".equals(scenario)) {
+            return allocation(threads,
+                    Files.createDirectories(directory.resolve("run-" + threads)),
+                    options);
+        } else if ("growth".equals(scenario)) {
+            return growth(threads,
+                    Files.createDirectories(directory.resolve("run-" + threads)),
+                    options);
+        }
+        throw new IllegalArgumentException("Unsupported scenario: " + scenario);
+    }
+
+    /**
+     * Each thread reads random longs from its own store.  The working set of
+     * all the stores fits in the buffer pool so every read after the warm up
+     * is a page hit.
+     */
+    private static BenchmarkResult bufferHits(int threads, Path directory,
+                                              BenchmarkOptions options)
+            throws Exception {
+        final int pages_per_thread = options.pagesPerThread;
+        LoggingBufferManager buffer_manager = createBufferManager(directory,
+                (pages_per_thread + 8) * threads, options);
+        buffer_manager.start();
+        try {
+            final JournalledFileStore[] stores = new JournalledFileStore[threads];
+            final long[][] area_ids = new long[threads][];
+            for (int i = 0; i < threads; ++i) {
+                stores[i] = new JournalledFileStore("bench_" + i,
+                        buffer_manager, false);
+                stores[i].open();
+                area_ids[i] = fillStore(stores[i], pages_per_thread,
+                        options.pageSize);
+            }
+            buffer_manager.setCheckPoint(true);
+
+            BenchmarkResult result = runThreads("buffer_hits", threads,
+                    options.durationMillis, thread -> {
+                        Area area = stores[thread].getArea(randomElement(area_ids[thread]));
+                        area.position(ThreadLocalRandom.current()
+                                .nextInt(area.capacity() / 8) * 8);
+                        return area.getLong();
+                    });
+
+            for (JournalledFileStore store : stores) {
+                store.close();
+            }
+            return result;
+        } finally {
+            buffer_manager.stop();
+        }
+    }
+
+    /**
+     * Threads read random pages directly from one large scattering store
+     * (10 GB by default).  There is no buffer pool in front of the store so
+     * every read goes to the file system.  For the numbers to reflect the
+     * disk rather than the OS cache, the store should be larger than the
+     * memory of the machine.
+     */
+    private static BenchmarkResult randomReads(int threads, Path directory,
+                                               BenchmarkOptions options)
+            throws Exception {
+        final long store_size = options.storeSizeMegabytes * 1024L * 1024L;
+        final int page_size = options.pageSize;
+        final long page_count = store_size / page_size;
+        final ScatteringStoreDataAccessor store = new ScatteringStoreDataAccessor(
+                directory.toFile(), "bench_random", "pds", 1024L * 1024L * 1024L,
+                options.memoryMapped);
+        boolean fill = !store.exists();
+        store.open(false);
+        try {
+            if (fill) {
+                // Write the store sequentially in 1 MB blocks.
+                byte[] block = new byte[1024 * 1024];
+                ThreadLocalRandom.current().nextBytes(block);
+                store.setSize(store_size);
+                for (long p = 0; p < store_size; p += block.length) {
+                    store.write(p, block, 0,
+                            (int) Math.min(block.length, store_size - p));
+                }
+                store.synch();
+            }
+
+            final ThreadLocal<byte[]> buffers =
+                    ThreadLocal.withInitial(() -> new byte[page_size]);
+            return runThreads("random_reads", threads, options.durationMillis,
+                    thread -> {
+                        byte[] buf = buffers.get();
+                        long page = ThreadLocalRandom.current().nextLong(page_count);
+                        store.read(page * page_size, buf, 0, page_size);
+                        return buf[0];
+                    });
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * All threads allocate and delete areas in one store, like concurrent
+     * inserts and deletes on a table.  Each thread keeps a set of live areas
+     * of mixed sizes and each operation replaces a random one, so the free
+     * bins fill up and areas are recycled and coalesced.
+     */
+    private static BenchmarkResult allocation(int threads, Path directory,
+                                              BenchmarkOptions options)
+            throws Exception {
+        LoggingBufferManager buffer_manager = createBufferManager(directory,
+                4096, options);
+        buffer_manager.start();
+        try {
+            final JournalledFileStore store = new JournalledFileStore(
+                    "bench_alloc", buffer_manager, false);
+            store.open();
+            final int live_areas = options.liveAreasPerThread;
+            final long[][] area_ids = new long[threads][live_areas];
+            final byte[] content = new byte[64];
+            for (int i = 0; i < threads; ++i) {
+                for (int n = 0; n < live_areas; ++n) {
+                    area_ids[i][n] = allocateArea(store, content);
+                }
+            }
+            buffer_manager.setCheckPoint(true);
+
+            BenchmarkResult result = runThreads("allocation", threads,
+                    options.durationMillis, thread -> {
+                        long[] ids = area_ids[thread];
+                        int n = ThreadLocalRandom.current().nextInt(ids.length);
+                        store.lockForWrite();
+                        try {
+                            store.deleteArea(ids[n]);
+                            ids[n] = allocateArea(store, content);
+                        } finally {
+                            store.unlockForWrite();
+                        }
+                        return ids[n];
+                    });
+
+            store.close();
+            return result;
+        } finally {
+            buffer_manager.stop();
+        }
+    }
+
+    /**
+     * Each thread appends pages to its own scattering store, growing the
+     * store by one page at a time like a bulk load does.  The files are
+     * preallocated in extents of '--preallocation-mb' (0 grows the files by
+     * one page at a time).
+     */
+    private static BenchmarkResult growth(int threads, Path directory,
+                                          BenchmarkOptions options)
+            throws Exception {
+        final int page_size = options.pageSize;
+        final long preallocation =
+                options.preallocationMegabytes * 1024L * 1024L;
+        final ScatteringStoreDataAccessor[] stores =
+                new ScatteringStoreDataAccessor[threads];
+        for (int i = 0; i < threads; ++i) {
+            stores[i] = new ScatteringStoreDataAccessor(directory.toFile(),
+                    "bench_growth_" + i, "pds", 1024L * 1024L * 1024L,
+                    preallocation, options.memoryMapped);
+            stores[i].open(false);
+        }
+        try {
+            final byte[] page = new byte[page_size];
+            ThreadLocalRandom.current().nextBytes(page);
+            return runThreads("growth", threads, options.durationMillis,
+                    thread -> {
+                        ScatteringStoreDataAccessor store = stores[thread];
+                        long size = store.getSize();
+                        store.setSize(size + page_size);
+                        store.write(size, page, 0, page_size);
+                        return size;
+                    });
+        } finally {
+            for (ScatteringStoreDataAccessor store : stores) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Allocates an area of a random size (mostly small record sized areas
+     * with some larger ones) and writes the first bytes of it.
+     */
+    private static long allocateArea(JournalledFileStore store, byte[] content)
+            throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = random.nextInt(10) == 0 ? random.nextInt(512, 8192)
+                                           : random.nextInt(16, 256);
+        AreaWriter writer = store.createArea(size);
+        writer.put(content, 0, Math.min(size, content.length));
+        writer.finish();
+        return writer.getID();
+    }
+
+    private static LoggingBufferManager createBufferManager(Path directory,
+                                                            int max_pages,
+                                                            BenchmarkOptions options) {
+        DefaultDebugLogger debug = new DefaultDebugLogger();
+        debug.setDebugLevel(Lvl.ERROR);
+        File path = directory.toFile();
+        return new LoggingBufferManager(path, path, false, max_pages,
+                options.pageSize, options.replacementPolicy, options.offHeap, "pds",
+                16384L * 65536L, options.memoryMapped, debug, true);
+    }
+
+    /**
+     * Fills the store with page sized areas and returns the area ids.
+     */
+    private static long[] fillStore(JournalledFileStore store, int pages,
+                                    int page_size) throws IOException {
+        long[] ids = new long[pages];
+        byte[] content = new byte[page_size - 64];
+        ThreadLocalRandom.current().nextBytes(content);
+        store.lockForWrite();
+        try {
+            for (int i = 0; i < pages; ++i) {
+                AreaWriter writer = store.createArea(content.length);
+                writer.put(content);
+                writer.finish();
+                ids[i] = writer.getID();
+            }
+        } finally {
+            store.unlockForWrite();
+        }
+        return ids;
+    }
+
+    private static long randomElement(long[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    /**
+     * Runs the operation on the given number of threads for the given
+     * duration and returns the total number of operations performed.
+     */
+    private static BenchmarkResult runThreads(String scenario, int threads,
+                                              long duration_millis,
+                                              StoreOperation operation)
+            throws Exception {
+        final CountDownLatch start_latch = new CountDownLatch(1);
+        final long[] counts = new long[threads];
+        final Exception[] errors = new Exception[threads];
+        final long[] deadline = new long[1];
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+            final int thread = i;
+            Thread worker = new Thread(() -> {
+                long count = 0;
+                long checksum = 0;
+                try {
+                    start_latch.await();
+                    while ((count & 0x03FF) != 0 || System.nanoTime() < deadline[0]) {
+                        checksum += operation.run(thread);
+                        ++count;
+                    }
+                } catch (Exception e) {
+                    errors[thread] = e;
+                }
+                counts[thread] = count;
+                consume(checksum);
+            }, "Pony - Store Benchmark " + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long start = System.nanoTime();
+        deadline[0] = start + (duration_millis * 1_000_000L);
+        start_latch.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+
+        long total = 0;
+        for (int i = 0; i < threads; ++i) {
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+            total += counts[i];
+        }
+        return new BenchmarkResult(scenario, threads, total, elapsed);
+    }
+
+    private static void consume(long checksum) {
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println("unreachable checksum: " + checksum);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (var stream = Files.walk(path)) {
+            stream.sorted(Comparator.reverseOrder())
+                    .forEach(StoreBenchmark::deletePath);
+        }
+    }
+
+    private static void deletePath(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to delete " + path, e);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: mvn -Pbenchmarks -DskipTests compile exec:java " +
+                "-Dexec.mainClass=com.pony.tools.StoreBenchmark " +
+                "-Dexec.args=\"[options]\"");
+        System.out.println();
+        System.out.println("Options:");
+        System.out.println("  --threads 1,2,4,8");
+        System.out.println("  --scenarios " + String.join(",", DEFAULT_SCENARIOS));
+        System.out.println("  --duration-ms 3000");
+        System.out.println("  --page-size 8192");
+        System.out.println("  --pages-per-thread 64");
+        System.out.println("  --store-mb 10240");
+        System.out.println("  --live-areas 4096");
+        System.out.println("  --preallocation-mb 64");
+        System.out.println("  --replacement 2q,clock,weighted");
+        System.out.println("  --off-heap");
+        System.out.println("  --memory-mapped");
+        System.out.println("  --help");
+    }
+
+    private static final class BenchmarkOptions {
+        private List<Integer> threadCounts = defaultThreadCounts();
+        private List<String> scenarios = DEFAULT_SCENARIOS;
+        private long durationMillis = DEFAULT_DURATION_MILLIS;
+        private int pageSize = DEFAULT_PAGE_SIZE;
+        private int pagesPerThread = DEFAULT_PAGES_PER_THREAD;
+        private long storeSizeMegabytes = DEFAULT_STORE_SIZE_MEGABYTES;
+        private int liveAreasPerThread = DEFAULT_LIVE_AREAS_PER_THREAD;
+        private long preallocationMegabytes = DEFAULT_PREALLOCATION_MEGABYTES;
+        private String replacementPolicy =
+                LoggingBufferManager.DEFAULT_REPLACEMENT_POLICY;
+        private boolean offHeap = false;
+        private boolean memoryMapped = false;
+        private boolean help = false;
+
+        private static List<Integer> defaultThreadCounts() {
+            List<Integer> result = new ArrayList<>();
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int i = 1; i < cores; i *= 2) {
+                result.add(i);
+            }
+            result.add(cores);
+            return result;
+        }
+
+        private static BenchmarkOptions parse(String[] args) {
+            BenchmarkOptions options = new BenchmarkOptions();
+            for (int i = 0; i < args.length; ++i) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--help":
+                    case "-h":
+                        options.help = true;
+                        break;
+                    case "--threads":
+                        options.threadCounts = parseIntegers(nextValue(args, ++i, arg));
+                        break;
+                    case "--scenarios":
+                        options.scenarios = parseStrings(nextValue(args, ++i, arg));
+                        break;
+                    case "--duration-ms":
+                        options.durationMillis = Long.parseLong(
+                                nextValue(args, ++i, arg));
+                        break;
+                    case "--page-size":
+                        options.pageSize = Integer.parseInt(
+                                nextValue(args, ++i, arg));
+                        break;
+                    case "--pages-per-thread":
+                        options.pagesPerThread = Integer.parseInt(
+                                nextValue(args, ++i, arg));
+                        break;
+                    case "--store-mb":
+                        options.storeSizeMegabytes = Long.parseLong(
+                                nextValue(args, ++i, arg));
+                        break;
+                    case "--live-areas":
+                        options.liveAreasPerThread = Integer.parseInt(
+                                nextValue(args, ++i, arg));
+                        break;
+                    case "--preallocation-mb":
+                        options.preallocationMegabytes = Long.parseLong(
+                                nextValue(args, ++i, arg));
+                        break;
+                    case "--replacement":
+                        options.replacementPolicy = nextValue(args, ++i, arg);
+                        break;
+                    case "--off-heap":
+                        options.offHeap = true;
+                        break;
+                    case "--memory-mapped":
+                        options.memoryMapped = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            validateOptions(options);
+            return options;
+        }
+
+        private static String nextValue(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            return args[index];
+        }
+
+        private static List<Integer> parseIntegers(String value) {
+            List<Integer> result = new ArrayList<>();
+            for (String part : value.split(",")) {
+                result.add(Integer.parseInt(part.trim()));
+            }
+            return result;
+        }
+
+        private static List<String> parseStrings(String value) {
+            List<String> result = new ArrayList<>();
+            for (String part : value.split(",")) {
+                result.add(part.trim().toLowerCase(Locale.ROOT));
+            }
+            return result;
+        }
+
+        private static void validateOptions(BenchmarkOptions options) {
+            for (Integer threads : options.threadCounts) {
+                if (threads == null || threads <= 0) {
+                    throw new IllegalArgumentException("Threads must be positive.");
+                }
+            }
+            for (String scenario : options.scenarios) {
+                if (!DEFAULT_SCENARIOS.contains(scenario)) {
+                    throw new IllegalArgumentException(
+                            "Unsupported scenario: " + scenario);
+                }
+            }
+            if (options.durationMillis <= 0 || options.pageSize < 512 ||
+                    options.pagesPerThread <= 0 || options.storeSizeMegabytes <= 0 ||
+                    options.liveAreasPerThread <= 0 ||
+                    options.preallocationMegabytes < 0) {
+                throw new IllegalArgumentException("Invalid benchmark size.");
+            }
+        }
+    }
+
+    private static final class BenchmarkResult {
+        private final String scenario;
+        private final int threads;
+        private final long operations;
+        private final long elapsedMillis;
+
+        private BenchmarkResult(String scenario, int threads, long operations,
+                                long elapsedMillis) {
+            this.scenario = scenario;
+            this.threads = threads;
+            this.operations = operations;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        private double operationsPerSecond() {
+            return (operations * 1000.0d) / elapsedMillis;
+        }
+
+        private String toMarkdownRow(double single_thread_rate) {
+            return "| " + scenario + " | " + threads + " | " + operations +
+                    " | " + elapsedMillis + " | " +
+                    String.format(Locale.ROOT, "%.2f", operationsPerSecond()) +
+                    " | " + String.format(Locale.ROOT, "%.2fx",
+                    operationsPerSecond() / single_thread_rate) + " |";
+        }
+    }
+
+    private interface StoreOperation {
+        long run(int thread) throws IOException;
+    }
+}
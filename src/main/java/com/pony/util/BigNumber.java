@@ -80,6 +80,27 @@ public final class BigNumber extends Number {
         }
     }
 
+    /**
+     * Constructs the number with the given unscaled value and scale, without
+     * converting the value to a BigInteger.
+     */
+    private BigNumber(long unscaled_value, int scale) {
+        this.number_state = 0;
+        this.big_decimal = BigDecimal.valueOf(unscaled_value, scale);
+        if (scale == 0) {
+            // The same as 'BigInteger.bitLength' of the value
+            int bit_count = 64 - Long.numberOfLeadingZeros(
+                    unscaled_value < 0 ? ~unscaled_value : unscaled_value);
+            if (bit_count < 30) {
+                this.long_representation = unscaled_value;
+                this.byte_count = 4;
+            } else if (bit_count < 60) {
+                this.long_representation = unscaled_value;
+                this.byte_count = 8;
+            }
+        }
+    }
+
     // Only call this from a constructor!
     private void setBigDecimal(BigDecimal big_decimal) {
         this.big_decimal = big_decimal;
@@ -492,6 +513,14 @@ public final class BigNumber extends Number {
         return new BigNumber((byte) 0, BigDecimal.valueOf(value));
     }
 
+    /**
+     * Creates a BigNumber from an unscaled long value and a scale, the same as
+     * 'fromData' of the value's two's complement bytes.
+     */
+    public static BigNumber fromLong(long unscaled_value, int scale) {
+        return new BigNumber(unscaled_value, scale);
+    }
+
     /**
      * Creates a BigNumber from an int.
      */
@@ -0,0 +1,365 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.pony.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe cache of values by key that is bounded by the total weight
+ * of the entries.  By default every entry weighs 1 so the cache is bounded
+ * by the number of entries.  Entries may also expire a fixed time after they
+ * are put in the cache.
+ * <p>
+ * The cache is split into segments that each have their own lock and evict
+ * their least recently used entries when they are over their share of the
+ * maximum weight.  Hits, misses and evictions are counted.
+ *
+ * @author Tobias Downer
+ */
+
+public final class BoundedCache<K, V> {
+
+    /**
+     * Calculates the weight of an entry.
+     */
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    /**
+     * The maximum number of segments.
+     */
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * The smallest maximum weight of a segment.
+     */
+    private static final long MIN_SEGMENT_WEIGHT = 16;
+
+    /**
+     * The segments of the cache.  The number of segments is a power of 2.
+     */
+    private final Segment<K, V>[] segments;
+
+    /**
+     * The number of bits of the hash that pick the segment.
+     */
+    private final int segment_bits;
+
+    /**
+     * The weigher of the entries, or null if every entry weighs 1.
+     */
+    private final Weigher<? super K, ? super V> weigher;
+
+    /**
+     * The time (in nanoseconds) after an entry is put in the cache that it
+     * expires, or 0 if entries don't expire.
+     */
+    private final long expire_after_write;
+
+    /**
+     * Counters of hits, misses, evictions and expired entries.
+     */
+    private final LongAdder hit_count = new LongAdder();
+    private final LongAdder miss_count = new LongAdder();
+    private final LongAdder eviction_count = new LongAdder();
+    private final LongAdder expired_count = new LongAdder();
+
+    /**
+     * Constructs a cache of up to 'max_size' entries.
+     */
+    public BoundedCache(int max_size) {
+        this(max_size, null, 0);
+    }
+
+    /**
+     * Constructs a cache of entries with a total weight of up to 'max_weight'
+     * as calculated by the weigher (null if every entry weighs 1).  If
+     * 'expire_after_write' is greater than 0 then entries expire that many
+     * milliseconds after they are put in the cache.
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(long max_weight, Weigher<? super K, ? super V> weigher,
+                        long expire_after_write) {
+        if (max_weight <= 0) {
+            throw new IllegalArgumentException("max_weight must be positive.");
+        }
+        int bits = 0;
+        while ((1 << bits) < MAX_SEGMENTS &&
+                max_weight >> (bits + 1) >= MIN_SEGMENT_WEIGHT) {
+            ++bits;
+        }
+        this.segment_bits = bits;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[1 << bits];
+        for (int i = 0; i < segments.length; ++i) {
+            // Share the weight out so the segments add up to the maximum
+            long segment_weight = (max_weight >> bits) +
+                    (i < (max_weight & (segments.length - 1)) ? 1 : 0);
+            segments[i] = new Segment<>(segment_weight);
+        }
+        this.weigher = weigher;
+        this.expire_after_write = expire_after_write * 1000000L;
+    }
+
+    /**
+     * Returns the segment of the given key.
+     */
+    private Segment<K, V> segmentFor(Object key) {
+        if (segment_bits == 0) {
+            return segments[0];
+        }
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[h >>> (32 - segment_bits)];
+    }
+
+    /**
+     * Returns the weight of an entry.
+     */
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalStateException("Negative weight: " + weight);
+        }
+        return weight;
+    }
+
+    /**
+     * Returns true if the entry has expired.
+     */
+    private boolean isExpired(Node<V> node, long now) {
+        return expire_after_write > 0 && now - node.write_time >= expire_after_write;
+    }
+
+    /**
+     * Returns the value of the key in the cache, or null if it isn't in the
+     * cache or has expired.
+     */
+    public V get(Object key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Node<V> node = segment.get(key);
+            if (node != null) {
+                if (isExpired(node, System.nanoTime())) {
+                    segment.removeNode(key);
+                    expired_count.increment();
+                } else {
+                    hit_count.increment();
+                    return node.value;
+                }
+            }
+        }
+        miss_count.increment();
+        return null;
+    }
+
+    /**
+     * Puts the value of the key in the cache, replacing any existing value.
+     * A value that weighs more than its segment of the cache can hold is not
+     * cached.
+     */
+    public void put(K key, V value) {
+        int weight = weigh(key, value);
+        long now = (expire_after_write > 0) ? System.nanoTime() : 0;
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.removeNode(key);
+            if (weight <= segment.max_weight) {
+                segment.put(key, new Node<>(value, weight, now));
+                segment.weight += weight;
+                evict(segment);
+            }
+        }
+    }
+
+    /**
+     * Puts the value of the key in the cache if the key isn't already in the
+     * cache.  Returns the value that was already in the cache, or null if the
+     * value was put in the cache.
+     */
+    public V putIfAbsent(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Node<V> node = segment.get(key);
+            if (node != null && !isExpired(node, System.nanoTime())) {
+                return node.value;
+            }
+            put(key, value);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the key from the cache.  Returns the value that was removed, or
+     * null if the key wasn't in the cache.
+     */
+    public V remove(Object key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Node<V> node = segment.removeNode(key);
+            return node == null ? null : node.value;
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+                segment.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries of the segment until it is
+     * within its maximum weight.
+     */
+    private void evict(Segment<K, V> segment) {
+        Iterator<Node<V>> i = segment.values().iterator();
+        while (segment.weight > segment.max_weight && i.hasNext()) {
+            Node<V> node = i.next();
+            i.remove();
+            segment.weight -= node.weight;
+            eviction_count.increment();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total weight of the entries in the cache.
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the number of times a key was found in the cache.
+     */
+    public long getHitCount() {
+        return hit_count.sum();
+    }
+
+    /**
+     * Returns the number of times a key was not found in the cache.
+     */
+    public long getMissCount() {
+        return miss_count.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its
+     * maximum weight.
+     */
+    public long getEvictionCount() {
+        return eviction_count.sum();
+    }
+
+    /**
+     * Returns the number of entries that were removed because they expired.
+     */
+    public long getExpiredCount() {
+        return expired_count.sum();
+    }
+
+    /**
+     * Returns the percentage of lookups that were hits (0 if there were no
+     * lookups).
+     */
+    public int getHitPercentage() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (int) ((hits * 100) / total);
+    }
+
+    // ---------- Inner classes ----------
+
+    /**
+     * A cached value.
+     */
+    private static final class Node<V> {
+        final V value;
+        final int weight;
+        final long write_time;
+
+        Node(V value, int weight, long write_time) {
+            this.value = value;
+            this.weight = weight;
+            this.write_time = write_time;
+        }
+    }
+
+    /**
+     * A segment of the cache.  The map is in access order so iteration starts
+     * at the least recently used entry.  All access is under a lock on the
+     * segment.
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, Node<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximum and current total weight of the entries.
+         */
+        final long max_weight;
+        long weight;
+
+        Segment(long max_weight) {
+            super(16, 0.75f, true);
+            this.max_weight = max_weight;
+        }
+
+        /**
+         * Removes the key and updates the weight.
+         */
+        Node<V> removeNode(Object key) {
+            Node<V> node = remove(key);
+            if (node != null) {
+                weight -= node.weight;
+            }
+            return node;
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the size accounting and the W-TinyLFU policy of the DataCellCache.
+ * DataCellCache is package private so this test is in its package.
+ */
+class DataCellCacheTest {
+
+    private static final int MAX_CACHE_SIZE = 64 * 1024;
+    private static final int MAX_CELL_SIZE = 1024;
+
+    private static final int TABLE = 7;
+    private static final int COLUMN = 2;
+
+    @Test
+    void cacheStaysWithinMaximumSize() {
+        DataCellCache cache = createCache();
+        for (int row = 0; row < 10000; ++row) {
+            cache.put(TABLE, row, COLUMN, cell(row));
+            assertTrue(cache.getCurrentCacheSize() <= MAX_CACHE_SIZE);
+        }
+        assertTrue(cache.getCurrentCacheSize() > MAX_CACHE_SIZE / 2);
+        assertTrue(cache.getEvictionCount() > 0);
+
+        // Shrinking the cache evicts down to the new size
+        cache.alterCacheDynamics(MAX_CACHE_SIZE / 4, MAX_CELL_SIZE);
+        assertTrue(cache.getCurrentCacheSize() <= MAX_CACHE_SIZE / 4);
+    }
+
+    @Test
+    void frequentCellsSurviveScan() {
+        DataCellCache cache = createCache();
+        int hot_rows = 100;
+        for (int row = 0; row < hot_rows; ++row) {
+            cache.put(TABLE, row, COLUMN, cell(row));
+        }
+        for (int i = 0; i < 5; ++i) {
+            for (int row = 0; row < hot_rows; ++row) {
+                assertNotNull(cache.get(TABLE, row, COLUMN));
+            }
+        }
+
+        // A scan of cells that are each read once, many times the size of
+        // the cache.
+        for (int row = hot_rows; row < hot_rows + 20000; ++row) {
+            assertNull(cache.get(TABLE, row, COLUMN));
+            cache.put(TABLE, row, COLUMN, cell(row));
+        }
+
+        int survived = 0;
+        for (int row = 0; row < hot_rows; ++row) {
+            if (cache.get(TABLE, row, COLUMN) != null) {
+                ++survived;
+            }
+        }
+        assertTrue(survived >= hot_rows * 9 / 10,
+                "Only " + survived + " frequent cells survived the scan");
+    }
+
+    @Test
+    void removeAndWipeKeepSizeConsistent() {
+        DataCellCache cache = createCache();
+        // Under the maximum size so nothing is evicted
+        int rows = 200;
+        for (int row = 0; row < rows; ++row) {
+            cache.put(TABLE, row, COLUMN, cell(row));
+        }
+        long size = cache.getCurrentCacheSize();
+        assertTrue(size > 0);
+
+        // Replacing a cell accounts for the change of size
+        cache.put(TABLE, 0, COLUMN, cell(0));
+        assertEquals(size, cache.getCurrentCacheSize());
+        cache.put(TABLE, 0, COLUMN, TObject.stringVal("a larger value " + cell(0)));
+        long larger = cache.getCurrentCacheSize();
+        assertTrue(larger > size);
+        cache.put(TABLE, 0, COLUMN, cell(0));
+        assertEquals(size, cache.getCurrentCacheSize());
+
+        for (int row = 0; row < rows; ++row) {
+            assertNotNull(cache.remove(TABLE, row, COLUMN));
+            long after = cache.getCurrentCacheSize();
+            assertTrue(after < size);
+            size = after;
+        }
+        assertEquals(0, cache.getCurrentCacheSize());
+        assertNull(cache.remove(TABLE, 0, COLUMN));
+
+        // With evictions, removing every cell that was put still leaves the
+        // cache empty.
+        rows = 5000;
+        for (int row = 0; row < rows; ++row) {
+            cache.put(TABLE, row, COLUMN, cell(row));
+        }
+        for (int row = 0; row < rows; ++row) {
+            cache.remove(TABLE, row, COLUMN);
+        }
+        assertEquals(0, cache.getCurrentCacheSize());
+
+        for (int row = 0; row < rows; ++row) {
+            cache.put(TABLE, row, COLUMN, cell(row));
+        }
+        assertTrue(cache.getCurrentCacheSize() > 0);
+        cache.wipe();
+        assertEquals(0, cache.getCurrentCacheSize());
+        assertNull(cache.get(TABLE, rows - 1, COLUMN));
+    }
+
+    private static DataCellCache createCache() {
+        return new DataCellCache(new TransactionSystem(),
+                MAX_CACHE_SIZE, MAX_CELL_SIZE);
+    }
+
+    private static TObject cell(int row) {
+        return TObject.stringVal("cell value " + row);
+    }
+
+}
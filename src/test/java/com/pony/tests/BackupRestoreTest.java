@@ -0,0 +1,175 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.database.control.DBController;
+import com.pony.database.control.DBSystem;
+import com.pony.database.control.DefaultDBConfig;
+import com.pony.tools.RestoreTool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackupRestoreTest {
+
+    // The rows inserted between each backup step
+    private static final int ROWS = 300;
+
+    // The maximum size of a data file slice
+    private static final long SLICE_SIZE = 16384;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void baseBackupAndArchivedJournalsRestore() throws Exception {
+        Path base = tempDir.resolve("base");
+        Path archive = tempDir.resolve("archive");
+        Files.createDirectories(base);
+
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+        config.setValue("journal_archive_path", archive.toString());
+        // The restore must use the slice and page sizes of the database
+        setLayout(config);
+
+        long base_sequence;
+        long first_sequence;
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "CREATE TABLE backup_test ( id INTEGER, name VARCHAR(100) )");
+            }
+            insertRows(connection, 0);
+            base_sequence = call(connection,
+                    "CALL SYSTEM_MAKE_BASE_BACKUP('" + base + "')");
+
+            insertRows(connection, ROWS);
+            first_sequence = call(connection, "CALL SYSTEM_ARCHIVE_JOURNALS()");
+            assertTrue(first_sequence > base_sequence);
+
+            insertRows(connection, ROWS * 2);
+            // A table that is only in the archived journals
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "CREATE TABLE backup_copy ( id INTEGER, name VARCHAR(100) )");
+                statement.executeUpdate(
+                        "INSERT INTO backup_copy SELECT * FROM backup_test");
+            }
+            assertTrue(call(connection, "CALL SYSTEM_ARCHIVE_JOURNALS()") >
+                    first_sequence);
+        } finally {
+            database.close();
+        }
+
+        // Every archived journal
+        verifyRestore(base, archive, tempDir.resolve("all"), -1, ROWS * 3);
+        // Stop at the journal archived after the second batch of rows
+        verifyRestore(base, archive, tempDir.resolve("first"),
+                first_sequence, ROWS * 2);
+        // Only what makes the base backup consistent
+        verifyRestore(base, archive, tempDir.resolve("consistent"),
+                base_sequence, ROWS);
+
+        // The base backup can't be restored to before it's consistent
+        assertThrows(IOException.class, () -> RestoreTool.restore(
+                base.toFile(), archive.toFile(),
+                tempDir.resolve("early").toFile(), base_sequence - 1));
+    }
+
+    private static void verifyRestore(Path base, Path archive, Path dest,
+                                      long until_sequence, int rows)
+            throws Exception {
+        File dest_data = dest.resolve("data").toFile();
+        RestoreTool.restore(base.toFile(), archive.toFile(), dest_data,
+                until_sequence);
+        // The journals are replayed into slices of the database's size
+        for (File f : dest_data.listFiles()) {
+            assertTrue(f.length() <= SLICE_SIZE, f.getName());
+        }
+
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(dest_data.toString());
+        config.setLogPath(dest.resolve("log").toString());
+        setLayout(config);
+        DBSystem database = DBController.getDefault().startDatabase(config);
+        try (Connection connection = database.getConnection("test", "test");
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT COUNT(*), SUM(id), MAX(id) FROM backup_test")) {
+            assertTrue(result.next());
+            assertEquals(rows, result.getInt(1));
+            assertEquals((long) rows * (rows - 1) / 2, result.getLong(2));
+            assertEquals(rows - 1, result.getInt(3));
+        } finally {
+            database.close();
+        }
+    }
+
+    /**
+     * Sets small data file slices and a table buffer pool with a page size
+     * other than the default.
+     */
+    private static void setLayout(DefaultDBConfig config) {
+        config.setValue("data_file_slice_size", Long.toString(SLICE_SIZE));
+        config.setValue("buffer_pool_pages.table", "64");
+        config.setValue("buffer_pool_page_size.table", "16384");
+    }
+
+    private static void insertRows(Connection connection, int first)
+            throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO backup_test VALUES ( ?, ? )")) {
+            for (int id = first; id < first + ROWS; ++id) {
+                insert.setInt(1, id);
+                insert.setString(2, "row-" + id);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Calls a backup procedure and returns the journal sequence number it
+     * returns.
+     */
+    private static long call(Connection connection, String sql)
+            throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            assertTrue(result.next());
+            return Long.parseLong(result.getString(1));
+        }
+    }
+
+}
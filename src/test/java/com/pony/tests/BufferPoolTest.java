@@ -0,0 +1,87 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.database.control.DBController;
+import com.pony.database.control.DBSystem;
+import com.pony.database.control.DefaultDBConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BufferPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void poolsNeverExceedTheMaximumPages() throws Exception {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+        config.setValue("buffered_io_max_pages", "100");
+        config.setValue("buffer_pool_pages.table", "60");
+        // Only 24 pages are left once the default pool keeps 16
+        config.setValue("buffer_pool_pages.blob", "60");
+        // No pages are left
+        config.setValue("buffer_pool_pages.state", "10");
+
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        database.setDeleteOnClose(true);
+        try (Connection connection = database.getConnection("test", "test")) {
+            Map<String, Integer> pool_pages = poolPages(connection);
+            assertEquals(3, pool_pages.size());
+            assertEquals(60, (int) pool_pages.get("table"));
+            assertEquals(24, (int) pool_pages.get("blob"));
+            assertEquals(16, (int) pool_pages.get("default"));
+        } finally {
+            database.close();
+        }
+    }
+
+    /**
+     * Returns the maximum pages of each buffer pool by name.
+     */
+    private static Map<String, Integer> poolPages(Connection connection)
+            throws Exception {
+        Map<String, Integer> pool_pages = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT stat_name, value FROM SYS_INFO.DatabaseStatistics " +
+                             "WHERE stat_name LIKE 'BufferManager.pool.%.max_pages'")) {
+            while (result.next()) {
+                String name = result.getString(1);
+                pool_pages.put(name.substring("BufferManager.pool.".length(),
+                                name.length() - ".max_pages".length()),
+                        Integer.parseInt(result.getString(2)));
+            }
+        }
+        return pool_pages;
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.database.control.DBController;
+import com.pony.database.control.DBSystem;
+import com.pony.database.control.DefaultDBConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarTableTest {
+
+    // Several segments of 64 rows and a partly filled tail
+    private static final int ROWS = 300;
+
+    // The rows deleted from the table, across a segment boundary
+    private static final int DELETE_FROM = 100;
+    private static final int DELETE_TO = 150;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void columnarTableSurvivesDeleteReopenAndCompact() throws Exception {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+        config.setValue("columnar_segment_rows", "64");
+
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "CREATE TABLE col_test ( id INTEGER, " +
+                                "amount INTEGER INDEX_NONE, name VARCHAR(100) ) " +
+                                "WITH ( storage = 'columnar' )");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO col_test VALUES ( ?, ?, ? )")) {
+                for (int id = 0; id < ROWS; ++id) {
+                    insert.setInt(1, id);
+                    insert.setInt(2, id * 3);
+                    insert.setString(3, name(id));
+                    insert.executeUpdate();
+                }
+            }
+            verifyRows(connection, false);
+
+            try (Statement statement = connection.createStatement()) {
+                assertEquals(DELETE_TO - DELETE_FROM, statement.executeUpdate(
+                        "DELETE FROM col_test WHERE id >= " + DELETE_FROM +
+                                " AND id < " + DELETE_TO));
+            }
+            verifyRows(connection, true);
+        } finally {
+            database.close();
+        }
+
+        database = DBController.getDefault().startDatabase(config);
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyRows(connection, true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("COMPACT TABLE col_test");
+            }
+            verifyRows(connection, true);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void columnarTablesShareSegmentCache() throws Exception {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+        config.setValue("columnar_segment_rows", "64");
+        config.setValue("columnar_cache_size", "1048576");
+
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test")) {
+            // Two tables with the same layout so their segments only differ
+            // by the table in the cache key.
+            for (int multiplier = 3; multiplier <= 7; multiplier += 4) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(
+                            "CREATE TABLE col_" + multiplier + " ( id INTEGER, " +
+                                    "amount INTEGER INDEX_NONE ) " +
+                                    "WITH ( storage = 'columnar' )");
+                }
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO col_" + multiplier + " VALUES ( ?, ? )")) {
+                    for (int id = 0; id < ROWS; ++id) {
+                        insert.setInt(1, id);
+                        insert.setInt(2, id * multiplier);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+
+            long sum = (long) ROWS * (ROWS - 1) / 2;
+            for (int i = 0; i < 3; ++i) {
+                assertEquals(sum * 3, sumAmount(connection, "col_3"));
+                assertEquals(sum * 7, sumAmount(connection, "col_7"));
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(
+                         "SELECT value FROM SYS_INFO.DatabaseStatistics " +
+                                 "WHERE stat_name = 'ColumnarSegmentCache.hits'")) {
+                assertTrue(result.next());
+                assertTrue(Integer.parseInt(result.getString(1)) > 0);
+            }
+        } finally {
+            database.close();
+        }
+    }
+
+    private static long sumAmount(Connection connection, String table)
+            throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT SUM(amount) FROM " + table)) {
+            assertTrue(result.next());
+            return result.getLong(1);
+        }
+    }
+
+    @Test
+    void unknownStorageIsAnError() throws Exception {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test");
+             Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeUpdate(
+                    "CREATE TABLE bad_test ( id INTEGER ) " +
+                            "WITH ( storage = 'unknown' )"));
+            assertThrows(SQLException.class, () -> statement.executeUpdate(
+                    "CREATE TABLE bad_test ( id INTEGER ) " +
+                            "WITH ( compression = 'row' )"));
+        } finally {
+            database.close();
+        }
+    }
+
+    private static boolean isDeleted(int id) {
+        return id >= DELETE_FROM && id < DELETE_TO;
+    }
+
+    private void verifyRows(Connection connection, boolean deleted)
+            throws Exception {
+        long sum = 0;
+        int count = 0;
+        for (int id = 0; id < ROWS; ++id) {
+            if (!deleted || !isDeleted(id)) {
+                sum += id * 3;
+                ++count;
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT COUNT(*), SUM(amount) FROM col_test")) {
+                assertTrue(result.next());
+                assertEquals(count, result.getInt(1));
+                assertEquals(sum, result.getLong(2));
+            }
+
+            // A range on the unindexed column
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT id, name FROM col_test " +
+                            "WHERE amount >= 270 AND amount < 480 ORDER BY id")) {
+                for (int id = 90; id < 160; ++id) {
+                    if (deleted && isDeleted(id)) {
+                        continue;
+                    }
+                    assertTrue(result.next());
+                    assertEquals(id, result.getInt(1));
+                    String name = result.getString(2);
+                    if (name(id) == null) {
+                        assertNull(name);
+                    } else {
+                        assertEquals(name(id), name);
+                    }
+                }
+                assertFalse(result.next());
+            }
+
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT COUNT(*) FROM col_test WHERE amount > 100000")) {
+                assertTrue(result.next());
+                assertEquals(0, result.getInt(1));
+            }
+        }
+    }
+
+    private static String name(int id) {
+        return id % 10 == 0 ? null : "name-" + id;
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.database.control.DBController;
+import com.pony.database.control.DBSystem;
+import com.pony.database.control.DefaultDBConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRecordFormatTest {
+
+    private static final int ROWS = 60;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void cellsSurviveCompactRecords() throws Exception {
+        DBSystem database = createDatabase("v3");
+        try (Connection connection = database.getConnection("test", "test")) {
+            createRows(connection);
+            verifyRows(connection);
+        } finally {
+            database.close();
+        }
+
+        // And when the table is read back from the store
+        database = DBController.getDefault().startDatabase(config("v3"));
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyRows(connection);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void compactTableRewritesV2Records() throws Exception {
+        DBSystem database = createDatabase("v2");
+        try (Connection connection = database.getConnection("test", "test")) {
+            createRows(connection);
+            verifyRows(connection);
+        } finally {
+            database.close();
+        }
+
+        database = DBController.getDefault().startDatabase(config("v3"));
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyRows(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("COMPACT TABLE record_test");
+            }
+            verifyRows(connection);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void compressedRecordsSurviveUpdateAndReopen() throws Exception {
+        DBSystem database = createDatabase("v3");
+        try (Connection connection = database.getConnection("test", "test")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "CREATE TABLE doc_test ( id INTEGER, doc VARCHAR(10000) ) " +
+                                "WITH ( compression = 'deflate', " +
+                                "compression_threshold = '256' )");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO doc_test VALUES ( ?, ? )")) {
+                for (int id = 0; id < ROWS; ++id) {
+                    insert.setInt(1, id);
+                    insert.setString(2, doc(id));
+                    insert.executeUpdate();
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "UPDATE doc_test SET doc = CONCAT(doc, '!') WHERE id < 10");
+                statement.executeUpdate("DELETE FROM doc_test WHERE id >= 50");
+            }
+            verifyDocs(connection);
+        } finally {
+            database.close();
+        }
+
+        database = DBController.getDefault().startDatabase(config("v3"));
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyDocs(connection);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void largeStringsSurviveOutOfRecordStorage() throws Exception {
+        DefaultDBConfig config = config("v3");
+        config.setValue("string_overflow_threshold", "100");
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "CREATE TABLE desc_test ( id INTEGER, " +
+                                "description LONGVARCHAR, code VARCHAR(10) )");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO desc_test VALUES ( ?, ?, ? )")) {
+                for (int id = 0; id < ROWS; ++id) {
+                    insert.setInt(1, id);
+                    insert.setString(2, description(id));
+                    insert.setString(3, "c" + id);
+                    insert.executeUpdate();
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("UPDATE desc_test " +
+                        "SET description = CONCAT(description, '!') WHERE id < 10");
+                statement.executeUpdate("DELETE FROM desc_test WHERE id >= 50");
+            }
+            verifyDescriptions(connection);
+        } finally {
+            database.close();
+        }
+
+        database = DBController.getDefault().startDatabase(config);
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyDescriptions(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("COMPACT TABLE desc_test");
+            }
+            verifyDescriptions(connection);
+        } finally {
+            database.close();
+        }
+    }
+
+    private void verifyDescriptions(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            // The cells before and after the large string
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT id, code FROM desc_test ORDER BY id")) {
+                for (int id = 0; id < 50; ++id) {
+                    assertTrue(result.next());
+                    assertEquals(id, result.getInt(1));
+                    assertEquals("c" + id, result.getString(2));
+                }
+                assertFalse(result.next());
+            }
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT * FROM desc_test ORDER BY id")) {
+                for (int id = 0; id < 50; ++id) {
+                    assertTrue(result.next());
+                    assertEquals(id, result.getInt(1));
+                    String description = description(id);
+                    assertEquals(description == null || id >= 10
+                            ? description : description + "!",
+                            result.getString(2));
+                    assertEquals("c" + id, result.getString(3));
+                }
+                assertFalse(result.next());
+            }
+        }
+    }
+
+    private static String description(int id) {
+        if (id % 7 == 0) {
+            return null;
+        }
+        // Strings either side of the threshold
+        StringBuilder description = new StringBuilder("описание " + id);
+        for (int i = 0; i < id; ++i) {
+            description.append(" word").append(i);
+        }
+        return description.toString();
+    }
+
+    private void verifyDocs(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT id, doc FROM doc_test ORDER BY id")) {
+            for (int id = 0; id < 50; ++id) {
+                assertTrue(result.next());
+                assertEquals(id, result.getInt(1));
+                assertEquals(id < 10 ? doc(id) + "!" : doc(id),
+                        result.getString(2));
+            }
+            assertFalse(result.next());
+        }
+    }
+
+    private static String doc(int id) {
+        // Small documents are stored as is and large ones are compressed
+        StringBuilder doc = new StringBuilder("{\"id\": " + id);
+        for (int i = 0; i < id * 3; ++i) {
+            doc.append(", \"field").append(i).append("\": \"value ").append(i)
+                    .append("\"");
+        }
+        return doc.append("}").toString();
+    }
+
+    private DefaultDBConfig config(String record_format) {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+        config.setValue("record_format", record_format);
+        return config;
+    }
+
+    private DBSystem createDatabase(String record_format) {
+        return DBController.getDefault()
+                .createDatabase(config(record_format), "test", "test");
+    }
+
+    private void createRows(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "CREATE TABLE record_test ( id INTEGER, big BIGINT, " +
+                            "dbl DOUBLE, flag BOOLEAN, ts TIMESTAMP, " +
+                            "name VARCHAR(100), num NUMERIC, bin VARBINARY, " +
+                            "code CHAR(4) )");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO record_test VALUES ( ?, ?, ?, ?, ?, ?, ?, ?, ? )")) {
+            for (int id = 0; id < ROWS; ++id) {
+                insert.setInt(1, id);
+                insert.setObject(2, big(id));
+                insert.setObject(3, dbl(id));
+                insert.setObject(4, flag(id));
+                insert.setTimestamp(5, timestamp(id));
+                insert.setString(6, name(id));
+                insert.setBigDecimal(7, num(id));
+                insert.setBytes(8, bin(id));
+                insert.setString(9, id % 2 == 0 ? null : "c" + id);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private void verifyRows(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT * FROM record_test ORDER BY id")) {
+            for (int id = 0; id < ROWS; ++id) {
+                assertTrue(result.next());
+                assertEquals(id, result.getInt(1));
+                Object big = result.getObject(2);
+                assertEquals(big(id), big == null ? null : ((Number) big).longValue());
+                double dbl = result.getDouble(3);
+                assertEquals(dbl(id), result.wasNull() ? null : dbl);
+                boolean flag = result.getBoolean(4);
+                assertEquals(flag(id), result.wasNull() ? null : flag);
+                assertEquals(timestamp(id), result.getTimestamp(5));
+                assertEquals(name(id), result.getString(6));
+                assertEquals(num(id), result.getBigDecimal(7));
+                assertArrayEquals(bin(id), result.getBytes(8));
+                if (id % 2 == 0) {
+                    assertNull(result.getString(9));
+                } else {
+                    assertEquals(String.format("%-4s", "c" + id),
+                            result.getString(9));
+                }
+            }
+            assertFalse(result.next());
+        }
+    }
+
+    private static Long big(int id) {
+        if (id % 7 == 0) {
+            return null;
+        }
+        // Values that don't fit in the fixed width of the column
+        return id % 5 == 0 ? Long.MAX_VALUE - id : id * 1000003L - 2000000L;
+    }
+
+    private static Double dbl(int id) {
+        return id % 6 == 0 ? null : id * 0.25 - 3;
+    }
+
+    private static Boolean flag(int id) {
+        return id % 4 == 0 ? null : id % 3 == 0;
+    }
+
+    private static Timestamp timestamp(int id) {
+        return id % 9 == 0 ? null : new Timestamp(1600000000123L + id * 1000L);
+    }
+
+    private static String name(int id) {
+        switch (id % 5) {
+            case 0:
+                return null;
+            case 1:
+                return "";
+            case 2:
+                return "café 中文 " + id;
+            case 3:
+                return "emoji 😀 " + id;
+            default:
+                return "name-" + id;
+        }
+    }
+
+    private static BigDecimal num(int id) {
+        return id % 8 == 0 ? null : BigDecimal.valueOf(id * 31L - 900, 2);
+    }
+
+    private static byte[] bin(int id) {
+        if (id % 3 == 0) {
+            return null;
+        }
+        byte[] bin = new byte[id];
+        for (int i = 0; i < id; ++i) {
+            bin[i] = (byte) (i * id);
+        }
+        return bin;
+    }
+
+}
@@ -0,0 +1,380 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.database.control.DBController;
+import com.pony.database.control.DBSystem;
+import com.pony.database.control.DefaultDBConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates a crash by copying the files of a database that is still open
+ * and checks that the copy recovers to the last committed state.
+ */
+class CrashRecoveryTest {
+
+    private static final int TABLES = 4;
+    private static final int ROWS = 200;
+
+    // Rows inserted by the transaction that is never committed
+    private static final int UNCOMMITTED_ROWS = 150;
+
+    // The number of transactions committed before the crash
+    private static final int BATCHES = 5;
+
+    // Rows of incompressible data
+    private static final int BINARY_ROWS = 100;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parallelRecoveryKeepsOnlyCommittedRows() throws Exception {
+        DefaultDBConfig config = config(tempDir.resolve("live"));
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        Connection uncommitted = null;
+        try {
+            try (Connection connection = database.getConnection("test", "test")) {
+                for (int table = 0; table < TABLES; ++table) {
+                    createTable(connection, table);
+                    insertRows(connection, table, 0, ROWS);
+                }
+            }
+            uncommitted = database.getConnection("test", "test");
+            uncommitted.setAutoCommit(false);
+            for (int table = 0; table < TABLES; ++table) {
+                insertRows(uncommitted, table, ROWS, UNCOMMITTED_ROWS);
+            }
+
+            crashCopy(tempDir.resolve("live"), tempDir.resolve("serial"));
+            crashCopy(tempDir.resolve("live"), tempDir.resolve("parallel"));
+        } finally {
+            if (uncommitted != null) {
+                uncommitted.rollback();
+                uncommitted.close();
+            }
+            database.close();
+        }
+
+        verifyRecovered(tempDir.resolve("serial"), "1");
+        verifyRecovered(tempDir.resolve("parallel"), "4");
+    }
+
+    @Test
+    void compressedJournalIsReplayed() throws Exception {
+        DefaultDBConfig config = config(tempDir.resolve("live"));
+        config.setValue("journal_compression", "enabled");
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test")) {
+            // Repetitive rows are logged as compressed entries.  Small changes
+            // and changes to pages of random binary data are logged
+            // uncompressed, so the journals mix both kinds of entry.
+            createTable(connection, 0);
+            insertRows(connection, 0, 0, ROWS);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "CREATE TABLE crash_binary ( id INTEGER, data VARBINARY )");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO crash_binary VALUES ( ?, ? )")) {
+                for (int id = 0; id < BINARY_ROWS; ++id) {
+                    insert.setInt(1, id);
+                    insert.setBytes(2, binary(id));
+                    insert.executeUpdate();
+                }
+            }
+            assertTrue(statistic(connection, "Journal.page_data_writtenKB") <
+                    statistic(connection, "Journal.page_data_loggedKB"));
+
+            crashCopy(tempDir.resolve("live"), tempDir.resolve("crash"));
+        } finally {
+            database.close();
+        }
+
+        config = config(tempDir.resolve("crash"));
+        config.setValue("journal_compression", "enabled");
+        database = DBController.getDefault().startDatabase(config);
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyRows(connection, 0, ROWS);
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(
+                         "SELECT id, data FROM crash_binary ORDER BY id")) {
+                for (int id = 0; id < BINARY_ROWS; ++id) {
+                    assertTrue(result.next());
+                    assertEquals(id, result.getInt(1));
+                    assertArrayEquals(binary(id), result.getBytes(2));
+                }
+                assertFalse(result.next());
+            }
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void backgroundFlushKeepsTransactionsWhole() throws Exception {
+        DefaultDBConfig config = config(tempDir.resolve("live"));
+        config.setValue("checkpoint_flush_rate", "1000000");
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        Connection uncommitted = null;
+        try (Connection connection = database.getConnection("test", "test")) {
+            createTable(connection, 0);
+            // Each batch of rows is committed as one transaction
+            connection.setAutoCommit(false);
+            for (int batch = 0; batch < BATCHES; ++batch) {
+                insertRows(connection, 0, batch * ROWS, ROWS);
+                connection.commit();
+            }
+            int flushed = statistic(connection,
+                    "BufferManager.background_flushed_pages");
+
+            // A transaction that changes the committed rows and adds more is
+            // left open while the background check point writes its dirty
+            // pages to the journal.
+            uncommitted = database.getConnection("test", "test");
+            uncommitted.setAutoCommit(false);
+            try (Statement statement = uncommitted.createStatement()) {
+                statement.executeUpdate("UPDATE crash_0 SET name = 'changed'");
+                statement.executeUpdate("DELETE FROM crash_0 WHERE id < " + ROWS);
+            }
+            insertRows(uncommitted, 0, BATCHES * ROWS, UNCOMMITTED_ROWS);
+            long timeout = System.currentTimeMillis() + 10000;
+            while (statistic(connection,
+                    "BufferManager.background_flushed_pages") <= flushed) {
+                assertTrue(System.currentTimeMillis() < timeout);
+                Thread.sleep(50);
+            }
+
+            crashCopy(tempDir.resolve("live"), tempDir.resolve("crash"));
+        } finally {
+            if (uncommitted != null) {
+                uncommitted.rollback();
+                uncommitted.close();
+            }
+            database.close();
+        }
+
+        database = DBController.getDefault()
+                .startDatabase(config(tempDir.resolve("crash")));
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyRows(connection, 0, BATCHES * ROWS);
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(
+                         "SELECT COUNT(*) FROM crash_0 WHERE name = 'changed'")) {
+                assertTrue(result.next());
+                assertEquals(0, result.getInt(1));
+            }
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void asyncCommitsWithoutGroupCommitAreNotSynchronizedInline()
+            throws Exception {
+        DefaultDBConfig config = config(tempDir.resolve("live"));
+        config.setValue("group_commit", "disabled");
+        // Long enough that the background synchronization doesn't run
+        config.setValue("async_commit_flush_interval", "60000");
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        try (Connection connection = database.getConnection("test", "test")) {
+            createTable(connection, 0);
+        } finally {
+            database.close();
+        }
+
+        // Restart so the commits below aren't followed by a journal cycle
+        database = DBController.getDefault().startDatabase(config);
+        try (Connection connection = database.getConnection("test", "test")) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET COMMIT ASYNC");
+            }
+            connection.commit();
+            int synchs = statistic(connection, "Journal.check_point_synchs");
+            for (int batch = 0; batch < BATCHES; ++batch) {
+                insertRows(connection, 0, batch * 10, 10);
+                connection.commit();
+            }
+            assertEquals(synchs,
+                    statistic(connection, "Journal.check_point_synchs"));
+
+            // A synchronous commit is synchronized before it returns
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET COMMIT SYNC");
+            }
+            insertRows(connection, 0, BATCHES * 10, 10);
+            connection.commit();
+            assertTrue(statistic(connection, "Journal.check_point_synchs") >
+                    synchs);
+
+            crashCopy(tempDir.resolve("live"), tempDir.resolve("crash"));
+        } finally {
+            database.close();
+        }
+
+        database = DBController.getDefault()
+                .startDatabase(config(tempDir.resolve("crash")));
+        try (Connection connection = database.getConnection("test", "test")) {
+            verifyRows(connection, 0, (BATCHES + 1) * 10);
+        } finally {
+            database.close();
+        }
+    }
+
+    private void verifyRecovered(Path root, String recovery_threads)
+            throws Exception {
+        DefaultDBConfig config = config(root);
+        config.setValue("journal_recovery_threads", recovery_threads);
+        DBSystem database = DBController.getDefault().startDatabase(config);
+        try (Connection connection = database.getConnection("test", "test")) {
+            for (int table = 0; table < TABLES; ++table) {
+                verifyRows(connection, table, ROWS);
+            }
+        } finally {
+            database.close();
+        }
+    }
+
+    private static byte[] binary(int id) {
+        byte[] data = new byte[1000];
+        new Random(id).nextBytes(data);
+        return data;
+    }
+
+    static int statistic(Connection connection, String name)
+            throws Exception {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT value FROM SYS_INFO.DatabaseStatistics " +
+                        "WHERE stat_name = ?")) {
+            select.setString(1, name);
+            try (ResultSet result = select.executeQuery()) {
+                assertTrue(result.next());
+                return Integer.parseInt(result.getString(1));
+            }
+        }
+    }
+
+    static DefaultDBConfig config(Path root) {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(root.resolve("data").toString());
+        config.setLogPath(root.resolve("log").toString());
+        return config;
+    }
+
+    static void createTable(Connection connection, int table)
+            throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE crash_" + table +
+                    " ( id INTEGER, name VARCHAR(100) )");
+        }
+    }
+
+    static void insertRows(Connection connection, int table,
+                           int first, int count) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO crash_" + table + " VALUES ( ?, ? )")) {
+            for (int id = first; id < first + count; ++id) {
+                insert.setInt(1, id);
+                insert.setString(2, "row-" + table + "-" + id);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Checks the table holds exactly the rows 0 to count - 1.
+     */
+    static void verifyRows(Connection connection, int table, int count)
+            throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT COUNT(*), SUM(id), MAX(id) FROM crash_" + table)) {
+            assertTrue(result.next());
+            assertEquals(count, result.getInt(1));
+            assertEquals((long) count * (count - 1) / 2, result.getLong(2));
+            assertEquals(count - 1, result.getInt(3));
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT name FROM crash_" + table + " WHERE id = " +
+                             (count / 2))) {
+            assertTrue(result.next());
+            assertEquals("row-" + table + "-" + (count / 2),
+                    result.getString(1));
+        }
+    }
+
+    /**
+     * Copies the files of an open database as they would be found after the
+     * process was killed.  The journals are copied before the data files so
+     * that anything the data files are missing is still in the copied
+     * journals.
+     */
+    static void crashCopy(Path from, Path to) throws Exception {
+        // Give the background threads the chance to go quiet
+        Thread.sleep(500);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(from)) {
+            files = new ArrayList<>(walk.filter(Files::isRegularFile).toList());
+        }
+        files.sort((a, b) -> Boolean.compare(!isJournal(a), !isJournal(b)));
+        for (Path file : files) {
+            Path target = to.resolve(from.relativize(file));
+            Files.createDirectories(target.getParent());
+            copy(file, target);
+        }
+        Files.createDirectories(to.resolve("log"));
+    }
+
+    private static boolean isJournal(Path file) {
+        return file.getFileName().toString().startsWith("jnl");
+    }
+
+    private static void copy(Path file, Path target) throws IOException {
+        try {
+            Files.copy(file, target);
+        } catch (java.nio.file.NoSuchFileException e) {
+            // A journal was persisted and deleted during the copy
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.database.control.DBController;
+import com.pony.database.control.DBSystem;
+import com.pony.database.control.DefaultDBConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void cachedPlansBindParametersOnEachExecution() throws Exception {
+        DBSystem database = createDatabase();
+        try (Connection connection = database.getConnection("test", "test")) {
+            createRows(connection);
+
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT name, ? FROM plan_test WHERE id = ?")) {
+                for (int id = 1; id <= 20; ++id) {
+                    select.setString(1, "tag-" + id);
+                    select.setInt(2, id);
+                    try (ResultSet result = select.executeQuery()) {
+                        assertTrue(result.next());
+                        assertEquals("row-" + id, result.getString(1));
+                        assertEquals("tag-" + id, result.getString(2));
+                    }
+                }
+            }
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT COUNT(*) FROM plan_test WHERE id IN " +
+                            "( SELECT id FROM plan_test WHERE id < ? )")) {
+                for (int id = 2; id <= 10; ++id) {
+                    select.setInt(1, id);
+                    assertEquals(id - 1, singleInt(select));
+                }
+            }
+
+            assertTrue(statistic(connection, "QueryPlanCache.hits") >= 27);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void schemaChangesInvalidateCachedPlans() throws Exception {
+        DBSystem database = createDatabase();
+        try (Connection connection = database.getConnection("test", "test");
+             Connection other = database.getConnection("test", "test")) {
+            createRows(connection);
+
+            String sql = "SELECT * FROM plan_test WHERE id = 3";
+            assertEquals(2, columnCount(connection, sql));
+            assertEquals(2, columnCount(connection, sql));
+
+            try (Statement statement = other.createStatement()) {
+                statement.executeUpdate(
+                        "ALTER TABLE plan_test ADD COLUMN extra INTEGER DEFAULT 7");
+            }
+            assertEquals(3, columnCount(connection, sql));
+
+            // A transaction keeps the schema it started with.
+            connection.setAutoCommit(false);
+            assertEquals(3, columnCount(connection, sql));
+            try (Statement statement = other.createStatement()) {
+                statement.executeUpdate(
+                        "ALTER TABLE plan_test DROP COLUMN extra");
+            }
+            assertEquals(3, columnCount(connection, sql));
+            connection.commit();
+            assertEquals(2, columnCount(connection, sql));
+            connection.setAutoCommit(true);
+
+            assertTrue(statistic(connection, "QueryPlanCache.invalidations") >= 2);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    void statementCacheCountsOneLookupPerExecution() throws Exception {
+        DBSystem database = createDatabase();
+        try (Connection connection = database.getConnection("test", "test")) {
+            createRows(connection);
+
+            int misses = statistic(connection, "StatementCache.misses");
+            int hits = statistic(connection, "StatementCache.hits");
+            // An UPDATE isn't plan cached so it's looked up in the statement
+            // cache every time it's executed.
+            try (Statement statement = connection.createStatement()) {
+                for (int i = 0; i < 3; ++i) {
+                    statement.executeUpdate(
+                            "UPDATE plan_test SET name = 'none' WHERE id = 99");
+                }
+            }
+            assertEquals(misses + 1,
+                    statistic(connection, "StatementCache.misses"));
+            assertEquals(hits + 2,
+                    statistic(connection, "StatementCache.hits"));
+        } finally {
+            database.close();
+        }
+    }
+
+    private DBSystem createDatabase() {
+        DefaultDBConfig config = new DefaultDBConfig();
+        config.setDatabasePath(tempDir.resolve("data").toString());
+        config.setLogPath(tempDir.resolve("log").toString());
+
+        DBSystem database = DBController.getDefault()
+                .createDatabase(config, "test", "test");
+        database.setDeleteOnClose(true);
+        return database;
+    }
+
+    private void createRows(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "CREATE TABLE plan_test ( id INTEGER, name VARCHAR(64) )");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO plan_test ( id, name ) VALUES ( ?, ? )")) {
+            for (int id = 1; id <= 20; ++id) {
+                insert.setInt(1, id);
+                insert.setString(2, "row-" + id);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private int singleInt(PreparedStatement select) throws Exception {
+        try (ResultSet result = select.executeQuery()) {
+            assertTrue(result.next());
+            return result.getInt(1);
+        }
+    }
+
+    private int columnCount(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            return result.getMetaData().getColumnCount();
+        }
+    }
+
+    private int statistic(Connection connection, String name) throws Exception {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT value FROM SYS_INFO.DatabaseStatistics " +
+                        "WHERE stat_name = ?")) {
+            select.setString(1, name);
+            try (ResultSet result = select.executeQuery()) {
+                assertTrue(result.next());
+                return Integer.parseInt(result.getString(1));
+            }
+        }
+    }
+}
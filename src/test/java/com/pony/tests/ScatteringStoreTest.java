@@ -0,0 +1,161 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.store.ScatteringStoreDataAccessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScatteringStoreTest {
+
+    private static final long SLICE_SIZE = 64 * 1024;
+    private static final long PREALLOCATION = 256 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void unclosedStoreReopensAtEndMarker() throws Exception {
+        File dir = tempDir.toFile();
+        ScatteringStoreDataAccessor store = new ScatteringStoreDataAccessor(
+                dir, "test", "pds", 1024 * 1024, PREALLOCATION, false);
+        store.open(false);
+        try {
+            store.setSize(10000);
+            store.write(0, data(0, 10000), 0, 10000);
+            store.synch();
+            // Grown within the preallocated space but not synchronized
+            store.setSize(20000);
+
+            // Reopen the files without closing the store, as after a crash
+            File first = new File(dir, "test.pds");
+            File end = new File(dir, "test.end");
+            assertTrue(end.exists());
+            assertEquals(10000, readEndMarker(end));
+            assertTrue(first.length() > 20000);
+
+            ScatteringStoreDataAccessor reopened =
+                    new ScatteringStoreDataAccessor(
+                            dir, "test", "pds", 1024 * 1024, PREALLOCATION, false);
+            assertEquals(10000, reopened.getSize());
+            reopened.open(false);
+            assertEquals(10000, reopened.getSize());
+            assertArrayEquals(data(0, 10000), read(reopened, 0, 10000));
+            reopened.close();
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void cleanCloseTrimsPreallocation() throws Exception {
+        File dir = tempDir.toFile();
+        File first = new File(dir, "test.pds");
+        File end = new File(dir, "test.end");
+
+        ScatteringStoreDataAccessor store = new ScatteringStoreDataAccessor(
+                dir, "test", "pds", 1024 * 1024, PREALLOCATION, false);
+        store.open(false);
+        store.setSize(30000);
+        store.write(0, data(0, 30000), 0, 30000);
+        store.synch();
+        assertTrue(first.length() > 30000);
+        assertTrue(end.exists());
+        store.close();
+
+        assertEquals(30000, first.length());
+        assertFalse(end.exists());
+
+        store.open(false);
+        assertEquals(30000, store.getSize());
+        assertArrayEquals(data(0, 30000), read(store, 0, 30000));
+        store.close();
+    }
+
+    @Test
+    void existingSlicesKeepTheirSize() throws Exception {
+        File dir = tempDir.toFile();
+        int size = 150000;
+        ScatteringStoreDataAccessor store = new ScatteringStoreDataAccessor(
+                dir, "test", "pds", SLICE_SIZE, false);
+        store.open(false);
+        store.setSize(size);
+        store.write(0, data(0, size), 0, size);
+        store.close();
+        assertEquals(SLICE_SIZE, new File(dir, "test.pds").length());
+        assertEquals(SLICE_SIZE, new File(dir, "test.001").length());
+        assertEquals(size - 2 * SLICE_SIZE, new File(dir, "test.002").length());
+
+        // A larger 'data_file_slice_size' doesn't change the existing layout
+        store = new ScatteringStoreDataAccessor(
+                dir, "test", "pds", 1024 * 1024, PREALLOCATION, false);
+        store.open(false);
+        assertEquals(size, store.getSize());
+        assertArrayEquals(data(0, size), read(store, 0, size));
+
+        int new_size = 250000;
+        store.setSize(new_size);
+        store.write(size, data(size, new_size - size), 0, new_size - size);
+        store.close();
+        assertEquals(SLICE_SIZE, new File(dir, "test.002").length());
+        assertEquals(new_size - 3 * SLICE_SIZE,
+                new File(dir, "test.003").length());
+
+        store.open(false);
+        assertEquals(new_size, store.getSize());
+        assertArrayEquals(data(0, new_size), read(store, 0, new_size));
+        store.close();
+    }
+
+    /**
+     * Returns a pattern that depends on the position of each byte.
+     */
+    private static byte[] data(long position, int length) {
+        byte[] buf = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            long p = position + i;
+            buf[i] = (byte) (p ^ (p >>> 8) ^ (p >>> 16));
+        }
+        return buf;
+    }
+
+    private static byte[] read(ScatteringStoreDataAccessor store,
+                               long position, int length) throws Exception {
+        byte[] buf = new byte[length];
+        store.read(position, buf, 0, length);
+        return buf;
+    }
+
+    private static long readEndMarker(File end) throws Exception {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(end))) {
+            return in.readLong();
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Pony SQL Database ( http://i-devel.ru )
+ * Copyright (C) 2019-2020 IllayDevel.
+ * SPDX-License-Identifier: GPL-2.0-only
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as
+ * published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.pony.tests;
+
+import com.pony.debug.DefaultDebugLogger;
+import com.pony.debug.Lvl;
+import com.pony.store.Area;
+import com.pony.store.AreaWriter;
+import com.pony.store.JournalledFileStore;
+import com.pony.store.LoggingBufferManager;
+import com.pony.util.ShellUserTerminal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreBinChainTest {
+
+    private static final int OPERATIONS = 5000;
+    private static final int LIVE_AREAS = 400;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void binChainsMatchRebuiltBinsAfterChurn() throws Exception {
+        LoggingBufferManager buffer_manager = createBufferManager();
+        buffer_manager.start();
+        try {
+            JournalledFileStore store = new JournalledFileStore(
+                    "churn", buffer_manager, false);
+            store.open();
+
+            // Create and delete areas of mixed sizes so areas are split,
+            // coalesced and recycled through the bins.
+            Random random = new Random(17);
+            ArrayList<Long> live = new ArrayList<>();
+            store.lockForWrite();
+            try {
+                for (int i = 0; i < OPERATIONS; ++i) {
+                    if (live.size() < LIVE_AREAS && random.nextInt(3) != 0 ||
+                            live.isEmpty()) {
+                        live.add(createArea(store, random));
+                    } else {
+                        store.deleteArea(
+                                live.remove(random.nextInt(live.size())));
+                    }
+                }
+            } finally {
+                store.unlockForWrite();
+            }
+            List<List<Long>> chains = store.getBinChains();
+            assertTrue(countAreas(chains) > 0);
+            verifyAreas(store, live);
+            buffer_manager.setCheckPoint(true);
+            store.close();
+
+            // Chains loaded from the store are the same as the ones that were
+            // kept in memory.
+            store.open();
+            assertEquals(chains, store.getBinChains());
+            verifyAreas(store, live);
+            store.close();
+
+            // Rebuilding the bins from a scan of the areas finds the same free
+            // areas in the same bins.
+            store.openScanAndFix(new ShellUserTerminal());
+            List<List<Long>> rebuilt = store.getBinChains();
+            assertEquals(chains.size(), rebuilt.size());
+            for (int i = 0; i < chains.size(); ++i) {
+                assertEquals(new HashSet<>(chains.get(i)),
+                        new HashSet<>(rebuilt.get(i)));
+            }
+            verifyAreas(store, live);
+            store.close();
+        } finally {
+            buffer_manager.stop();
+        }
+    }
+
+    private LoggingBufferManager createBufferManager() {
+        DefaultDebugLogger debug = new DefaultDebugLogger();
+        debug.setDebugLevel(Lvl.ERROR);
+        File path = tempDir.toFile();
+        return new LoggingBufferManager(path, path, false, 64, 8192, null,
+                false, "pds", 16384L * 65536L, false, debug, true);
+    }
+
+    /**
+     * Allocates an area of a random size (mostly small with some larger ones)
+     * filled with content derived from its size.
+     */
+    private static long createArea(JournalledFileStore store, Random random)
+            throws Exception {
+        int size = random.nextInt(10) == 0 ? 512 + random.nextInt(8192)
+                                           : 16 + random.nextInt(240);
+        AreaWriter writer = store.createArea(size);
+        writer.putInt(size);
+        writer.put(content(size), 0, size - 4);
+        writer.finish();
+        return writer.getID();
+    }
+
+    private static byte[] content(int size) {
+        byte[] buf = new byte[size - 4];
+        for (int i = 0; i < buf.length; ++i) {
+            buf[i] = (byte) (size + i);
+        }
+        return buf;
+    }
+
+    /**
+     * Checks every live area is intact and no other area is allocated.
+     */
+    private static void verifyAreas(JournalledFileStore store,
+                                    ArrayList<Long> live) throws Exception {
+        assertEquals(0, store.findAllocatedAreasNotIn(
+                new ArrayList<>(live)).size());
+        assertEquals(live.size(), store.getAllAreas().size());
+        for (long pointer : live) {
+            // The area is at least as big as requested, and the size
+            // requested is stored in the first bytes.
+            Area area = store.getArea(pointer);
+            int size = area.getInt();
+            assertTrue(size <= area.capacity());
+            byte[] buf = new byte[size - 4];
+            area.get(buf, 0, buf.length);
+            assertArrayEquals(content(size), buf);
+        }
+    }
+
+    private static int countAreas(List<List<Long>> chains) {
+        int count = 0;
+        for (List<Long> chain : chains) {
+            count += chain.size();
+        }
+        return count;
+    }
+
+}